@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tla2sany.modanalyzer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import tla2sany.drivers.SANY;
+import tla2sany.parser.CachedParseTree;
+import tla2sany.st.ParseTree;
+import tlc2.TLCGlobals;
+import util.ToolIO;
+
+/**
+ * A persistent cache of the parse trees of modules. An entry is stored under
+ * the SHA-256 of a module file's content in the compact form of
+ * {@link CachedParseTree}, and it is tied to the version of SANY and TLC that
+ * wrote it.
+ * <p>
+ * The parse tree of a file depends only on the file's content. Semantic
+ * analysis and level-checking are not cached, but rerun on the cached trees.
+ * Thus, a change to a module that another module EXTENDS or INSTANCEs is
+ * always honored without tracking dependencies. Only successfully parsed
+ * files are cached.
+ * <p>
+ * Any problem reading or writing the cache is reported and otherwise ignored,
+ * i.e., SANY falls back to parsing the file.
+ */
+final class ParseTreeCache {
+
+	/**
+	 * Activate with -Dtla2sany.modanalyzer.ParseTreeCache.dir=/path/to/cache/dir
+	 */
+	static final String DIR_KEY = ParseTreeCache.class.getName() + ".dir";
+
+	private static final String VERSION = SANY.version + TLCGlobals.getRevisionOrDev();
+
+	private static final String SUFFIX = ".stn";
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final Path entry;
+
+	private ParseTreeCache(final Path entry) {
+		this.entry = entry;
+	}
+
+	/**
+	 * @return The cache entry of the given module file or null if the cache is
+	 *         not active.
+	 */
+	static ParseTreeCache of(final File source) {
+		final String dir = System.getProperty(DIR_KEY);
+		if (dir == null || source == null) {
+			return null;
+		}
+		try {
+			final MessageDigest md = MessageDigest.getInstance("SHA-256");
+			try (InputStream in = new FileInputStream(source)) {
+				final byte[] buf = new byte[BUFFER_SIZE];
+				int n;
+				while ((n = in.read(buf)) != -1) {
+					md.update(buf, 0, n);
+				}
+			}
+			final byte[] digest = md.digest();
+			final StringBuilder key = new StringBuilder(digest.length * 2);
+			for (int i = 0; i < digest.length; i++) {
+				key.append(String.format("%02x", digest[i]));
+			}
+			return new ParseTreeCache(new File(dir).toPath().resolve(key + SUFFIX));
+		} catch (IOException | NoSuchAlgorithmException e) {
+			report("hash " + source, e);
+			return null;
+		}
+	}
+
+	/**
+	 * @return The cached parse tree or null if there is none.
+	 */
+	ParseTree load() {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry), BUFFER_SIZE))) {
+			if (!VERSION.equals(in.readUTF())) {
+				return null;
+			}
+			return CachedParseTree.read(in);
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException | RuntimeException e) {
+			report("read " + entry, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Stores the tree of a successfully parsed module. The entry is written to a
+	 * temporary file first, so that concurrent runs never see a partial entry.
+	 */
+	void store(final ParseTree parseTree) {
+		Path tmp = null;
+		try {
+			Files.createDirectories(entry.getParent());
+			tmp = Files.createTempFile(entry.getParent(), entry.getFileName().toString(), ".tmp");
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), BUFFER_SIZE))) {
+				out.writeUTF(VERSION);
+				CachedParseTree.write(parseTree, out);
+			}
+			try {
+				Files.move(tmp, entry, StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			report("write " + entry, e);
+			if (tmp != null) {
+				tmp.toFile().delete();
+			}
+		}
+	}
+
+	private static void report(final String what, final Exception e) {
+		ToolIO.out.println(String.format("Parse tree cache: failed to %s: %s", what, e));
+	}
+}
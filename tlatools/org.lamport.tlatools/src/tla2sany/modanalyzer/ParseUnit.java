@@ -300,12 +300,22 @@ public class ParseUnit {
         boolean parseSuccess; 
         try 
         {
-            // create parser object
-            parseTree = new tla2sany.parser.TLAplusParser(nis);
-
-            // Here is the one true REAL call to the parseTree.parse() for a file;
-            // The root node of the parse tree is left in parseTree.
-            parseSuccess = parseTree.parse();
+            // Reuse the parse tree of an unchanged file (see ParseTreeCache)
+            final ParseTreeCache cache = ParseTreeCache.of(nis.sourceFile());
+            parseTree = cache != null ? cache.load() : null;
+            if (parseTree != null) {
+                parseSuccess = true;
+            } else {
+                // create parser object
+                parseTree = new tla2sany.parser.TLAplusParser(nis);
+
+                // Here is the one true REAL call to the parseTree.parse() for a file;
+                // The root node of the parse tree is left in parseTree.
+                parseSuccess = parseTree.parse();
+                if (parseSuccess && cache != null) {
+                    cache.store(parseTree);
+                }
+            }
 
             // set the parse time stamp
             parseStamp = System.currentTimeMillis();
@@ -0,0 +1,375 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tla2sany.parser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import tla2sany.st.ParseTree;
+import tla2sany.st.TreeNode;
+import util.UniqueString;
+
+/**
+ * A {@link ParseTree} that was read back from the compact binary form written
+ * by {@link #write(ParseTree, DataOutputStream)}. Its tree is identical to the
+ * one {@link TLAplusParser} built: same kinds, images, locations, comments,
+ * heirs and node sharing.
+ * <p>
+ * The format is a string table followed by the module name, the dependencies
+ * and the nodes in pre-order. Each string (module name, dependencies, images,
+ * file names and comments) is written once and then referenced by its index.
+ * A node that occurs more than once in the tree is written once and then
+ * referenced by its index, too. A node starts with a byte of flags that tell
+ * which of its optional parts follow, its line numbers are written relative to
+ * the previous node's, and all integers are written as variable-length
+ * quantities. This takes about 12 bytes per node.
+ */
+public final class CachedParseTree implements ParseTree {
+
+	// The first byte of a node. A node that is neither null nor shared has the
+	// NODE bit set and further bits for its optional parts.
+	private static final int NULL = 0;
+	private static final int SHARED = 1;
+	private static final int NODE = 1 << 1;
+	private static final int ORIGINAL_IMAGE = 1 << 2;
+	private static final int COMMENTS = 1 << 3;
+	private static final int ZERO_NULL = 1 << 4;
+	private static final int ZERO_EMPTY = 1 << 5;
+	private static final int ONE_NULL = 1 << 6;
+	private static final int ONE_EMPTY = 1 << 7;
+
+	private final String moduleName;
+	private final String[] dependencies;
+	private final SyntaxTreeNode root;
+
+	private CachedParseTree(final String moduleName, final String[] dependencies, final SyntaxTreeNode root) {
+		this.moduleName = moduleName;
+		this.dependencies = dependencies;
+		this.root = root;
+	}
+
+	@Override
+	public String[] dependencies() {
+		return dependencies.clone();
+	}
+
+	@Override
+	public TreeNode rootNode() {
+		return root;
+	}
+
+	@Override
+	public String moduleName() {
+		return moduleName;
+	}
+
+	/**
+	 * The tree has been parsed successfully before it was written.
+	 */
+	@Override
+	public boolean parse() {
+		return true;
+	}
+
+	/**
+	 * Writes the tree of a successfully parsed {@link ParseTree} to out.
+	 */
+	public static void write(final ParseTree pt, final DataOutputStream out) throws IOException {
+		final Writer w = new Writer();
+		writeInt(w.nodes, w.string(pt.moduleName()));
+		final String[] deps = pt.dependencies();
+		writeInt(w.nodes, deps.length);
+		for (int i = 0; i < deps.length; i++) {
+			writeInt(w.nodes, w.string(deps[i]));
+		}
+		w.node((SyntaxTreeNode) pt.rootNode());
+
+		// The string table is complete only after the nodes have been encoded,
+		// but it has to be read first.
+		writeInt(out, w.strings.size());
+		for (final String s : w.strings) {
+			final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			writeInt(out, bytes.length);
+			out.write(bytes);
+		}
+		w.nodes.writeTo(out);
+	}
+
+	/**
+	 * Reads a tree written by {@link #write(ParseTree, DataOutputStream)}.
+	 *
+	 * @throws IOException if in is truncated or not in this format.
+	 */
+	public static CachedParseTree read(final DataInputStream in) throws IOException {
+		final int n = length(in);
+		final String[] strings = new String[n];
+		for (int i = 0; i < n; i++) {
+			final byte[] bytes = new byte[length(in)];
+			in.readFully(bytes);
+			strings[i] = new String(bytes, StandardCharsets.UTF_8);
+		}
+		final Reader r = new Reader(in, strings);
+		final String moduleName = r.string();
+		final String[] deps = new String[length(in)];
+		for (int i = 0; i < deps.length; i++) {
+			deps[i] = r.string();
+		}
+		final SyntaxTreeNode root = r.node();
+		if (root == null) {
+			throw new IOException("No root node");
+		}
+		return new CachedParseTree(moduleName, deps, root);
+	}
+
+	/**
+	 * Writes v, which is treated as unsigned, in 7-bit groups, least
+	 * significant first.
+	 */
+	private static void writeInt(final OutputStream out, int v) throws IOException {
+		while ((v & ~0x7F) != 0) {
+			out.write((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		out.write(v);
+	}
+
+	private static int readInt(final DataInputStream in) throws IOException {
+		int v = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			final int b = in.readUnsignedByte();
+			v |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return v;
+			}
+		}
+		throw new IOException("Malformed integer");
+	}
+
+	/**
+	 * Maps small negative and positive differences to small unsigned values.
+	 */
+	private static int zigZag(final int v) {
+		return (v << 1) ^ (v >> 31);
+	}
+
+	private static int unZigZag(final int v) {
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	private static int length(final DataInputStream in) throws IOException {
+		final int n = readInt(in);
+		if (n < 0) {
+			throw new IOException("Bad length " + n);
+		}
+		return n;
+	}
+
+	private static final class Bytes extends ByteArrayOutputStream {
+		Bytes() {
+			super(1 << 16);
+		}
+
+		void writeTo(final DataOutputStream out) throws IOException {
+			out.write(buf, 0, count);
+		}
+	}
+
+	private static final class Writer {
+		private final Map<String, Integer> index = new HashMap<>();
+		private final List<String> strings = new ArrayList<>();
+		private final Map<SyntaxTreeNode, Integer> seen = new IdentityHashMap<>();
+		private final Bytes nodes = new Bytes();
+		// The begin line of the previously written node.
+		private int line;
+
+		/**
+		 * Adds s to the string table and returns its index + 1, with 0 meaning
+		 * null.
+		 */
+		int string(final String s) {
+			if (s == null) {
+				return 0;
+			}
+			Integer i = index.get(s);
+			if (i == null) {
+				i = strings.size();
+				strings.add(s);
+				index.put(s, i);
+			}
+			return i + 1;
+		}
+
+		int string(final UniqueString s) {
+			return s == null ? 0 : string(s.toString());
+		}
+
+		void node(final SyntaxTreeNode n) throws IOException {
+			if (n == null) {
+				writeInt(nodes, NULL);
+				return;
+			}
+			final Integer shared = seen.get(n);
+			if (shared != null) {
+				writeInt(nodes, SHARED);
+				writeInt(nodes, shared);
+				return;
+			}
+			final String[] comments = n.getPreComments();
+			int flags = NODE;
+			flags |= n.originalImage != null ? ORIGINAL_IMAGE : 0;
+			flags |= comments.length > 0 ? COMMENTS : 0;
+			flags |= n.zero == null ? ZERO_NULL : n.zero.length == 0 ? ZERO_EMPTY : 0;
+			flags |= n.one == null ? ONE_NULL : n.one.length == 0 ? ONE_EMPTY : 0;
+			nodes.write(flags);
+
+			writeInt(nodes, n.kind);
+			writeInt(nodes, string(n.image));
+			if (n.originalImage != null) {
+				writeInt(nodes, string(n.originalImage));
+			}
+			writeInt(nodes, string(n.getFN()));
+			writeInt(nodes, zigZag(n.location[0] - line));
+			writeInt(nodes, n.location[1]);
+			writeInt(nodes, zigZag(n.location[2] - n.location[0]));
+			writeInt(nodes, n.location[3]);
+			line = n.location[0];
+			if (comments.length > 0) {
+				writeInt(nodes, comments.length);
+				for (int i = 0; i < comments.length; i++) {
+					writeInt(nodes, string(comments[i]));
+				}
+			}
+			heirs(n.zero);
+			heirs(n.one);
+			// A node gets its id once its heirs are written, which is when the
+			// reader has created it.
+			seen.put(n, seen.size());
+		}
+
+		private void heirs(final SyntaxTreeNode[] heirs) throws IOException {
+			if (heirs == null || heirs.length == 0) {
+				return;
+			}
+			writeInt(nodes, heirs.length);
+			for (int i = 0; i < heirs.length; i++) {
+				node(heirs[i]);
+			}
+		}
+	}
+
+	private static final class Reader {
+		private final DataInputStream in;
+		private final String[] strings;
+		private final UniqueString[] unique;
+		private final List<SyntaxTreeNode> seen = new ArrayList<>();
+		private int line;
+
+		Reader(final DataInputStream in, final String[] strings) {
+			this.in = in;
+			this.strings = strings;
+			this.unique = new UniqueString[strings.length];
+		}
+
+		String string() throws IOException {
+			final int i = index();
+			return i == 0 ? null : strings[i - 1];
+		}
+
+		UniqueString uniqueString() throws IOException {
+			final int i = index();
+			if (i == 0) {
+				return null;
+			}
+			if (unique[i - 1] == null) {
+				unique[i - 1] = UniqueString.uniqueStringOf(strings[i - 1]);
+			}
+			return unique[i - 1];
+		}
+
+		SyntaxTreeNode node() throws IOException {
+			final int flags = in.readUnsignedByte();
+			if (flags == NULL) {
+				return null;
+			} else if (flags == SHARED) {
+				final int id = readInt(in);
+				if (id < 0 || id >= seen.size()) {
+					throw new IOException("Bad node reference " + id);
+				}
+				return seen.get(id);
+			} else if ((flags & NODE) == 0) {
+				throw new IOException("Bad node flags " + flags);
+			}
+			final int kind = readInt(in);
+			final UniqueString image = uniqueString();
+			final UniqueString originalImage = (flags & ORIGINAL_IMAGE) != 0 ? uniqueString() : null;
+			final UniqueString fileName = uniqueString();
+			final int[] location = new int[4];
+			location[0] = line + unZigZag(readInt(in));
+			location[1] = readInt(in);
+			location[2] = location[0] + unZigZag(readInt(in));
+			location[3] = readInt(in);
+			line = location[0];
+			final String[] comments = new String[(flags & COMMENTS) != 0 ? length(in) : 0];
+			for (int i = 0; i < comments.length; i++) {
+				comments[i] = string();
+			}
+			final SyntaxTreeNode[] zero = heirs(flags, ZERO_NULL, ZERO_EMPTY);
+			final SyntaxTreeNode[] one = heirs(flags, ONE_NULL, ONE_EMPTY);
+			final SyntaxTreeNode n = new SyntaxTreeNode(kind, image, originalImage, fileName, location, comments,
+					zero, one);
+			seen.add(n);
+			return n;
+		}
+
+		private SyntaxTreeNode[] heirs(final int flags, final int isNull, final int isEmpty) throws IOException {
+			if ((flags & isNull) != 0) {
+				return null;
+			}
+			final SyntaxTreeNode[] heirs = new SyntaxTreeNode[(flags & isEmpty) != 0 ? 0 : length(in)];
+			for (int i = 0; i < heirs.length; i++) {
+				heirs[i] = node();
+			}
+			return heirs;
+		}
+
+		private int index() throws IOException {
+			final int i = readInt(in);
+			if (i < 0 || i > strings.length) {
+				throw new IOException("Bad string index " + i);
+			}
+			return i;
+		}
+	}
+}
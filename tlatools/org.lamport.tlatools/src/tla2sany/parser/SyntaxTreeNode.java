@@ -257,6 +257,21 @@ public class SyntaxTreeNode implements TreeNode, SyntaxTreeConstants,
     updateLocation();
   }
 
+  // This constructor is used only by CachedParseTree to restore a node
+  // exactly as the parser built it.
+  SyntaxTreeNode(int kind, UniqueString image, UniqueString originalImage,
+                 UniqueString fn, int[] location, String[] preComment,
+                 SyntaxTreeNode[] zero, SyntaxTreeNode[] one) {
+    this.kind = kind;
+    this.image = image;
+    this.originalImage = originalImage;
+    this.fileName = fn;
+    this.location = location;
+    this.preComment = preComment.length == 0 ? ns : preComment;
+    this.zero = zero != null && zero.length == 0 ? nullArray : zero;
+    this.one = one != null && one.length == 0 ? nullArray : one;
+  }
+
 
   public SyntaxTreeNode(int kind, SyntaxTreeNode a, SyntaxTreeNode b, 
                         SyntaxTreeNode c) {
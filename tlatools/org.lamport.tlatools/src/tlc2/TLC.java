@@ -36,6 +36,7 @@ import tlc2.tool.ITool;
 import tlc2.tool.ModelChecker;
 import tlc2.tool.Simulator;
 import tlc2.tool.SingleThreadedSimulator;
+import tlc2.tool.coverage.CostModelCreator;
 import tlc2.tool.fp.FPSet;
 import tlc2.tool.fp.FPSetConfiguration;
 import tlc2.tool.fp.FPSetFactory;
@@ -1248,6 +1249,11 @@ public class TLC {
 				teSpec.generate(this.tool);
 			}
 
+			// The run has ended and so has the collection of its coverage.
+			if (this.tool != null && TLCGlobals.isCoverageEnabled()) {
+				CostModelCreator.release(this.tool);
+			}
+
 			MP.unsubscribeRecorder(this.recorder);
 			MP.flush();
         }
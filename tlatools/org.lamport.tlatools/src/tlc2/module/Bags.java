@@ -52,7 +52,7 @@ public class Bags implements ValueConstants
             //        "a function with a finite domain", Value.ppr(b.toString()) });
         	return BoolValue.ValFalse;
         }
-        final Value[] vals = fcn.values;
+        final Value[] vals = fcn.getValues();
         for (int i = 0; i < vals.length; i++)
         {
             if (!(vals[i] instanceof IntValue) || ((IntValue) vals[i]).val <= 0)
@@ -72,7 +72,7 @@ public class Bags implements ValueConstants
                     "a function with a finite domain", Values.ppr(b.toString()) });
         }
         int num = 0;
-        Value[] vals = fcn.values;
+        Value[] vals = fcn.getValues();
         for (int i = 0; i < vals.length; i++)
         {
             if (vals[i] instanceof IntValue)
@@ -98,7 +98,7 @@ public class Bags implements ValueConstants
     public static IBoolValue BagIn(final Value e, final Value b)
     {
         final FcnRcdValue fcn = (FcnRcdValue) b.toFcnRcd();
-        final Value[] values = fcn.values;
+        final Value[] values = fcn.getValues();
         final Value[] domain = fcn.getDomainAsValues();
         for (int i = 0; i < domain.length; i++)
         {
@@ -118,7 +118,7 @@ public class Bags implements ValueConstants
     public static IntValue CopiesIn(final Value e, final Value b)
     {
         final FcnRcdValue fcn = (FcnRcdValue) b.toFcnRcd();
-        final Value[] values = fcn.values;
+        final Value[] values = fcn.getValues();
         final Value[] domain = fcn.getDomainAsValues();
         for (int i = 0; i < domain.length; i++)
         {
@@ -150,9 +150,9 @@ public class Bags implements ValueConstants
                     Values.ppr(b2.toString()) });
         }
         Value[] domain1 = fcn1.getDomainAsValues();
-        Value[] values1 = fcn1.values;
+        Value[] values1 = fcn1.getValues();
         Value[] domain2 = fcn2.getDomainAsValues();
-        Value[] values2 = fcn2.values;
+        Value[] values2 = fcn2.getValues();
         Vect<Value> dVec = new Vect<>(domain1.length);
         Vect<Value> vVec = new Vect<>(domain1.length);
         for (int i = 0; i < domain1.length; i++)
@@ -205,9 +205,9 @@ public class Bags implements ValueConstants
                     Values.ppr(b2.toString()) });
         }
         Value[] domain1 = fcn1.getDomainAsValues();
-        Value[] values1 = fcn1.values;
+        Value[] values1 = fcn1.getValues();
         Value[] domain2 = fcn2.getDomainAsValues();
-        Value[] values2 = fcn2.values;
+        Value[] values2 = fcn2.getValues();
         Vect<Value> dVec = new Vect<>(domain1.length);
         Vect<Value> vVec = new Vect<>(domain1.length);
         for (int i = 0; i < domain1.length; i++)
@@ -269,7 +269,7 @@ public class Bags implements ValueConstants
             throw new EvalException(EC.TLC_MODULE_BAG_UNION1, Values.ppr(s.toString()));
         }
         Value[] domain = fcn.getDomainAsValues();
-        Value[] values = fcn.values;
+        Value[] values = fcn.getValues();
         for (int i = 0; i < domain.length; i++)
         {
             dVec.addElement(domain[i]);
@@ -284,7 +284,7 @@ public class Bags implements ValueConstants
                 throw new EvalException(EC.TLC_MODULE_BAG_UNION1, Values.ppr(s.toString()));
             }
             domain = fcn.getDomainAsValues();
-            values = fcn.values;
+            values = fcn.getValues();
             for (int j = 0; j < domain.length; j++)
             {
                 boolean found = false;
@@ -332,9 +332,9 @@ public class Bags implements ValueConstants
                     "a function with a finite domain", Values.ppr(b2.toString()) });
         }
         Value[] domain1 = fcn1.getDomainAsValues();
-        Value[] values1 = fcn1.values;
+        Value[] values1 = fcn1.getValues();
         Value[] domain2 = fcn2.getDomainAsValues();
-        Value[] values2 = fcn2.values;
+        Value[] values2 = fcn2.getValues();
         for (int i = 0; i < domain1.length; i++)
         {
             int v1 = ((IntValue) values1[i]).val;
@@ -370,7 +370,7 @@ public class Bags implements ValueConstants
         ValueVec dVec = new ValueVec();
         ValueVec vVec = new ValueVec();
         Value[] domain = fcn.getDomainAsValues();
-        Value[] values = fcn.values;
+        Value[] values = fcn.getValues();
         Value[] args = new Value[1];
         for (int i = 0; i < domain.length; i++)
         {
@@ -47,6 +47,7 @@ import tlc2.value.IValue;
 import tlc2.value.impl.BoolValue;
 import tlc2.value.impl.FcnLambdaValue;
 import tlc2.value.impl.FcnRcdValue;
+import tlc2.value.impl.IntSetValue;
 import tlc2.value.impl.IntValue;
 import tlc2.value.impl.IntervalValue;
 import tlc2.value.impl.ModelValue;
@@ -146,8 +147,8 @@ public class Json {
     File file = new File(path.val.toString());
     if (file.getParentFile() != null) {file.getParentFile().mkdirs();} // Cannot create parent dir for relative path.
     try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(path.val.toString())))) {
-        for (int i = 0; i < value.elems.length; i++) {
-            writer.write(getNode(value.elems[i]).toString() + "\n");
+        for (int i = 0; i < value.size(); i++) {
+            writer.write(getNode(value.getElem(i)).toString() + "\n");
           }
     }
     return BoolValue.ValTrue;
@@ -167,9 +168,9 @@ public class Json {
     if (file.getParentFile() != null) {file.getParentFile().mkdirs();} // Cannot create parent dir for relative path.
     try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(path.val.toString())))) {
     	writer.write("[\n");
-		for (int i = 0; i < value.elems.length; i++) {
-			writer.write(getNode(value.elems[i]).toString());
-			if (i < value.elems.length - 1) {
+		for (int i = 0; i < value.size(); i++) {
+			writer.write(getNode(value.getElem(i)).toString());
+			if (i < value.size() - 1) {
 				// No dangling "," after last element.
 				writer.write(",\n");
 			}
@@ -214,6 +215,8 @@ public class Json {
       return getArrayNode((SetEnumValue) ((SubsetValue) value).toSetEnum());
     } else if (value instanceof IntervalValue) {
       return getArrayNode((SetEnumValue) ((IntervalValue) value).toSetEnum());
+    } else if (value instanceof IntSetValue) {
+      return getArrayNode((SetEnumValue) ((IntSetValue) value).toSetEnum());
     } else {
       throw new IOException("Cannot convert value: unsupported value type " + value.getClass().getName());
     }
@@ -277,9 +280,9 @@ public class Json {
     for (int i = 0; i < domain.length; i++) {
       Value domainValue = domain[i];
       if (domainValue instanceof StringValue) {
-        jsonObject.add(((StringValue) domainValue).val.toString(), getNode(value.values[i]));
+        jsonObject.add(((StringValue) domainValue).val.toString(), getNode(value.getValue(i)));
       } else {
-        jsonObject.add(domainValue.toString(), getNode(value.values[i]));
+        jsonObject.add(domainValue.toString(), getNode(value.getValue(i)));
       }
     }
     return jsonObject;
@@ -307,8 +310,8 @@ public class Json {
    */
   private static JsonElement getObjectNode(TupleValue value) throws IOException {
     JsonObject jsonObject = new JsonObject();
-    for (int i = 0; i < value.elems.length; i++) {
-      jsonObject.add(String.valueOf(i), getNode(value.elems[i]));
+    for (int i = 0; i < value.size(); i++) {
+      jsonObject.add(String.valueOf(i), getNode(value.getElem(i)));
     }
     return jsonObject;
   }
@@ -338,6 +341,8 @@ public class Json {
       return getArrayNode((SetEnumValue) ((SubsetValue) value).toSetEnum());
     } else if (value instanceof IntervalValue) {
       return getArrayNode((SetEnumValue) ((IntervalValue) value).toSetEnum());
+    } else if (value instanceof IntSetValue) {
+      return getArrayNode((SetEnumValue) ((IntSetValue) value).toSetEnum());
     } else {
       throw new IOException("Cannot convert value: unsupported value type " + value.getClass().getName());
     }
@@ -350,9 +355,9 @@ public class Json {
    * @return the converted {@code JsonElement}
    */
   private static JsonElement getArrayNode(TupleValue value) throws IOException {
-    JsonArray jsonArray = new JsonArray(value.elems.length);
-    for (int i = 0; i < value.elems.length; i++) {
-      jsonArray.add(getNode(value.elems[i]));
+    JsonArray jsonArray = new JsonArray(value.size());
+    for (int i = 0; i < value.size(); i++) {
+      jsonArray.add(getNode(value.getElem(i)));
     }
     return jsonArray;
   }
@@ -369,9 +374,9 @@ public class Json {
     }
 
     value.normalize();
-    JsonArray jsonArray = new JsonArray(value.values.length);
-    for (int i = 0; i < value.values.length; i++) {
-      jsonArray.add(getNode(value.values[i]));
+    JsonArray jsonArray = new JsonArray(value.nonNormalizedSize());
+    for (int i = 0; i < value.nonNormalizedSize(); i++) {
+      jsonArray.add(getNode(value.getValue(i)));
     }
     return jsonArray;
   }
@@ -80,7 +80,7 @@ public class Sequences extends UserObj implements ValueConstants
             {
                 throw new EvalException(EC.TLC_MODULE_APPLY_EMPTY_SEQ, "Head");
             }
-            return seq.elems[0];
+            return seq.getElem(0);
         }
         throw new EvalException(EC.TLC_MODULE_ONE_ARGUMENT_ERROR, new String[] { "Head", "sequence",
                 Values.ppr(s.toString()) });
@@ -104,10 +104,7 @@ public class Sequences extends UserObj implements ValueConstants
             {
                 throw new EvalException(EC.TLC_MODULE_APPLY_EMPTY_SEQ, "Tail");
             }
-            int len = seq.size();
-            Value[] vals = new Value[len - 1];
-            System.arraycopy(seq.elems, 1, vals, 0, vals.length);
-            return new TupleValue(vals);
+            return seq.subSeq(1, seq.size());
         }
         throw new EvalException(EC.TLC_MODULE_ONE_ARGUMENT_ERROR, new String[] { "Tail", "sequence",
                 Values.ppr(s.toString()) });
@@ -124,7 +121,10 @@ public class Sequences extends UserObj implements ValueConstants
         int len = seq.size();
         Value[] values = new Value[len + 1];
         values[0] = v;
-        System.arraycopy(seq.elems, 0, values, 1, len);
+        for (int i = 0; i < len; i++)
+        {
+            values[i + 1] = seq.getElem(i);
+        }
         return new TupleValue(values);
     }
 
@@ -136,11 +136,7 @@ public class Sequences extends UserObj implements ValueConstants
             throw new EvalException(EC.TLC_MODULE_EVALUATING, new String[] { "Append(s, v)", "sequence",
                     Values.ppr(s.toString()) });
         }
-        int len = seq.size();
-        Value[] values = new Value[len + 1];
-        System.arraycopy(seq.elems, 0, values, 0, len);
-        values[len] = v;
-        return new TupleValue(values);
+        return seq.append(v);
     }
 
     public static Value Concat(Value s1, Value s2)
@@ -169,22 +165,7 @@ public class Sequences extends UserObj implements ValueConstants
             throw new EvalException(EC.TLC_MODULE_EVALUATING, new String[] { "t \\o s", "sequence",
                     Values.ppr(s2.toString()) });
         }
-        int len1 = seq1.size();
-        int len2 = seq2.size();
-        if (len1 == 0)
-            return seq2;
-        if (len2 == 0)
-            return seq1;
-        Value[] values = new Value[len1 + len2];
-        for (int i = 0; i < len1; i++)
-        {
-            values[i] = seq1.elems[i];
-        }
-        for (int i = 0; i < len2; i++)
-        {
-            values[i + len1] = seq2.elems[i];
-        }
-        return new TupleValue(values);
+        return seq1.concat(seq2);
     }
 
     /**
@@ -209,7 +190,7 @@ public class Sequences extends UserObj implements ValueConstants
         Value[] args = new Value[1];
         for (int i = 0; i < len; i++)
         {
-            args[0] = seq.elems[i];
+            args[0] = seq.getElem(i);
             Value val = ftest.apply(args, EvalControl.Clear);
             if (!(val instanceof IBoolValue))
             {
@@ -316,12 +297,7 @@ public class Sequences extends UserObj implements ValueConstants
         if (isString) {
         	return new StringValue(str.substring(beg-1,end));
         }
-        Value[] elems = new Value[sublen];
-        for (int i = 0; i < sublen; i++)
-        {
-            elems[i] = seq.elems[beg + i - 1];
-        }
-        return new TupleValue(elems);
+        return seq.subSeq(beg - 1, beg - 1 + sublen);
     }
 
     public static Value SelectSeq(Value s, Value test)
@@ -345,7 +321,7 @@ public class Sequences extends UserObj implements ValueConstants
         Value[] args = new Value[1];
         for (int i = 0; i < len; i++)
         {
-            args[0] = seq.elems[i];
+            args[0] = seq.getElem(i);
             Value val = ftest.apply(args, EvalControl.Clear);
             if (val instanceof IBoolValue)
             {
@@ -402,9 +378,9 @@ public class Sequences extends UserObj implements ValueConstants
         int len = seq.size();
         if (len > this.size)
             return false;
-        for (int i = 0; i < seq.elems.length; i++)
+        for (int i = 0; i < seq.size(); i++)
         {
-            if (!this.range.member(seq.elems[i]))
+            if (!this.range.member(seq.getElem(i)))
                 return false;
         }
         return true;
@@ -456,7 +432,7 @@ public class Sequences extends UserObj implements ValueConstants
         int idx = len;
         while (idx > 0)
         {
-            args[1] = seq.elems[idx - 1];
+            args[1] = seq.getElem(idx - 1);
             Value val = ftest.apply(args, EvalControl.Clear);
             if (!(val instanceof IBoolValue))
             {
@@ -480,7 +456,7 @@ public class Sequences extends UserObj implements ValueConstants
         {
             for (int i = idx - 1; i >= 0; i--)
             {
-                values[i] = seq.elems[i];
+                values[i] = seq.getElem(i);
             }
         }
         return new TupleValue(values);
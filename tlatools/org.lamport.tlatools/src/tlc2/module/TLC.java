@@ -168,8 +168,8 @@ public class TLC implements ValueConstants
         }
         ValueVec dom = new ValueVec();
         ValueVec vals = new ValueVec();
-        Value [] vals1 = fcn1.values;
-        Value [] vals2 = fcn2.values;
+        Value [] vals1 = fcn1.getValues();
+        Value [] vals2 = fcn2.getValues();
 
         Value [] dom1 = fcn1.domain;
         if (dom1 == null)
@@ -258,7 +258,7 @@ public class TLC implements ValueConstants
                     Values.ppr(cmp.toString()) });
         }
         Applicable fcmp = (Applicable) cmp;
-        Value [] elems = seq.elems;
+        Value [] elems = seq.getElems();
         int len = elems.length;
         if (len == 0)
             return seq;
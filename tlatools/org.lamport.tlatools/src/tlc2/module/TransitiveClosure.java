@@ -45,8 +45,8 @@ public class TransitiveClosure implements ValueConstants
             {
                 throw new EvalException(EC.TLC_MODULE_TRANSITIVE_CLOSURE, Values.ppr(elem.toString()));
             }
-            Value elem1 = tv.elems[0];
-            Value elem2 = tv.elems[1];
+            Value elem1 = tv.getElem(0);
+            Value elem2 = tv.getElem(1);
             int num1 = cnt;
             Integer num = fps.get(elem1);
             if (num == null)
@@ -49,6 +49,7 @@ public interface EC
 	public static final int TLC_FEATURE_UNSUPPORTED = 2156;
 	public static final int TLC_FEATURE_UNSUPPORTED_LIVENESS_SYMMETRY = 2279;
 	public static final int TLC_FEATURE_LIVENESS_CONSTRAINTS = 2284;
+	public static final int TLC_FEATURE_WORK_STEALING_QUEUE = 2285;
 
     public static final int GENERAL = 1000;
     public static final int SYSTEM_OUT_OF_MEMORY = 1001;
@@ -289,6 +290,10 @@ public interface EC
     public static final int TLC_COVERAGE_PROPERTY = 2774;
     public static final int TLC_COVERAGE_CONSTRAINT = 2778;
     public static final int TLC_COVERAGE_END_OVERHEAD = 2777;
+    // The hits and misses of a memoized operator (see -Dtlc2.tool.impl.Tool.memoize).
+    // A hit skips the evaluation of the operator's definition, i.e. the coverage of
+    // the definition's expressions only counts the misses.
+    public static final int TLC_COVERAGE_MEMOIZED = 2779;
     
     // config file errors
     public static final int TLC_CONFIG_VALUE_NOT_ASSIGNED_TO_CONSTANT_PARAM = 2222;
@@ -836,6 +836,11 @@ public class MP
 					+ "(https://lamport.azurewebsites.net/tla/book.html) and optionally the "
 					+ "discussion at https://discuss.tlapl.us/msg00994.html for more details.");
             break;
+        case EC.TLC_FEATURE_WORK_STEALING_QUEUE:
+			b.append("TLC explores the state space with work stealing instead of in breadth-first order. "
+					+ "The reported depth is not the diameter of the state graph and error traces "
+					+ "are not guaranteed to be the shortest possible ones.");
+            break;
 
         /* Liveness errors */
         case EC.TLC_LIVE_BEGRAPH_FAILED_TO_CONSTRUCT:
@@ -1136,6 +1141,9 @@ public class MP
 			b.append(
 					"CostModel lookup failed for expression <%1%>. Reporting costs into <%2%> instead (Safety and Liveness checking is unaffected. Please report a bug.)");
         	break;
+        case EC.TLC_COVERAGE_MEMOIZED:
+            b.append("Memoized %1%: %2% hits, %3% misses");
+            break;
         case EC.TLC_COVERAGE_END:
             b.append("End of statistics.");
             break;
@@ -48,6 +48,11 @@ import tlc2.value.RandomEnumerableValues;
  * adds/appends an entry to its (dedicate) file. When a counter-example has to be
  * created, the actual error-trace gets created from the union of all (partial)
  * trace files.
+ * <p>
+ * A worker's appends go to a {@link TraceLog}, which buffers them in memory and
+ * writes them to the trace file in the background (or keeps them off-heap
+ * altogether). Reading a record thus neither blocks the worker that owns the
+ * trace file fragment nor forces it to flush.
  */
 public class ConcurrentTLCTrace extends TLCTrace {
 	
@@ -253,6 +258,16 @@ public class ConcurrentTLCTrace extends TLCTrace {
 		}
 	}
 	
+	@Override
+	public void close() throws IOException {
+		for (Worker worker : workers) {
+			if (worker != null) {
+				worker.closeTrace();
+			}
+		}
+		super.close();
+	}
+	
 	/* Enumerator */
 	
 	public synchronized Enumerator elements() throws IOException {
@@ -323,6 +338,18 @@ public class ConcurrentTLCTrace extends TLCTrace {
 			this.fp = fp;
 		}
 		
+		long getPtr() {
+			return this.ptr;
+		}
+
+		long getFP() {
+			return this.fp;
+		}
+
+		int getWorkerId() {
+			return this.worker;
+		}
+
 		public Worker getWorker() {
 			return this.workers[this.worker];
 		}
@@ -12,6 +12,8 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import tla2sany.semantic.OpDeclNode;
@@ -26,6 +28,8 @@ import tlc2.tool.liveness.LiveCheck;
 import tlc2.tool.queue.DiskByteArrayQueue;
 import tlc2.tool.queue.DiskStateQueue;
 import tlc2.tool.queue.IStateQueue;
+import tlc2.tool.queue.MappedByteArrayQueue;
+import tlc2.tool.queue.WorkStealingStateQueue;
 import tlc2.util.IStateWriter;
 import tlc2.util.SetOfStates;
 import tlc2.util.statistics.BucketStatistics;
@@ -53,7 +57,7 @@ public class ModelChecker extends AbstractChecker
 	 */
 	public static final boolean VETO_CLEANUP = Boolean.getBoolean(ModelChecker.class.getName() + ".vetoCleanup");
 
-	private long numberOfInitialStates;
+	private final AtomicLong numberOfInitialStates = new AtomicLong();
     public FPSet theFPSet; // the set of reachable states (SZ: note the type)
     public IStateQueue theStateQueue; // the state queue
     public final ConcurrentTLCTrace trace; // the trace file
@@ -107,9 +111,15 @@ public class ModelChecker extends AbstractChecker
         // call the abstract constructor
         super(tool, metadir, stateWriter, deadlock, fromChkpt, startTime);
 
-		this.theStateQueue = useByteArrayQueue()
-				? new DiskByteArrayQueue(this.metadir)
-				: new DiskStateQueue(this.metadir);
+		if (useWorkStealingQueue()) {
+			// Trades BFS for less contention on the state queue (see WorkStealingStateQueue).
+			MP.printWarning(EC.TLC_FEATURE_WORK_STEALING_QUEUE);
+			this.theStateQueue = new WorkStealingStateQueue(this.metadir);
+		} else {
+			this.theStateQueue = useMappedQueue() ? new MappedByteArrayQueue(this.metadir)
+					: useByteArrayQueue() ? new DiskByteArrayQueue(this.metadir)
+					: new DiskStateQueue(this.metadir);
+		}
         // this.theStateQueue = new MemStateQueue(this.metadir);
 
         // Finally, initialize the trace file:
@@ -186,7 +196,7 @@ public class ModelChecker extends AbstractChecker
                 final CallStackTool cTool = new CallStackTool(this.tool);
                 try
                 {
-                    numberOfInitialStates = 0;
+                    numberOfInitialStates.set(0);
                     // SZ Feb 23, 2009: ignore cancel on error reporting
 					this.doInit(cTool, true);
                 } catch (FingerprintException fe){
@@ -343,6 +353,9 @@ public class ModelChecker extends AbstractChecker
     
     private final int doInit(final ITool tool, boolean ignoreCancel) throws Throwable
     {
+        if (!ignoreCancel && workers.length > 1 && useParallelInit()) {
+        	return doInitParallel(tool);
+        }
 		// Generate the initial states.
         //
 		// The functor is passed to getInitStates() to - instead of adding all
@@ -383,6 +396,76 @@ public class ModelChecker extends AbstractChecker
 		return functor.returnValue;
 	}
 
+	/**
+	 * A variant of {@link #doInit(ITool, boolean)} that splits the generation of
+	 * the initial states across as many threads as there are workers (see
+	 * {@link PartitionedStateFunctor}). The i-th thread writes to the trace file
+	 * of the i-th worker, which has not been started yet, i.e. each trace file
+	 * still has a single writer. The first thread that finds a violation (or
+	 * fails) determines the outcome, all others stop.
+	 */
+	private final int doInitParallel(final ITool tool) throws Throwable {
+		final int n = workers.length;
+		final AtomicReference<DoInitFunctor> failed = new AtomicReference<>();
+		final DoInitFunctor[] functors = new DoInitFunctor[n];
+		final Throwable[] thrown = new Throwable[n];
+		final Thread[] threads = new Thread[n];
+		for (int i = 0; i < n; i++) {
+			final int idx = i;
+			functors[idx] = new DoInitFunctor(tool, false, (Worker) workers[idx], failed);
+			// Deliberately not IdThreads: Like the main thread in the sequential
+			// case, TLCSet sets the values of all workers (see TLCGetSet).
+			threads[idx] = new Thread(() -> {
+				try {
+					tool.getInitStates(new PartitionedStateFunctor(functors[idx], idx, n));
+				} catch (DoInitFunctor.AbortedException e) {
+					// Another thread found a violation.
+				} catch (Throwable e) {
+					if (functors[idx].claim()) {
+						thrown[idx] = e;
+					}
+				}
+			}, "TLC Init " + idx);
+			threads[idx].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		final DoInitFunctor functor = failed.get();
+		if (functor == null) {
+			for (DoInitFunctor f : functors) {
+				if (f.returnValue != EC.NO_ERROR) {
+					return f.returnValue;
+				}
+			}
+			return EC.NO_ERROR;
+		}
+		// Mimic the sequential doInit for the thread that failed first.
+		Throwable e = null;
+		for (int i = 0; i < n; i++) {
+			if (functors[i] == functor) {
+				e = thrown[i];
+			}
+		}
+		if (e instanceof DoInitFunctor.InvariantViolatedException) {
+			this.errState = functor.errState;
+			return functor.returnValue;
+		} else if (e instanceof Assert.TLCRuntimeException) {
+			this.errState = functor.errState;
+			throw e;
+		} else if (e != null) {
+			throw e;
+		}
+		if (functor.errState != null) {
+			this.errState = functor.errState;
+			if (functor.e != null) {
+				throw functor.e;
+			}
+		}
+		return functor.returnValue;
+	}
+
     /**
      * Compute the set of the next states.  For each next state, check that
      * it is a valid state, check that the invariants are satisfied, check
@@ -436,12 +519,13 @@ public class ModelChecker extends AbstractChecker
 						// The state is inModel, unseen and neither invariants
 						// nor implied actions are violated. It is thus eligible
 						// for further processing by other workers.
-						this.theStateQueue.sEnqueue(succState);
+						worker.enqueue(succState);
                     }
 				}
 				// Must set state to null!!!
 				succState = null;
 			}
+			worker.flushEnqueueBuffer();
 			// Check for deadlock:
             if (deadLocked && this.checkDeadlock)
             {
@@ -717,6 +801,11 @@ public class ModelChecker extends AbstractChecker
 	protected void checkpoint() throws IOException {
 		// start checkpointing:
        	MP.printMessage(EC.TLC_CHECKPOINT_START, this.metadir);
+		// Workers are suspended until resumeAll below. Everything that does not have
+		// to happen at the cut, e.g. writing the buffered states of the disk queues or
+		// forcing the MappedByteArrayQueue's segments to disk, is deferred to the
+		// commit phase. The fingerprint set is re-created from the trace during
+		// recovery and thus only needs the trace's position.
 		this.theStateQueue.beginChkpt();
 		this.trace.beginChkpt();
 		this.theFPSet.beginChkpt();
@@ -808,7 +897,7 @@ public class ModelChecker extends AbstractChecker
                     String.valueOf(this.theStateQueue.size()) });
             recovered = true;
             // Not all states are true initial states, but who cares at this point?
-            numberOfInitialStates = this.theFPSet.size();
+            numberOfInitialStates.set(this.theFPSet.size());
         }
         return recovered;
     }
@@ -1001,9 +1090,37 @@ public class ModelChecker extends AbstractChecker
 		return Boolean.getBoolean(ModelChecker.class.getName() + ".BAQueue");
 	}
 
+	private static boolean useMappedQueue() {
+		return Boolean.getBoolean(ModelChecker.class.getName() + ".MappedQueue");
+	}
+
+	/**
+	 * Opt-in because the {@link WorkStealingStateQueue} does not explore the state
+	 * space in BFS order, i.e. counterexamples are not guaranteed to be minimal.
+	 */
+	private static boolean useWorkStealingQueue() {
+		return Boolean.getBoolean(ModelChecker.class.getName() + ".WSQueue");
+	}
+
+	/**
+	 * Opt-in because each thread evaluates the initial predicate up to its first
+	 * enumeration (see {@link PartitionedStateFunctor}), i.e. side effects such as
+	 * Print in that part occur once per thread. Also, the order in which initial
+	 * states are checked and enqueued is no longer deterministic.
+	 */
+	private static boolean useParallelInit() {
+		return Boolean.getBoolean(ModelChecker.class.getName() + ".parallelInit");
+	}
+
 	public static String getStateQueueName() {
 		// Ideally, this wouldn't hard-code the simple name of the classes but we don't
 		// have access to the class file yet.
+		if (useWorkStealingQueue()) {
+			return "WorkStealingStateQueue";
+		}
+		if (useMappedQueue()) {
+			return "MappedByteArrayQueue";
+		}
 		return useByteArrayQueue() ? "DiskByteArrayQueue" : "DiskStateQueue";
 	}
 
@@ -1012,7 +1129,7 @@ public class ModelChecker extends AbstractChecker
 	 */
 	@Override
     public long getStatesGenerated() {
-    	long sum = numberOfInitialStates;
+    	long sum = numberOfInitialStates.get();
     	for (final IWorker worker : workers) {
 			sum += ((Worker) worker).getStatesGenerated();
 		}
@@ -1093,6 +1210,14 @@ public class ModelChecker extends AbstractChecker
 		@SuppressWarnings("serial")
 		public class InvariantViolatedException extends RuntimeException {
 		}
+
+		/**
+		 * Stops the generation of initial states of a thread after another thread
+		 * found a violation (see {@link ModelChecker#doInitParallel(ITool)}).
+		 */
+		@SuppressWarnings("serial")
+		public class AbortedException extends RuntimeException {
+		}
 		
 		/**
 		 * Non-Null iff a violation occurred.
@@ -1109,24 +1234,51 @@ public class ModelChecker extends AbstractChecker
 		
 		private final boolean forceChecks;
 		private final ITool tool;
+		/**
+		 * The worker to whose trace file the initial states are written.
+		 */
+		private final Worker worker;
+		/**
+		 * Non-null iff initial states are generated by multiple threads, each with
+		 * a functor of its own. Refers to the functor that found the first
+		 * violation.
+		 */
+		private final AtomicReference<DoInitFunctor> failed;
 		
 		public DoInitFunctor(ITool tool) {
 			this(tool, false);
 		}
 		
 		public DoInitFunctor(ITool tool, boolean forceChecks) {
+			this(tool, forceChecks, (Worker) workers[0], null);
+		}
+
+		public DoInitFunctor(ITool tool, boolean forceChecks, Worker worker, AtomicReference<DoInitFunctor> failed) {
 			this.forceChecks = forceChecks;
 			this.tool = tool;
+			this.worker = worker;
+			this.failed = failed;
+		}
+
+		/**
+		 * @return true iff this functor is the first (or only) one to report a
+		 *         violation.
+		 */
+		boolean claim() {
+			return failed == null || failed.compareAndSet(null, this) || failed.get() == this;
 		}
 
 		/* (non-Javadoc)
 		 * @see tlc2.tool.IStateFunctor#addElement(tlc2.tool.TLCState)
 		 */
 		public Object addElement(final TLCState curState) {
-			if (Long.bitCount(numberOfInitialStates) == 1 && numberOfInitialStates > 1) {
-				MP.printMessage(EC.TLC_COMPUTING_INIT_PROGRESS, Long.toString(numberOfInitialStates));
+			final long cnt = numberOfInitialStates.getAndIncrement();
+			if (Long.bitCount(cnt) == 1 && cnt > 1) {
+				MP.printMessage(EC.TLC_COMPUTING_INIT_PROGRESS, Long.toString(cnt));
+			}
+			if (failed != null && failed.get() != null && failed.get() != this) {
+				throw new AbortedException();
 			}
-			numberOfInitialStates++;
 			
 			// getInitStates() does not support aborting init state generation
 			// once a violation has been found (that is why the return values of
@@ -1142,6 +1294,9 @@ public class ModelChecker extends AbstractChecker
 			try {
 				// Check if the state is a legal state
 				if (!tool.isGoodState(curState)) {
+					if (!claim()) {
+						throw new AbortedException();
+					}
 					MP.printError(EC.TLC_INITIAL_STATE, new String[]{ "current state is not a legal state", curState.toString() });
 					this.errState = curState;
 					returnValue = EC.TLC_INITIAL_STATE;
@@ -1154,12 +1309,18 @@ public class ModelChecker extends AbstractChecker
 					seen = theFPSet.put(fp);
 					if (!seen) {
 						allStateWriter.writeState(curState);
-						((Worker) workers[0]).writeState(curState, fp);
-						theStateQueue.enqueue(curState);
+						worker.writeState(curState, fp);
+						if (failed == null) {
+							theStateQueue.enqueue(curState);
+						} else {
+							theStateQueue.sEnqueue(curState);
+						}
 
 						// build behavior graph for liveness checking
 						if (checkLiveness) {
-							liveCheck.addInitState(tool.getLiveness(), curState, fp);
+							synchronized (liveCheck) {
+								liveCheck.addInitState(tool.getLiveness(), curState, fp);
+							}
 						}
 					}
 				}
@@ -1167,6 +1328,9 @@ public class ModelChecker extends AbstractChecker
 				if (!seen || forceChecks) {
 					for (int j = 0; j < tool.getInvariants().length; j++) {
 						if (!tool.isValid(tool.getInvariants()[j], curState)) {
+							if (!TLCGlobals.continuation && !claim()) {
+								throw new AbortedException();
+							}
 							// We get here because of invariant violation:
 							MP.printError(EC.TLC_INVARIANT_VIOLATED_INITIAL,
 									new String[] { tool.getInvNames()[j].toString(), curState.toString() });
@@ -1179,6 +1343,9 @@ public class ModelChecker extends AbstractChecker
 					}
 					for (int j = 0; j < tool.getImpliedInits().length; j++) {
 						if (!tool.isValid(tool.getImpliedInits()[j], curState)) {
+							if (!claim()) {
+								throw new AbortedException();
+							}
 							// We get here because of implied-inits violation:
 							MP.printError(EC.TLC_PROPERTY_VIOLATED_INITIAL,
 									new String[] { tool.getImpliedInitNames()[j], curState.toString() });
@@ -1188,10 +1355,15 @@ public class ModelChecker extends AbstractChecker
 						}
 					}
 				}
+			} catch (AbortedException e) {
+				throw e;
 			} catch (InvariantViolatedException | Assert.TLCRuntimeException | EvalException e) {
 				// IVE gets thrown above when an Invariant is violated. TLCRuntimeException gets
 				// thrown when Tool fails to evaluate a statement because of e.g. too large sets
 				// or type errors such as in DoInitFunctorInvariantMinimalErrorStackTest test.
+				if (!claim()) {
+					throw new AbortedException();
+				}
 				this.errState = curState;
 				this.e = e;
 				throw e;
@@ -1201,6 +1373,9 @@ public class ModelChecker extends AbstractChecker
 				return returnValue;
 			} catch (Throwable e) {
 				// Assert.printStack(e);
+				if (!claim()) {
+					throw new AbortedException();
+				}
 				this.errState = curState;
 				this.e = e;
 			}
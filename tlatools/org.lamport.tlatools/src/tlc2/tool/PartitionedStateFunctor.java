@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool;
+
+/**
+ * A {@link PartitionedStateFunctor} restricts the generation of initial states
+ * (see ITool#getInitStates(IStateFunctor)) to one of count disjoint
+ * partitions. The partitions are defined by the first enumeration on each path
+ * through the initial predicate (e.g. x \in S or \E x \in S : P): The i-th
+ * element of the enumerated domain belongs to partition i % count. Nested
+ * enumerations are not partitioned, and states whose generation does not
+ * enumerate any domain belong to partition 0. Thus, every initial state is
+ * generated by exactly one partition.
+ * <p>
+ * Each partition evaluates the part of the initial predicate up to the first
+ * enumeration itself. Partitioning is therefore only effective if that part is
+ * cheap compared to the states that follow from the enumeration.
+ */
+public final class PartitionedStateFunctor implements IStateFunctor {
+
+	/**
+	 * @return The given functor iff it is a {@link PartitionedStateFunctor}
+	 *         whose current path has not been partitioned yet. The caller then
+	 *         has to skip the elements the partition does not own (see
+	 *         {@link #owns(long)}) and call {@link #leave()} after enumerating
+	 *         the domain. Returns null otherwise.
+	 */
+	public static PartitionedStateFunctor enter(final IStateFunctor functor) {
+		if (functor instanceof PartitionedStateFunctor) {
+			final PartitionedStateFunctor partition = (PartitionedStateFunctor) functor;
+			if (!partition.partitioned) {
+				partition.partitioned = true;
+				return partition;
+			}
+		}
+		return null;
+	}
+
+	private final IStateFunctor functor;
+	private final int index;
+	private final int count;
+
+	/**
+	 * true iff the current path has passed its first enumeration.
+	 */
+	private boolean partitioned;
+
+	public PartitionedStateFunctor(final IStateFunctor functor, final int index, final int count) {
+		this.functor = functor;
+		this.index = index;
+		this.count = count;
+	}
+
+	public final boolean owns(final long ordinal) {
+		return ordinal % this.count == this.index;
+	}
+
+	public final void leave() {
+		this.partitioned = false;
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.IStateFunctor#addElement(tlc2.tool.TLCState)
+	 */
+	public Object addElement(final TLCState state) {
+		if (!this.partitioned && this.index != 0) {
+			return null;
+		}
+		return this.functor.addElement(state);
+	}
+}
@@ -79,6 +79,19 @@ public class SimulationWorker extends IdThread implements INextStateFunctor {
 
 	protected static final boolean coverage = TLCGlobals.isCoverageEnabled();
 
+	/*
+	 * Instead of collecting all successor states of the current state and picking
+	 * one of them afterwards, keep a single, uniformly sampled successor
+	 * (reservoir sampling). Invariants and implied actions are checked for the
+	 * sampled successor only, i.e. for the states that make up the behavior. A
+	 * violation in a successor that is not part of the behavior goes unnoticed.
+	 * The other checks (isGoodState, state- and action-constraints) still apply to
+	 * all successors.
+	 * 
+	 * Activate with: -Dtlc2.tool.SimulationWorker.sample=true
+	 */
+	public static final String SAMPLE_KEY = SimulationWorker.class.getName() + ".sample";
+
 	// This worker's local source of randomness.
 	private final RandomGenerator localRng;
 
@@ -124,6 +137,8 @@ public class SimulationWorker extends IdThread implements INextStateFunctor {
 	private final String traceActions;
 
 	private final Map<UniqueString, Integer> behaviorStats = new HashMap<>();
+
+	private final boolean sample;
 	
 	/**
 	 * Encapsulates information about an error produced by a simulation worker.
@@ -237,6 +252,7 @@ public class SimulationWorker extends IdThread implements INextStateFunctor {
 		this.numOfGenStates = numOfGenStates;
 		this.numOfGenTraces = numOfGenTraces;
 		this.welfordM2AndMean = m2AndMean;
+		this.sample = Boolean.getBoolean(SAMPLE_KEY);
 		
 		final Vect<Action> initAndNext = this.tool.getSpecActions();
 		final int len = initAndNext.size();
@@ -345,6 +361,8 @@ public class SimulationWorker extends IdThread implements INextStateFunctor {
 	public Object setElement(final TLCState s) {
 		this.nextStates.clear();
 		this.nextStates.addElement(s);
+		this.sampled = s;
+		this.samples = 1;
 		return this;
 	}
 
@@ -375,6 +393,26 @@ public class SimulationWorker extends IdThread implements INextStateFunctor {
 			throw new SimulationWorkerError(EC.TLC_STATE_NOT_COMPLETELY_SPECIFIED_NEXT, parameters, t, getTrace());
 		}
 
+		if (!sample) {
+			checkState(t);
+		}
+
+		if ((tool.isInModel(t) && tool.isInActions(s, t))) {
+			if (coverage) {	a.cm.incSecondary(); }
+			if (sample) {
+				// Replace the sampled successor with probability 1/samples.
+				if (localRng.nextDouble() * ++samples < 1d) {
+					sampled = t;
+				}
+				return this;
+			}
+			return nextStates.addElement(t);
+		}
+
+		return this;
+	}
+
+	private final void checkState(final TLCState t) {
 		// Check invariants.
 		int idx = 0;
 		try {
@@ -409,28 +447,36 @@ public class SimulationWorker extends IdThread implements INextStateFunctor {
 			throw new SimulationWorkerError(EC.TLC_ACTION_PROPERTY_EVALUATION_FAILED,
 					new String[] { tool.getImpliedActNames()[idx], e.getMessage() }, t, getTrace());
 		}
-		
-		if ((tool.isInModel(t) && tool.isInActions(s, t))) {
-			if (coverage) {	a.cm.incSecondary(); }
-			return nextStates.addElement(t);
-		}
-
-		return this;
 	}
 	
 	@Override
 	public boolean hasStates() {
 		assert Tool.isProbabilistic();
-		return !nextStates.isEmpty();
+		return hasSuccessor();
 	}
 	
 	@Override
     public SetOfStates getStates() {
+		if (sample) {
+			final SetOfStates states = new SetOfStates(1);
+			if (sampled != null) {
+				states.put(sampled);
+			}
+			return states;
+		}
 		return new SetOfStates(nextStates);
 	}
 
+	private final boolean hasSuccessor() {
+		return sample ? sampled != null : !nextStates.isEmpty();
+	}
+
 	private final StateVec nextStates = new StateVec(1);
 
+	// The successor sampled so far and the number of candidates it was sampled from.
+	private TLCState sampled;
+	private int samples;
+
 	/**
 	 * Generates a single random trace.
 	 *
@@ -466,6 +512,8 @@ public class SimulationWorker extends IdThread implements INextStateFunctor {
 
 			// b) Get the current state's successor states.
 			nextStates.clear();
+			sampled = null;
+			samples = 0;
 			int index = (int) Math.floor(this.localRng.nextDouble() * len);
 			final int p = this.localRng.nextPrime();
 			for (int i = 0; i < len; i++) {
@@ -475,12 +523,12 @@ public class SimulationWorker extends IdThread implements INextStateFunctor {
 					// getNextState doesn't throw SWE unless SimulationWorker#addElement above throws it.
 					return Optional.of(swe);
 				}
-				if (!nextStates.empty()) {
+				if (hasSuccessor()) {
 					break;
 				}
 				index = (index + p) % len;
 			}
-			if (nextStates.empty()) {
+			if (!hasSuccessor()) {
 				if (checkDeadlock) {
 					// We get here because of deadlock.
 					return Optional.of(new SimulationWorkerError(EC.TLC_DEADLOCK_REACHED, null, curState, getTrace(), null));
@@ -493,7 +541,18 @@ public class SimulationWorker extends IdThread implements INextStateFunctor {
 
 			// d) Randomly select one of them and make it the current state for the next
 			// iteration of the loop.
-			final TLCState s1 = randomState(localRng, nextStates);
+			final TLCState s1;
+			if (sample) {
+				// Already selected while the successors were generated, but not yet checked.
+				s1 = sampled;
+				try {
+					checkState(s1);
+				} catch (SimulationWorkerError swe) {
+					return Optional.of(swe);
+				}
+			} else {
+				s1 = randomState(localRng, nextStates);
+			}
 			
 			// Execute callable on the state that was selected from the set of successor
 			// states.  See TLCExt!TLCDefer operator for context.
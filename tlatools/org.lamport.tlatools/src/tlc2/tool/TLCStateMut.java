@@ -17,11 +17,12 @@ import tla2sany.semantic.SymbolNode;
 import tlc2.TLCGlobals;
 import tlc2.util.Context;
 import tlc2.util.FP64;
-import tlc2.value.IMVPerm;
+import tlc2.value.ICanonicalizer;
 import tlc2.value.IValue;
 import tlc2.value.IValueInputStream;
 import tlc2.value.IValueOutputStream;
 import tlc2.value.Values;
+import tlc2.value.impl.MVPerms;
 import util.UniqueString;
 import util.WrongInvocationException;
 
@@ -44,10 +45,19 @@ public final class TLCStateMut extends TLCState implements Cloneable, Serializab
   private static SemanticNode viewMap = null;
 
   /**
-   * If non-null, perms denotes the set of permutations under the
-   * symmetry assumption.
+   * If non-null, canonicalizer reduces a state to the representative
+   * of its orbit under the symmetry assumption.
    */
-  private static IMVPerm[] perms = null;
+  private static ICanonicalizer canonicalizer = null;
+
+  /*
+   * -Dtlc2.tool.TLCStateMut.incremental=false fingerprints every variable
+   * value of every state from scratch (the fingerprints are the same).
+   */
+  private static final boolean INCREMENTAL = Boolean
+		  .parseBoolean(System.getProperty(TLCStateMut.class.getName() + ".incremental", "true"));
+
+  private static final ThreadLocal<VarFingerprints> varFPs = ThreadLocal.withInitial(VarFingerprints::new);
 
   private TLCStateMut(IValue[] vals) { this.values = vals; }
   
@@ -71,7 +81,7 @@ public final class TLCStateMut extends TLCState implements Cloneable, Serializab
   public static void setTool(ITool tool) {
     mytool = tool;
     viewMap = tool.getViewSpec();
-    perms = tool.getSymmetryPerms();
+    canonicalizer = MVPerms.getCanonicalizer(tool.getSymmetryPerms());
   }
 
   public final TLCState createEmpty() {
@@ -195,62 +205,22 @@ public final class TLCStateMut extends TLCState implements Cloneable, Serializab
 		// the group this.perms (derived from the user-defined orbit). This is known as
 		// the constructive orbit problem and is NP-hard. The loop has O(|perms| * |this.values|)
 		// with |prems| = |symmetry set 1|! * |symmetry set 2|! * ... * |symmetry set n|. 
+		// The canonicalizer (see MVPerms#getCanonicalizer) determines how rep(s) is
+		// evaluated; RefiningCanonicalizer avoids applying all permutations for most
+		// states at the price of a representative that is not the smallest state.
         //		
 		// minVals is what is used to calculate/generate the fingerprint below.
 		// If this state is not the lexicographically smallest state ss, its current
 		// minVals will be replaced temporarily with the values of ss for the
 		// calculation of the fingerprint.
 		IValue[] minVals = this.values;
-		if (perms != null) {
-			IValue[] vals = new IValue[sz];
-			// The following for loop converges to the smallest state ss under symmetry by
-			// looping over all permutations applying each. If the outcome turns out to be
-			// lexicographically smaller than the currently smallest, it replaces the
-			// current smallest. Once all permutations (perms) have been processed, we know
-			// we have found the smallest state.
-			NEXT_PERM: for (int i = 0; i < perms.length; i++) {
-				int cmp = 0;
-				// For each value in values succinctly permute the current value
-				// and compare it to its corresponding minValue in minVals.
-				for (int j = 0; j < sz; j++) {
-					vals[j] = this.values[j].permute(perms[i]);
-					if (cmp == 0) {
-						// Only compare unless an earlier compare has found a
-						// difference already (if a difference has been found
-						// earlier, still permute the remaining values of the
-						// state to fully permute all state values).
-						cmp = vals[j].compareTo(minVals[j]);
-						if (cmp > 0) {
-							// When cmp evaluates to >0, all subsequent
-							// applications of perms[i] for the remaining values
-							// won't make the resulting vals[] smaller than
-							// minVals. Thus, exit preemptively from the loop
-							// over vals. This works because perms is the cross
-							// product of all symmetry sets.
-							continue NEXT_PERM;
-						}
-					}
-				}
-				// cmp < 0 means the current state is part of a symmetry
-				// permutation set/group and not the "smallest" one.
-				if (cmp < 0) {
-					if (minVals == this.values) {
-						minVals = vals;
-						vals = new IValue[sz];
-					} else {
-						IValue[] temp = minVals;
-						minVals = vals;
-						vals = temp;
-					}
-				}
-			}
+		if (canonicalizer != null) {
+			minVals = canonicalizer.canonicalize(this.values);
 		}
 		// Fingerprint the state:
 		long fp = FP64.New();
 		if (viewMap == null) {
-			for (int i = 0; i < sz; i++) {
-				fp = minVals[i].fingerPrint(fp);
-			}
+			fp = fingerPrint(minVals, fp);
 			if (this.values != minVals) {
 				for (int i = 0; i < sz; i++) {
 					this.values[i].deepNormalize();
@@ -270,6 +240,77 @@ public final class TLCStateMut extends TLCState implements Cloneable, Serializab
 		return fp;
 	}
 
+	/**
+	 * @return fp extended by the fingerprints of all values in vals.
+	 */
+	static long fingerPrint(final IValue[] vals, long fp) {
+		if (INCREMENTAL) {
+			final VarFingerprints cache = varFPs.get().reset(vals.length);
+			for (int i = 0; i < vals.length; i++) {
+				fp = cache.fingerPrint(i, vals[i], fp);
+			}
+		} else {
+			for (int i = 0; i < vals.length; i++) {
+				fp = vals[i].fingerPrint(fp);
+			}
+		}
+		return fp;
+	}
+
+	/*
+	 * The successors of a state share the values of all variables that an action
+	 * leaves unchanged, i.e. consecutive states fingerprinted by a worker often
+	 * have the identical value object for the same variable. Instead of
+	 * re-reading such a value, its fingerprint is composed from the two
+	 * fingerprints of the value cached by the worker (see FP64#One). The result
+	 * is bit-for-bit identical to fingerprinting the value itself, thus the
+	 * fingerprints of states do not change (e.g. those in checkpoints).
+	 */
+	private static final class VarFingerprints {
+		// The value of variable i in the previous state.
+		private IValue[] seen = new IValue[0];
+		// The value of variable i whose fingerprints are cached.
+		private IValue[] cached = new IValue[0];
+		// Extend(Zero, cached[i]).
+		private long[] raws;
+		// The multiplication table of x^(8n) with n the number of bytes of cached[i].
+		private long[][] muls;
+		private long poly;
+
+		VarFingerprints reset(final int sz) {
+			if (this.seen.length != sz || this.poly != FP64.getIrredPoly()) {
+				// A new spec or a new irreducible polynomial.
+				this.seen = new IValue[sz];
+				this.cached = new IValue[sz];
+				this.raws = new long[sz];
+				this.muls = new long[sz][];
+				this.poly = FP64.getIrredPoly();
+			}
+			return this;
+		}
+
+		long fingerPrint(final int i, final IValue val, final long fp) {
+			if (this.cached[i] == val) {
+				return FP64.Mul(fp, this.muls[i]) ^ this.raws[i];
+			}
+			if (this.seen[i] != val || val.isAtom()) {
+				// Atoms are fingerprinted faster than composed.
+				this.seen[i] = val;
+				return val.fingerPrint(fp);
+			}
+			// Seen val the second time in a row, thus likely more to come.
+			final long raw = val.fingerPrint(FP64.Zero);
+			final long mul = val.fingerPrint(FP64.One) ^ raw;
+			if (this.muls[i] == null) {
+				this.muls[i] = new long[256];
+			}
+			FP64.MulTable(mul, this.muls[i]);
+			this.raws[i] = raw;
+			this.cached[i] = val;
+			return FP64.Mul(fp, this.muls[i]) ^ raw;
+		}
+	}
+
   public final boolean allAssigned() {
     int len = this.values.length;    
     for (int i = 0; i < len; i++) {
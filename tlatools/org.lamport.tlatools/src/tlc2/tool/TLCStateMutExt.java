@@ -18,11 +18,12 @@ import tla2sany.semantic.SymbolNode;
 import tlc2.TLCGlobals;
 import tlc2.util.Context;
 import tlc2.util.FP64;
-import tlc2.value.IMVPerm;
+import tlc2.value.ICanonicalizer;
 import tlc2.value.IValue;
 import tlc2.value.IValueInputStream;
 import tlc2.value.IValueOutputStream;
 import tlc2.value.Values;
+import tlc2.value.impl.MVPerms;
 import util.UniqueString;
 import util.WrongInvocationException;
 
@@ -41,10 +42,10 @@ public final class TLCStateMutExt extends TLCState implements Cloneable, Seriali
   private static SemanticNode viewMap = null;
 
   /**
-   * If non-null, perms denotes the set of permutations under the
-   * symmetry assumption.
+   * If non-null, canonicalizer reduces a state to the representative
+   * of its orbit under the symmetry assumption.
    */
-  private static IMVPerm[] perms = null;
+  private static ICanonicalizer canonicalizer = null;
 
   private TLCStateMutExt(IValue[] vals) { this.values = vals; }
   
@@ -68,7 +69,7 @@ public final class TLCStateMutExt extends TLCState implements Cloneable, Seriali
   public static void setTool(ITool tool) {
     mytool = tool;
     viewMap = tool.getViewSpec();
-    perms = tool.getSymmetryPerms();
+    canonicalizer = MVPerms.getCanonicalizer(tool.getSymmetryPerms());
   }
 
   public final TLCState createEmpty() {
@@ -192,62 +193,22 @@ public final class TLCStateMutExt extends TLCState implements Cloneable, Seriali
 		// the group this.perms (derived from the user-defined orbit). This is known as
 		// the constructive orbit problem and is NP-hard. The loop has O(|perms| * |this.values|)
 		// with |prems| = |symmetry set 1|! * |symmetry set 2|! * ... * |symmetry set n|. 
+		// The canonicalizer (see MVPerms#getCanonicalizer) determines how rep(s) is
+		// evaluated; RefiningCanonicalizer avoids applying all permutations for most
+		// states at the price of a representative that is not the smallest state.
         //		
 		// minVals is what is used to calculate/generate the fingerprint below.
 		// If this state is not the lexicographically smallest state ss, its current
 		// minVals will be replaced temporarily with the values of ss for the
 		// calculation of the fingerprint.
 		IValue[] minVals = this.values;
-		if (perms != null) {
-			IValue[] vals = new IValue[sz];
-			// The following for loop converges to the smallest state ss under symmetry by
-			// looping over all permutations applying each. If the outcome turns out to be
-			// lexicographically smaller than the currently smallest, it replaces the
-			// current smallest. Once all permutations (perms) have been processed, we know
-			// we have found the smallest state.
-			NEXT_PERM: for (int i = 0; i < perms.length; i++) {
-				int cmp = 0;
-				// For each value in values succinctly permute the current value
-				// and compare it to its corresponding minValue in minVals.
-				for (int j = 0; j < sz; j++) {
-					vals[j] = this.values[j].permute(perms[i]);
-					if (cmp == 0) {
-						// Only compare unless an earlier compare has found a
-						// difference already (if a difference has been found
-						// earlier, still permute the remaining values of the
-						// state to fully permute all state values).
-						cmp = vals[j].compareTo(minVals[j]);
-						if (cmp > 0) {
-							// When cmp evaluates to >0, all subsequent
-							// applications of perms[i] for the remaining values
-							// won't make the resulting vals[] smaller than
-							// minVals. Thus, exit preemptively from the loop
-							// over vals. This works because perms is the cross
-							// product of all symmetry sets.
-							continue NEXT_PERM;
-						}
-					}
-				}
-				// cmp < 0 means the current state is part of a symmetry
-				// permutation set/group and not the "smallest" one.
-				if (cmp < 0) {
-					if (minVals == this.values) {
-						minVals = vals;
-						vals = new IValue[sz];
-					} else {
-						IValue[] temp = minVals;
-						minVals = vals;
-						vals = temp;
-					}
-				}
-			}
+		if (canonicalizer != null) {
+			minVals = canonicalizer.canonicalize(this.values);
 		}
 		// Fingerprint the state:
 		long fp = FP64.New();
 		if (viewMap == null) {
-			for (int i = 0; i < sz; i++) {
-				fp = minVals[i].fingerPrint(fp);
-			}
+			fp = TLCStateMut.fingerPrint(minVals, fp);
 			if (this.values != minVals) {
 				for (int i = 0; i < sz; i++) {
 					this.values[i].deepNormalize();
@@ -0,0 +1,470 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import tlc2.tool.fp.LongArray;
+import tlc2.util.BufferedRandomAccessFile;
+
+/**
+ * An append-only log of (predecessor pointer, worker id, fingerprint) records
+ * that backs a {@link Worker}'s fragment of the {@link ConcurrentTLCTrace}.
+ * <p>
+ * The log is written by exactly one thread (the worker that owns it) and read
+ * by arbitrary threads, which do not block the writer. Records are encoded
+ * byte-for-byte like the records previously written with
+ * {@link BufferedRandomAccessFile#writeLongNat(long)},
+ * {@link BufferedRandomAccessFile#writeShortNat(int)} and
+ * {@link BufferedRandomAccessFile#writeLong(long)}, and a record's pointer is its
+ * offset in the (logical) byte stream. Thus, trace files and checkpoints are
+ * compatible with those of earlier versions.
+ * <p>
+ * The byte stream is kept in fixed-size chunks of memory:
+ * <ul>
+ * <li>{@link Disk} (default) cycles through a small ring of chunks on the heap.
+ * A background thread flushes completed chunks to the trace file, i.e. the
+ * writer never waits for I/O unless it is a full ring ahead of the flusher.</li>
+ * <li>{@link Memory} (-Dtlc2.tool.TraceLog.memory=true) keeps all chunks in
+ * off-heap {@link LongArray}s and writes them to the trace file only when a
+ * checkpoint is taken. Use it for runs whose trace fits into memory; a record
+ * takes 13 to 18 bytes.</li>
+ * </ul>
+ */
+abstract class TraceLog {
+
+	static final boolean MEMORY = Boolean.getBoolean(TraceLog.class.getName() + ".memory");
+
+	private static final int CHUNK_BITS = Integer.getInteger(TraceLog.class.getName() + ".chunkBits", 18);
+
+	private static final int RING = 4;
+
+	/**
+	 * writeLongNat (<= 8) + writeShortNat (<= 2) + writeLong (8).
+	 */
+	private static final int MAX_RECORD = 18;
+
+	static TraceLog create(final String filename) throws IOException {
+		if (MEMORY && LongArray.isSupported()) {
+			return new Memory(filename, CHUNK_BITS);
+		}
+		return new Disk(filename, CHUNK_BITS, RING);
+	}
+
+	protected final String filename;
+	protected final RandomAccessFile file;
+	protected final FileChannel channel;
+	protected final int chunkBits;
+	protected final int chunkMask;
+
+	/**
+	 * The position up to which the stream has been written and published to
+	 * readers. Bytes below it never change.
+	 */
+	protected final AtomicLong written = new AtomicLong();
+
+	// Only accessed by the writer.
+	private final byte[] scratch = new byte[MAX_RECORD];
+
+	protected TraceLog(final String filename, final int chunkBits) throws IOException {
+		this.filename = filename;
+		this.file = new RandomAccessFile(filename, "rw");
+		this.channel = this.file.getChannel();
+		this.chunkBits = chunkBits;
+		this.chunkMask = (1 << chunkBits) - 1;
+	}
+
+	/**
+	 * Appends a record and returns its pointer. Must only be called by the thread
+	 * that owns this log.
+	 */
+	final long append(final long predecessor, final int worker, final long fp) throws IOException {
+		final long ptr = this.written.get();
+		final byte[] b = this.scratch;
+		int n = 0;
+		// writeLongNat
+		if (predecessor <= 0x7fffffff) {
+			n = putInt(b, n, (int) predecessor);
+		} else {
+			n = putInt(b, n, (int) (-predecessor >>> 32));
+			n = putInt(b, n, (int) -predecessor);
+		}
+		// writeShortNat
+		if (worker <= 0x7f) {
+			b[n++] = (byte) worker;
+		} else {
+			b[n++] = (byte) (-worker >>> 8);
+			b[n++] = (byte) -worker;
+		}
+		// writeLong
+		n = putInt(b, n, (int) (fp >>> 32));
+		n = putInt(b, n, (int) fp);
+
+		put(ptr, b, n);
+		// Cheaper than a volatile write, but still orders the stores to the chunk
+		// before the store to written.
+		this.written.lazySet(ptr + n);
+		if ((ptr >>> this.chunkBits) != ((ptr + n) >>> this.chunkBits)) {
+			completed();
+		}
+		return ptr;
+	}
+
+	/**
+	 * Reads the record at the given pointer. May be called by any thread as long
+	 * as the record has been appended before (in the happens-before sense).
+	 */
+	final ConcurrentTLCTrace.Record read(final long ptr) throws IOException {
+		final byte[] b = new byte[MAX_RECORD];
+		get(ptr, b, (int) Math.min(MAX_RECORD, this.written.get() - ptr));
+
+		// readLongNat
+		int n = 0;
+		long predecessor = getInt(b, n);
+		n += 4;
+		if (predecessor < 0) {
+			predecessor = -((predecessor << 32) | (getInt(b, n) & 0xffffffffL));
+			n += 4;
+		}
+		// readShortNat
+		int worker = b[n++];
+		if (worker < 0) {
+			worker = -(short) ((worker << 8) | (b[n++] & 0xff));
+		}
+		// readLong
+		final long fp = ((long) getInt(b, n) << 32) | (getInt(b, n + 4) & 0xffffffffL);
+		return new ConcurrentTLCTrace.Record(predecessor, worker, fp);
+	}
+
+	/**
+	 * @return The position up to which records have been appended.
+	 */
+	final long getPosition() {
+		return this.written.get();
+	}
+
+	/**
+	 * Makes the trace file reflect all records appended so far.
+	 * 
+	 * @return The length of the trace file.
+	 */
+	abstract long sync() throws IOException;
+
+	/**
+	 * Continues the log at the given position of the trace file (see
+	 * {@link #sync()}). Records after it are dropped.
+	 */
+	void recover(final long position) throws IOException {
+		this.written.set(position);
+	}
+
+	/**
+	 * @return An enumerator over the fingerprints of all records appended so far.
+	 */
+	final Worker.Enumerator elements() throws IOException {
+		return new Worker.Enumerator(sync(), new BufferedRandomAccessFile(this.filename, "r"));
+	}
+
+	void close() throws IOException {
+		this.file.close();
+	}
+
+	/**
+	 * Copies the len bytes of src to the stream starting at pos. Only called by the
+	 * writer.
+	 */
+	protected abstract void put(long pos, byte[] src, int len) throws IOException;
+
+	/**
+	 * Called by the writer after it published a record that completed a chunk.
+	 */
+	protected void completed() {
+		// noop
+	}
+
+	/**
+	 * Copies the len bytes starting at pos into dst. pos + len must not exceed
+	 * {@link #written}.
+	 */
+	protected abstract void get(long pos, byte[] dst, int len) throws IOException;
+
+	private static int putInt(final byte[] b, int n, final int v) {
+		b[n++] = (byte) (v >>> 24);
+		b[n++] = (byte) (v >>> 16);
+		b[n++] = (byte) (v >>> 8);
+		b[n++] = (byte) v;
+		return n;
+	}
+
+	private static int getInt(final byte[] b, final int n) {
+		return (b[n] << 24) | ((b[n + 1] & 0xff) << 16) | ((b[n + 2] & 0xff) << 8) | (b[n + 3] & 0xff);
+	}
+
+	static final class Disk extends TraceLog implements Runnable {
+
+		private final byte[][] ring;
+		private final Thread flusher;
+
+		/**
+		 * The position up to which the stream has been written to the trace file.
+		 */
+		private volatile long flushed;
+		/**
+		 * The position up to which readers or checkpoints want the stream to be
+		 * written to the trace file (<= written).
+		 */
+		private final AtomicLong requested = new AtomicLong();
+		private volatile IOException failure;
+		private volatile boolean closed;
+
+		// Only accessed by the writer.
+		private long chunkIdx = -1L;
+		private byte[] chunk;
+
+		Disk(final String filename, final int chunkBits, final int ring) throws IOException {
+			super(filename, chunkBits);
+			// The writer has to be able to complete the chunk that a record straddles
+			// while the flusher lags behind by one chunk.
+			assert ring >= 2;
+			this.ring = new byte[ring][1 << chunkBits];
+			this.flusher = new Thread(this, Thread.currentThread().getName() + "-TraceFlusher");
+			this.flusher.setDaemon(true);
+			this.flusher.start();
+		}
+
+		@Override
+		protected void put(final long pos, final byte[] src, final int len) throws IOException {
+			for (int i = 0; i < len; i++) {
+				final long p = pos + i;
+				final long c = p >>> this.chunkBits;
+				if (c != this.chunkIdx) {
+					// The slot is free once its previous chunk, c - ring.length, has been
+					// flushed.
+					final long free = (c - this.ring.length + 1) << this.chunkBits;
+					if (this.flushed < free) {
+						LockSupport.unpark(this.flusher);
+						await(free);
+					}
+					this.chunk = this.ring[(int) (c % this.ring.length)];
+					this.chunkIdx = c;
+				}
+				this.chunk[(int) (p & this.chunkMask)] = src[i];
+			}
+		}
+
+		@Override
+		protected void completed() {
+			LockSupport.unpark(this.flusher);
+		}
+
+		@Override
+		protected void get(final long pos, final byte[] dst, final int len) throws IOException {
+			flush(pos + len);
+			final ByteBuffer buf = ByteBuffer.wrap(dst, 0, len);
+			while (buf.hasRemaining()) {
+				if (this.channel.read(buf, pos + buf.position()) < 0) {
+					throw new IOException("Unexpected end of trace file " + this.filename);
+				}
+			}
+		}
+
+		@Override
+		long sync() throws IOException {
+			final long pos = this.written.get();
+			flush(pos);
+			return pos;
+		}
+
+		@Override
+		void recover(final long position) throws IOException {
+			super.recover(position);
+			this.chunkIdx = -1L;
+			this.requested.set(position);
+			this.flushed = position;
+		}
+
+		@Override
+		void close() throws IOException {
+			this.closed = true;
+			LockSupport.unpark(this.flusher);
+			try {
+				this.flusher.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			super.close();
+		}
+
+		private void flush(final long pos) throws IOException {
+			if (this.flushed < pos) {
+				this.requested.accumulateAndGet(pos, Math::max);
+				LockSupport.unpark(this.flusher);
+				await(pos);
+			}
+		}
+
+		private void await(final long pos) throws IOException {
+			while (this.flushed < pos) {
+				if (this.failure != null) {
+					throw new IOException(this.failure);
+				}
+				LockSupport.parkNanos(this, 10_000L);
+			}
+		}
+
+		public void run() {
+			try {
+				while (true) {
+					// Flush all completed chunks unless more has been requested.
+					final long target = Math.max(this.written.get() & ~(long) this.chunkMask, this.requested.get());
+					long pos = this.flushed;
+					if (pos < target) {
+						while (pos < target) {
+							final byte[] buf = this.ring[(int) ((pos >>> this.chunkBits) % this.ring.length)];
+							final int off = (int) (pos & this.chunkMask);
+							final int len = (int) Math.min(buf.length - off, target - pos);
+							// RandomAccessFile instead of FileChannel writes a heap array
+							// without a temporary direct buffer. Only the flusher uses the
+							// file pointer; readers use positional reads.
+							this.file.seek(pos);
+							this.file.write(buf, off, len);
+							pos += len;
+						}
+						this.flushed = pos;
+					} else if (this.closed) {
+						return;
+					} else {
+						LockSupport.park(this);
+					}
+				}
+			} catch (IOException e) {
+				this.failure = e;
+			}
+		}
+	}
+
+	static final class Memory extends TraceLog {
+
+		/**
+		 * Eight bytes of the stream per long, big-endian. Chunks are published to
+		 * readers by the subsequent write to written.
+		 */
+		private LongArray[] chunks = new LongArray[16];
+
+		/**
+		 * The position up to which the stream has been written to the trace file.
+		 */
+		private long synced;
+
+		Memory(final String filename, final int chunkBits) throws IOException {
+			super(filename, chunkBits);
+		}
+
+		@Override
+		protected void put(final long pos, final byte[] src, final int len) {
+			int i = 0;
+			while (i < len) {
+				final long p = pos + i;
+				final int c = (int) (p >>> this.chunkBits);
+				if (c >= this.chunks.length) {
+					this.chunks = Arrays.copyOf(this.chunks, Math.max(c + 1, this.chunks.length * 2));
+				}
+				if (this.chunks[c] == null) {
+					this.chunks[c] = new LongArray((this.chunkMask + 1) >>> 3);
+				}
+				// Merge the bytes that go into the same long and write it once. A reader
+				// concurrently reading the long only looks at the bytes that have already
+				// been published.
+				final LongArray chunk = this.chunks[c];
+				final int idx = (int) (p & this.chunkMask) >>> 3;
+				long l = chunk.get(idx);
+				for (int off = (int) (p & 7); off < 8 && i < len; off++, i++) {
+					final int shift = (7 - off) << 3;
+					l = (l & ~(0xffL << shift)) | ((src[i] & 0xffL) << shift);
+				}
+				chunk.set(idx, l);
+			}
+		}
+
+		@Override
+		protected void get(final long pos, final byte[] dst, final int len) {
+			final LongArray[] cs = this.chunks;
+			for (int i = 0; i < len; i++) {
+				final long p = pos + i;
+				final int off = (int) (p & this.chunkMask);
+				dst[i] = (byte) (cs[(int) (p >>> this.chunkBits)].get(off >>> 3) >>> ((7 - (off & 7)) << 3));
+			}
+		}
+
+		@Override
+		synchronized long sync() throws IOException {
+			final long pos = this.written.get();
+			final byte[] buf = new byte[(int) Math.min(this.chunkMask + 1, Math.max(0L, pos - this.synced))];
+			long p = this.synced;
+			while (p < pos) {
+				final int len = (int) Math.min(buf.length, pos - p);
+				get(p, buf, len);
+				this.file.seek(p);
+				this.file.write(buf, 0, len);
+				p += len;
+			}
+			this.synced = pos;
+			return pos;
+		}
+
+		@Override
+		synchronized void recover(final long position) throws IOException {
+			// Load the trace file into memory.
+			final byte[] buf = new byte[(int) Math.min(this.chunkMask + 1, position)];
+			long p = 0L;
+			this.file.seek(p);
+			while (p < position) {
+				final int len = (int) Math.min(buf.length, position - p);
+				this.file.readFully(buf, 0, len);
+				put(p, buf, len);
+				p += len;
+			}
+			this.synced = position;
+			super.recover(position);
+		}
+
+		@Override
+		void close() throws IOException {
+			for (LongArray chunk : this.chunks) {
+				if (chunk != null) {
+					chunk.free();
+				}
+			}
+			super.close();
+		}
+	}
+}
@@ -36,6 +36,15 @@ public final class Worker extends IdThread implements IWorker, INextStateFunctor
 
 	protected static final boolean coverage = TLCGlobals.isCoverageEnabled();
 	private static final int INITIAL_CAPACITY = 16;
+	/**
+	 * The number of new successor states a worker stages locally before it hands
+	 * them to the {@link IStateQueue} in a single (synchronized) call. The stage is
+	 * also flushed whenever the worker is done with the current state, i.e. before
+	 * it dequeues the next one. Thus, the termination detection in the queue never
+	 * sees a worker waiting for work that still holds states. A value of 1 (or
+	 * less) reverts to enqueueing each successor individually.
+	 */
+	static final int ENQUEUE_THRESHOLD = Integer.getInteger(Worker.class.getName() + ".enqueueThreshold", 64);
 	
 	/**
 	 * Multi-threading helps only when running on multiprocessors. TLC can
@@ -46,11 +55,12 @@ public final class Worker extends IdThread implements IWorker, INextStateFunctor
 	private final Tool tool;
 	private final Mode mode;
 	private final IStateQueue squeue;
+	private final StateVec enqueueBuffer;
 	private final FPSet theFPSet;
 	private final IStateWriter allStateWriter;
 	private final IBucketStatistics outDegree;
 	private final String filename;
-	private final BufferedRandomAccessFile raf;
+	private final TraceLog trace;
 	private final boolean checkDeadlock;
 
 	private long lastPtr;
@@ -69,13 +79,14 @@ public final class Worker extends IdThread implements IWorker, INextStateFunctor
 		this.tool = (Tool) this.tlc.tool;
 		this.mode = this.tool.getMode();
 		this.squeue = this.tlc.theStateQueue;
+		this.enqueueBuffer = new StateVec(Math.max(1, ENQUEUE_THRESHOLD));
 		this.theFPSet = this.tlc.theFPSet;
 		this.allStateWriter = this.tlc.allStateWriter;
 		this.outDegree = new FixedSizedBucketStatistics(this.getName(), 32); // maximum outdegree of 32 appears sufficient for now.
 		this.setName("TLCWorkerThread-" + String.format("%03d", id));
 
 		this.filename = metadir + FileUtil.separator + specFile + "-" + myGetId();
-		this.raf = new BufferedRandomAccessFile(filename + TLCTrace.EXT, "rw");
+		this.trace = TraceLog.create(filename + TLCTrace.EXT);
 	}
 
 	/**
@@ -121,6 +132,10 @@ public final class Worker extends IdThread implements IWorker, INextStateFunctor
 					this.tlc.doNextFailed(curState, null, notExpectedToHappen);
 				}
 				
+				// Hand the remaining successors of curState to the other workers before we
+				// dequeue the next state (or find the queue empty and terminate).
+				this.flushEnqueueBuffer();
+				
 				if (this.checkDeadlock && preNext == this.statesGenerated) {
 					// A deadlock is defined as a state without (seen or unseen) successor
 					// states. In other words, evaluating the next-state relation for a state
@@ -156,6 +171,26 @@ public final class Worker extends IdThread implements IWorker, INextStateFunctor
 		}
 	}
 	
+	/* Enqueue */
+
+	/**
+	 * Stages succState for the state queue. succState must have passed the
+	 * invariant and implied-action checks.
+	 */
+	final void enqueue(final TLCState succState) {
+		this.enqueueBuffer.addElement(succState);
+		if (this.enqueueBuffer.size() >= ENQUEUE_THRESHOLD) {
+			this.flushEnqueueBuffer();
+		}
+	}
+
+	final void flushEnqueueBuffer() {
+		if (!this.enqueueBuffer.isEmpty()) {
+			this.squeue.sEnqueue(this.enqueueBuffer);
+			this.enqueueBuffer.clear();
+		}
+	}
+	
 	/* Liveness */
 	
 	private int multiplier = 1;
@@ -272,40 +307,35 @@ public final class Worker extends IdThread implements IWorker, INextStateFunctor
 	/* Maintain trace file (to reconstruct error-trace) */
 	
 	/*
-	 * Synchronize reads and writes to read a consistent union of all trace file
-	 * fragments when one worker W wants to create the counter-example. Otherwise, we
-	 * might not be able to correctly trace the path from state to an initial state.
-	 * The W thread holds ModelChecker.this. The other workers might either: a) Wait
-	 * on IStateQueue#sDequeue (waiting for a new state to be read from disk or
-	 * added to the queue) b) Wait on ModelChecker.this (because they also found
+	 * Only this worker appends to its trace fragment, whereas any worker reads
+	 * from it when it creates a counter-example. TraceLog publishes appended
+	 * records to readers without locking, i.e. a reader sees a consistent union of
+	 * all trace file fragments as long as the states whose traces it follows have
+	 * been handed to it through the state queue or ModelChecker.this. In other
+	 * words, the worker W that creates the counter-example does not have to
+	 * wait for the other workers, which might be: a) Waiting on
+	 * IStateQueue#sDequeue (waiting for a new state to be read from disk or added
+	 * to the queue) b) Waiting on ModelChecker.this (because they also found
 	 * another counter-example but are blocked until we are done printing it) c)
-	 * Wait on ModelChecker.this in Worker#run because the state queue is empty and
-	 * they which to terminate. d) Run state space exploration The on-disk file of
-	 * each worker's trace fragment is potentially inconsistent because the worker's
-	 * cache in BufferedRandomAccessFile hasn't been flushed out.
+	 * Waiting on ModelChecker.this in Worker#run because the state queue is empty
+	 * and they which to terminate. d) Running state space exploration.
 	 */
 	
-	public final synchronized void writeState(final TLCState initialState, final long fp) throws IOException {
+	public final void writeState(final TLCState initialState, final long fp) throws IOException {
 		// Write initial state to trace file.
-		this.lastPtr = this.raf.getFilePointer();
-		this.raf.writeLongNat(1L);
-		this.raf.writeShortNat(myGetId());
-		this.raf.writeLong(fp);
+		this.lastPtr = this.trace.append(1L, myGetId(), fp);
 		
 		// Add predecessor pointer to success state.
 		initialState.workerId = (short) myGetId();
 		initialState.uid = this.lastPtr;
 	}
 
-	public final synchronized void writeState(final TLCState curState, final long sucStateFp, final TLCState sucState) throws IOException {
+	public final void writeState(final TLCState curState, final long sucStateFp, final TLCState sucState) throws IOException {
 		// Keep track of maximum diameter.
 		maxLevel = Math.max(curState.getLevel() + 1, maxLevel);
 		
 		// Write to trace file.
-		this.lastPtr = this.raf.getFilePointer();
-		this.raf.writeLongNat(curState.uid);
-		this.raf.writeShortNat(curState.workerId);
-		this.raf.writeLong(sucStateFp);
+		this.lastPtr = this.trace.append(curState.uid, curState.workerId, sucStateFp);
 		
 		// Add predecessor pointer to success state.
 		sucState.workerId = (short) myGetId();
@@ -321,36 +351,19 @@ public final class Worker extends IdThread implements IWorker, INextStateFunctor
 	}
 
 	// Read from previously written (see writeState) trace file.
-	public final synchronized ConcurrentTLCTrace.Record readStateRecord(final long ptr) throws IOException {
-		// Remember current tip of the file before we rewind.
-		this.raf.mark();
-		
-		// rewind to position we want to read from.
-		this.raf.seek(ptr);
-		
-		final long prev = this.raf.readLongNat();
+	public final ConcurrentTLCTrace.Record readStateRecord(final long ptr) throws IOException {
 		assert 0 <= ptr;
-		
-		final int worker = this.raf.readShortNat();
-		assert 0 <= worker && worker < tlc.workers.length;
-			
-		final long fp = this.raf.readLong();
-		assert tlc.theFPSet.contains(fp);
-		
-		// forward/go back back to tip of file.
-		// This is only necessary iff TLC runs with '-continue'. In other words, state
-		// space exploration continues after an error trace has been written.
-		this.raf.seek(this.raf.getMark());
-		
-		return new ConcurrentTLCTrace.Record(prev, worker, fp);
+		final ConcurrentTLCTrace.Record record = this.trace.read(ptr);
+		assert 0 <= record.getWorkerId() && record.getWorkerId() < tlc.workers.length;
+		assert tlc.theFPSet.contains(record.getFP());
+		return record;
 	}
 	
 	/* Checkpointing */
 
 	public final synchronized void beginChkpt() throws IOException {
-		this.raf.flush();
 		final DataOutputStream dos = FileUtil.newDFOS(filename + ".tmp");
-		dos.writeLong(this.raf.getFilePointer());
+		dos.writeLong(this.trace.sync());
 		dos.writeLong(this.lastPtr);
 		dos.close();
 	}
@@ -368,23 +381,27 @@ public final class Worker extends IdThread implements IWorker, INextStateFunctor
 		final long filePos = dis.readLong();
 		this.lastPtr = dis.readLong();
 		dis.close();
-		this.raf.seek(filePos);
+		this.trace.recover(filePos);
+	}
+
+	public final void closeTrace() throws IOException {
+		this.trace.close();
 	}
 	
 	/* Enumerator */
 	
 	public final Enumerator elements() throws IOException {
-		return new Enumerator();
+		return this.trace.elements();
 	}
 
-	public class Enumerator {
+	public static class Enumerator {
 
 		private final long len;
 		private final BufferedRandomAccessFile enumRaf;
 
-		Enumerator() throws IOException {
-			this.len = raf.getFilePointer();
-			this.enumRaf = new BufferedRandomAccessFile(filename + TLCTrace.EXT, "r");
+		Enumerator(final long len, final BufferedRandomAccessFile enumRaf) {
+			this.len = len;
+			this.enumRaf = enumRaf;
 		}
 
 		public boolean hasMoreFP() {
@@ -456,7 +473,7 @@ public final class Worker extends IdThread implements IWorker, INextStateFunctor
 				// The state is inModel, unseen and neither invariants
 				// nor implied actions are violated. It is thus eligible
 				// for further processing by other workers.
-				this.squeue.sEnqueue(succState);
+				this.enqueue(succState);
 			}
 			return this;
 		} catch (Exception e) {
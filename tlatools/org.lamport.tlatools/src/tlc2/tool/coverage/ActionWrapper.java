@@ -42,7 +42,8 @@ public final class ActionWrapper extends CostModelNode {
 	private final Action action;
 	private final Relation relation;
 	
-	public ActionWrapper(final Action action, Relation rel) {
+	public ActionWrapper(final Action action, Relation rel, CostModelCounters counters) {
+		super(counters);
 		this.action = action;
 		this.relation = rel;
 	}
@@ -104,17 +105,20 @@ public final class ActionWrapper extends CostModelNode {
 	 * @see tlc2.tool.CostModel#get(tla2sany.semantic.SemanticNode)
 	 */
 	@Override
-	public final CostModel get(final SemanticNode eon) {
+	public final CostModelNode get(final SemanticNode eon) {
 		// returns this instance in case no match is found in children. As a result, the
 		// CostModel will be incorrect which is not as severe as running into an NPE.
+		final CostModelNode child;
 		if (eon instanceof SubstInNode) {
 			final SubstInNode sin = (SubstInNode) eon;
-			return this.children.getOrDefault(sin.getBody(), this);
+			child = this.lookup(sin.getBody());
 		} else if (eon instanceof LetInNode) {
 			final LetInNode lin = (LetInNode) eon;
-			return this.children.getOrDefault(lin.getBody(), this);
+			child = this.lookup(lin.getBody());
+		} else {
+			child = this.lookup(eon);
 		}
-		return this.children.getOrDefault(eon, this);
+		return child != null ? child : this;
 	}
 
 	/* (non-Javadoc)
@@ -139,20 +143,20 @@ public final class ActionWrapper extends CostModelNode {
 	public CostModel report() {
 		// Report count for action itself.
 		if (relation == Relation.PROP) {
-			assert getEvalCount() == 0L && this.secondary.getCount() == 0L;
+			assert getEvalCount() == 0L && getSecondary() == 0L;
 			MP.printMessage(EC.TLC_COVERAGE_PROPERTY, new String[] { printLocation() });
 		} else if (relation == Relation.INIT) {
 			// TODO Eventually coverage for init and next should consistently report states
 			// found and distinct states into the same counters.
 			MP.printMessage(EC.TLC_COVERAGE_INIT, new String[] { printLocation(), String.valueOf(getEvalCount()),
-					String.valueOf(getEvalCount() + this.secondary.getCount()) });
+					String.valueOf(getEvalCount() + getSecondary()) });
 		} else if (relation == Relation.CONSTRAINT) {
 			MP.printMessage(EC.TLC_COVERAGE_CONSTRAINT,
-					new String[] { printLocation(), String.valueOf(this.secondary.getCount()),
-							String.valueOf(getEvalCount() + this.secondary.getCount()) });
+					new String[] { printLocation(), String.valueOf(getSecondary()),
+							String.valueOf(getEvalCount() + getSecondary()) });
 		} else {
 			MP.printMessage(EC.TLC_COVERAGE_NEXT, new String[] { printLocation(),
-					String.valueOf(this.secondary.getCount()), String.valueOf(getEvalCount()) });
+					String.valueOf(getSecondary()), String.valueOf(getEvalCount()) });
 		}
 
 		// An action has single child which is the OpApplNodeWrapper with the OpApplNode
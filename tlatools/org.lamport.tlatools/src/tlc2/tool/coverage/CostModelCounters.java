@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.coverage;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stores the eval and secondary counts of the {@link CostModelNode}s of one
+ * run. CostModelCreator creates the counters along with the nodes of a model,
+ * and assigns each node dense slot ids. The evaluating thread increments the
+ * count in its own long[] at the node's slot, i.e. without contention or
+ * atomic instructions. Reporting sums the counts of all threads, including the
+ * ones that have since terminated. {@link #clear()} releases the counts when
+ * the run has ended.
+ * <p>
+ * Similar to the snapshot taken by {@link OpApplNodeWrapper}, the sum is not a
+ * consistent snapshot while threads still evaluate the spec.
+ */
+final class CostModelCounters {
+
+	/*
+	 * Count only every N-th evaluation of an OpApplNode (and add N to its count)
+	 * to reduce the overhead of coverage. The eval counts are then estimates
+	 * and consequently, TLC might not report a rarely evaluated expression.
+	 * Each thread samples every node on its own, i.e. a node's count is short of
+	 * its evaluations by less than N per thread.
+	 * Counts of states found and distinct states per action remain exact.
+	 * 
+	 * Activate with: -Dtlc2.tool.coverage.CostModelCounters.sampling=N
+	 */
+	static final int SAMPLING = Math
+			.max(1, Integer.getInteger(CostModelCounters.class.getName() + ".sampling", 1));
+
+	private final AtomicInteger slots = new AtomicInteger();
+
+	// The counts of the threads that have counted for this run's nodes.
+	private final List<Counts> all = new CopyOnWriteArrayList<>();
+
+	private final ThreadLocal<Counts> local = ThreadLocal.withInitial(() -> {
+		final Counts counts = new Counts(this.slots.get());
+		this.all.add(counts);
+		return counts;
+	});
+
+	/**
+	 * @return The first of n consecutive slots.
+	 */
+	int allocate(final int n) {
+		return this.slots.getAndAdd(n);
+	}
+
+	/**
+	 * Releases the counts of all threads. Only to be called when the nodes are no
+	 * longer evaluated, i.e. after the run has ended. Counts are zero afterwards.
+	 */
+	void clear() {
+		for (final Counts counts : this.all) {
+			counts.counts = new long[0];
+			counts.pending = new int[0];
+		}
+		this.all.clear();
+	}
+
+	void add(final int slot, final long n) {
+		this.local.get().add(slot, n);
+	}
+
+	void sample(final int slot) {
+		sample(slot, SAMPLING);
+	}
+
+	/**
+	 * Adds n to the count at the given slot on every n-th call for that slot.
+	 */
+	void sample(final int slot, final int n) {
+		this.local.get().sample(slot, n);
+	}
+
+	long get(final int slot) {
+		long sum = 0L;
+		for (final Counts counts : this.all) {
+			sum += counts.get(slot);
+		}
+		return sum;
+	}
+
+	private final class Counts {
+		// volatile to publish the grown array to the thread that reports.
+		private volatile long[] counts;
+		// The evaluations per slot not yet added to counts when sampling. Only
+		// used by the owning thread (and clear).
+		private int[] pending;
+
+		Counts(final int length) {
+			this.counts = new long[length];
+			this.pending = new int[0];
+		}
+
+		void add(final int slot, final long n) {
+			long[] c = this.counts;
+			if (slot >= c.length) {
+				// Nodes created after this thread first counted, e.g. by unit tests.
+				c = Arrays.copyOf(c, Math.max(slot + 1, slots.get()));
+				this.counts = c;
+			}
+			c[slot] += n;
+		}
+
+		void sample(final int slot, final int n) {
+			int[] p = this.pending;
+			if (slot >= p.length) {
+				p = Arrays.copyOf(p, Math.max(slot + 1, slots.get()));
+				this.pending = p;
+			}
+			if (++p[slot] >= n) {
+				p[slot] = 0;
+				add(slot, n);
+			}
+		}
+
+		long get(final int slot) {
+			final long[] c = this.counts;
+			return slot < c.length ? c[slot] : 0L;
+		}
+	}
+}
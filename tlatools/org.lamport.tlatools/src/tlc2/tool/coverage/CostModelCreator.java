@@ -53,6 +53,7 @@ import tlc2.output.MP;
 import tlc2.tool.Action;
 import tlc2.tool.ITool;
 import tlc2.tool.coverage.ActionWrapper.Relation;
+import tlc2.tool.impl.OpMemoizer;
 import tlc2.util.Context;
 import tlc2.util.ObjLongTable;
 import tlc2.util.Vect;
@@ -159,26 +160,29 @@ public class CostModelCreator extends ExplorerVisitor {
 	// Sequences.tla showed up in coverage output.
 	private final Set<OpApplNodeWrapper> nodes = new HashSet<>();
 	private final ITool tool;
+	private final CostModelCounters counters;
 	
 	private ActionWrapper root;
 	private Context ctx = Context.Empty;
 	
-	private CostModelCreator(final SemanticNode root, final ITool tool) {
+	private CostModelCreator(final SemanticNode root, final ITool tool, final CostModelCounters counters) {
 		this.tool = tool;
-		this.stack.push(new RecursiveOpApplNodeWrapper());
+		this.counters = counters;
+		this.stack.push(new RecursiveOpApplNodeWrapper(counters));
 		root.walkGraph(new CoverageHashTable(opDefNodes), this);
 	}
 
 	// root cannot be type OpApplNode but has to be SemanticNode (see Test216).
-	private CostModelCreator(final ITool tool) {
+	private CostModelCreator(final ITool tool, final CostModelCounters counters) {
 		this.tool = tool;
+		this.counters = counters;
 		// MAK 10/08/2018: Annotate OApplNodes in the semantic tree that correspond to
 		// primed vars. It is unclear why OpApplNodes do not get marked as primed when
 		// instantiated. The logic in Tool#getPrimedLocs is too obscure to tell.
 		final ObjLongTable<SemanticNode>.Enumerator<SemanticNode> keys = tool.getPrimedLocs().keys();
 		SemanticNode sn;
 		while ((sn = keys.nextElement()) != null) {
-			this.nodes.add(new OpApplNodeWrapper((OpApplNode) sn, null));
+			this.nodes.add(new OpApplNodeWrapper((OpApplNode) sn, null, counters));
 		}
 	}
 
@@ -190,7 +194,7 @@ public class CostModelCreator extends ExplorerVisitor {
 		this.stack.clear();
 		this.ctx = Context.Empty;
 		
-		this.root = new ActionWrapper(act, relation);
+		this.root = new ActionWrapper(act, relation, this.counters);
 		this.stack.push(root);
 		act.pred.walkGraph(new CoverageHashTable(opDefNodes), this);
 		
@@ -208,9 +212,9 @@ public class CostModelCreator extends ExplorerVisitor {
 			
 	        final OpApplNodeWrapper oan;
 			if (opApplNode.hasOpcode(OPCODE_unchanged)) {
-				oan = new UnchangedOpApplNodeWrapper(opApplNode, this.root);
+				oan = new UnchangedOpApplNodeWrapper(opApplNode, this.root, this.counters);
 			} else {
-				oan = new OpApplNodeWrapper(opApplNode, this.root);
+				oan = new OpApplNodeWrapper(opApplNode, this.root, this.counters);
 			}
 			
 			if (nodes.contains(oan)) {
@@ -245,7 +249,7 @@ public class CostModelCreator extends ExplorerVisitor {
 				final OpDefNode odn = (OpDefNode) val;
 				final ExprNode body = odn.getBody();
 				if (body instanceof OpApplNode) {
-					final CostModelCreator substitution = new CostModelCreator(body, tool);
+					final CostModelCreator substitution = new CostModelCreator(body, tool, this.counters);
 					oan.addChild((OpApplNodeWrapper) substitution.getModel());
 				}
 			}			
@@ -365,7 +369,7 @@ public class CostModelCreator extends ExplorerVisitor {
 	}
 	
 	public static final void create(final ITool tool) {
-		final CostModelCreator collector = new CostModelCreator(tool);
+		final CostModelCreator collector = new CostModelCreator(tool, new CostModelCounters());
 
 		// TODO Start from the ModuleNode similar to how the Explorer works. It is
 		// unclear how to lookup the corresponding subtree in the global CM graph
@@ -420,6 +424,28 @@ public class CostModelCreator extends ExplorerVisitor {
         }
 	}
 	
+	/**
+	 * Releases the counts collected for the cost model that
+	 * {@link #create(ITool)} created for the given tool. To be called when the
+	 * run has ended, i.e. after the final report.
+	 */
+	public static void release(final ITool tool) {
+		// All nodes of a cost model share the same counters.
+		final Vect<Action> init = tool.getInitStateSpec();
+		for (int i = 0; i < init.size(); i++) {
+			if (init.elementAt(i).cm instanceof CostModelNode) {
+				((CostModelNode) init.elementAt(i).cm).counters.clear();
+				return;
+			}
+		}
+		for (Action action : tool.getActions()) {
+			if (action.cm instanceof CostModelNode) {
+				((CostModelNode) action.cm).counters.clear();
+				return;
+			}
+		}
+	}
+	
 	public static void report(final ITool tool, final long startTime) {
         MP.printMessage(EC.TLC_COVERAGE_START);
     	final Vect<Action> init = tool.getInitStateSpec();
@@ -480,12 +506,15 @@ public class CostModelCreator extends ExplorerVisitor {
     			impliedActions.cm.report();
     		}
         }
+
+        // Hits and misses of the operators memoized with -Dtlc2.tool.impl.Tool.memoize.
+        OpMemoizer.report();
        
 		// Notify users about the performance overhead related to coverage collection
 		// after N minutes of model checking. The assumption is that a user has little
-		// interest in coverage for a large (long-running) model anyway.  In the future
-        // it is hopefully possible to switch from profiling to sampling to relax the
-        // performance overhead of coverage and cost statistics.
+		// interest in coverage for a large (long-running) model anyway.
+        // Sampling (see CostModelCounters) relaxes the performance overhead of coverage
+        // and cost statistics.
 		final long l = System.currentTimeMillis() - startTime;
 		if (l > (5L * 60L * 1000L)) {
 			MP.printMessage(EC.TLC_COVERAGE_END_OVERHEAD);
@@ -30,8 +30,6 @@ import java.util.Map;
 
 import tla2sany.semantic.SemanticNode;
 import tla2sany.st.Location;
-import tlc2.TLCGlobals;
-import tlc2.util.statistics.CounterStatistic;
 
 public abstract class CostModelNode implements CostModel {
 	
@@ -39,17 +37,31 @@ public abstract class CostModelNode implements CostModel {
 	// order when reporting coverage. Thus, use LinkedHashMap here.
 	protected final Map<SemanticNode, CostModelNode> children = new LinkedHashMap<>();
 
-	protected final CounterStatistic stats = CounterStatistic.getInstance(() -> TLCGlobals.isCoverageEnabled());
-	protected final CounterStatistic secondary = CounterStatistic.getInstance(() -> TLCGlobals.isCoverageEnabled());
+	// The children again, indexed by the uid of their SemanticNode in an
+	// open-addressing table. Looking up a child for every evaluated OpApplNode in
+	// children would pay for SemanticNode#hashCode/equals and the LinkedHashMap's
+	// entries.
+	private int[] uids = new int[0];
+	private CostModelNode[] index = new CostModelNode[0];
+
+	// The counters of this node's run, in which this node's eval count is at
+	// slot and its secondary count at slot + 1.
+	final CostModelCounters counters;
+	private final int slot;
+
+	CostModelNode(final CostModelCounters counters) {
+		this.counters = counters;
+		this.slot = counters.allocate(2);
+	}
 	
 	// ---------------- Statistics ---------------- //
 
 	protected long getEvalCount() {
-		return this.stats.getCount();
+		return this.counters.get(this.slot);
 	}
 
 	protected long getSecondary() {
-		return this.secondary.getCount();
+		return this.counters.get(this.slot + 1);
 	}
 
 	protected abstract Location getLocation();
@@ -59,10 +71,70 @@ public abstract class CostModelNode implements CostModel {
 	void addChild(final CostModelNode child) {
 		final boolean newlyInserted = this.children.put(child.getNode(), child) == null;
 		assert newlyInserted;
+		if (child.getNode() != null) {
+			index(child.getNode().getUid(), child);
+		}
+	}
+
+	private void index(final int uid, final CostModelNode child) {
+		if (2 * this.children.size() > this.index.length) {
+			// Keep the load factor at or below 1/2.
+			final int[] newUids = new int[Math.max(4, this.index.length * 2)];
+			final CostModelNode[] newIndex = new CostModelNode[newUids.length];
+			for (int i = 0; i < this.index.length; i++) {
+				if (this.index[i] != null) {
+					insert(newUids, newIndex, this.uids[i], this.index[i]);
+				}
+			}
+			this.uids = newUids;
+			this.index = newIndex;
+		}
+		insert(this.uids, this.index, uid, child);
+	}
+
+	private static void insert(final int[] uids, final CostModelNode[] index, final int uid,
+			final CostModelNode child) {
+		final int mask = index.length - 1;
+		int i = mix(uid) & mask;
+		while (index[i] != null && uids[i] != uid) {
+			i = (i + 1) & mask;
+		}
+		uids[i] = uid;
+		index[i] = child;
+	}
+
+	/**
+	 * @return The child whose SemanticNode is sn or null.
+	 */
+	final CostModelNode lookup(final SemanticNode sn) {
+		if (sn == null) {
+			return null;
+		}
+		final CostModelNode[] idx = this.index;
+		final int uid = sn.getUid();
+		final int mask = idx.length - 1;
+		int i = mix(uid) & mask;
+		CostModelNode child;
+		while (mask >= 0 && (child = idx[i]) != null) {
+			if (this.uids[i] == uid) {
+				return child;
+			}
+			i = (i + 1) & mask;
+		}
+		return null;
+	}
+
+	private static int mix(final int uid) {
+		// uids are mostly consecutive, spread them over the table.
+		final int h = uid * 0x9E3779B9;
+		return h ^ (h >>> 16);
 	}
 
 	abstract SemanticNode getNode();
 	
+	@Override
+	public abstract CostModelNode get(final SemanticNode sn);
+
 	@Override
 	public abstract CostModelNode getRoot();
 	
@@ -78,29 +150,31 @@ public abstract class CostModelNode implements CostModel {
 	
 	@Override
 	public final CostModel getAndIncrement(final SemanticNode eon) {
-		return get(eon).incInvocations();
+		final CostModelNode child = get(eon);
+		child.counters.sample(child.slot);
+		return child;
 	}
 
 	@Override
 	public final CostModel incInvocations(long size) {
-		this.stats.add(size);
+		this.counters.add(this.slot, size);
 		return this;
 	}
 
 	@Override
 	public final CostModel incInvocations() {
-		this.stats.increment();
+		this.counters.add(this.slot, 1L);
 		return this;
 	}
 
 	public final CostModel incSecondary() {
-		this.secondary.increment();
+		this.counters.add(this.slot + 1, 1L);
 		return this;
 	}
 
 	@Override
 	public final CostModel incSecondary(final long value) {
-		this.secondary.add(value);
+		this.counters.add(this.slot + 1, value);
 		return this;
 	}
 }
@@ -59,8 +59,8 @@ public class OpApplNodeWrapper extends CostModelNode implements Comparable<OpApp
 	private CostModelNode recursive;
 	protected final Map<SemanticNode, CostModelNode> lets = new LinkedHashMap<>();
 
-	OpApplNodeWrapper(OpApplNode node, CostModelNode root) {
-		super();
+	OpApplNodeWrapper(OpApplNode node, CostModelNode root, CostModelCounters counters) {
+		super(counters);
 		this.node = node;
 		this.root = root;
 		this.level = 0;
@@ -68,12 +68,12 @@ public class OpApplNodeWrapper extends CostModelNode implements Comparable<OpApp
 
 	// For unit testing only.
 	OpApplNodeWrapper() {
-		this(null, null);
+		this(null, null, new CostModelCounters());
 	}
 
 	// For unit testing only.
 	OpApplNodeWrapper(OpApplNode node, long samples) {
-		this(node, null);
+		this(node, null, new CostModelCounters());
 		this.incInvocations(samples);
 	}
 
@@ -164,13 +164,13 @@ public class OpApplNodeWrapper extends CostModelNode implements Comparable<OpApp
 			return this;
 		}
 		
-		CostModelNode child = children.get(eon);
+		CostModelNode child = lookup(eon);
 		if (child != null) {
 			return child;
 		}
 		
 		if (recursive != null) {
-			child = recursive.children.get(eon);
+			child = recursive.lookup(eon);
 			if (child != null) {
 				return child;
 			}
@@ -27,8 +27,8 @@ package tlc2.tool.coverage;
 
 public final class RecursiveOpApplNodeWrapper extends OpApplNodeWrapper {
 
-	RecursiveOpApplNodeWrapper() {
-		super(null, null);
+	RecursiveOpApplNodeWrapper(CostModelCounters counters) {
+		super(null, null, counters);
 	}
 
 	@Override
@@ -32,8 +32,8 @@ import tla2sany.semantic.OpApplNode;
 
 public class UnchangedOpApplNodeWrapper extends OpApplNodeWrapper {
 
-	public UnchangedOpApplNodeWrapper(OpApplNode opApplNode, ActionWrapper root) {
-		super(opApplNode, root);
+	public UnchangedOpApplNodeWrapper(OpApplNode opApplNode, ActionWrapper root, CostModelCounters counters) {
+		super(opApplNode, root, counters);
 	}
 
 	@Override
@@ -0,0 +1,539 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.distributed;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.rmi.RemoteException;
+import java.rmi.ServerException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+import tlc2.output.EC;
+import tlc2.output.MP;
+import tlc2.tool.TLCState;
+import tlc2.tool.TLCStateVec;
+import tlc2.tool.WorkerException;
+import tlc2.util.LongVec;
+import tlc2.value.IValueInputStream;
+import tlc2.value.IValueOutputStream;
+import tlc2.value.ValueInputStream;
+import tlc2.value.ValueOutputStream;
+import util.ToolIO;
+
+/**
+ * A binary transport for the data plane of distributed TLC, i.e.
+ * {@link TLCWorkerRMI#getNextStates(TLCState[])}. Everything else (worker
+ * registration, aliveness checks, the fingerprint sets, ...) stays on RMI.
+ * <p>
+ * RMI serializes the {@link TLCState}s and the {@link NextStateResult} with
+ * Java serialization and permits a single outstanding call per worker. Here,
+ * a {@link TLCWorker} additionally listens on a plain socket channel (see
+ * {@link Endpoint}) to which the {@link TLCServer} connects (see
+ * {@link Proxy}). Batches of states are sent as length-prefixed frames that
+ * contain the compact {@link ValueOutputStream} encoding of the states (the
+ * same encoding the disk-based state queue uses), optionally compressed.
+ * Several batches can be outstanding at the same time, so that a worker
+ * computes the next batch while the server is busy inserting the results of
+ * the previous one into its fingerprint set and state queue (see
+ * {@link TLCServerThread}).
+ * <p>
+ * The transport is off by default and is activated on the worker with
+ * -Dtlc2.tool.distributed.NIOTransport.enabled=true. The server falls back to
+ * RMI for every worker that does not offer the transport or that cannot be
+ * reached on its transport port.
+ */
+public final class NIOTransport {
+
+	/**
+	 * Activate with -Dtlc2.tool.distributed.NIOTransport.enabled=true on the
+	 * worker.
+	 */
+	public static final String ENABLED_KEY = NIOTransport.class.getName() + ".enabled";
+	/**
+	 * Compress frames (-Dtlc2.tool.distributed.NIOTransport.compress=true on the
+	 * server). Pays off when the network rather than the CPU is the bottleneck.
+	 */
+	public static final String COMPRESS_KEY = NIOTransport.class.getName() + ".compress";
+	/**
+	 * The number of batches the server sends to a worker before it waits for the
+	 * first result (-Dtlc2.tool.distributed.NIOTransport.window=4).
+	 */
+	public static final String WINDOW_KEY = NIOTransport.class.getName() + ".window";
+	/**
+	 * The maximum number of states in a single batch
+	 * (-Dtlc2.tool.distributed.NIOTransport.batch=1024). Blocks handed out by
+	 * the IBlockSelector are split into batches of this size.
+	 */
+	public static final String BATCH_KEY = NIOTransport.class.getName() + ".batch";
+
+	static final boolean ENABLED = Boolean.getBoolean(ENABLED_KEY);
+	static final boolean COMPRESS = Boolean.getBoolean(COMPRESS_KEY);
+	static final int WINDOW = Math.max(1, Integer.getInteger(WINDOW_KEY, 4));
+	static final int BATCH = Math.max(1, Integer.getInteger(BATCH_KEY, 1024));
+
+	private static final byte OK = 0;
+	private static final byte WORKER_EXCEPTION = 1;
+	private static final byte REMOTE_EXCEPTION = 2;
+	private static final byte OUT_OF_MEMORY = 3;
+
+	/**
+	 * Channels copy heap buffers into temporary direct buffers of the same size.
+	 * Limit how much is handed to a single read/write to not exhaust
+	 * -XX:MaxDirectMemorySize with large frames.
+	 */
+	private static final int IO_CHUNK = 64 * 1024;
+
+	private NIOTransport() {
+		// no instantiation
+	}
+
+	/**
+	 * @return A {@link Proxy} for the given worker if it offers the transport and
+	 *         can be connected to, otherwise the given worker (RMI).
+	 */
+	static TLCWorkerRMI connect(final TLCWorkerRMI worker) throws RemoteException {
+		final int port = worker.getTransportPort();
+		if (port < 0) {
+			return worker;
+		}
+		final URI uri = worker.getURI();
+		try {
+			final Proxy proxy = new Proxy(worker, SocketChannel.open(new InetSocketAddress(uri.getHost(), port)),
+					COMPRESS);
+			ToolIO.out.println("Connected to worker at " + uri + " via NIOTransport on port " + port
+					+ (COMPRESS ? " (compressed)" : ""));
+			return proxy;
+		} catch (IOException e) {
+			MP.printWarning(EC.GENERAL, "Failed to connect to worker " + uri + " on port " + port
+					+ ", falling back to RMI (" + e.getMessage() + ")");
+			return worker;
+		}
+	}
+
+	// ************************************//
+
+	/**
+	 * The server side of a connection to a single {@link TLCWorker}. Calls other
+	 * than {@link #getNextStates(TLCState[])} are delegated to the RMI stub.
+	 * <p>
+	 * {@link #send(TLCState[])} and {@link #receive()} may be used to pipeline
+	 * requests. Results are received in the order the requests have been sent.
+	 * A single thread (the {@link TLCServerThread}) is expected to use a proxy.
+	 */
+	static final class Proxy implements TLCWorkerRMI {
+
+		private final TLCWorkerRMI worker;
+		private final SocketChannel channel;
+		private final boolean compress;
+		private final ByteBuffer header = ByteBuffer.allocate(4);
+		private int outstanding;
+
+		Proxy(final TLCWorkerRMI worker, final SocketChannel channel, final boolean compress) throws IOException {
+			this.worker = worker;
+			this.channel = channel;
+			this.compress = compress;
+			this.channel.socket().setTcpNoDelay(true);
+
+			// Tell the endpoint whether frames are compressed.
+			writeFully(channel, ByteBuffer.wrap(new byte[] { (byte) (compress ? 1 : 0) }));
+		}
+
+		/* (non-Javadoc)
+		 * @see tlc2.tool.distributed.TLCWorkerRMI#getNextStates(tlc2.tool.TLCState[])
+		 */
+		public NextStateResult getNextStates(final TLCState[] states) throws RemoteException, WorkerException {
+			send(states);
+			return receive();
+		}
+
+		void send(final TLCState[] states) throws RemoteException {
+			send(states, 0, states.length);
+		}
+
+		/**
+		 * Sends states[from, to) to the worker without waiting for the result.
+		 */
+		void send(final TLCState[] states, final int from, final int to) throws RemoteException {
+			try {
+				final Frame frame = new Frame();
+				final IValueOutputStream vos = new ValueOutputStream(frame, compress);
+				vos.writeInt(to - from);
+				for (int i = from; i < to; i++) {
+					states[i].write(vos);
+				}
+				vos.close();
+				frame.writeTo(channel);
+				outstanding++;
+			} catch (IOException e) {
+				throw new RemoteException("Failed to send states to worker", e);
+			}
+		}
+
+		/**
+		 * @return The result of the oldest request sent with
+		 *         {@link #send(TLCState[])} that has not been received yet.
+		 */
+		NextStateResult receive() throws RemoteException, WorkerException {
+			try {
+				final IValueInputStream vis = readFrame(channel, header, compress);
+				outstanding--;
+				final byte status = vis.readByte();
+				if (status == OK) {
+					final long computationTime = vis.readLong();
+					final long statesComputed = vis.readLong();
+					final int fpServerCnt = vis.readInt();
+					final TLCStateVec[] nextStates = new TLCStateVec[fpServerCnt];
+					final LongVec[] nextFingerprints = new LongVec[fpServerCnt];
+					for (int i = 0; i < fpServerCnt; i++) {
+						final int len = vis.readInt();
+						nextStates[i] = new TLCStateVec(len);
+						nextFingerprints[i] = new LongVec(len);
+						for (int j = 0; j < len; j++) {
+							nextFingerprints[i].addElement(vis.readLong());
+							final TLCState state = TLCState.Empty.createEmpty();
+							state.read(vis);
+							nextStates[i].addElement(state);
+						}
+					}
+					return new NextStateResult(nextStates, nextFingerprints, computationTime, statesComputed);
+				}
+				final String msg = readString(vis);
+				if (status == WORKER_EXCEPTION) {
+					final TLCState state1 = readState(vis);
+					final TLCState state2 = readState(vis);
+					final boolean keepCallStack = vis.readByte() != 0;
+					throw new WorkerException(msg, state1, state2, keepCallStack);
+				} else if (status == OUT_OF_MEMORY) {
+					// Mimic the exception chain RMI produces for the
+					// RemoteException thrown by TLCWorker on an OOM. This is
+					// what TLCServerThread#isRecoverable looks for.
+					throw new ServerException(msg, new RemoteException(msg, new OutOfMemoryError(msg)));
+				}
+				throw new ServerException(msg);
+			} catch (IOException e) {
+				throw new RemoteException("Failed to receive next states from worker", e);
+			}
+		}
+
+		/**
+		 * @return The number of requests whose results have not been received
+		 *         yet.
+		 */
+		int getOutstanding() {
+			return outstanding;
+		}
+
+		/* All other methods just delegate */
+
+		/* (non-Javadoc)
+		 * @see tlc2.tool.distributed.TLCWorkerRMI#exit()
+		 */
+		public void exit() throws RemoteException {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				// Worker is about to exit anyway.
+			}
+			worker.exit();
+		}
+
+		/* (non-Javadoc)
+		 * @see tlc2.tool.distributed.TLCWorkerRMI#isAlive()
+		 */
+		public boolean isAlive() throws RemoteException {
+			return channel.isOpen() && worker.isAlive();
+		}
+
+		/* (non-Javadoc)
+		 * @see tlc2.tool.distributed.TLCWorkerRMI#getURI()
+		 */
+		public URI getURI() throws RemoteException {
+			return worker.getURI();
+		}
+
+		/* (non-Javadoc)
+		 * @see tlc2.tool.distributed.TLCWorkerRMI#getCacheRateRatio()
+		 */
+		public double getCacheRateRatio() throws RemoteException {
+			return worker.getCacheRateRatio();
+		}
+
+		/* (non-Javadoc)
+		 * @see tlc2.tool.distributed.TLCWorkerRMI#getTransportPort()
+		 */
+		public int getTransportPort() throws RemoteException {
+			return worker.getTransportPort();
+		}
+	}
+
+	// ************************************//
+
+	/**
+	 * The worker side of the transport. Accepts connections from the server and
+	 * answers each request with the result of
+	 * {@link TLCWorkerRMI#getNextStates(TLCState[])}. Per connection, one thread
+	 * decodes the next request while another one computes the next states of
+	 * the current one.
+	 */
+	static final class Endpoint implements Runnable {
+
+		private static final TLCState[] EOF = new TLCState[0];
+
+		private final TLCWorkerRMI worker;
+		private final ServerSocketChannel server;
+
+		Endpoint(final TLCWorkerRMI worker, final String hostname) throws IOException {
+			this.worker = worker;
+			this.server = ServerSocketChannel.open();
+			this.server.socket().bind(new InetSocketAddress(hostname, 0));
+
+			final Thread t = new Thread(this, "TLCWorker NIOTransport [" + getPort() + "]");
+			t.setDaemon(true);
+			t.start();
+		}
+
+		int getPort() {
+			return server.socket().getLocalPort();
+		}
+
+		void close() {
+			try {
+				server.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+
+		/* (non-Javadoc)
+		 * @see java.lang.Runnable#run()
+		 */
+		public void run() {
+			while (server.isOpen()) {
+				final SocketChannel channel;
+				try {
+					channel = server.accept();
+					channel.socket().setTcpNoDelay(true);
+				} catch (IOException e) {
+					// Closed by close().
+					return;
+				}
+				final Thread t = new Thread(new Runnable() {
+					public void run() {
+						serve(channel);
+					}
+				}, Thread.currentThread().getName() + "-Handler");
+				t.setDaemon(true);
+				t.start();
+			}
+		}
+
+		private void serve(final SocketChannel channel) {
+			final BlockingQueue<TLCState[]> requests = new ArrayBlockingQueue<TLCState[]>(WINDOW);
+			try {
+				final ByteBuffer b = ByteBuffer.allocate(1);
+				readFully(channel, b);
+				final boolean compress = b.get(0) != 0;
+
+				final Thread reader = new Thread(new Runnable() {
+					public void run() {
+						final ByteBuffer header = ByteBuffer.allocate(4);
+						try {
+							while (true) {
+								final IValueInputStream vis = readFrame(channel, header, compress);
+								final TLCState[] states = new TLCState[vis.readInt()];
+								for (int i = 0; i < states.length; i++) {
+									states[i] = TLCState.Empty.createEmpty();
+									states[i].read(vis);
+								}
+								requests.put(states);
+							}
+						} catch (IOException e) {
+							// Server closed the connection.
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						} finally {
+							requests.offer(EOF);
+						}
+					}
+				}, Thread.currentThread().getName() + "-Reader");
+				reader.setDaemon(true);
+				reader.start();
+
+				TLCState[] states;
+				while ((states = requests.take()) != EOF) {
+					final Frame frame = new Frame();
+					final IValueOutputStream vos = new ValueOutputStream(frame, compress);
+					try {
+						final NextStateResult result = worker.getNextStates(states);
+						vos.writeByte(OK);
+						vos.writeLong(result.getComputationTime());
+						vos.writeLong(result.getStatesComputed());
+						final TLCStateVec[] nextStates = result.getNextStates();
+						final LongVec[] nextFingerprints = result.getNextFingerprints();
+						vos.writeInt(nextStates.length);
+						for (int i = 0; i < nextStates.length; i++) {
+							vos.writeInt(nextStates[i].size());
+							for (int j = 0; j < nextStates[i].size(); j++) {
+								vos.writeLong(nextFingerprints[i].elementAt(j));
+								nextStates[i].elementAt(j).write(vos);
+							}
+						}
+					} catch (WorkerException e) {
+						vos.writeByte(WORKER_EXCEPTION);
+						writeString(vos, e.getMessage());
+						writeState(vos, e.state1);
+						writeState(vos, e.state2);
+						vos.writeByte((byte) (e.keepCallStack ? 1 : 0));
+					} catch (RemoteException e) {
+						vos.writeByte(e.getCause() instanceof OutOfMemoryError ? OUT_OF_MEMORY : REMOTE_EXCEPTION);
+						writeString(vos, e.getMessage());
+					}
+					vos.close();
+					frame.writeTo(channel);
+				}
+			} catch (IOException e) {
+				// Server closed the connection.
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					// ignore
+				}
+				// Unblock the reader (if blocked on a full queue) so that it
+				// runs into the closed channel and terminates.
+				requests.clear();
+			}
+		}
+	}
+
+	// ************************************//
+
+	/**
+	 * A frame is a four byte length followed by length bytes of payload. The
+	 * length is reserved upfront, so that the payload does not have to be copied
+	 * once it has been encoded.
+	 */
+	private static final class Frame extends ByteArrayOutputStream {
+
+		Frame() {
+			super(8192);
+			count = 4;
+		}
+
+		void writeTo(final SocketChannel channel) throws IOException {
+			final ByteBuffer bb = ByteBuffer.wrap(buf, 0, count);
+			bb.putInt(0, count - 4);
+			writeFully(channel, bb);
+		}
+	}
+
+	private static IValueInputStream readFrame(final SocketChannel channel, final ByteBuffer header,
+			final boolean compress) throws IOException {
+		header.clear();
+		readFully(channel, header);
+		final byte[] payload = new byte[header.getInt(0)];
+		readFully(channel, ByteBuffer.wrap(payload));
+
+		final InputStream in = new ByteArrayInputStream(payload);
+		return new ValueInputStream(compress ? new GZIPInputStream(in) : in);
+	}
+
+	private static void writeFully(final SocketChannel channel, final ByteBuffer bb) throws IOException {
+		final int limit = bb.limit();
+		while (bb.position() < limit) {
+			bb.limit(Math.min(limit, bb.position() + IO_CHUNK));
+			channel.write(bb);
+		}
+	}
+
+	private static void readFully(final SocketChannel channel, final ByteBuffer bb) throws IOException {
+		final int limit = bb.limit();
+		while (bb.position() < limit) {
+			bb.limit(Math.min(limit, bb.position() + IO_CHUNK));
+			if (channel.read(bb) < 0) {
+				throw new EOFException("Connection closed by peer");
+			}
+		}
+	}
+
+	private static void writeString(final IValueOutputStream vos, final String s) throws IOException {
+		final String str = s == null ? "" : s;
+		vos.writeInt(str.length());
+		vos.getOutputStream().writeString(str);
+	}
+
+	private static String readString(final IValueInputStream vis) throws IOException {
+		return vis.getInputStream().readString(vis.readInt());
+	}
+
+	/*
+	 * The successor state of a WorkerException has not been assigned a uid yet
+	 * (see TLCWorker#getNextStates), which the encoding of TLCState does not
+	 * permit.
+	 */
+	private static void writeState(final IValueOutputStream vos, final TLCState state) throws IOException {
+		if (state == null) {
+			vos.writeByte((byte) 0);
+		} else if (state.uid < 0) {
+			vos.writeByte((byte) 2);
+			final long uid = state.uid;
+			state.uid = 0;
+			try {
+				state.write(vos);
+			} finally {
+				state.uid = uid;
+			}
+		} else {
+			vos.writeByte((byte) 1);
+			state.write(vos);
+		}
+	}
+
+	private static TLCState readState(final IValueInputStream vis) throws IOException {
+		final byte b = vis.readByte();
+		if (b == 0) {
+			return null;
+		}
+		final TLCState state = TLCState.Empty.createEmpty();
+		state.read(vis);
+		if (b == 2) {
+			state.uid = TLCState.INIT_UID;
+		}
+		return state;
+	}
+}
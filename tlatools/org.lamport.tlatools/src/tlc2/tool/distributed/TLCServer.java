@@ -253,6 +253,9 @@ public class TLCServer extends UnicastRemoteObject implements TLCServerRMI,
 		// users if resumeAllStuck() is not call by a new worker.
 		stateQueue.resumeAllStuck();
 		
+		// Talk to the worker via NIOTransport if it offers it, otherwise RMI.
+		worker = NIOTransport.connect(worker);
+		
 		// create new server thread for given worker
 		final TLCServerThread thread = new TLCServerThread(worker, worker.getURI(), this, es, blockSelector);
 		threadsToWorkers.put(thread, worker);
@@ -651,6 +654,24 @@ public class TLCServer extends UnicastRemoteObject implements TLCServerRMI,
 	public long getAverageBlockCnt() {
 		return blockSelector.getAverageBlockCnt();
 	}
+
+	/**
+	 * @return The average hit ratio of the workers' fingerprint caches or 0 if
+	 *         no worker could be asked
+	 */
+	public double getWorkerCacheHitRatio() {
+		double sum = 0d;
+		int cnt = 0;
+		for (final TLCWorkerRMI worker : threadsToWorkers.values()) {
+			try {
+				sum += worker.getCacheRateRatio();
+				cnt++;
+			} catch (RemoteException e) {
+				// The worker is gone, TLCServerThread will notice.
+			}
+		}
+		return cnt == 0 ? 0d : sum / cnt;
+	}
 	
 	/**
 	 * @return true iff model checking has not found an error state
@@ -5,11 +5,13 @@
 package tlc2.tool.distributed;
 
 import java.io.EOFException;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.net.URI;
 import java.rmi.RemoteException;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Timer;
 import java.util.TimerTask;
@@ -100,6 +102,13 @@ public class TLCServerThread extends IdThread {
 	 * @see TLCServerThread#tlcServer
 	 */
 	private final TLCWorkerRMI worker;
+	/**
+	 * The {@link NIOTransport} connection to the remote worker or null if the
+	 * worker is only reachable via RMI.
+	 * 
+	 * @see TLCServerThread#pipeline(NIOTransport.Proxy, TLCState[], IStateQueue)
+	 */
+	private final NIOTransport.Proxy transport;
 	/**
 	 * The {@link TLCServer} master this {@link TLCServerThread} provides the
 	 * service of handling a single remote worker. A {@link TLCServer} uses n
@@ -132,6 +141,7 @@ public class TLCServerThread extends IdThread {
 		// Wrap the TLCWorker with a SmartProxy. A SmartProxy's responsibility
 		// is to measure the RTT spend to transfer states back and forth.
 		this.worker = new TLCWorkerSmartProxy(worker);
+		this.transport = worker instanceof NIOTransport.Proxy ? (NIOTransport.Proxy) worker : null;
 
 		// Prefix the thread name with a fixed string and a counter.
 		// This part is used by the external Munin based statistics software to
@@ -176,6 +186,14 @@ public class TLCServerThread extends IdThread {
 				// count statistics
 				sentStates += states.length;
 
+				if (transport != null) {
+					if (pipeline(transport, states, stateQueue)) {
+						continue START;
+					}
+					// worker lost
+					return;
+				}
+
 				// real work happens here:
 				// worker computes next states for states
 				boolean workDone = false;
@@ -224,29 +242,7 @@ public class TLCServerThread extends IdThread {
 					}
 				}
 
-				// add fingerprints to fingerprint manager (delegates to
-				// corresponding fingerprint server)
-				// (Why isn't this done by workers directly?
-				// -> because if the worker crashes while computing states, the
-				// fp set would be inconsistent => making it an "atomic"
-				// operation)
-				BitVector[] visited = this.tlcServer.fpSetManager
-						.putBlock(newFps, executorService);
-
-				// recreate newly computed states and add them to queue
-				for (int i = 0; i < visited.length; i++) {
-					BitVector.Iter iter = new BitVector.Iter(visited[i]);
-					int index;
-					while ((index = iter.next()) != -1) {
-						TLCState state = newStates[i].elementAt(index);
-						// write state id and state fp to .st file for
-						// checkpointing
-						long fp = newFps[i].elementAt(index);
-						state.uid = this.tlcServer.trace.writeState(state, fp);
-						// add state to state queue for further processing
-						stateQueue.sEnqueue(state);
-					}
-				}
+				enqueue(newStates, newFps, stateQueue);
 			}
 		} catch (Throwable e) {
 			TLCState state1 = null, state2 = null;
@@ -289,6 +285,106 @@ public class TLCServerThread extends IdThread {
 		}
 	}
 
+	/**
+	 * Sends the given block to the remote worker in batches of at most
+	 * {@link NIOTransport#BATCH} states and keeps up to
+	 * {@link NIOTransport#WINDOW} batches outstanding. The worker thus computes
+	 * the successors of the next batch while this thread adds the successors of
+	 * the previous batch to the fingerprint set and state queue.
+	 * <p>
+	 * {@link TLCServerThread#states} is kept up to date with the states whose
+	 * successors have not been received yet, so that only those are returned to
+	 * the queue if the worker gets lost.
+	 * 
+	 * @return false iff the remote worker has been lost
+	 */
+	private boolean pipeline(final NIOTransport.Proxy proxy, final TLCState[] block, final IStateQueue stateQueue)
+			throws Throwable {
+		final int len = block.length;
+		final int batch = Math.max(1, Math.min(NIOTransport.BATCH, (len + NIOTransport.WINDOW - 1) / NIOTransport.WINDOW));
+		int sent = 0, received = 0;
+		try {
+			while (received < len) {
+				while (sent < len && proxy.getOutstanding() < NIOTransport.WINDOW) {
+					final int to = Math.min(sent + batch, len);
+					proxy.send(block, sent, to);
+					sent = to;
+				}
+				final NextStateResult res = proxy.receive();
+				received = Math.min(received + batch, len);
+				states = Arrays.copyOfRange(block, received, len);
+
+				final TLCStateVec[] newStates = res.getNextStates();
+				receivedStates += newStates[0].size();
+				task.setLastInvocation(System.currentTimeMillis());
+				// Read remote worker cache hits which correspond to
+				// states skipped
+				tlcServer.addStatesGeneratedDelta(res.getStatesComputedDelta());
+
+				enqueue(newStates, res.getNextFingerprints(), stateQueue);
+			}
+			return true;
+		} catch (RemoteException e) {
+			if (isRecoverable(e) && states.length > 1 && drain(proxy)) {
+				MP.printMessage(EC.TLC_DISTRIBUTED_EXCEED_BLOCKSIZE, Integer.toString(states.length / 2));
+				stateQueue.sEnqueue(states);
+				selector.setMaxTXSize(states.length / 2);
+				return true;
+			}
+			MP.printMessage(EC.TLC_DISTRIBUTED_WORKER_LOST, getUri().toString());
+			handleRemoteWorkerLost(stateQueue);
+			return false;
+		}
+	}
+
+	/**
+	 * Discards the results of the batches still in flight. They are re-computed
+	 * from the states returned to the queue.
+	 * 
+	 * @return false iff the remote worker has been lost while draining
+	 */
+	private static boolean drain(final NIOTransport.Proxy proxy) {
+		while (proxy.getOutstanding() > 0) {
+			try {
+				proxy.receive();
+			} catch (WorkerException ignored) {
+				// re-computed too
+			} catch (RemoteException e) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the fingerprints to the fingerprint manager (delegates to the
+	 * corresponding fingerprint server) and the new states to the state queue.
+	 */
+	private void enqueue(final TLCStateVec[] newStates, final LongVec[] newFps, final IStateQueue stateQueue)
+			throws IOException {
+		// (Why isn't this done by workers directly?
+		// -> because if the worker crashes while computing states, the
+		// fp set would be inconsistent => making it an "atomic"
+		// operation)
+		BitVector[] visited = this.tlcServer.fpSetManager
+				.putBlock(newFps, executorService);
+
+		// recreate newly computed states and add them to queue
+		for (int i = 0; i < visited.length; i++) {
+			BitVector.Iter iter = new BitVector.Iter(visited[i]);
+			int index;
+			while ((index = iter.next()) != -1) {
+				TLCState state = newStates[i].elementAt(index);
+				// write state id and state fp to .st file for
+				// checkpointing
+				long fp = newFps[i].elementAt(index);
+				state.uid = this.tlcServer.trace.writeState(state, fp);
+				// add state to state queue for further processing
+				stateQueue.sEnqueue(state);
+			}
+		}
+	}
+
 	/**
 	 * A recoverable error/exception is defined to be a case where the
 	 * {@link TLCWorkerRMI} can continue to work if {@link TLCServer} sends less
@@ -36,9 +36,9 @@ import tlc2.tool.WorkerException;
 import tlc2.tool.distributed.fp.IFPSetManager;
 import tlc2.util.BitVector;
 import tlc2.util.Cache;
+import tlc2.util.ClockCache;
 import tlc2.util.FP64;
 import tlc2.util.LongVec;
-import tlc2.util.SimpleCache;
 import util.Assert;
 import util.ToolIO;
 import util.UniqueString;
@@ -53,6 +53,26 @@ public class TLCWorker extends UnicastRemoteObject implements TLCWorkerRMI {
 	private static TLCWorkerRunnable[] runnables = new TLCWorkerRunnable[0];
 
 	private static volatile CountDownLatch cdl;
+
+	/**
+	 * Fraction of the maximum heap given to the {@link #cache}. Activate with
+	 * -Dtlc2.tool.distributed.TLCWorker.cache=0.2
+	 */
+	public static final String CACHE_KEY = TLCWorker.class.getName() + ".cache";
+	/**
+	 * Put a Bloom filter in front of the {@link #cache}. Activate with
+	 * -Dtlc2.tool.distributed.TLCWorker.bloom=true
+	 */
+	public static final String BLOOM_KEY = TLCWorker.class.getName() + ".bloom";
+	
+	/**
+	 * Fingerprints confirmed to be in the server's fingerprint set. Shared by all
+	 * {@link TLCWorker}s of this JVM, i.e. a fingerprint seen by one worker thread
+	 * is filtered by all others.
+	 */
+	private static final Cache cache = new ClockCache(
+			(long) (Runtime.getRuntime().maxMemory() * Double.parseDouble(System.getProperty(CACHE_KEY, "0.1"))),
+			Boolean.getBoolean(BLOOM_KEY));
 	
 	private DistApp work;
 	private IFPSetManager fpSetManager;
@@ -64,8 +84,11 @@ public class TLCWorker extends UnicastRemoteObject implements TLCWorkerRMI {
 	private long lastInvocation;
 	private long overallStatesComputed;
 	
-	private final Cache cache;
-	
+	/**
+	 * Accepts {@link NIOTransport} connections from the server or null if the
+	 * worker only speaks RMI.
+	 */
+	private final NIOTransport.Endpoint endpoint;
 
 	public TLCWorker(final int threadId, DistApp work, IFPSetManager fpSetManager, String aHostname)
 			throws RemoteException {
@@ -74,7 +97,16 @@ public class TLCWorker extends UnicastRemoteObject implements TLCWorkerRMI {
 		this.uri = URI.create("rmi://" + aHostname + ":" + getPort() + "/"
 				+ threadId);
 		
-		this.cache = new SimpleCache();
+		NIOTransport.Endpoint ep = null;
+		if (NIOTransport.ENABLED) {
+			try {
+				ep = new NIOTransport.Endpoint(this, aHostname);
+			} catch (IOException e) {
+				MP.printWarning(EC.GENERAL, "Failed to open NIOTransport endpoint, falling back to RMI ("
+						+ e.getMessage() + ")");
+			}
+		}
+		this.endpoint = ep;
 	}
 	
 	//TODO Remove once performance tests show superiority of TreeSet
@@ -168,6 +200,14 @@ public class TLCWorker extends UnicastRemoteObject implements TLCWorkerRMI {
 			}
 
 			for (int i = 0; i < fpServerCnt; i++) {
+				// Remember the fingerprints the server has confirmed as seen. Do
+				// not cache the new ones, they are only known to the server once
+				// the server has received this result (which might get lost).
+				for (int j = 0; j < fpvv[i].size(); j++) {
+					if (!visited[i].get(j)) {
+						cache.put(fpvv[i].elementAt(j));
+					}
+				}
 				BitVector.Iter iter = new BitVector.Iter(visited[i]);
 				int index;
 				while ((index = iter.next()) != -1) {
@@ -205,13 +245,17 @@ public class TLCWorker extends UnicastRemoteObject implements TLCWorkerRMI {
 	public void exit() throws NoSuchObjectException {
 		ToolIO.out.println(uri.getHost() + ", work completed at: " + new Date() + " Computed: "
 				+ overallStatesComputed
-				+ " and a cache hit ratio of " + this.cache.getHitRatioAsString()
+				+ " and a cache hit ratio of " + cache.getHitRatioAsString()
 				+ ", Thank you!");
 		
 		executorService.shutdown();
 		
 		keepAliveTimer.cancel();
 		
+		if (endpoint != null) {
+			endpoint.close();
+		}
+		
 		UnicastRemoteObject.unexportObject(TLCWorker.this, true);
 		
 		cdl.countDown();
@@ -235,7 +279,14 @@ public class TLCWorker extends UnicastRemoteObject implements TLCWorkerRMI {
 	 * @see tlc2.tool.distributed.TLCWorkerRMI#getCacheRateRatio()
 	 */
 	public double getCacheRateRatio() throws RemoteException {
-		return this.cache.getHitRatio();
+		return cache.getHitRatio();
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.distributed.TLCWorkerRMI#getTransportPort()
+	 */
+	public int getTransportPort() throws RemoteException {
+		return endpoint != null ? endpoint.getPort() : -1;
 	}
 	
 	private int getPort() {
@@ -48,4 +48,10 @@ public interface TLCWorkerRMI extends Remote {
 	 * @return The ratio of cache hits to cache misses
 	 */
 	public double getCacheRateRatio() throws RemoteException;
+
+	/**
+	 * @return The port on which this worker accepts {@link NIOTransport}
+	 *         connections or -1 if the worker only speaks RMI
+	 */
+	public int getTransportPort() throws RemoteException;
 }
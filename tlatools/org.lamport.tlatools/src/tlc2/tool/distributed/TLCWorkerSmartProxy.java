@@ -89,4 +89,11 @@ public class TLCWorkerSmartProxy implements TLCWorkerRMI {
 	public double getCacheRateRatio() throws RemoteException {
 		return worker.getCacheRateRatio();
 	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.distributed.TLCWorkerRMI#getTransportPort()
+	 */
+	public int getTransportPort() throws RemoteException {
+		return worker.getTransportPort();
+	}
 }
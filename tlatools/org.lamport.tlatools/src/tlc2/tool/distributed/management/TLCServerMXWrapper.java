@@ -108,6 +108,13 @@ public class TLCServerMXWrapper extends TLCStandardMBean implements TLCStatistic
 		return tlcServer.getAverageBlockCnt();
 	}
 
+	/* (non-Javadoc)
+	 * @see tlc2.tool.distributed.management.TLCStatisticsMXBean#getWorkerCacheHitRatio()
+	 */
+	public double getWorkerCacheHitRatio() {
+		return tlcServer.getWorkerCacheHitRatio();
+	}
+
 	/* (non-Javadoc)
 	 * @see tlc2.tool.distributed.management.TLCStatisticsMXBean#getRuntimeRatio()
 	 */
@@ -62,6 +62,11 @@ public interface TLCStatisticsMXBean {
 	 */
 	long getAverageBlockCnt();
 	
+	/**
+	 * @return Average hit ratio of the workers' fingerprint caches
+	 */
+	double getWorkerCacheHitRatio();
+	
 	/**
 	 * Creates a checkpoint next time possible
 	 */
@@ -0,0 +1,698 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.fp;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.rmi.RemoteException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.NotCompliantMBeanException;
+
+import tlc2.output.EC;
+import tlc2.output.MP;
+import tlc2.tool.TLCTrace;
+import tlc2.tool.fp.management.AdaptiveFPSetMXWrapper;
+import tlc2.tool.management.TLCStandardMBean;
+import util.Assert;
+import util.BufferedDataInputStream;
+import util.BufferedDataOutputStream;
+import util.FileUtil;
+
+/**
+ * An {@link FPSet} that starts small and grows with the state space instead of
+ * claiming all of its memory up front:
+ * <ol>
+ * <li>Fingerprints first go into a compact, concurrent open-addressing table
+ * on the Java heap. The table doubles online whenever its load exceeds 3/4.</li>
+ * <li>Once the next doubling would exceed the heap share given by
+ * {@link FPSetConfiguration#getRatio()}, the fingerprints are migrated into an
+ * {@link OffHeapDiskFPSet} which uses all of the non-heap memory.</li>
+ * <li>The {@link OffHeapDiskFPSet} eventually evicts to disk with its
+ * MSB-sorted flusher when the non-heap memory runs out.</li>
+ * </ol>
+ * Small models thus never allocate (and zero) gigabytes of off-heap memory,
+ * while large models end up with the same representation they would get with
+ * {@link OffHeapDiskFPSet} right away.
+ * <p>
+ * Migrating a table (either into a twice as large one or into the
+ * {@link OffHeapDiskFPSet}) does not stop the world. The migrating thread
+ * replaces every empty slot with a {@link #MOVED} marker and copies every
+ * occupied one. Fingerprints thus remain visible in the old table throughout
+ * the migration. Only threads that have to insert a new fingerprint and run
+ * into a {@link #MOVED} marker wait for the migration to finish before they
+ * retry on the new table. Contrary to {@link OffHeapDiskFPSet}'s eviction, no
+ * thread has to wait for all workers to arrive at a barrier, which is why
+ * growing is safe while most workers idle (e.g. early during breadth-first
+ * search when the queue holds only a few states).
+ */
+@SuppressWarnings("serial")
+public final class AdaptiveFPSet extends FPSet implements FPSetStatistic {
+
+	private final static Logger LOGGER = Logger.getLogger(AdaptiveFPSet.class.getName());
+
+	/**
+	 * Initial number of slots of the in-heap table (512 KiB).
+	 */
+	static final int INITIAL_CAPACITY = 1 << 16;
+
+	/**
+	 * AtomicLongArray is indexed by int.
+	 */
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	static final long EMPTY = 0L;
+
+	/**
+	 * Marks an empty slot of a table that has been (or is being) migrated. No
+	 * fingerprint will ever be inserted into the slot.
+	 */
+	static final long MOVED = DiskFPSet.MARK_FLUSHED;
+
+	/**
+	 * The in-heap table or null after the fingerprints have been migrated to
+	 * {@link #disk}.
+	 */
+	private volatile AtomicLongArray table;
+
+	/**
+	 * Exact number of fingerprints in {@link #table}. Only incremented after a
+	 * successful CAS.
+	 */
+	private final LongAdder tblCnt = new LongAdder();
+
+	/**
+	 * Maximum length of {@link #table} before the fingerprints are migrated to
+	 * {@link #disk}.
+	 */
+	private final int maxCapacity;
+
+	/**
+	 * Held by the thread that migrates {@link #table}.
+	 */
+	private final ReentrantLock resizeLock = new ReentrantLock();
+
+	/**
+	 * Set exactly once, before {@link #table} is set to null.
+	 */
+	private volatile OffHeapDiskFPSet disk;
+
+	private int numThreads;
+	private int numWorkers;
+	private String metadir;
+	private String filename;
+
+	// statistics
+	private volatile int resizeCnt;
+	private volatile long migrationTime;
+
+	private TLCStandardMBean adaptiveFPSetMXWrapper;
+
+	public AdaptiveFPSet(final FPSetConfiguration fpSetConfig) throws RemoteException {
+		this(fpSetConfig, INITIAL_CAPACITY, getHeapCapacity(fpSetConfig));
+	}
+
+	AdaptiveFPSet(final FPSetConfiguration fpSetConfig, final int initialCapacity, final long heapCapacity)
+			throws RemoteException {
+		super(fpSetConfig);
+		// Cap the in-heap table so that its fingerprints comfortably fit into
+		// the OffHeapDiskFPSet's table. The thread migrating the fingerprints
+		// must not trigger an eviction, which would make it wait for the
+		// workers blocked on resizeLock.
+		final long offHeapCapacity = fpSetConfig.getMemoryInFingerprintCnt() / 2L;
+		this.maxCapacity = (int) Long.highestOneBit(
+				Math.max(1L, Math.min(MAX_CAPACITY, Math.min(heapCapacity, offHeapCapacity))));
+		this.table = new AtomicLongArray(
+				Integer.highestOneBit(Math.max(2, Math.min(initialCapacity, this.maxCapacity))));
+
+		try {
+			adaptiveFPSetMXWrapper = new AdaptiveFPSetMXWrapper(this);
+		} catch (NotCompliantMBeanException e) {
+			// not expected to happen
+			// would cause JMX to be broken, hence just log and continue
+			MP.printWarning(EC.GENERAL,
+					"Failed to create MBean wrapper for AdaptiveFPSet. No statistics/metrics will be avaiable.", e);
+			adaptiveFPSetMXWrapper = TLCStandardMBean.getNullTLCStandardMBean();
+		}
+	}
+
+	/**
+	 * @return The number of fingerprints that fit into this instance's share of
+	 *         the heap.
+	 */
+	private static long getHeapCapacity(final FPSetConfiguration fpSetConfig) {
+		final double heap = Runtime.getRuntime().maxMemory() * fpSetConfig.getRatio();
+		return (long) (heap / LongSize) / fpSetConfig.getMultiFPSetCnt();
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.FPSet#init(int, java.lang.String, java.lang.String)
+	 */
+	public FPSet init(final int numThreads, final String metadir, final String filename) throws IOException {
+		this.numThreads = numThreads;
+		this.metadir = metadir;
+		this.filename = filename;
+		return this;
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.FPSet#incWorkers(int)
+	 */
+	public void incWorkers(final int num) {
+		resizeLock.lock();
+		try {
+			this.numWorkers = num;
+			if (disk != null) {
+				disk.incWorkers(num);
+			}
+		} finally {
+			resizeLock.unlock();
+		}
+	}
+
+	private static int getIdx(final long fp0, final int mask) {
+		return (int) (fp0 ^ (fp0 >>> 32)) & mask;
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.FPSet#put(long)
+	 */
+	public final boolean put(final long fp) throws IOException {
+		// zeros the msb
+		final long fp0 = fp & DiskFPSet.FLUSHED_MASK;
+
+		AtomicLongArray t;
+		outer: while ((t = table) != null) {
+			final int mask = t.length() - 1;
+			int idx = getIdx(fp0, mask);
+			for (int probe = 0; probe <= mask;) {
+				final long l = t.get(idx);
+				if (l == EMPTY) {
+					if (t.compareAndSet(idx, EMPTY, fp0)) {
+						tblCnt.increment();
+						// Collisions become frequent as the load grows. Only then
+						// pay for summing up tblCnt.
+						if (probe > 0) {
+							maybeGrow(t);
+						}
+						return false;
+					}
+					// Another thread wrote a value concurrently (possibly the
+					// same one this thread is trying to write). Re-read it.
+					continue;
+				} else if (l == MOVED) {
+					awaitMigration();
+					continue outer;
+				} else if (l == fp0) {
+					return true;
+				}
+				idx = (idx + 1) & mask;
+				probe++;
+			}
+			// The table is full which the load factor should have prevented.
+			grow(t);
+		}
+		return disk.put(fp);
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.FPSet#contains(long)
+	 */
+	public final boolean contains(final long fp) throws IOException {
+		// zeros the msb
+		final long fp0 = fp & DiskFPSet.FLUSHED_MASK;
+
+		AtomicLongArray t;
+		outer: while ((t = table) != null) {
+			final int mask = t.length() - 1;
+			int idx = getIdx(fp0, mask);
+			for (int probe = 0; probe <= mask; probe++) {
+				final long l = t.get(idx);
+				if (l == EMPTY) {
+					return false;
+				} else if (l == MOVED) {
+					// fp might have been put into the new table already.
+					awaitMigration();
+					continue outer;
+				} else if (l == fp0) {
+					return true;
+				}
+				idx = (idx + 1) & mask;
+			}
+			return false;
+		}
+		return disk.contains(fp);
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.FPSet#size()
+	 */
+	public long size() {
+		final OffHeapDiskFPSet d = disk;
+		if (d != null) {
+			return d.size();
+		}
+		return tblCnt.sum();
+	}
+
+	private void awaitMigration() {
+		// The MOVED markers are only written while holding the lock.
+		resizeLock.lock();
+		resizeLock.unlock();
+	}
+
+	private void maybeGrow(final AtomicLongArray t) throws IOException {
+		final int len = t.length();
+		// load factor 3/4
+		if (tblCnt.sum() >= len - (len >>> 2) && resizeLock.tryLock()) {
+			try {
+				if (table == t) {
+					grow0(t);
+				}
+			} finally {
+				resizeLock.unlock();
+			}
+		}
+	}
+
+	private void grow(final AtomicLongArray t) throws IOException {
+		resizeLock.lock();
+		try {
+			if (table == t) {
+				grow0(t);
+			}
+		} finally {
+			resizeLock.unlock();
+		}
+	}
+
+	private void grow0(final AtomicLongArray t) throws IOException {
+		final long timestamp = System.currentTimeMillis();
+
+		AtomicLongArray n = null;
+		if (t.length() < maxCapacity) {
+			try {
+				n = new AtomicLongArray(t.length() << 1);
+			} catch (OutOfMemoryError e) {
+				// Fall through to the OffHeapDiskFPSet.
+				LOGGER.log(Level.FINE, "Failed to allocate {0} slots on the heap.", t.length() << 1);
+			}
+		}
+
+		if (n != null) {
+			final AtomicLongArray target = n;
+			final int mask = target.length() - 1;
+			migrate(t, fp0 -> {
+				// No other thread sees target yet.
+				int idx = getIdx(fp0, mask);
+				while (target.get(idx) != EMPTY) {
+					idx = (idx + 1) & mask;
+				}
+				target.lazySet(idx, fp0);
+			});
+			this.table = target;
+			this.resizeCnt++;
+		} else {
+			final OffHeapDiskFPSet d = new OffHeapDiskFPSet(fpSetConfig);
+			d.init(numThreads, metadir, filename);
+			migrate(t, fp0 -> Assert.check(!d.memInsert(fp0), EC.GENERAL));
+			if (numWorkers > 0) {
+				d.incWorkers(numWorkers);
+			}
+			// Publish the disk before the table disappears.
+			this.disk = d;
+			this.table = null;
+		}
+
+		final long l = System.currentTimeMillis() - timestamp;
+		migrationTime += l;
+		LOGGER.log(Level.FINE, "Migrated {0} fingerprints from {1} slots to {2} in {3} ms.",
+				new Object[] { tblCnt.sum(), t.length(), n != null ? n.length() + " slots" : "off-heap", l });
+	}
+
+	@FunctionalInterface
+	private interface FingerprintSink {
+		void accept(long fp0) throws IOException;
+	}
+
+	/**
+	 * Copies all fingerprints of the given table to the sink and marks all
+	 * empty slots as {@link #MOVED}. Concurrent inserts into a not yet visited
+	 * slot succeed and get copied when the slot is visited. Inserts into an
+	 * already visited slot are impossible because the slot is either occupied
+	 * or {@link #MOVED}.
+	 */
+	private static void migrate(final AtomicLongArray t, final FingerprintSink sink) throws IOException {
+		for (int i = 0; i < t.length(); i++) {
+			long l = t.get(i);
+			while (l == EMPTY) {
+				if (t.compareAndSet(i, EMPTY, MOVED)) {
+					break;
+				}
+				l = t.get(i);
+			}
+			if (l != EMPTY) {
+				sink.accept(l);
+			}
+		}
+	}
+
+	/**
+	 * @return 1 while the fingerprints are in the in-heap table, 2 after they
+	 *         have been migrated to the {@link OffHeapDiskFPSet} and 3 once the
+	 *         latter has evicted to disk.
+	 */
+	public int getTier() {
+		final OffHeapDiskFPSet d = disk;
+		if (d == null) {
+			return 1;
+		}
+		return d.getGrowDiskMark() > 0 ? 3 : 2;
+	}
+
+	/**
+	 * @return The number of times the in-heap table has doubled.
+	 */
+	public int getResizeCnt() {
+		return resizeCnt;
+	}
+
+	/**
+	 * @return Accumulated time in milliseconds it has taken to migrate
+	 *         fingerprints (excluding evictions to disk).
+	 */
+	public long getMigrationTime() {
+		return migrationTime;
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.FPSet#close()
+	 */
+	public void close() {
+		adaptiveFPSetMXWrapper.unregister();
+		final OffHeapDiskFPSet d = disk;
+		if (d != null) {
+			d.close();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.FPSet#exit(boolean)
+	 */
+	public void exit(final boolean cleanup) throws IOException {
+		final OffHeapDiskFPSet d = disk;
+		if (d != null) {
+			d.exit(cleanup);
+		} else {
+			super.exit(cleanup);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.FPSet#checkFPs()
+	 */
+	public long checkFPs() throws IOException {
+		final OffHeapDiskFPSet d = disk;
+		if (d != null) {
+			return d.checkFPs();
+		}
+		final long[] fps = getSortedFingerprints(table);
+		long distance = Long.MAX_VALUE;
+		for (int i = 1; i < fps.length; i++) {
+			distance = Math.min(distance, fps[i] - fps[i - 1]);
+		}
+		return distance;
+	}
+
+	/**
+	 * @return The fingerprints in the given in-heap table in ascending order.
+	 */
+	private static long[] getSortedFingerprints(final AtomicLongArray t) {
+		long[] fps = new long[t.length()];
+		int j = 0;
+		for (int i = 0; i < t.length(); i++) {
+			final long l = t.get(i);
+			if (l != EMPTY && l != MOVED) {
+				fps[j++] = l;
+			}
+		}
+		fps = Arrays.copyOf(fps, j);
+		Arrays.sort(fps);
+		return fps;
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.FPSet#checkInvariant(long)
+	 */
+	public boolean checkInvariant(final long expectFPs) throws IOException {
+		final OffHeapDiskFPSet d = disk;
+		if (d != null) {
+			return d.checkInvariant(expectFPs);
+		}
+		return size() == expectFPs;
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.FPSet#beginChkpt()
+	 */
+	public void beginChkpt() throws IOException {
+		// Like DiskFPSet, the fingerprints are recreated from the TLCTrace file.
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.FPSet#commitChkpt()
+	 */
+	public void commitChkpt() throws IOException {
+		// Like DiskFPSet, the fingerprints are recreated from the TLCTrace file.
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.FPSet#recover(tlc2.tool.TLCTrace)
+	 */
+	public void recover(final TLCTrace trace) throws IOException {
+		final TLCTrace.Enumerator elements = trace.elements();
+		while (elements.nextPos() != -1) {
+			this.recoverFP(elements.nextFP());
+		}
+		elements.close();
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.FPSet#recoverFP(long)
+	 */
+	public void recoverFP(final long fp) throws IOException {
+		Assert.check(!this.put(fp), EC.SYSTEM_CHECKPOINT_RECOVERY_CORRUPT, "");
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.FPSet#beginChkpt(java.lang.String)
+	 */
+	public void beginChkpt(final String fname) throws IOException {
+		// No migration while the in-heap table is written.
+		resizeLock.lock();
+		try {
+			final OffHeapDiskFPSet d = disk;
+			if (d != null) {
+				// OffHeapDiskFPSet does not implement checkpointing. Like
+				// DiskFPSet#beginChkpt, flush the table to disk and copy the
+				// resulting file of sorted fingerprints. The workers do not put
+				// concurrently while TLC takes a checkpoint.
+				d.evict();
+				FileUtil.copyFile(d.fpFilename, this.getChkptName(fname, "tmp"));
+				return;
+			}
+			// The same format as DiskFPSet's checkpoint, i.e. the fingerprints in
+			// ascending order. Thus, recover(String) reads the checkpoint of either tier.
+			final BufferedDataOutputStream dos = new BufferedDataOutputStream(this.getChkptName(fname, "tmp"));
+			for (final long fp : getSortedFingerprints(table)) {
+				dos.writeLong(fp);
+			}
+			dos.close();
+		} finally {
+			resizeLock.unlock();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.FPSet#commitChkpt(java.lang.String)
+	 */
+	public void commitChkpt(final String fname) throws IOException {
+		// Both tiers write the same tmp file (see beginChkpt(String)).
+		final File oldChkpt = new File(this.getChkptName(fname, "chkpt"));
+		final File newChkpt = new File(this.getChkptName(fname, "tmp"));
+		if ((oldChkpt.exists() && !oldChkpt.delete()) || !newChkpt.renameTo(oldChkpt)) {
+			throw new IOException("AdaptiveFPSet.commitChkpt: cannot delete " + oldChkpt);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.FPSet#recover(java.lang.String)
+	 */
+	public void recover(final String fname) throws IOException {
+		// Re-inserting the fingerprints (instead of restoring the disk file like
+		// DiskFPSet) grows the in-heap table and migrates to the OffHeapDiskFPSet
+		// as needed, no matter in which tier the checkpoint was taken.
+		final BufferedDataInputStream dis = new BufferedDataInputStream(this.getChkptName(fname, "chkpt"));
+		try {
+			while (!dis.atEOF()) {
+				Assert.check(!this.put(dis.readLong()), EC.TLC_FP_NOT_IN_SET);
+			}
+		} catch (EOFException e) {
+			Assert.fail(EC.SYSTEM_DISK_IO_ERROR_FOR_FILE, "checkpoints");
+		} finally {
+			dis.close();
+		}
+	}
+
+	private String getChkptName(final String fname, final String name) {
+		return this.metadir + FileUtil.separator + fname + ".fp." + name;
+	}
+
+	/* FPSetStatistic: in-heap values for tier 1, delegating afterwards. */
+
+	public long getBucketCapacity() {
+		final OffHeapDiskFPSet d = disk;
+		return d != null ? d.getBucketCapacity() : 0L;
+	}
+
+	public long getTblCapacity() {
+		// disk is set before table becomes null.
+		final AtomicLongArray t = table;
+		return t != null ? t.length() : disk.getTblCapacity();
+	}
+
+	public long getIndexCapacity() {
+		final OffHeapDiskFPSet d = disk;
+		return d != null ? d.getIndexCapacity() : 0L;
+	}
+
+	public long getOverallCapacity() {
+		final OffHeapDiskFPSet d = disk;
+		return d != null ? d.getOverallCapacity() : getTblCapacity();
+	}
+
+	public long getTblLoad() {
+		return getTblCnt();
+	}
+
+	public long getTblCnt() {
+		final OffHeapDiskFPSet d = disk;
+		return d != null ? d.getTblCnt() : tblCnt.sum();
+	}
+
+	public long getMaxTblCnt() {
+		final OffHeapDiskFPSet d = disk;
+		return d != null ? d.getMaxTblCnt() : maxCapacity - (maxCapacity >>> 2);
+	}
+
+	public long getFileCnt() {
+		final OffHeapDiskFPSet d = disk;
+		return d != null ? d.getFileCnt() : 0L;
+	}
+
+	public long getDiskLookupCnt() {
+		final OffHeapDiskFPSet d = disk;
+		return d != null ? d.getDiskLookupCnt() : 0L;
+	}
+
+	public long getMemHitCnt() {
+		final OffHeapDiskFPSet d = disk;
+		return d != null ? d.getMemHitCnt() : 0L;
+	}
+
+	public long getDiskHitCnt() {
+		final OffHeapDiskFPSet d = disk;
+		return d != null ? d.getDiskHitCnt() : 0L;
+	}
+
+	public long getDiskWriteCnt() {
+		final OffHeapDiskFPSet d = disk;
+		return d != null ? d.getDiskWriteCnt() : 0L;
+	}
+
+	public long getDiskSeekCnt() {
+		final OffHeapDiskFPSet d = disk;
+		return d != null ? d.getDiskSeekCnt() : 0L;
+	}
+
+	public long getDiskSeekCache() {
+		final OffHeapDiskFPSet d = disk;
+		return d != null ? d.getDiskSeekCache() : 0L;
+	}
+
+	public int getGrowDiskMark() {
+		final OffHeapDiskFPSet d = disk;
+		return d != null ? d.getGrowDiskMark() : 0;
+	}
+
+	public int getCheckPointMark() {
+		final OffHeapDiskFPSet d = disk;
+		return d != null ? d.getCheckPointMark() : 0;
+	}
+
+	public long sizeof() {
+		final OffHeapDiskFPSet d = disk;
+		return d != null ? d.sizeof() : 16L + getTblCapacity() * LongSize;
+	}
+
+	public long getFlushTime() {
+		final OffHeapDiskFPSet d = disk;
+		return d != null ? d.getFlushTime() : 0L;
+	}
+
+	public int getLockCnt() {
+		final OffHeapDiskFPSet d = disk;
+		return d != null ? d.getLockCnt() : 1;
+	}
+
+	public int getReaderWriterCnt() {
+		final OffHeapDiskFPSet d = disk;
+		return d != null ? d.getReaderWriterCnt() : 0;
+	}
+
+	public double getLoadFactor() {
+		final OffHeapDiskFPSet d = disk;
+		return d != null ? d.getLoadFactor() : getTblCnt() / (double) getTblCapacity();
+	}
+
+	public void forceFlush() {
+		final OffHeapDiskFPSet d = disk;
+		if (d != null) {
+			d.forceFlush();
+		}
+	}
+
+	public boolean checkInvariant() throws IOException {
+		final OffHeapDiskFPSet d = disk;
+		return d != null ? d.checkInvariant() : true;
+	}
+}
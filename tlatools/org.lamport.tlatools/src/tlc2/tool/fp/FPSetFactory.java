@@ -26,7 +26,9 @@ public abstract class FPSetFactory {
 	public static final String IMPL_PROPERTY = FPSet.class.getName() + ".impl";
 	
 	private static boolean allocatesOnHeap(final Class<? extends FPSet> clazz) {
-		return !OffHeapDiskFPSet.class.isAssignableFrom(clazz);
+		// AdaptiveFPSet only keeps a small table on the heap until it migrates
+		// to an OffHeapDiskFPSet. Its memory is thus budgeted like the latter's.
+		return !OffHeapDiskFPSet.class.isAssignableFrom(clazz) && !AdaptiveFPSet.class.isAssignableFrom(clazz);
 	}
 
 	public static boolean allocatesOnHeap(final String clazz) {
@@ -55,14 +57,16 @@ public abstract class FPSetFactory {
 
 	private static boolean supports32Bits(final Class<? extends FPSet> clazz) {
 		if (TLCRuntime.getInstance().getArchitecture() == TLCRuntime.ARCH.x86
-				&& OffHeapDiskFPSet.class.isAssignableFrom(clazz)) {
+				&& (OffHeapDiskFPSet.class.isAssignableFrom(clazz) || AdaptiveFPSet.class.isAssignableFrom(clazz))) {
 			return false;
 		}
 		return true;
 	}
 	
 	private static boolean isDiskFPSet(Class<? extends FPSet> cls) {
-		return DiskFPSet.class.isAssignableFrom(cls);
+		// AdaptiveFPSet eventually becomes an OffHeapDiskFPSet which requires
+		// the msb to be fixed.
+		return DiskFPSet.class.isAssignableFrom(cls) || AdaptiveFPSet.class.isAssignableFrom(cls);
 	}
 
 	static boolean isDiskFPSet(final String clazz) {
@@ -153,6 +157,7 @@ public abstract class FPSetFactory {
 		l.add(MSBDiskFPSet.class.getName());
 		l.add(LSBDiskFPSet.class.getName());
 		l.add(OffHeapDiskFPSet.class.getName());
+		l.add(AdaptiveFPSet.class.getName());
 
 		return l.toArray(new String[l.size()]);
 	}
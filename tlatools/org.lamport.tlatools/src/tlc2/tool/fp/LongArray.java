@@ -63,7 +63,7 @@ public final class LongArray {
 	 */
 	private static final int logAddressSize = 3;
 
-	LongArray(final long positions) {
+	public LongArray(final long positions) {
 		this.length = positions;
 		this.unsafe = getUnsafe();
 		
@@ -265,6 +265,14 @@ public final class LongArray {
 	}
 
 	
+	/**
+	 * Releases the memory of this array. The array must not be accessed
+	 * afterwards.
+	 */
+	public final void free() {
+		this.unsafe.freeMemory(baseAddress);
+	}
+
     /**
      * Returns the number of elements in this array.
      *
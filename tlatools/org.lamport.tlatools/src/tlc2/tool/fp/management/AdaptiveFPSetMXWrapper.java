@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.fp.management;
+
+import javax.management.NotCompliantMBeanException;
+
+import tlc2.tool.fp.AdaptiveFPSet;
+
+public class AdaptiveFPSetMXWrapper extends DiskFPSetMXWrapper implements AdaptiveFPSetMXBean {
+
+	private final AdaptiveFPSet adaptiveFPSet;
+
+	public AdaptiveFPSetMXWrapper(final AdaptiveFPSet fpSet) throws NotCompliantMBeanException {
+		super(fpSet, AdaptiveFPSetMXBean.class);
+		adaptiveFPSet = fpSet;
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.management.AdaptiveFPSetMXBean#getTier()
+	 */
+	public int getTier() {
+		return adaptiveFPSet.getTier();
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.management.AdaptiveFPSetMXBean#getResizeCnt()
+	 */
+	public int getResizeCnt() {
+		return adaptiveFPSet.getResizeCnt();
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.management.AdaptiveFPSetMXBean#getMigrationTime()
+	 */
+	public long getMigrationTime() {
+		return adaptiveFPSet.getMigrationTime();
+	}
+}
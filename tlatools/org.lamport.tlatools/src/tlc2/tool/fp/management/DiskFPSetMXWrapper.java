@@ -18,7 +18,12 @@ public class DiskFPSetMXWrapper extends TLCStandardMBean implements DiskFPSetMXB
 	private final String objectName;
 	
 	public DiskFPSetMXWrapper(final FPSetStatistic diskFPSet) throws NotCompliantMBeanException {
-		super(DiskFPSetMXBean.class);
+		this(diskFPSet, DiskFPSetMXBean.class);
+	}
+
+	protected DiskFPSetMXWrapper(final FPSetStatistic diskFPSet,
+			final Class<? extends DiskFPSetMXBean> mbeanInterface) throws NotCompliantMBeanException {
+		super(mbeanInterface);
 		fpset = diskFPSet;
 		
 		// Append ",name=COUNT" suffix to objectname to expose all DiskFPSet instances
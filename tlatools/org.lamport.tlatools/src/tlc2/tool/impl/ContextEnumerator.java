@@ -50,7 +50,7 @@ public final class ContextEnumerator implements IContextEnumerator {
               if (!(argVal instanceof TupleValue)) {
                   Assert.fail(EC.TLC_ARGUMENT_MISMATCH, varList[0].toString());
               }
-              Value[] valList = ((TupleValue)argVal).elems;
+              Value[] valList = ((TupleValue)argVal).getElems();
               if (varList.length != valList.length) {
                   Assert.fail(EC.TLC_ARGUMENT_MISMATCH, varList[0].toString());
               }
@@ -0,0 +1,722 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.impl;
+
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import tla2sany.explorer.ExploreNode;
+import tla2sany.explorer.ExplorerVisitor;
+import tla2sany.semantic.APSubstInNode;
+import tla2sany.semantic.ExprNode;
+import tla2sany.semantic.ExprOrOpArgNode;
+import tla2sany.semantic.LabelNode;
+import tla2sany.semantic.LetInNode;
+import tla2sany.semantic.LevelConstants;
+import tla2sany.semantic.LevelNode;
+import tla2sany.semantic.OpApplNode;
+import tla2sany.semantic.OpDefNode;
+import tla2sany.semantic.SemanticNode;
+import tla2sany.semantic.Subst;
+import tla2sany.semantic.SubstInNode;
+import tla2sany.semantic.SymbolNode;
+import tlc2.tool.Action;
+import tlc2.tool.BuiltInOPs;
+import tlc2.tool.TLCState;
+import tlc2.tool.ToolGlobals;
+import tlc2.tool.coverage.CostModel;
+import tlc2.util.Context;
+import tlc2.value.impl.BoolValue;
+import tlc2.value.impl.EvaluatingValue;
+import tlc2.value.impl.MethodValue;
+import tlc2.value.impl.Value;
+import util.Assert;
+import util.UniqueString;
+
+/**
+ * Lowers state predicates (invariants and state constraints) and the
+ * state-level expressions of the next-state actions once into a tree of
+ * closures. Contrary to {@link Tool#eval(SemanticNode, Context, TLCState, TLCState, int, CostModel)},
+ * a compiled expression does not dispatch on the kind of the semantic node and
+ * the opcode of its operator, nor does it look up the definitions of operators,
+ * constants, and variables over and over again. Constants are kept in the
+ * closures and variables are read straight from the state.
+ * <p>
+ * Only a subset of TLA+ is compiled: the propositional operators, (in-)equality
+ * and set membership, literals, constants, variables, applications of
+ * (non-recursive) user-defined operators, and operators overridden by Java
+ * methods (e.g. + or < of the Naturals module). Any other expression becomes a
+ * leaf of the tree that simply delegates to the interpreter, which is why a
+ * compiled expression evaluates to the same value and fails with the same
+ * errors as the interpreter.
+ * <p>
+ * The next-state actions themselves remain interpreted, because the
+ * interpreter generates the successor states by assigning the primed variables
+ * in the order of the conjuncts (see Tool#getNextStates). What gets compiled are
+ * the expressions that the interpreter evaluates on the way: guards, the
+ * conditions of IF/THEN/ELSE and CASE, and the right-hand sides of x' = e and
+ * x' \in S (see compileActions).
+ * <p>
+ * Compiled expressions do not record coverage and bypass the hooks of the
+ * DebugTool and CallStackTool. Thus, TLC only compiles if neither is in use.
+ */
+final class ExprCompiler implements ToolGlobals {
+
+	static abstract class Expr {
+		abstract Value eval(Context c, TLCState s0, TLCState s1, int control, CostModel cm);
+	}
+
+	private final Tool tool;
+	/**
+	 * The compiled bodies of user-defined operators. Compilation of a body is in
+	 * progress if the key maps to null.
+	 */
+	private final Map<OpDefNode, Expr> bodies = new IdentityHashMap<>();
+	/**
+	 * The symbols other than formal parameters that a context of the interpreter
+	 * may bind at runtime: the constants and variables substituted by INSTANCE ...
+	 * WITH and whatever the contexts of the actions bind. A compiled expression
+	 * cannot resolve them once and for all.
+	 */
+	private final Set<SymbolNode> bound = newIdentitySet();
+	/**
+	 * The expressions that the interpreter evaluates while it generates the
+	 * successor states (see Tool#getNextStatesApplSwitch).
+	 */
+	private final Set<SemanticNode> sites = newIdentitySet();
+	private final Set<OpDefNode> inlined = newIdentitySet();
+
+	ExprCompiler(final Tool tool, final Action[] actions) {
+		this.tool = tool;
+		tool.getSpecProcessor().getRootModule().walkGraph(new Hashtable<>(), new ExplorerVisitor() {
+			@Override
+			public void preVisit(final ExploreNode exploreNode) {
+				if (exploreNode instanceof SubstInNode) {
+					bind(((SubstInNode) exploreNode).getSubsts());
+				} else if (exploreNode instanceof APSubstInNode) {
+					bind(((APSubstInNode) exploreNode).getSubsts());
+				}
+			}
+		});
+		for (final Action action : actions) {
+			for (Context c = action.con; c != null && !c.isEmpty(); c = c.next()) {
+				if (c.getName() != null) {
+					this.bound.add(c.getName());
+				}
+			}
+		}
+		for (final Action action : actions) {
+			collect(action.pred);
+		}
+	}
+
+	private void bind(final Subst[] substs) {
+		for (final Subst subst : substs) {
+			this.bound.add(subst.getOp());
+		}
+	}
+
+	/**
+	 * Collects the expressions that the interpreter evaluates with
+	 * Tool#eval while it generates the successor states of pred. It follows pred
+	 * the way Tool#getNextStates does.
+	 */
+	private void collect(final SemanticNode pred) {
+		switch (pred.getKind()) {
+		case LabelKind:
+			collect(((LabelNode) pred).getBody());
+			return;
+		case LetInKind:
+			collect(((LetInNode) pred).getBody());
+			return;
+		case SubstInKind:
+			collect(((SubstInNode) pred).getBody());
+			return;
+		case APSubstInKind:
+			collect(((APSubstInNode) pred).getBody());
+			return;
+		case OpApplKind:
+			collectAppl((OpApplNode) pred);
+			return;
+		default:
+			return;
+		}
+	}
+
+	private void collectAppl(final OpApplNode pred) {
+		final ExprOrOpArgNode[] args = pred.getArgs();
+		final SymbolNode opNode = pred.getOperator();
+		switch (BuiltInOPs.getOpCode(opNode.getName())) {
+		case 0: {
+			final Object val = tool.lookup(opNode, Context.Empty, false);
+			if (val instanceof OpDefNode) {
+				if (BuiltInOPs.getOpCode(((OpDefNode) val).getName()) == 0 && this.inlined.add((OpDefNode) val)) {
+					collect(((OpDefNode) val).getBody());
+				}
+			} else if (val instanceof Value) {
+				// An operator overridden by a Java method such as x < N, which the
+				// interpreter evaluates as a whole.
+				this.sites.add(pred);
+			}
+			return;
+		}
+		case OPCODE_cl:
+		case OPCODE_land:
+		case OPCODE_dl:
+		case OPCODE_lor:
+			for (final ExprOrOpArgNode arg : args) {
+				collect(arg);
+			}
+			return;
+		case OPCODE_be:
+		case OPCODE_bf:
+		case OPCODE_aa:
+		case OPCODE_sa:
+		case OPCODE_nop:
+			collect(args[0]);
+			return;
+		case OPCODE_ite:
+			this.sites.add(args[0]);
+			collect(args[1]);
+			collect(args[2]);
+			return;
+		case OPCODE_case:
+			for (final ExprOrOpArgNode arg : args) {
+				final ExprOrOpArgNode[] pairArgs = ((OpApplNode) arg).getArgs();
+				if (pairArgs[0] != null) {
+					this.sites.add(pairArgs[0]);
+				}
+				collect(pairArgs[1]);
+			}
+			return;
+		case OPCODE_eq:
+		case OPCODE_in:
+			// Either x' = e (x' \in S) or a plain (state-level) predicate.
+			this.sites.add(args[1]);
+			this.sites.add(pred);
+			return;
+		case OPCODE_implies:
+			this.sites.add(args[0]);
+			collect(args[1]);
+			return;
+		case OPCODE_fa:
+		case OPCODE_unchanged:
+		case OPCODE_cdot:
+			return;
+		default:
+			this.sites.add(pred);
+			return;
+		}
+	}
+
+	/**
+	 * Compiles the state-level expressions of the next-state actions into exprs
+	 * (see Tool#evalNextState). Contrary to invariants, these expressions are
+	 * evaluated in the context of the action, which binds the bound variables of
+	 * quantifiers and the formal parameters of operators. The compiled
+	 * expressions leave the lookup of such symbols to the interpreter.
+	 */
+	void compileActions(final Map<SemanticNode, Expr> exprs) {
+		for (final SemanticNode site : this.sites) {
+			if (site instanceof LevelNode && ((LevelNode) site).getLevel() <= LevelConstants.VariableLevel) {
+				final Expr expr = compile(site);
+				if (!(expr instanceof Interpreted)) {
+					exprs.put(site, expr);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return A compiled version of the state predicate pred or null if pred (as a
+	 *         whole) has to be evaluated by the interpreter.
+	 */
+	Expr compile(final SemanticNode pred, final Context c) {
+		if (c != Context.Empty || !(pred instanceof LevelNode)
+				|| ((LevelNode) pred).getLevel() > LevelConstants.VariableLevel) {
+			return null;
+		}
+		final Expr expr = compile(pred);
+		return expr instanceof Interpreted ? null : expr;
+	}
+
+	private Expr compile(final SemanticNode expr) {
+		switch (expr.getKind()) {
+		case LabelKind:
+			return compile(((LabelNode) expr).getBody());
+		case NumeralKind:
+		case DecimalKind:
+		case StringKind:
+			return constant(expr, expr.getToolObject(Tool.toolId));
+		case OpApplKind:
+			return compileAppl((OpApplNode) expr);
+		default:
+			return interpreted(expr);
+		}
+	}
+
+	private Expr compileAppl(final OpApplNode expr) {
+		final ExprOrOpArgNode[] args = expr.getArgs();
+		final SymbolNode opNode = expr.getOperator();
+		final int opcode = BuiltInOPs.getOpCode(opNode.getName());
+
+		if (opcode == 0) {
+			if (this.bound.contains(opNode)) {
+				return interpreted(expr);
+			}
+			if (opNode.getKind() == VariableDeclKind) {
+				if (args.length > 0 || opNode.getToolObject(Tool.toolId) != null) {
+					return interpreted(expr);
+				}
+				return new Var(expr, opNode.getName());
+			}
+			// At runtime, the context only binds formal parameters and the symbols in
+			// bound. Thus, looking up any other symbol in the empty context yields the
+			// same.
+			final Object val = tool.lookup(opNode, Context.Empty, false);
+			if (val instanceof OpDefNode) {
+				final OpDefNode opDef = (OpDefNode) val;
+				if (BuiltInOPs.getOpCode(opDef.getName()) != 0 || opDef.getInRecursive()) {
+					return interpreted(expr);
+				}
+				final Expr body = compileBody(opDef);
+				if (body == null) {
+					return interpreted(expr);
+				}
+				return new UserOp(tool, opDef, args, body);
+			} else if (val instanceof Value) {
+				if (opNode.getToolObject(Tool.toolId) instanceof WorkerValue) {
+					return interpreted(expr);
+				}
+				if (args.length == 0) {
+					return constant(expr, val);
+				} else if (val.getClass() == MethodValue.class) {
+					final Expr[] operands = compileArgs(expr, args);
+					if (operands == null) {
+						return interpreted(expr);
+					}
+					return new Method((MethodValue) val, operands);
+				}
+			}
+			return interpreted(expr);
+		}
+
+		switch (opcode) {
+		case OPCODE_cl:
+		case OPCODE_dl:
+		case OPCODE_land:
+		case OPCODE_lor:
+		case OPCODE_implies:
+		case OPCODE_lnot:
+		case OPCODE_equiv:
+		case OPCODE_eq:
+		case OPCODE_noteq:
+		case OPCODE_in:
+		case OPCODE_notin:
+			break;
+		default:
+			return interpreted(expr);
+		}
+		final Expr[] operands = compileArgs(expr, args);
+		if (operands == null) {
+			return interpreted(expr);
+		}
+		switch (opcode) {
+		case OPCODE_cl: // ConjList
+			return new ConjList(args, operands);
+		case OPCODE_dl: // DisjList
+			return new DisjList(args, operands);
+		case OPCODE_land:
+			return new And(expr, operands[0], operands[1]);
+		case OPCODE_lor:
+			return new Or(expr, operands[0], operands[1]);
+		case OPCODE_implies:
+			return new Implies(expr, operands[0], operands[1]);
+		case OPCODE_lnot:
+			return new Not(expr, args[0], operands[0]);
+		case OPCODE_equiv:
+			return new Equiv(expr, operands[0], operands[1]);
+		case OPCODE_eq:
+			return new Eq(operands[0], operands[1], true);
+		case OPCODE_noteq:
+			return new Eq(operands[0], operands[1], false);
+		case OPCODE_in:
+			return new In(operands[0], operands[1], true);
+		case OPCODE_notin:
+			return new In(operands[0], operands[1], false);
+		default:
+			return interpreted(expr);
+		}
+	}
+
+	private Expr[] compileArgs(final OpApplNode expr, final ExprOrOpArgNode[] args) {
+		final Expr[] operands = new Expr[args.length];
+		for (int i = 0; i < args.length; i++) {
+			if (!(args[i] instanceof ExprNode)) {
+				// Operator arguments (LAMBDA, higher-order operators).
+				return null;
+			}
+			operands[i] = compile(args[i]);
+		}
+		return operands;
+	}
+
+	private Expr compileBody(final OpDefNode opDef) {
+		if (this.bodies.containsKey(opDef)) {
+			// null if opDef is (mutually) recursive after all.
+			return this.bodies.get(opDef);
+		}
+		this.bodies.put(opDef, null);
+		final Expr body = compile(opDef.getBody());
+		this.bodies.put(opDef, body);
+		return body;
+	}
+
+	private Expr constant(final SemanticNode expr, final Object val) {
+		if (!(val instanceof Value) || val instanceof MethodValue || val instanceof EvaluatingValue) {
+			// WorkerValues, zero-arity operator overrides, ...
+			return interpreted(expr);
+		}
+		return new Constant((Value) val);
+	}
+
+	private Expr interpreted(final SemanticNode expr) {
+		return new Interpreted(tool, expr);
+	}
+
+	private static <T> Set<T> newIdentitySet() {
+		return Collections.newSetFromMap(new IdentityHashMap<>());
+	}
+
+	/* Closures */
+
+	private static final class Interpreted extends Expr {
+		private final Tool tool;
+		private final SemanticNode expr;
+
+		Interpreted(final Tool tool, final SemanticNode expr) {
+			this.tool = tool;
+			this.expr = expr;
+		}
+
+		@Override
+		Value eval(final Context c, final TLCState s0, final TLCState s1, final int control, final CostModel cm) {
+			return tool.eval(expr, c, s0, s1, control, cm);
+		}
+	}
+
+	private static final class Constant extends Expr {
+		private final Value value;
+
+		Constant(final Value value) {
+			this.value = value;
+		}
+
+		@Override
+		Value eval(final Context c, final TLCState s0, final TLCState s1, final int control, final CostModel cm) {
+			return value;
+		}
+	}
+
+	private final class Var extends Expr {
+		private final OpApplNode expr;
+		private final UniqueString name;
+
+		Var(final OpApplNode expr, final UniqueString name) {
+			this.expr = expr;
+			this.name = name;
+		}
+
+		@Override
+		Value eval(final Context c, final TLCState s0, final TLCState s1, final int control, final CostModel cm) {
+			final Value value = (Value) s0.lookup(name);
+			if (value == null) {
+				// Let the interpreter report the undefined variable.
+				return tool.eval(expr, c, s0, s1, control, cm);
+			}
+			return value;
+		}
+	}
+
+	private static final class UserOp extends Expr {
+		private final Tool tool;
+		private final OpDefNode opDef;
+		private final ExprOrOpArgNode[] args;
+		private final Expr body;
+
+		UserOp(final Tool tool, final OpDefNode opDef, final ExprOrOpArgNode[] args, final Expr body) {
+			this.tool = tool;
+			this.opDef = opDef;
+			this.args = args;
+			this.body = body;
+		}
+
+		@Override
+		Value eval(final Context c, final TLCState s0, final TLCState s1, final int control, final CostModel cm) {
+			final Context c1 = args.length == 0 ? c : tool.getOpContext(opDef, args, c, true, cm, Tool.toolId);
+			return body.eval(c1, s0, s1, control, cm);
+		}
+	}
+
+	private static final class Method extends Expr {
+		private final MethodValue method;
+		private final Expr[] args;
+
+		Method(final MethodValue method, final Expr[] args) {
+			this.method = method;
+			this.args = args;
+		}
+
+		@Override
+		Value eval(final Context c, final TLCState s0, final TLCState s1, final int control, final CostModel cm) {
+			final Value[] argVals = new Value[args.length];
+			for (int i = 0; i < args.length; i++) {
+				argVals[i] = args[i].eval(c, s0, s1, control, cm);
+			}
+			return method.apply(argVals, control);
+		}
+	}
+
+	private static final class ConjList extends Expr {
+		private final ExprOrOpArgNode[] nodes;
+		private final Expr[] args;
+
+		ConjList(final ExprOrOpArgNode[] nodes, final Expr[] args) {
+			this.nodes = nodes;
+			this.args = args;
+		}
+
+		@Override
+		Value eval(final Context c, final TLCState s0, final TLCState s1, final int control, final CostModel cm) {
+			for (int i = 0; i < args.length; i++) {
+				final Value bval = args[i].eval(c, s0, s1, control, cm);
+				if (!(bval instanceof BoolValue)) {
+					Assert.fail("A non-boolean expression (" + bval.getKindString()
+							+ ") was used as a formula in a conjunction.\n" + nodes[i], nodes[i], c);
+				}
+				if (!((BoolValue) bval).val) {
+					return BoolValue.ValFalse;
+				}
+			}
+			return BoolValue.ValTrue;
+		}
+	}
+
+	private static final class DisjList extends Expr {
+		private final ExprOrOpArgNode[] nodes;
+		private final Expr[] args;
+
+		DisjList(final ExprOrOpArgNode[] nodes, final Expr[] args) {
+			this.nodes = nodes;
+			this.args = args;
+		}
+
+		@Override
+		Value eval(final Context c, final TLCState s0, final TLCState s1, final int control, final CostModel cm) {
+			for (int i = 0; i < args.length; i++) {
+				final Value bval = args[i].eval(c, s0, s1, control, cm);
+				if (!(bval instanceof BoolValue)) {
+					Assert.fail("A non-boolean expression (" + bval.getKindString()
+							+ ") was used as a formula in a disjunction.\n" + nodes[i], nodes[i], c);
+				}
+				if (((BoolValue) bval).val) {
+					return BoolValue.ValTrue;
+				}
+			}
+			return BoolValue.ValFalse;
+		}
+	}
+
+	private static final class And extends Expr {
+		private final OpApplNode expr;
+		private final Expr lhs, rhs;
+
+		And(final OpApplNode expr, final Expr lhs, final Expr rhs) {
+			this.expr = expr;
+			this.lhs = lhs;
+			this.rhs = rhs;
+		}
+
+		@Override
+		Value eval(final Context c, final TLCState s0, final TLCState s1, final int control, final CostModel cm) {
+			final Value arg1 = lhs.eval(c, s0, s1, control, cm);
+			if (!(arg1 instanceof BoolValue)) {
+				Assert.fail("Attempted to evaluate an expression of form P /\\ Q" + " when P was\n"
+						+ arg1.getKindString() + ".\n" + expr, expr, c);
+			}
+			if (((BoolValue) arg1).val) {
+				final Value arg2 = rhs.eval(c, s0, s1, control, cm);
+				if (!(arg2 instanceof BoolValue)) {
+					Assert.fail("Attempted to evaluate an expression of form P /\\ Q" + " when Q was\n"
+							+ arg2.getKindString() + ".\n" + expr, expr, c);
+				}
+				return arg2;
+			}
+			return BoolValue.ValFalse;
+		}
+	}
+
+	private static final class Or extends Expr {
+		private final OpApplNode expr;
+		private final Expr lhs, rhs;
+
+		Or(final OpApplNode expr, final Expr lhs, final Expr rhs) {
+			this.expr = expr;
+			this.lhs = lhs;
+			this.rhs = rhs;
+		}
+
+		@Override
+		Value eval(final Context c, final TLCState s0, final TLCState s1, final int control, final CostModel cm) {
+			final Value arg1 = lhs.eval(c, s0, s1, control, cm);
+			if (!(arg1 instanceof BoolValue)) {
+				Assert.fail("Attempted to evaluate an expression of form P \\/ Q" + " when P was\n"
+						+ arg1.getKindString() + ".\n" + expr, expr, c);
+			}
+			if (((BoolValue) arg1).val) {
+				return BoolValue.ValTrue;
+			}
+			final Value arg2 = rhs.eval(c, s0, s1, control, cm);
+			if (!(arg2 instanceof BoolValue)) {
+				Assert.fail("Attempted to evaluate an expression of form P \\/ Q" + " when Q was\n"
+						+ arg2.getKindString() + ".\n" + expr, expr, c);
+			}
+			return arg2;
+		}
+	}
+
+	private static final class Implies extends Expr {
+		private final OpApplNode expr;
+		private final Expr lhs, rhs;
+
+		Implies(final OpApplNode expr, final Expr lhs, final Expr rhs) {
+			this.expr = expr;
+			this.lhs = lhs;
+			this.rhs = rhs;
+		}
+
+		@Override
+		Value eval(final Context c, final TLCState s0, final TLCState s1, final int control, final CostModel cm) {
+			final Value arg1 = lhs.eval(c, s0, s1, control, cm);
+			if (!(arg1 instanceof BoolValue)) {
+				Assert.fail("Attempted to evaluate an expression of form P => Q" + " when P was\n"
+						+ arg1.getKindString() + ".\n" + expr, expr, c);
+			}
+			if (((BoolValue) arg1).val) {
+				final Value arg2 = rhs.eval(c, s0, s1, control, cm);
+				if (!(arg2 instanceof BoolValue)) {
+					Assert.fail("Attempted to evaluate an expression of form P => Q" + " when Q was\n"
+							+ arg2.getKindString() + ".\n" + expr, expr, c);
+				}
+				return arg2;
+			}
+			return BoolValue.ValTrue;
+		}
+	}
+
+	private static final class Not extends Expr {
+		private final OpApplNode expr;
+		private final ExprOrOpArgNode node;
+		private final Expr arg;
+
+		Not(final OpApplNode expr, final ExprOrOpArgNode node, final Expr arg) {
+			this.expr = expr;
+			this.node = node;
+			this.arg = arg;
+		}
+
+		@Override
+		Value eval(final Context c, final TLCState s0, final TLCState s1, final int control, final CostModel cm) {
+			final Value val = arg.eval(c, s0, s1, control, cm);
+			if (!(val instanceof BoolValue)) {
+				Assert.fail("Attempted to apply the operator ~ to a non-boolean\n(" + val.getKindString() + ")\n"
+						+ expr, node, c);
+			}
+			return (((BoolValue) val).val) ? BoolValue.ValFalse : BoolValue.ValTrue;
+		}
+	}
+
+	private static final class Equiv extends Expr {
+		private final OpApplNode expr;
+		private final Expr lhs, rhs;
+
+		Equiv(final OpApplNode expr, final Expr lhs, final Expr rhs) {
+			this.expr = expr;
+			this.lhs = lhs;
+			this.rhs = rhs;
+		}
+
+		@Override
+		Value eval(final Context c, final TLCState s0, final TLCState s1, final int control, final CostModel cm) {
+			final Value arg1 = lhs.eval(c, s0, s1, control, cm);
+			final Value arg2 = rhs.eval(c, s0, s1, control, cm);
+			if (!(arg1 instanceof BoolValue) || !(arg2 instanceof BoolValue)) {
+				Assert.fail("Attempted to evaluate an expression of form P <=> Q"
+						+ " when P or Q was not a boolean.\n" + expr, expr, c);
+			}
+			return (((BoolValue) arg1).val == ((BoolValue) arg2).val) ? BoolValue.ValTrue : BoolValue.ValFalse;
+		}
+	}
+
+	private static final class Eq extends Expr {
+		private final Expr lhs, rhs;
+		private final boolean eq;
+
+		Eq(final Expr lhs, final Expr rhs, final boolean eq) {
+			this.lhs = lhs;
+			this.rhs = rhs;
+			this.eq = eq;
+		}
+
+		@Override
+		Value eval(final Context c, final TLCState s0, final TLCState s1, final int control, final CostModel cm) {
+			final Value arg1 = lhs.eval(c, s0, s1, control, cm);
+			final Value arg2 = rhs.eval(c, s0, s1, control, cm);
+			return (arg1.equals(arg2) == eq) ? BoolValue.ValTrue : BoolValue.ValFalse;
+		}
+	}
+
+	private static final class In extends Expr {
+		private final Expr elem, set;
+		private final boolean in;
+
+		In(final Expr elem, final Expr set, final boolean in) {
+			this.elem = elem;
+			this.set = set;
+			this.in = in;
+		}
+
+		@Override
+		Value eval(final Context c, final TLCState s0, final TLCState s1, final int control, final CostModel cm) {
+			final Value arg1 = elem.eval(c, s0, s1, control, cm);
+			final Value arg2 = set.eval(c, s0, s1, control, cm);
+			return (arg2.member(arg1) == in) ? BoolValue.ValTrue : BoolValue.ValFalse;
+		}
+	}
+}
@@ -0,0 +1,365 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.impl;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import tla2sany.explorer.ExploreNode;
+import tla2sany.explorer.ExplorerVisitor;
+import tla2sany.semantic.FormalParamNode;
+import tla2sany.semantic.LevelConstants;
+import tla2sany.semantic.ModuleNode;
+import tla2sany.semantic.OpApplNode;
+import tla2sany.semantic.OpDefNode;
+import tla2sany.semantic.SymbolNode;
+import tlc2.output.EC;
+import tlc2.output.MP;
+import tlc2.util.FP64;
+import tlc2.value.ValueConstants;
+import tlc2.value.impl.FcnRcdValue;
+import tlc2.value.impl.RecordValue;
+import tlc2.value.impl.SetEnumValue;
+import tlc2.value.impl.TupleValue;
+import tlc2.value.impl.Value;
+import tlc2.value.impl.ValueVec;
+
+/**
+ * Memoizes the values of applications of operators whose definition is
+ * constant-level according to SANY's level checking, such as Quorums(S) or
+ * recursive definitions. The value of such an application only depends on the
+ * values of its arguments, which is why a memo is keyed by the fingerprint of
+ * the argument values. As with fingerprints of states, TLC accepts the
+ * (unlikely) collision of two fingerprints.
+ * <p>
+ * An operator is only memoized if it is <i>pure</i>: Neither its definition
+ * nor any definition it transitively refers to uses an operator with side
+ * effects (TLCGet, TLCSet, Print, RandomElement, the operators of TLCExt,
+ * IOUtils, ...) or refers to a bound identifier that is not declared in these
+ * definitions, such as a LET definition that refers to a bound identifier of
+ * the enclosing expression.
+ * <p>
+ * Each memo is bounded and striped into segments that evict the least-recently
+ * used entry and are guarded by their own lock.
+ */
+public final class OpMemoizer {
+
+	private static final Logger LOGGER = Logger.getLogger(OpMemoizer.class.getName());
+
+	/*
+	 * Activate with: -Dtlc2.tool.impl.Tool.memoize=true
+	 * Entries per operator with: -Dtlc2.tool.impl.OpMemoizer.capacity=4096
+	 */
+	private static final int CAPACITY = Math.max(1,
+			Integer.getInteger(OpMemoizer.class.getName() + ".capacity", 4096));
+
+	// Operators of these modules have side effects or depend on the current state
+	// or behavior.
+	private static final Set<String> IMPURE_MODULES = new HashSet<>();
+	// ...and these operators of the TLC module.
+	private static final Set<String> IMPURE_TLC = new HashSet<>();
+	static {
+		IMPURE_MODULES.add("TLCExt");
+		IMPURE_MODULES.add("Randomization");
+		IMPURE_MODULES.add("IOUtils");
+		IMPURE_MODULES.add("Json");
+		IMPURE_MODULES.add("CSV");
+		IMPURE_TLC.add("Print");
+		IMPURE_TLC.add("PrintT");
+		IMPURE_TLC.add("TLCGet");
+		IMPURE_TLC.add("TLCSet");
+		IMPURE_TLC.add("RandomElement");
+		IMPURE_TLC.add("JavaTime");
+	}
+
+	// The memoizer of the most recently created Tool that memoizes.
+	private static volatile OpMemoizer current;
+
+	private static final Memo NONE = new Memo(null, 1);
+
+	private final Map<OpDefNode, Memo> memos = new ConcurrentHashMap<>();
+
+	OpMemoizer() {
+		current = this;
+	}
+
+	/**
+	 * @return The memo for opDef or null if opDef is not memoized.
+	 */
+	Memo get(final OpDefNode opDef) {
+		final Memo memo = this.memos.computeIfAbsent(opDef, odn -> isMemoizable(odn) ? new Memo(odn, CAPACITY) : NONE);
+		return memo == NONE || memo.disabled ? null : memo;
+	}
+
+	/**
+	 * @return true iff the value of v can be fingerprinted in time proportional
+	 *         to its size, e.g. unlike SUBSET S or {x \in S : P(x)}.
+	 */
+	static boolean isKey(final Value v) {
+		switch (v.getKind()) {
+		case ValueConstants.BOOLVALUE:
+		case ValueConstants.INTVALUE:
+		case ValueConstants.STRINGVALUE:
+		case ValueConstants.MODELVALUE:
+		case ValueConstants.INTERVALVALUE:
+		case ValueConstants.INTSETVALUE:
+		case ValueConstants.SETENUMVALUE:
+		case ValueConstants.TUPLEVALUE:
+		case ValueConstants.RECORDVALUE:
+		case ValueConstants.FCNRCDVALUE:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * @return true iff v can be shared by all workers because neither v nor any
+	 *         of its components mutates once deeply normalized (see WorkerValue).
+	 */
+	static boolean isShareable(final Value v) {
+		if (!v.mutates()) {
+			return true;
+		}
+		switch (v.getKind()) {
+		case ValueConstants.SETENUMVALUE:
+			final ValueVec elems = ((SetEnumValue) v).elems;
+			for (int i = 0; i < elems.size(); i++) {
+				if (!isShareable(elems.elementAt(i))) {
+					return false;
+				}
+			}
+			return true;
+		case ValueConstants.TUPLEVALUE:
+			return isShareable(((TupleValue) v).getElems());
+		case ValueConstants.RECORDVALUE:
+			return isShareable(((RecordValue) v).values);
+		case ValueConstants.FCNRCDVALUE:
+			final FcnRcdValue fcn = (FcnRcdValue) v;
+			return (fcn.domain == null || isShareable(fcn.domain)) && isShareable(fcn.getValues());
+		default:
+			return false;
+		}
+	}
+
+	private static boolean isShareable(final Value[] values) {
+		for (int i = 0; i < values.length; i++) {
+			if (!isShareable(values[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	static long fingerPrint(final Value[] args) {
+		long fp = FP64.New();
+		for (int i = 0; i < args.length; i++) {
+			fp = args[i].fingerPrint(fp);
+		}
+		return fp;
+	}
+
+	private static boolean isMemoizable(final OpDefNode opDef) {
+		if (opDef.getArity() == 0 || opDef.getBody() == null
+				|| opDef.getBody().getLevel() != LevelConstants.ConstantLevel) {
+			// Zero-arity constant definitions are evaluated once at startup anyway.
+			return false;
+		}
+		for (final FormalParamNode param : opDef.getParams()) {
+			if (param.getArity() > 0) {
+				// Higher-order operator whose argument is an operator.
+				return false;
+			}
+		}
+		final PurityVisitor visitor = new PurityVisitor();
+		opDef.walkGraph(new Hashtable<>(), visitor);
+		return visitor.isPure();
+	}
+
+	private static final class PurityVisitor extends ExplorerVisitor {
+		private final Set<FormalParamNode> declared = new HashSet<>();
+		private final Set<FormalParamNode> referenced = new HashSet<>();
+		private boolean impure = false;
+
+		@Override
+		public void preVisit(final ExploreNode exploreNode) {
+			if (exploreNode instanceof OpDefNode) {
+				final FormalParamNode[] params = ((OpDefNode) exploreNode).getParams();
+				for (int i = 0; params != null && i < params.length; i++) {
+					declared.add(params[i]);
+				}
+			} else if (exploreNode instanceof OpApplNode) {
+				final OpApplNode oan = (OpApplNode) exploreNode;
+				final SymbolNode operator = oan.getOperator();
+				if (operator instanceof FormalParamNode) {
+					referenced.add((FormalParamNode) operator);
+				} else if (operator instanceof OpDefNode) {
+					final ModuleNode module = ((OpDefNode) operator).getOriginallyDefinedInModuleNode();
+					if (module != null) {
+						final String name = module.getName().toString();
+						impure |= IMPURE_MODULES.contains(name)
+								|| ("TLC".equals(name) && IMPURE_TLC.contains(operator.getName().toString()));
+					}
+				}
+				final FormalParamNode[] unbounded = oan.getUnbdedQuantSymbols();
+				for (int i = 0; unbounded != null && i < unbounded.length; i++) {
+					declared.add(unbounded[i]);
+				}
+				final FormalParamNode[][] bounded = oan.getBdedQuantSymbolLists();
+				for (int i = 0; bounded != null && i < bounded.length; i++) {
+					for (int j = 0; j < bounded[i].length; j++) {
+						declared.add(bounded[i][j]);
+					}
+				}
+			}
+		}
+
+		boolean isPure() {
+			return !impure && declared.containsAll(referenced);
+		}
+	}
+
+	/**
+	 * Prints the hits and misses of each memoized operator.
+	 */
+	public static void report() {
+		final OpMemoizer memoizer = current;
+		if (memoizer == null) {
+			return;
+		}
+		final List<Memo> memos = new ArrayList<>();
+		for (final Memo memo : memoizer.memos.values()) {
+			if (memo != NONE) {
+				memos.add(memo);
+			}
+		}
+		memos.sort((m1, m2) -> m1.opDef.getLocation().compareTo(m2.opDef.getLocation()));
+		for (final Memo memo : memos) {
+			MP.printMessage(EC.TLC_COVERAGE_MEMOIZED,
+					new String[] { String.format("<%s %s>", memo.opDef.getName(), memo.opDef.getLocation()),
+							String.valueOf(memo.hits.sum()), String.valueOf(memo.misses.sum()) });
+		}
+	}
+
+	public static long getHits() {
+		final OpMemoizer memoizer = current;
+		long sum = 0L;
+		if (memoizer != null) {
+			for (final Memo memo : memoizer.memos.values()) {
+				sum += memo.hits.sum();
+			}
+		}
+		return sum;
+	}
+
+	public static long getMisses() {
+		final OpMemoizer memoizer = current;
+		long sum = 0L;
+		if (memoizer != null) {
+			for (final Memo memo : memoizer.memos.values()) {
+				sum += memo.misses.sum();
+			}
+		}
+		return sum;
+	}
+
+	static final class Memo {
+
+		private static final int SEGMENTS = 16;
+
+		private final OpDefNode opDef;
+		private final Segment[] segments;
+		private final LongAdder hits = new LongAdder();
+		private final LongAdder misses = new LongAdder();
+		// Set if the arguments of an application could not be evaluated eagerly. From
+		// then on, the operator is evaluated as if it was not memoized.
+		private volatile boolean disabled = false;
+
+		Memo(final OpDefNode opDef, final int capacity) {
+			this.opDef = opDef;
+			this.segments = new Segment[SEGMENTS];
+			for (int i = 0; i < segments.length; i++) {
+				this.segments[i] = new Segment(Math.max(1, capacity / SEGMENTS));
+			}
+		}
+
+		private Segment segment(final long fp) {
+			return this.segments[(int) (fp >>> 60)];
+		}
+
+		Value get(final long fp) {
+			final Segment segment = segment(fp);
+			final Value value;
+			synchronized (segment) {
+				value = segment.get(fp);
+			}
+			if (value == null) {
+				misses.increment();
+			} else {
+				hits.increment();
+			}
+			return value;
+		}
+
+		void disable(final RuntimeException e) {
+			this.disabled = true;
+			LOGGER.log(Level.FINE, String.format("Stopped memoizing %s %s because its arguments failed to evaluate.",
+					opDef.getName(), opDef.getLocation()), e);
+		}
+
+		void put(final long fp, final Value value) {
+			final Segment segment = segment(fp);
+			synchronized (segment) {
+				segment.put(fp, value);
+			}
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static final class Segment extends LinkedHashMap<Long, Value> {
+		private final int capacity;
+
+		Segment(final int capacity) {
+			// Access order, i.e. LRU.
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<Long, Value> eldest) {
+			return size() > capacity;
+		}
+	}
+}
@@ -8,10 +8,14 @@
 package tlc2.tool.impl;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import tla2sany.parser.SyntaxTreeNode;
 import tla2sany.semantic.APSubstInNode;
@@ -44,6 +48,7 @@ import tlc2.tool.IContextEnumerator;
 import tlc2.tool.INextStateFunctor;
 import tlc2.tool.IStateFunctor;
 import tlc2.tool.ITool;
+import tlc2.tool.PartitionedStateFunctor;
 import tlc2.tool.StateVec;
 import tlc2.tool.TLCState;
 import tlc2.tool.TLCStateFun;
@@ -136,6 +141,42 @@ public abstract class Tool
 	 */
   private static final boolean PROBABLISTIC = Boolean.getBoolean(PROBABLISTIC_KEY);
 
+	/*
+	 * Compile invariants, state constraints, and the state-level expressions of
+	 * the next-state actions (guards and the right-hand sides of assignments to
+	 * primed variables) into closures instead of interpreting their semantic
+	 * trees for every state (see ExprCompiler).
+	 * 
+	 * Activate with: -Dtlc2.tool.impl.Tool.compile=true
+	 */
+  public static final String COMPILE_KEY = Tool.class.getName() + ".compile";
+
+	/*
+	 * Memoize the values of applications of constant-level operators with
+	 * arguments (see OpMemoizer). The coverage statistics do not count the
+	 * evaluations of a memoized operator's definition that a memo hit skips (see
+	 * EC.TLC_COVERAGE_MEMOIZED).
+	 * 
+	 * Activate with: -Dtlc2.tool.impl.Tool.memoize=true
+	 */
+  public static final String MEMOIZE_KEY = Tool.class.getName() + ".memoize";
+
+	/*
+	 * Split the bindings of a bounded existential quantifier in the next-state
+	 * relation, such as \E S \in SUBSET Msgs : ..., into ForkJoin tasks once the
+	 * quantifier yields more than the given number of bindings (default 1024). Without
+	 * it, a single worker enumerates all successors of such a state while the other
+	 * workers idle on an empty queue. The successor states are returned in the
+	 * order of the sequential enumeration. The tasks do not run on the worker (an
+	 * IdThread) though, which is why TLCGet(i) and TLCSet(i, ...) do not see the
+	 * worker's local values in the quantifier's body.
+	 * 
+	 * Activate with: -Dtlc2.tool.impl.Tool.parallelExists=true
+	 * Threshold with: -Dtlc2.tool.impl.Tool.parallelExistsThreshold=1024
+	 */
+  public static final String PARALLEL_EXISTS_KEY = Tool.class.getName() + ".parallelExists";
+  public static final String PARALLEL_EXISTS_THRESHOLD_KEY = Tool.class.getName() + ".parallelExistsThreshold";
+
   public enum Mode {
 	  Simulation, MC, MC_DEBUG, Executor;
   }
@@ -144,6 +185,13 @@ public abstract class Tool
 
   protected final Action[] actions;     // the list of TLA actions.
   private Vect<Action> actionVec = new Vect<>(10);
+  // The compiled state-level expressions or null if compilation is off.
+  private final Map<SemanticNode, ExprCompiler.Expr> compiled;
+  // The number of bindings of a bounded existential quantifier after which
+  // getNextStates forks tasks or Integer.MAX_VALUE if PARALLEL_EXISTS is off.
+  private final int existsSplit;
+  // null if memoization is off.
+  private final OpMemoizer memoizer;
   protected final Mode toolMode;
 
   /**
@@ -217,6 +265,26 @@ public abstract class Tool
 		for (int i = 0; i < initAndNext.size(); i++) {
 			initAndNext.elementAt(i).setId(i);
 		}
+
+		// Neither coverage nor the debugger and call stack recording (which are not
+		// FastTools) see the evaluation of a compiled expression.
+		if (Boolean.getBoolean(COMPILE_KEY) && !coverage && this instanceof FastTool) {
+			this.compiled = compile();
+		} else {
+			this.compiled = null;
+		}
+
+		// Coverage counts each binding and would thus differ with and without
+		// splitting.
+		if (Boolean.getBoolean(PARALLEL_EXISTS_KEY) && !coverage && mode == Mode.MC && this instanceof FastTool
+				&& TLCGlobals.getNumWorkers() > 1) {
+			this.existsSplit = Math.max(1, Integer.getInteger(PARALLEL_EXISTS_THRESHOLD_KEY, 1024));
+		} else {
+			this.existsSplit = Integer.MAX_VALUE;
+		}
+
+		// The debugger (not a FastTool) has to see the evaluation of every application.
+		this.memoizer = Boolean.getBoolean(MEMOIZE_KEY) && this instanceof FastTool ? new OpMemoizer() : null;
   }
 
   Tool(Tool other) {
@@ -224,6 +292,48 @@ public abstract class Tool
 	  this.actions = other.actions;
 	  this.actionVec = other.actionVec;
 	  this.toolMode = other.toolMode;
+	  this.compiled = this instanceof FastTool ? other.compiled : null;
+	  this.existsSplit = this instanceof FastTool ? other.existsSplit : Integer.MAX_VALUE;
+	  this.memoizer = this instanceof FastTool ? other.memoizer : null;
+  }
+
+  private final Map<SemanticNode, ExprCompiler.Expr> compile() {
+	  final ExprCompiler compiler = new ExprCompiler(this, this.actions);
+	  final Map<SemanticNode, ExprCompiler.Expr> exprs = new IdentityHashMap<>();
+	  compiler.compileActions(exprs);
+	  for (final Action inv : this.getInvariants()) {
+		  final ExprCompiler.Expr expr = compiler.compile(inv.pred, inv.con);
+		  if (expr != null) {
+			  exprs.put(inv.pred, expr);
+		  }
+	  }
+	  for (final ExprNode constr : this.getModelConstraints()) {
+		  final ExprCompiler.Expr expr = compiler.compile(constr, Context.Empty);
+		  if (expr != null) {
+			  exprs.put(constr, expr);
+		  }
+	  }
+	  return exprs;
+  }
+
+  /**
+   * Evaluates the expression expr that the interpreter encounters while it
+   * generates the successor states, with its compiled version if there is one.
+   */
+  private final Value evalNextState(final SemanticNode expr, final Context c, final TLCState s0, final TLCState s1,
+		  final CostModel cm) {
+	  if (this.compiled != null) {
+		  final ExprCompiler.Expr compiledExpr = this.compiled.get(expr);
+		  if (compiledExpr != null) {
+			  return compiledExpr.eval(c, s0, s1, EvalControl.Clear, cm);
+		  }
+	  }
+	  return this.eval(expr, c, s0, s1, EvalControl.Clear, cm);
+  }
+
+  // TESTING ONLY!
+  final Map<SemanticNode, ExprCompiler.Expr> getCompiled() {
+	  return this.compiled;
   }
 
   @Override
@@ -642,10 +752,19 @@ public abstract class Tool
           {
             SemanticNode body = args[0];
             ContextEnumerator Enum = this.contexts(init, c, ps, TLCState.Empty, EvalControl.Init, cm);
+            // Split the enumeration across threads (see ModelChecker#doInit).
+            final PartitionedStateFunctor partition = PartitionedStateFunctor.enter(states);
+            long ordinal = 0L;
             Context c1;
             while ((c1 = Enum.nextElement()) != null) {
+              if (partition != null && !partition.owns(ordinal++)) {
+                continue;
+              }
               this.getInitStates(body, acts, c1, ps, states, cm);
             }
+            if (partition != null) {
+              partition.leave();
+            }
             return;
           }
         case OPCODE_bf:     // BoundedForall
@@ -783,12 +902,21 @@ public abstract class Tool
                               " is not enumerable.\n" + init, init, c);
                 }
                 ValueEnumeration Enum = ((Enumerable)rval).elements();
+                // Split the enumeration across threads (see ModelChecker#doInit).
+                final PartitionedStateFunctor partition = PartitionedStateFunctor.enter(states);
+                long ordinal = 0L;
                 Value elem;
                 while ((elem = Enum.nextElement()) != null) {
+                  if (partition != null && !partition.owns(ordinal++)) {
+                    continue;
+                  }
                   ps.bind(varName, elem);
                   this.getInitStates(acts, ps, states, cm);
                   ps.unbind(varName);
                 }
+                if (partition != null) {
+                  partition.leave();
+                }
                 return;
               }
               else {
@@ -1082,7 +1210,9 @@ public abstract class Tool
           // OpDefNode above has been substed with a built-in operator. In other words, a user defines an operator Op1,
           // and re-defines Op1 with a TLA+ built-in one in a TLC model (not assumed to be common). => No point in trying
           // to move this call into if(opcode==0) because this will be the case most of the time anyway.
-          final Object bval = getNextStatesApplEvalAppl(alen, args, c, s0, s1, cm, val);
+          final ExprCompiler.Expr compiledExpr = this.compiled == null ? null : this.compiled.get(pred);
+          final Object bval = compiledExpr != null ? compiledExpr.eval(c, s0, s1, EvalControl.Clear, cm)
+                  : getNextStatesApplEvalAppl(alen, args, c, s0, s1, cm, val);
 
 	      // opcode == 0 is a user-defined operator.
           if (opcode == 0)
@@ -1129,6 +1259,127 @@ public abstract class Tool
 	return s1;
   }
 
+  /**
+   * Generates the successor states of the bounded existential quantifier whose
+   * bindings are enumerated by Enum. The first existsSplit bindings are evaluated
+   * on the calling thread, which is all most quantifiers ever yield. Beyond that,
+   * the bindings are split into chunks of existsSplit bindings that are evaluated
+   * by ForkJoin tasks, except for the last chunk that is again evaluated by the
+   * calling thread. Each task collects its successor states in its own StateVec.
+   * Only the calling thread passes them on to nss in the order of the bindings,
+   * because nss - usually the Worker that checks and enqueues the successors -
+   * is not thread-safe.
+   */
+  private final TLCState getNextStatesForked(final Action action, final SemanticNode body, final ActionItemList acts,
+		  final ContextEnumerator Enum, final TLCState s0, final TLCState s1, final INextStateFunctor nss, final CostModel cm) {
+	  TLCState resState = s1;
+	  Context c1;
+	  for (int i = 0; i < existsSplit; i++) {
+		  if ((c1 = Enum.nextElement()) == null) {
+			  return resState;
+		  }
+		  resState = this.getNextStates(action, body, acts, c1, s0, resState, nss, cm);
+	  }
+
+	  final ForkJoinPool pool = NextStatesPool.POOL;
+	  final List<NextStatesTask> tasks = new ArrayList<>();
+	  Context[] chunk = new Context[existsSplit];
+	  int n = 0;
+	  while ((c1 = Enum.nextElement()) != null) {
+		  if (n == chunk.length) {
+			  final NextStatesTask task = new NextStatesTask(action, body, acts, chunk, n, s0, resState.copy(), cm);
+			  pool.execute(task);
+			  tasks.add(task);
+			  chunk = new Context[existsSplit];
+			  n = 0;
+		  }
+		  chunk[n++] = c1;
+	  }
+	  final NextStatesTask last = new NextStatesTask(action, body, acts, chunk, n, s0, resState, cm);
+	  last.invoke();
+	  tasks.add(last);
+
+	  // Pass the successor states on in the order of the bindings as if they had
+	  // been enumerated sequentially. If nss or the evaluation of a binding fails,
+	  // the tasks for the subsequent bindings are cancelled, which only prevents
+	  // those from starting that are still queued.
+	  int t = 0;
+	  try {
+		  for (; t < tasks.size(); t++) {
+			  final NextStatesTask task = tasks.get(t);
+			  task.join();
+			  for (int i = 0; i < task.states.size(); i++) {
+				  nss.addElement(s0, action, task.states.elementAt(i));
+			  }
+			  if (task.failure instanceof RuntimeException) {
+				  throw (RuntimeException) task.failure;
+			  } else if (task.failure instanceof Error) {
+				  throw (Error) task.failure;
+			  } else if (task.failure != null) {
+				  throw new RuntimeException(task.failure);
+			  }
+		  }
+	  } finally {
+		  for (int i = t + 1; i < tasks.size(); i++) {
+			  tasks.get(i).cancel(false);
+		  }
+	  }
+	  return last.resState;
+  }
+
+  // Lazily creates the pool shared by all workers once the first quantifier exceeds
+  // existsSplit.
+  private static final class NextStatesPool {
+	  private static final ForkJoinPool POOL = new ForkJoinPool(TLCGlobals.getNumWorkers());
+  }
+
+  @SuppressWarnings("serial")
+  private final class NextStatesTask extends RecursiveAction {
+
+	  private final Action action;
+	  private final SemanticNode body;
+	  private final ActionItemList acts;
+	  private final Context[] contexts;
+	  private final int length;
+	  private final TLCState s0;
+	  private final CostModel cm;
+	  private final StateVec states;
+	  private TLCState resState;
+	  // The Throwable is handed to the worker as is, whereas join() would
+	  // re-create it.
+	  private Throwable failure;
+
+	  NextStatesTask(final Action action, final SemanticNode body, final ActionItemList acts, final Context[] contexts,
+			  final int length, final TLCState s0, final TLCState s1, final CostModel cm) {
+		  this.action = action;
+		  this.body = body;
+		  this.acts = acts;
+		  this.contexts = contexts;
+		  this.length = length;
+		  this.s0 = s0;
+		  this.resState = s1;
+		  this.cm = cm;
+		  this.states = new StateVec(length);
+	  }
+
+	  @Override
+	  protected void compute() {
+		  // Evaluation of e.g. RandomElement reads the predecessor from the current
+		  // state which is only set for the worker's thread.
+		  final TLCState current = IdThread.getCurrentState();
+		  IdThread.setCurrentState(s0);
+		  try {
+			  for (int i = 0; i < length; i++) {
+				  resState = getNextStates(action, body, acts, contexts[i], s0, resState, states, cm);
+			  }
+		  } catch (Throwable e) {
+			  failure = e;
+		  } finally {
+			  IdThread.setCurrentState(current);
+		  }
+	  }
+  }
+
   private final TLCState getNextStatesApplSwitch(final Action action, final OpApplNode pred, final ActionItemList acts, final Context c, final TLCState s0,
 		final TLCState s1, final INextStateFunctor nss, final CostModel cm, final ExprOrOpArgNode[] args, final int alen, final int opcode) {
 	TLCState resState = s1;
@@ -1181,6 +1432,9 @@ public abstract class Tool
 	    } else {
 	    	// non-deterministically generate successor states (potentially many)
 	    	ContextEnumerator Enum = this.contexts(pred, c, s0, s1, EvalControl.Clear, cm);
+	    	if (existsSplit != Integer.MAX_VALUE) {
+	    		return this.getNextStatesForked(action, body, acts, Enum, s0, s1, nss, cm);
+	    	}
 	    	Context c1;
 	    	while ((c1 = Enum.nextElement()) != null) {
 	    		resState = this.getNextStates(action, body, acts, c1, s0, resState, nss, cm);
@@ -1252,7 +1506,7 @@ public abstract class Tool
 	  }
 	case OPCODE_ite:    // IfThenElse
 	  {
-	    Value guard = this.eval(args[0], c, s0, s1, EvalControl.Clear, cm);
+	    Value guard = this.evalNextState(args[0], c, s0, s1, cm);
 	    if (!(guard instanceof BoolValue)) {
 	      Assert.fail("In computing next states, a non-boolean expression (" +
 	                  guard.getKindString() + ") was used as the condition of" +
@@ -1280,7 +1534,7 @@ public abstract class Tool
 	        other = pairArgs[1];
 	      }
 	      else {
-	        Value bval = this.eval(pairArgs[0], c, s0, s1, EvalControl.Clear, coverage ? cm.get(args[i]) : cm);
+	        Value bval = this.evalNextState(pairArgs[0], c, s0, s1, coverage ? cm.get(args[i]) : cm);
 	        if (!(bval instanceof BoolValue)) {
 	          Assert.fail("In computing next states, a non-boolean expression (" +
 	                      bval.getKindString() + ") was used as a guard condition" +
@@ -1302,7 +1556,7 @@ public abstract class Tool
 	    SymbolNode var = this.getPrimedVar(args[0], c, false);
 	    // Assert.check(var.getName().getVarLoc() >= 0);
 	    if (var == null) {
-	      Value bval = this.eval(pred, c, s0, s1, EvalControl.Clear, cm);
+	      Value bval = this.evalNextState(pred, c, s0, s1, cm);
 	      if (!((BoolValue)bval).val) {
 	        return resState;
 	      }
@@ -1310,7 +1564,7 @@ public abstract class Tool
 	    else {
 	      UniqueString varName = var.getName();
 	      IValue lval = s1.lookup(varName);
-	      Value rval = this.eval(args[1], c, s0, s1, EvalControl.Clear, cm);
+	      Value rval = this.evalNextState(args[1], c, s0, s1, cm);
 	      if (lval == null) {
 	        resState.bind(varName, rval);
 	        resState = this.getNextStates(action, acts, s0, resState, nss, cm);
@@ -1328,7 +1582,7 @@ public abstract class Tool
 	    SymbolNode var = this.getPrimedVar(args[0], c, false);
 	    // Assert.check(var.getName().getVarLoc() >= 0);
 	    if (var == null) {
-	      Value bval = this.eval(pred, c, s0, s1, EvalControl.Clear, cm);
+	      Value bval = this.evalNextState(pred, c, s0, s1, cm);
 	      if (!((BoolValue)bval).val) {
 	        return resState;
 	      }
@@ -1336,7 +1590,7 @@ public abstract class Tool
 	    else {
 	      UniqueString varName = var.getName();
 	      Value lval = (Value) s1.lookup(varName);
-	      Value rval = this.eval(args[1], c, s0, s1, EvalControl.Clear, cm);
+	      Value rval = this.evalNextState(args[1], c, s0, s1, cm);
 	      if (lval == null) {
 	        if (!(rval instanceof Enumerable)) {
 	          Assert.fail("In computing next states, the right side of \\IN" +
@@ -1373,7 +1627,7 @@ public abstract class Tool
 	  }
 	case OPCODE_implies:
 	  {
-	    Value bval = this.eval(args[0], c, s0, s1, EvalControl.Clear, cm);
+	    Value bval = this.evalNextState(args[0], c, s0, s1, cm);
 	    if (!(bval instanceof BoolValue)) {
 	      Assert.fail("In computing next states of a predicate of the form" +
 	                  " P => Q, P was\n" + bval.getKindString() + ".\n" + pred, pred, c);
@@ -1412,7 +1666,7 @@ public abstract class Tool
 	default:
 	  {
 	    // We handle all the other builtin operators here.
-	    Value bval = this.eval(pred, c, s0, s1, EvalControl.Clear, cm);
+	    Value bval = this.evalNextState(pred, c, s0, s1, cm);
 	    if (!(bval instanceof BoolValue)) {
 	      Assert.fail(EC.TLC_EXPECTED_EXPRESSION_IN_COMPUTING, new String[] { "next states", "boolean",
 	              bval.toString(), pred.toString() }, pred, c);
@@ -1644,10 +1898,62 @@ public abstract class Tool
 	  
 	public Value evalPure(final OpDefNode opDef, final ExprOrOpArgNode[] args, final Context c, final TLCState s0,
 				final TLCState s1, final int control, final CostModel cm) {
+		if (memoizer != null) {
+			final OpMemoizer.Memo memo = memoizer.get(opDef);
+			if (memo != null) {
+				return evalMemoized(memo, opDef, args, c, s0, s1, control, cm);
+			}
+		}
 	    final Context c1 = this.getOpContext(opDef, args, c, true, cm, toolId);
 		return this.eval(opDef.getBody(), c1, s0, s1, control, cm);
 	}
 
+	private final Value evalMemoized(final OpMemoizer.Memo memo, final OpDefNode opDef, final ExprOrOpArgNode[] args,
+			final Context c, final TLCState s0, final TLCState s1, final int control, final CostModel cm) {
+		// Contrary to getOpContext, the arguments are evaluated eagerly to look up the
+		// memo by their fingerprint.
+		final Value[] argVals = new Value[args.length];
+		boolean isKey = true;
+		try {
+			for (int i = 0; i < args.length; i++) {
+				argVals[i] = this.eval(args[i], c, s0, s1, control, cm);
+				isKey &= OpMemoizer.isKey(argVals[i]);
+			}
+		} catch (RuntimeException e) {
+			// An argument that the definition never evaluates, or only in some branches,
+			// might be undefined. Leave it to lazy evaluation to decide, for this and all
+			// subsequent applications of opDef.
+			memo.disable(e);
+			final Context c1 = this.getOpContext(opDef, args, c, true, cm, toolId);
+			return this.eval(opDef.getBody(), c1, s0, s1, control, cm);
+		}
+
+		final FormalParamNode[] formals = opDef.getParams();
+		Context c1 = c;
+		for (int i = 0; i < argVals.length; i++) {
+			c1 = c1.cons(formals[i], argVals[i]);
+		}
+		if (!isKey) {
+			// Fingerprinting e.g. SUBSET S might be more expensive than evaluating the
+			// definition.
+			return this.eval(opDef.getBody(), c1, s0, s1, control, cm);
+		}
+
+		final long fp = OpMemoizer.fingerPrint(argVals);
+		Value res = memo.get(fp);
+		if (res == null) {
+			res = this.eval(opDef.getBody(), c1, s0, s1, control, cm);
+			// The value is shared by all workers from now on. As with constant definitions
+			// (see WorkerValue), a value that mutates, such as the lazy {x \in S : P(x)},
+			// is only shared if there is a single worker.
+			res.deepNormalize();
+			if (OpMemoizer.isShareable(res) || TLCGlobals.getNumWorkers() == 1) {
+				memo.put(fp, res);
+			}
+		}
+		return res;
+	}
+
   /*
    * This method evaluates the expression expr in the given context,
    * current state, and partial next state.
@@ -1892,8 +2198,7 @@ public abstract class Tool
             OpDefNode opDef = (OpDefNode)val;
             opcode = BuiltInOPs.getOpCode(opDef.getName());
             if (opcode == 0) {
-              Context c1 = this.getOpContext(opDef, args, c, true, cm, toolId);
-              res = this.eval(opDef.getBody(), c1, s0, s1, control, cm);
+              res = this.evalPure(opDef, args, c, s0, s1, control, cm);
             }
           }
           else if (val instanceof Value) {
@@ -2037,7 +2342,7 @@ public abstract class Tool
                 }
                 Context c1 = c;
                 for (int i = 0; i < cnt; i++) {
-                  c1 = c1.cons(bvars[i], tv.elems[i]);
+                  c1 = c1.cons(bvars[i], tv.getElem(i));
                 }
                 Value bval = this.eval(pred, c1, s0, s1, control, cm);
                 if (!(bval instanceof BoolValue)) {
@@ -2348,7 +2653,7 @@ public abstract class Tool
               if (isTuple) {
                 while ((elem = enumSet.nextElement()) != null) {
                   Context c1 = c;
-                  Value[] tuple = ((TupleValue)elem).elems;
+                  Value[] tuple = ((TupleValue)elem).getElems();
                   for (int i = 0; i < bvars.length; i++) {
                     c1 = c1.cons(bvars[i], tuple[i]);
                   }
@@ -2719,7 +3024,9 @@ public abstract class Tool
     ExprNode[] constrs = this.getModelConstraints();
     for (int i = 0; i < constrs.length; i++) {
       final CostModel cm = coverage ? ((Action) constrs[i].getToolObject(toolId)).cm : CostModel.DO_NOT_RECORD;
-      IValue bval = this.eval(constrs[i], Context.Empty, state, cm);
+      final ExprCompiler.Expr expr = this.compiled == null ? null : this.compiled.get(constrs[i]);
+      IValue bval = expr != null ? expr.eval(Context.Empty, state, TLCState.Empty, EvalControl.Clear, cm)
+    		  : this.eval(constrs[i], Context.Empty, state, cm);
       if (!(bval instanceof BoolValue)) {
         Assert.fail(EC.TLC_EXPECTED_VALUE, new String[]{"boolean", constrs[i].toString()}, constrs[i]);
       }
@@ -3386,7 +3693,9 @@ public abstract class Tool
   /* This method determines if the action predicate is valid in (s0, s1). */
   @Override
   public final boolean isValid(Action act, TLCState s0, TLCState s1) {
-    Value val = this.eval(act.pred, act.con, s0, s1, EvalControl.Clear, act.cm);
+    final ExprCompiler.Expr expr = this.compiled == null ? null : this.compiled.get(act.pred);
+    Value val = expr != null ? expr.eval(act.con, s0, s1, EvalControl.Clear, act.cm)
+    		: this.eval(act.pred, act.con, s0, s1, EvalControl.Clear, act.cm);
     if (!(val instanceof BoolValue)) {
       Assert.fail(EC.TLC_EXPECTED_VALUE, new String[]{"boolean", act.pred.toString()}, act.pred, act.con);
     }
@@ -3782,7 +4091,7 @@ public abstract class Tool
                       ",\nthe argument is:\n" + Values.ppr(argVal.toString()) +
                       "which does not match its formal parameter.\n" + args[0], args[0], c);
         }
-        Value[] elems = tv.elems;
+        Value[] elems = tv.getElems();
         for (int i = 0; i < ids.length; i++) {
           fcon = fcon.cons(ids[i], elems[i]);
         }
@@ -3798,7 +4107,7 @@ public abstract class Tool
                     " domain.\n" + args[0], args[0], c);
       }
       int argn = 0;
-      Value[] elems = tv.elems;
+      Value[] elems = tv.getElems();
       for (int i = 0; i < formals.length; i++) {
         FormalParamNode[] ids = formals[i];
         Value domain = domains[i];
@@ -3816,7 +4125,7 @@ public abstract class Tool
                         Values.ppr(elems[argn-1].toString()) +
                         "which does not match its formal parameter.\n" + args[0], args[0], c);
           }
-          Value[] avals = tv1.elems;
+          Value[] avals = tv1.getElems();
           for (int j = 0; j < ids.length; j++) {
             fcon = fcon.cons(ids[j], avals[j]);
           }
@@ -21,6 +21,7 @@ import tlc2.output.EC;
 import tlc2.output.MP;
 import tlc2.util.BufferedRandomAccessFile;
 import tlc2.util.LongVec;
+import tlc2.util.MappedFile;
 import tlc2.util.statistics.IBucketStatistics;
 import util.FileUtil;
 
@@ -72,6 +73,20 @@ public abstract class AbstractDiskGraph {
 	/* Links are from MAX_PTR and MAX_LINK. */
 	public static final long MAX_LINK = 0x7FFFFFFFFFFFFFFFL;
 
+	/**
+	 * Liveness checking reads the graph's nodes many times over. With the nodes
+	 * file mapped into memory (see {@link #mapNodes()}), the operating system's
+	 * page cache replaces the single, synchronized {@link BufferedRandomAccessFile}
+	 * and threads read nodes without locking. Additionally, {@link DiskGraph}
+	 * keeps its index off the Java heap (see {@link OffHeapNodePtrTable}). Both
+	 * are opt-in because direct memory and address space are limited on some
+	 * platforms, and the mapping makes a large graph's files compete with the
+	 * model checker for physical memory.
+	 */
+	static boolean useOffHeap() {
+		return Boolean.getBoolean(AbstractDiskGraph.class.getName() + ".offHeap");
+	}
+
 	public static boolean isFilePointer(long loc) {
 		// TODO Does not check >= 0 and thus accepts TableauDiskGraph.UNDONE as
 		// ptr.
@@ -79,6 +94,7 @@ public abstract class AbstractDiskGraph {
 	}
 
 	private final String chkptName;
+	private final String fnameForNodes;
 	protected final String metadir;
 	/**
 	 * @see tlatools/test/tlc2/tool/liveness/AbstractDiskGraph.JPG
@@ -90,6 +106,10 @@ public abstract class AbstractDiskGraph {
 	 * In-memory cache
 	 */
 	protected GraphNode[] gnodes;
+	/**
+	 * Read-only mapping of the nodes file (see {@link #mapNodes()}) or null.
+	 */
+	private volatile MappedFile mappedNodes;
 
 	private final IBucketStatistics outDegreeGraphStats;
 
@@ -99,7 +119,7 @@ public abstract class AbstractDiskGraph {
 		this.metadir = metadir;
 		this.outDegreeGraphStats = graphStats;
 		this.chkptName = metadir + FileUtil.separator + "dgraph_" + soln;
-		String fnameForNodes = metadir + FileUtil.separator + "nodes_" + soln;
+		this.fnameForNodes = metadir + FileUtil.separator + "nodes_" + soln;
 		this.nodeRAF = new BufferedRandomAccessFile(fnameForNodes, "rw");
 		String fnameForPtrs = metadir + FileUtil.separator + "ptrs_" + soln;
 		this.nodePtrRAF = new BufferedRandomAccessFile(fnameForPtrs, "rw");
@@ -140,10 +160,54 @@ public abstract class AbstractDiskGraph {
 		this.gnodes = null;
 	}
 
-	/* Close the disk files. */
+	/**
+	 * Maps the nodes file into memory if enabled (see {@link #useOffHeap()}).
+	 * While the nodes are mapped, {@link #getNode(long, int, long)} does not
+	 * synchronize on this graph. The graph must not be modified before
+	 * {@link #unmapNodes()} has been called.
+	 */
+	public final void mapNodes() throws IOException {
+		if (!useOffHeap()) {
+			return;
+		}
+		final long length;
+		synchronized (this) {
+			// Write out what is still buffered by nodeRAF.
+			this.nodeRAF.flush();
+			length = this.nodeRAF.length();
+		}
+		this.mappedNodes = new MappedFile(new File(this.fnameForNodes), length);
+	}
+
+	/**
+	 * Drops the mapping created by {@link #mapNodes()}. The garbage collector
+	 * eventually unmaps the file.
+	 */
+	public final void unmapNodes() {
+		final MappedFile mapped = this.mappedNodes;
+		if (mapped != null) {
+			this.mappedNodes = null;
+			mapped.close();
+		}
+	}
+
+	public final boolean isMapped() {
+		return this.mappedNodes != null;
+	}
+
+	/* Close the disk files and release the memory of the node table. */
 	public final void close() throws IOException {
 		this.nodeRAF.close();
 		this.nodePtrRAF.close();
+		this.freeNodePtrTbl();
+	}
+
+	/**
+	 * Releases the resources held by the table that maps nodes to their location
+	 * in the node file. The graph must not be used afterwards.
+	 */
+	protected void freeNodePtrTbl() {
+		// Nothing to release for on-heap tables.
 	}
 
 	/**
@@ -162,11 +226,15 @@ public abstract class AbstractDiskGraph {
 	 * {@link GraphNode}s in the graph is therefore stored in the internal
 	 * {@link NodePtrTable}. The {@link BufferedRandomAccessFile} length does
 	 * not allow to draw a conclusion about the graph's node count.
+	 * <p>
+	 * Multiple threads may add nodes concurrently. The files are appended to
+	 * while holding this graph's monitor, which is the same lock that guards
+	 * reading nodes from disk.
 	 * 
 	 * @see commented tlc2.tool.liveness.DiskGraphTest#
 	 *      testAddSameGraphN	odeTwiceCorrectSuccessors
 	 */
-	public final long addNode(GraphNode node) throws IOException {
+	public synchronized final long addNode(GraphNode node) throws IOException {
 		outDegreeGraphStats.addSample(node.succSize());
 		
 		long ptr = this.nodeRAF.getFilePointer();
@@ -213,7 +281,17 @@ public abstract class AbstractDiskGraph {
 	protected abstract void putNode(GraphNode node, long ptr);
 
 	/* Get the graph node at the file location ptr. */
-	public synchronized final GraphNode getNode(final long stateFP, final int tidx, final long ptr) throws IOException {
+	public final GraphNode getNode(final long stateFP, final int tidx, final long ptr) throws IOException {
+		final MappedFile mapped = this.mappedNodes;
+		if (mapped != null) {
+			// Decoding a node from the mapping is cheap enough to skip the
+			// cache, which would require synchronization.
+			return getNode(mapped, stateFP, tidx, ptr);
+		}
+		return getCachedNode(stateFP, tidx, ptr);
+	}
+
+	private synchronized final GraphNode getCachedNode(final long stateFP, final int tidx, final long ptr) throws IOException {
 		// Get from memory cache if cached:
 		//TODO Adapt mask to array length iff array length is a func of available memory
 		int idx = (int) (stateFP + tidx) & 0xFFFF;
@@ -249,6 +327,44 @@ public abstract class AbstractDiskGraph {
 		return gnode1;
 	}
 
+	/**
+	 * @return A read-only handle on the nodes file that is independent of this
+	 *         graph's own handle. Contrary to
+	 *         {@link #getNode(long, int, long)}, reading nodes with a handle of
+	 *         its own does not synchronize on this graph, i.e. threads can read
+	 *         nodes concurrently if each has its own handle. The graph must not
+	 *         be modified while the handle is in use. The caller has to close the
+	 *         handle.
+	 */
+	public final BufferedRandomAccessFile newNodeReader() throws IOException {
+		// Write out what is still buffered by nodeRAF.
+		synchronized (this) {
+			this.nodeRAF.flush();
+		}
+		return new BufferedRandomAccessFile(this.fnameForNodes, "r");
+	}
+
+	/* Get the graph node at the file location ptr with the given handle (see newNodeReader()). */
+	public static GraphNode getNode(final BufferedRandomAccessFile reader, final long stateFP, final int tidx,
+			final long ptr) throws IOException {
+		if (ptr < 0) {
+			throw new IllegalArgumentException("Invalid negative file pointer: " + ptr);
+		}
+		reader.seek(ptr);
+		final GraphNode gnode = new GraphNode(stateFP, tidx);
+		gnode.read(reader);
+		return gnode;
+	}
+
+	private static GraphNode getNode(final MappedFile mapped, final long stateFP, final int tidx, final long ptr) {
+		if (ptr < 0) {
+			throw new IllegalArgumentException("Invalid negative file pointer: " + ptr);
+		}
+		final GraphNode gnode = new GraphNode(stateFP, tidx);
+		gnode.read(mapped.newCursor(ptr));
+		return gnode;
+	}
+
 	public abstract long getPtr(long l, int tidx);
 
 	/* Create the in-memory node-pointer table from the node-pointer file. */
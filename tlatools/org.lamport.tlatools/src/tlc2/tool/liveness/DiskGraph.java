@@ -6,8 +6,10 @@ package tlc2.tool.liveness;
 
 import java.io.IOException;
 
+import tlc2.TLCGlobals;
 import tlc2.output.EC;
 import tlc2.output.MP;
+import tlc2.tool.fp.LongArray;
 import tlc2.util.LongVec;
 import tlc2.util.MemIntQueue;
 import tlc2.util.statistics.IBucketStatistics;
@@ -23,11 +25,43 @@ import tlc2.util.statistics.IBucketStatistics;
 // positions that need changing.
 public class DiskGraph extends AbstractDiskGraph {
 
-	private NodePtrTable nodePtrTbl;
+	/**
+	 * The number of segments of the node-pointer table (see
+	 * {@link ShardedNodePtrTable}). Activate with
+	 * -Dtlc2.tool.liveness.DiskGraph.shards=N where N is rounded up to the next
+	 * power of two. Defaults to four times the number of workers.
+	 */
+	public static final String SHARDS_KEY = DiskGraph.class.getName() + ".shards";
+
+	static int getDefaultShards() {
+		final int shards = Math.max(1, Integer.getInteger(SHARDS_KEY, 4 * TLCGlobals.getNumWorkers()));
+		final int pow2 = Integer.highestOneBit(shards);
+		return pow2 == shards ? shards : pow2 << 1;
+	}
+
+	private final int shards;
+	
+	private ShardedNodePtrTable nodePtrTbl;
 	
 	public DiskGraph(String metadir, int soln, IBucketStatistics graphStats) throws IOException {
+		this(metadir, soln, graphStats, getDefaultShards());
+	}
+
+	public DiskGraph(String metadir, int soln, IBucketStatistics graphStats, int shards) throws IOException {
 		super(metadir, soln, graphStats);
-		nodePtrTbl = new NodePtrTable(255);
+		this.shards = shards;
+		nodePtrTbl = newNodePtrTable(shards);
+	}
+
+	private static ShardedNodePtrTable newNodePtrTable(final int shards) {
+		return new ShardedNodePtrTable(shards, DiskGraph::newNodePtrTable);
+	}
+
+	private static INodePtrTable newNodePtrTable() {
+		if (useOffHeap() && LongArray.isSupported()) {
+			return new OffHeapNodePtrTable(255);
+		}
+		return new NodePtrTable(255);
 	}
 
 	public final GraphNode getNode(long fp, int tidx) throws IOException {
@@ -61,7 +95,13 @@ public class DiskGraph extends AbstractDiskGraph {
 	public void reset() throws IOException {
 		this.nodePtrRAF.reset();
 		this.nodeRAF.reset();
-		this.nodePtrTbl = new NodePtrTable(255);
+		this.nodePtrTbl.free();
+		this.nodePtrTbl = newNodePtrTable(this.shards);
+	}
+
+	@Override
+	protected void freeNodePtrTbl() {
+		this.nodePtrTbl.free();
 	}
 	
 	/* (non-Javadoc)
@@ -71,6 +111,14 @@ public class DiskGraph extends AbstractDiskGraph {
 		this.nodePtrTbl.put(node.stateFP, ptr);
 	}
 
+	/**
+	 * @return The number of segments the node-pointer table is partitioned into
+	 *         (see {@link ShardedNodePtrTable}).
+	 */
+	public final int getShards() {
+		return this.shards;
+	}
+
 	/* (non-Javadoc)
 	 * @see tlc2.tool.liveness.AbstractDiskGraph#checkDuplicate(tlc2.tool.liveness.GraphNode)
 	 */
@@ -90,7 +138,7 @@ public class DiskGraph extends AbstractDiskGraph {
 	 */
 	public long putLink(long state, int tidx, long link) {
 		assert MAX_PTR <= link && link < MAX_LINK; 
-		int loc = this.nodePtrTbl.getLoc(state);
+		long loc = this.nodePtrTbl.getLoc(state);
 		long oldLink = this.nodePtrTbl.getByLoc(loc);
 		if (!isFilePointer(oldLink)) {
 			return oldLink;
@@ -273,7 +321,7 @@ public class DiskGraph extends AbstractDiskGraph {
 					// found a path to state: construct the path and return.
 					final LongVec res = new LongVec(2);
 					res.addElement(nextState);
-					int curLoc = this.nodePtrTbl.getLoc(curState);
+					long curLoc = this.nodePtrTbl.getLoc(curState);
 					while (true) {
 						res.addElement(curState);
 						final long ploc = this.nodePtrTbl.getByLoc(curLoc);
@@ -286,12 +334,12 @@ public class DiskGraph extends AbstractDiskGraph {
 						// Lookup the predecessor in the ptr table. (ploc -
 						// offset) is the index of the predecessor in the
 						// nodePtrTbl. See offset below at putByLoc(..).
-						curLoc = (int) (ploc - offset);
+						curLoc = ploc - offset;
 						curState = this.nodePtrTbl.getKeyByLoc(curLoc);
 					}
 					return res;
 				}
-				final int nextLoc = this.nodePtrTbl.getLoc(nextState);
+				final long nextLoc = this.nodePtrTbl.getLoc(nextState);
 				if (nextLoc == -1) {
 					// nextState is not on disk.
 					//
@@ -317,7 +365,7 @@ public class DiskGraph extends AbstractDiskGraph {
 					// nextState is not visited:
 					queue.enqueueLong(nextState);
 					queue.enqueueLong(nextPtr);
-					final int curLoc = this.nodePtrTbl.getLoc(curState);
+					final long curLoc = this.nodePtrTbl.getLoc(curState);
 					this.nodePtrTbl.putByLoc(nextState, offset + curLoc, nextLoc);
 				}
 			}
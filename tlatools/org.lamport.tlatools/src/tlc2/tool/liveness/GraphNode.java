@@ -11,6 +11,7 @@ import java.util.Set;
 
 import tlc2.util.BitVector;
 import tlc2.util.BufferedRandomAccessFile;
+import tlc2.util.MappedFile;
 
 public class GraphNode extends AbstractGraphNode {
 	/**
@@ -390,6 +391,20 @@ public class GraphNode extends AbstractGraphNode {
 		assert offset == NO_FREE_SLOTS;
 	}
 
+	void read(final MappedFile.Cursor cursor) {
+		// Read nnodes
+		final int cnt = cursor.readNat();
+		nnodes = new int[cnt];
+		for (int i = 0; i < cnt; i++) {
+			nnodes[i] = cursor.readInt();
+		}
+		// Read checks
+		checks = new BitVector();
+		checks.read(cursor);
+		
+		assert offset == NO_FREE_SLOTS;
+	}
+
 	public final String toString() {
 		// A GraphNode does not know the action length. This is kept elsewhere in the code.
 		return toString(0).replace("[] ", "");
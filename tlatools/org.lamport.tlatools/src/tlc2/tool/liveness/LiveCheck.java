@@ -469,10 +469,22 @@ public class LiveCheck implements ILiveCheck {
 
 		private final DiskGraph dgraph;
 
+		/**
+		 * Serializes the construction of nodes whose fingerprints fall into the
+		 * same stripe. Contrary to the lock on the OrderOfSolution that
+		 * TableauLiveChecker uses, workers adding different nodes do not block
+		 * each other.
+		 */
+		private final Object[] locks;
+
 		public LiveChecker(OrderOfSolution oos, int soln, IBucketStatistics bucketStatistics, ILivenessStateWriter writer)
 			throws IOException {
 			super(oos, writer);
 			this.dgraph = new DiskGraph(metadir, soln, bucketStatistics);
+			this.locks = new Object[dgraph.getShards()];
+			for (int i = 0; i < locks.length; i++) {
+				this.locks[i] = new Object();
+			}
 		}
 
 		/* (non-Javadoc)
@@ -492,7 +504,14 @@ public class LiveCheck implements ILiveCheck {
 			// if there is no tableau ...
 			final int succCnt = nextStates.size();
 			final int alen = oos.getCheckAction().length;
-			synchronized (oos) {
+			// Safety checking generates the successors of a state exactly once.
+			// Thus, node0 is only ever built by a single worker and does not have
+			// to be guarded by a graph-wide lock. Only in simulation mode can
+			// workers add the same state concurrently, which the stripe lock of
+			// fp0 serializes. Looking up successors synchronizes on the segment
+			// of the graph's node-pointer table, adding node0 on the graph's
+			// files (see DiskGraph and ShardedNodePtrTable).
+			synchronized (locks[(int) (fp0 >>> 32) & (locks.length - 1)]) {
 				final GraphNode node0 = dgraph.getNode(fp0);
 				final int s = node0.succSize();
 				node0.setCheckState(checkStateResults);
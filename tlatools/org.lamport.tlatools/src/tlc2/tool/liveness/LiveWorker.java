@@ -13,6 +13,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.function.IntPredicate;
 
 import tlc2.TLCGlobals;
 import tlc2.output.EC;
@@ -150,6 +151,19 @@ public class LiveWorker implements Callable<Boolean> {
 		// Initialize this.dg:
 		this.dg.makeNodePtrTbl();
 		
+		// Unless there are idle cores (more cores than disk graphs), each
+		// LiveWorker is best off with the sequential search below.
+		final int parallelism = TLCGlobals.getNumWorkers() / numWorkers;
+		if (useParallelSccSearch() && parallelism > 1 && getGraphToMemoryRatio() <= TLCGlobals.livenessGraphSizeThreshold) {
+			final ParallelSccSearch search = new ParallelSccSearch(this.dg, this.oos, this.pem, this.isFinalCheck,
+					parallelism, LiveWorker::hasErrFound);
+			final ParallelSccSearch.Component com = search.search();
+			if (com != null && setErrFound()) {
+				this.printTrace(tool, com.state, com.tidx, com.nodes);
+			}
+			return;
+		}
+
 		// Initialize nodeQueue with initial states. The initial states stored 
 		// separately in the DiskGraph are resolved to their pointer location
 		// in the on-disk part of the DiskGraph.
@@ -472,6 +486,25 @@ public class LiveWorker implements Callable<Boolean> {
 		assert comStack.size() == 0;
 	}
 
+	/**
+	 * @return The ratio of the size of the disk graph to the free memory
+	 *         available to this LiveWorker.
+	 */
+	private double getGraphToMemoryRatio() throws IOException {
+		final double freeMemoryInBytes = (Runtime.getRuntime().freeMemory() / (numWorkers * 1d));
+		final long graphSizeInBytes = this.dg.getSizeOnDisk();
+		return graphSizeInBytes / freeMemoryInBytes;
+	}
+
+	/**
+	 * Opt-in because {@link ParallelSccSearch} keeps the arcs of the disk graph
+	 * in memory and might report a different (yet valid) counterexample than the
+	 * sequential search.
+	 */
+	private static boolean useParallelSccSearch() {
+		return Boolean.getBoolean(LiveWorker.class.getName() + ".parallelSccSearch");
+	}
+
 	private IntStack getStack(final String metaDir, final String name) throws IOException {
 		// It is unlikely that the stacks will fit into memory if the
 		// size of the behavior graph is larger relative to the available
@@ -480,8 +513,7 @@ public class LiveWorker implements Callable<Boolean> {
 		// among each other.
 		try {
 			final double freeMemoryInBytes = (Runtime.getRuntime().freeMemory() / (numWorkers * 1d));
-			final long graphSizeInBytes = this.dg.getSizeOnDisk();
-			final double ratio = graphSizeInBytes / freeMemoryInBytes;
+			final double ratio = getGraphToMemoryRatio();
 			if (ratio > TLCGlobals.livenessGraphSizeThreshold) {
 				// Double SDIS's bufSize/pageSize by how much the graph size
 				// overshoots the free memory size, but limit page size to 1gb.
@@ -584,15 +616,7 @@ public class LiveWorker implements Callable<Boolean> {
 		STATS.addSample(com.size());
 
 		// Check this component:
-		final int slen = this.oos.getCheckState().length;
-		final int alen = this.oos.getCheckAction().length;
-		final int aeslen = this.pem.AEState.length;
-		final int aealen = this.pem.AEAction.length;
-		final int plen = this.oos.getPromises().length;
-		final boolean[] AEStateRes = new boolean[aeslen];
-		final boolean[] AEActionRes = new boolean[aealen];
-		final boolean[] promiseRes = new boolean[plen];
-		final int[] eaaction = this.pem.EAAction;
+		final ComponentCheck check = new ComponentCheck(this.oos, this.pem);
 
 		// Extract a node from the nodePtrTable "com".
 		// Note the upper limit is NodePtrTable#getSize() instead of
@@ -621,147 +645,194 @@ public class LiveWorker implements Callable<Boolean> {
 				loc1 = TableauNodePtrTable.getElem(nodes, nidx);
 
 				final GraphNode curNode = this.dg.getNode(state1, tidx1, loc1);
+				// For each successor <<nextState, nextTdix>> of curNode's
+				// successors check, if it is part of the currently
+				// processed SCC (com). Successors, which are not part of
+				// the current SCC have obviously no relevance here. After
+				// all, we check the SCC.
+				check.add(curNode, i -> com.getLoc(curNode.getStateFP(i), curNode.getTidx(i)) != -1);
+			}
+		}
 
-				// Check AEState:
-				for (int i = 0; i < aeslen; i++) {
-					// Only ever set AEStateRes[i] to true, but never to false
-					// once it was true. It only matters if one state in com
-					// satisfies PEM's liveness property due to []<>~p (which is
-					// the inversion of <>[]p).
-					// 
-					// It obviously has to check all nodes in the component
-					// (com) if either of them violates AEState unless all
-					// elements of AEStateRes are true. From that point onwards,
-					// checking further states wouldn't make a difference.
-					if (!AEStateRes[i]) {
-						int idx = this.pem.AEState[i];
-						AEStateRes[i] = curNode.getCheckState(idx);
-						// Can stop checking AEStates the moment AEStateRes
-						// is completely set to true. However, most of the time
-						// aeslen is small and the compiler will probably optimize
-						// out.
-					}
+		if (!check.isPSatisfiable()) {
+//			writeDotViz(state, tidx, com, new java.io.File(liveCheck.getMetaDir() + java.io.File.separator
+//					+ "pValidSCC" + System.currentTimeMillis() + ".dot"));
+			return true;
+		}
+		// This component must contain a counter-example because all three
+		// conditions are satisfied. So, print a counter-example (if this thread
+		// is the first one to find a counter-example)!
+		if (setErrFound()) {
+			this.printTrace(tool, state, tidx, com);
+		}
+		return false;
+	}
+
+	/**
+	 * Accumulates the PEM's AEState, AEAction and promises over the nodes of a
+	 * component (see {@link LiveWorker#checkComponent}). The nodes can be added
+	 * in any order.
+	 */
+	static final class ComponentCheck {
+
+		private final OrderOfSolution oos;
+		private final PossibleErrorModel pem;
+		private final int slen;
+		private final int alen;
+		private final int aeslen;
+		private final int aealen;
+		private final int plen;
+		private final boolean[] AEStateRes;
+		private final boolean[] AEActionRes;
+		private final boolean[] promiseRes;
+		private final int[] eaaction;
+
+		ComponentCheck(final OrderOfSolution oos, final PossibleErrorModel pem) {
+			this.oos = oos;
+			this.pem = pem;
+			this.slen = oos.getCheckState().length;
+			this.alen = oos.getCheckAction().length;
+			this.aeslen = pem.AEState.length;
+			this.aealen = pem.AEAction.length;
+			this.plen = oos.getPromises().length;
+			this.AEStateRes = new boolean[aeslen];
+			this.AEActionRes = new boolean[aealen];
+			this.promiseRes = new boolean[plen];
+			this.eaaction = pem.EAAction;
+		}
+
+		/**
+		 * @param inComponent
+		 *            Tests if the i-th successor of curNode is a node of the
+		 *            component.
+		 */
+		void add(final GraphNode curNode, final IntPredicate inComponent) {
+			// Check AEState:
+			for (int i = 0; i < aeslen; i++) {
+				// Only ever set AEStateRes[i] to true, but never to false
+				// once it was true. It only matters if one state in com
+				// satisfies PEM's liveness property due to []<>~p (which is
+				// the inversion of <>[]p).
+				// 
+				// It obviously has to check all nodes in the component
+				// (com) if either of them violates AEState unless all
+				// elements of AEStateRes are true. From that point onwards,
+				// checking further states wouldn't make a difference.
+				if (!AEStateRes[i]) {
+					int idx = this.pem.AEState[i];
+					AEStateRes[i] = curNode.getCheckState(idx);
+					// Can stop checking AEStates the moment AEStateRes
+					// is completely set to true. However, most of the time
+					// aeslen is small and the compiler will probably optimize
+					// out.
 				}
+			}
 
-				// Check AEAction: A TLA+ action represents the relationship
-				// between the current node and a successor state. The current
-				// node has n successor states. For each pair, see iff the 
-				// successor is in the "com" NodePtrTablecheck, check actions
-				// and store the results in AEActionRes(ult). Note that the
-				// actions have long been checked in advance when the node was
-				// added to the graph and the actual state and not just its
-				// fingerprint was available. Here, the result is just being
-				// looked up.
-				final int succCnt = aealen > 0 ? curNode.succSize() : 0; // No point in looping successors if there are no AEActions to check on them.
-				for (int i = 0; i < succCnt; i++) {
-					final long nextState = curNode.getStateFP(i);
-					final int nextTidx = curNode.getTidx(i);
-					// For each successor <<nextState, nextTdix>> of curNode's
-					// successors check, if it is part of the currently
-					// processed SCC (com). Successors, which are not part of
-					// the current SCC have obviously no relevance here. After
-					// all, we check the SCC.
-					if (com.getLoc(nextState, nextTidx) == -1) {
-						continue;
-					}
-					// MAK 10/23/2018:
-					// Line 380 above "if(gnode.getCheckAction)" causes a transition A from state s
-					// -> t to be skipped even if a belongs to an SCC iff the transition A does not
-					// satisfy the EA action of the PossibleErrorModel (if the EA action(s) is not
-					// satisfied, the PEM cannot hold at all).
-					// However, some state graphs are such that there exists not just the transition
-					// A from s -> t but a second transition A' from t -> s - which satisfies the EA
-					// action(s) of the PEM. In the case of a "bidirectional" transition, the states
-					// s and t will be in the set of states 'com' (which make up the SCC). Thus, the
-					// transition A from s -> t will be incorrectly traversed here unless it is
-					// skipped (again). Not skipping the transition A will result in TLC reporting a
-					// (bogus) counterexample even if the liveness is not violated.
-					// 
-					// Consider the spec BT for which TLC incorrectly reports a liveness property 
-					// violation and prints a bogus counterexample:
-					//
-					// ---- BT -----
-					// EXTENDS Naturals
-					// VARIABLE x
-					// A == \/ x' = (x + 1) % 3
-					// B == x' \in 0..2
-					// Spec == (x=0) /\ [][A \/ B]_x/\ WF_x(A)
-					// Prop == Spec /\ WF_x(A) /\ []<><<A>>_x
-					// =============
-					//
-					// > Temporal properties were violated.
-					// > The following behavior constitutes a counter-example:
-					// > 1: <Initial predicate>
-					// > x = 0
-					// > 2: <A line xx...BT>
-					// > x = 1
-					// > 1: Back to state: <B line xx... BT>
-					//
-					// (see tlc2.tool.BidirectionalTransitions1Test and BidirectionalTransitions2Test)
-					if(!curNode.getCheckAction(slen, alen, i, eaaction)) {
-						continue;
-					}
-					for (int j = 0; j < aealen; j++) {
-						// Only set false to true, but never true to false. 
-						if (!AEActionRes[j]) {
-							final int idx = this.pem.AEAction[j];
-							AEActionRes[j] = curNode.getCheckAction(slen, alen, i, idx);
-						}
+			// Check AEAction: A TLA+ action represents the relationship
+			// between the current node and a successor state. The current
+			// node has n successor states. For each pair, see iff the 
+			// successor is in the "com" NodePtrTablecheck, check actions
+			// and store the results in AEActionRes(ult). Note that the
+			// actions have long been checked in advance when the node was
+			// added to the graph and the actual state and not just its
+			// fingerprint was available. Here, the result is just being
+			// looked up.
+			final int succCnt = aealen > 0 ? curNode.succSize() : 0; // No point in looping successors if there are no AEActions to check on them.
+			for (int i = 0; i < succCnt; i++) {
+				if (!inComponent.test(i)) {
+					continue;
+				}
+				// MAK 10/23/2018:
+				// Line 380 above "if(gnode.getCheckAction)" causes a transition A from state s
+				// -> t to be skipped even if a belongs to an SCC iff the transition A does not
+				// satisfy the EA action of the PossibleErrorModel (if the EA action(s) is not
+				// satisfied, the PEM cannot hold at all).
+				// However, some state graphs are such that there exists not just the transition
+				// A from s -> t but a second transition A' from t -> s - which satisfies the EA
+				// action(s) of the PEM. In the case of a "bidirectional" transition, the states
+				// s and t will be in the set of states 'com' (which make up the SCC). Thus, the
+				// transition A from s -> t will be incorrectly traversed here unless it is
+				// skipped (again). Not skipping the transition A will result in TLC reporting a
+				// (bogus) counterexample even if the liveness is not violated.
+				// 
+				// Consider the spec BT for which TLC incorrectly reports a liveness property 
+				// violation and prints a bogus counterexample:
+				//
+				// ---- BT -----
+				// EXTENDS Naturals
+				// VARIABLE x
+				// A == \/ x' = (x + 1) % 3
+				// B == x' \in 0..2
+				// Spec == (x=0) /\ [][A \/ B]_x/\ WF_x(A)
+				// Prop == Spec /\ WF_x(A) /\ []<><<A>>_x
+				// =============
+				//
+				// > Temporal properties were violated.
+				// > The following behavior constitutes a counter-example:
+				// > 1: <Initial predicate>
+				// > x = 0
+				// > 2: <A line xx...BT>
+				// > x = 1
+				// > 1: Back to state: <B line xx... BT>
+				//
+				// (see tlc2.tool.BidirectionalTransitions1Test and BidirectionalTransitions2Test)
+				if(!curNode.getCheckAction(slen, alen, i, eaaction)) {
+					continue;
+				}
+				for (int j = 0; j < aealen; j++) {
+					// Only set false to true, but never true to false. 
+					if (!AEActionRes[j]) {
+						final int idx = this.pem.AEAction[j];
+						AEActionRes[j] = curNode.getCheckAction(slen, alen, i, idx);
 					}
 				}
+			}
 
-				// Check that the component is fulfilling. (See MP page 453.)
-				// Note that the promises are precomputed and stored in oos.
-				for (int i = 0; i < plen; i++) {
-					final LNEven promise = this.oos.getPromises()[i];
-					final TBPar par = curNode.getTNode(this.oos.getTableau()).getPar();
-					if (par.isFulfilling(promise)) {
-						promiseRes[i] = true;
-					}
+			// Check that the component is fulfilling. (See MP page 453.)
+			// Note that the promises are precomputed and stored in oos.
+			for (int i = 0; i < plen; i++) {
+				final LNEven promise = this.oos.getPromises()[i];
+				final TBPar par = curNode.getTNode(this.oos.getTableau()).getPar();
+				if (par.isFulfilling(promise)) {
+					promiseRes[i] = true;
 				}
 			}
 		}
 
-		// We find a counterexample if all three conditions are satisfied. If
-		// either of the conditions is false, it means the PEM does not hold and
-		// thus the liveness properties are not violated by the SCC.
-		//
-		// All AEState properties, AEActions and promises of PEM must be
-		// satisfied. If a single one isn't satisfied, the PEM as a whole isn't
-		// P-satisfiable. That's why it returns on the first false. As stated
-		// before, EAAction have already been checked if satisfiable.
-		// checkComponent is only called if the EA actions are satisfiable.
-		//
-		// Technically: No error is found if any of the AEStateRes, AEActionRes
-		// or promiseRes booleans is false.
-		for (int i = 0; i < aeslen; i++) {
-			if (!AEStateRes[i]) {
-//				writeDotViz(state, tidx, com, new java.io.File(liveCheck.getMetaDir() + java.io.File.separator
-//						+ "pValidSCC" + System.currentTimeMillis() + ".dot"));
-				return true;
+		/**
+		 * @return true iff the component is P-satisfiable, i.e. it contains a
+		 *         counterexample.
+		 */
+		boolean isPSatisfiable() {
+			// We find a counterexample if all three conditions are satisfied. If
+			// either of the conditions is false, it means the PEM does not hold and
+			// thus the liveness properties are not violated by the SCC.
+			//
+			// All AEState properties, AEActions and promises of PEM must be
+			// satisfied. If a single one isn't satisfied, the PEM as a whole isn't
+			// P-satisfiable. That's why it returns on the first false. As stated
+			// before, EAAction have already been checked if satisfiable.
+			// checkComponent is only called if the EA actions are satisfiable.
+			//
+			// Technically: No error is found if any of the AEStateRes, AEActionRes
+			// or promiseRes booleans is false.
+			for (int i = 0; i < aeslen; i++) {
+				if (!AEStateRes[i]) {
+					return false;
+				}
 			}
-		}
-		for (int i = 0; i < aealen; i++) {
-			if (!AEActionRes[i]) {
-//				writeDotViz(state, tidx, com, new java.io.File(liveCheck.getMetaDir() + java.io.File.separator
-//						+ "pValidSCC" + System.currentTimeMillis() + ".dot"));
-				return true;
+			for (int i = 0; i < aealen; i++) {
+				if (!AEActionRes[i]) {
+					return false;
+				}
 			}
-		}
-		for (int i = 0; i < plen; i++) {
-			if (!promiseRes[i]) {
-//				writeDotViz(state, tidx, com, new java.io.File(liveCheck.getMetaDir() + java.io.File.separator
-//						+ "pValidSCC" + System.currentTimeMillis() + ".dot"));
-				return true;
+			for (int i = 0; i < plen; i++) {
+				if (!promiseRes[i]) {
+					return false;
+				}
 			}
+			return true;
 		}
-		// This component must contain a counter-example because all three
-		// conditions are satisfied. So, print a counter-example (if this thread
-		// is the first one to find a counter-example)!
-		if (setErrFound()) {
-			this.printTrace(tool, state, tidx, com);
-		}
-		return false;
 	}
 
 	/* Check if the node <state, tidx> stutters. */
@@ -1269,6 +1340,7 @@ public class LiveWorker implements Callable<Boolean> {
 			this.oos = checker.getSolution();
 			this.dg = checker.getDiskGraph();
 			this.dg.createCache();
+			this.dg.mapNodes();
 			PossibleErrorModel[] pems = this.oos.getPems();
 			for (int i = 0; i < pems.length; i++) {
 				if (!hasErrFound()) {
@@ -1276,6 +1348,7 @@ public class LiveWorker implements Callable<Boolean> {
 					this.checkSccs(tool);
 				}
 			}
+			this.dg.unmapNodes();
 			this.dg.destroyCache();
 			// Record the size of the disk graph at the time its checked. This
 			// information is later used to decide if it it makes sense to
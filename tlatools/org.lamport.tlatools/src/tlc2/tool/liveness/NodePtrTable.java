@@ -10,7 +10,7 @@ import tlc2.output.MP;
 /**
  * @see TableauNodePtrTable
  */
-public class NodePtrTable {
+public class NodePtrTable implements INodePtrTable {
 
 	private int count;
 	private int length;
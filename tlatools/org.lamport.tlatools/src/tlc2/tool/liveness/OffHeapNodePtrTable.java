@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.liveness;
+
+import tlc2.output.EC;
+import tlc2.output.MP;
+import tlc2.tool.fp.LongArray;
+
+/**
+ * An {@link OffHeapNodePtrTable} is a variant of {@link NodePtrTable} that
+ * stores its keys and elements in direct memory (see {@link LongArray}) rather
+ * than on the Java heap. The liveness graph's index thus neither adds to the
+ * garbage collector's work nor does growing it temporarily require twice the
+ * table's size in heap.
+ * <p>
+ * Contrary to {@link NodePtrTable}, the lookups {@link #get(long)} and
+ * {@link #getLoc(long)} never grow the table. They have no side effects and
+ * can thus be executed by multiple threads concurrently, as long as no thread
+ * modifies the table at the same time (e.g. {@link ParallelSccSearch}).
+ */
+public final class OffHeapNodePtrTable implements INodePtrTable {
+
+	private int count;
+	private int length;
+	private int thresh;
+	private LongArray keys;
+	private LongArray elems;
+
+	public OffHeapNodePtrTable(final int size) {
+		this.count = 0;
+		this.length = size;
+		this.thresh = (int) (size * 0.75);
+		this.keys = new LongArray(size);
+		this.elems = newElems(size);
+	}
+
+	private static LongArray newElems(final int size) {
+		final LongArray elems = new LongArray(size);
+		for (int i = 0; i < size; i++) {
+			elems.set(i, -1);
+		}
+		return elems;
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.liveness.INodePtrTable#put(long, long)
+	 */
+	public final void put(final long k, final long elem) {
+		if (this.count >= this.thresh) {
+			this.grow();
+		}
+		int loc = ((int) k & 0x7FFFFFFF) % this.length;
+		while (true) {
+			if (this.elems.get(loc) == -1) {
+				this.keys.set(loc, k);
+				this.elems.set(loc, elem);
+				this.count++;
+				return;
+			}
+			if (this.keys.get(loc) == k) {
+				this.elems.set(loc, elem);
+				return;
+			}
+			loc = (loc + 1) % this.length;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.liveness.INodePtrTable#getLoc(long)
+	 */
+	public final int getLoc(final long k) {
+		int loc = ((int) k & 0x7FFFFFFF) % this.length;
+		while (true) {
+			if (this.elems.get(loc) == -1) {
+				return -1;
+			}
+			if (this.keys.get(loc) == k) {
+				return loc;
+			}
+			loc = (loc + 1) % this.length;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.liveness.INodePtrTable#get(long)
+	 */
+	public final long get(final long k) {
+		final int loc = getLoc(k);
+		return loc == -1 ? -1 : this.elems.get(loc);
+	}
+
+	public final long getByLoc(final int loc) {
+		return this.elems.get(loc);
+	}
+
+	public final long getKeyByLoc(final int loc) {
+		return this.keys.get(loc);
+	}
+
+	public final void putByLoc(final long k, final long elem, final int loc) {
+		this.keys.set(loc, k);
+		this.elems.set(loc, elem);
+	}
+
+	/* Double the table when the table is full by the threshhold. */
+	private final void grow() {
+		// Stay within the int locations of INodePtrTable.
+		final int newLength = (int) Math.min(2L * this.length + 1, Integer.MAX_VALUE - 8);
+		if (newLength <= this.length) {
+			MP.printError(EC.SYSTEM_OUT_OF_MEMORY, new OutOfMemoryError("Liveness graph index is full"));
+			System.exit(1);
+		}
+		grow(newLength);
+	}
+
+	private final void grow(final int newLength) {
+		final LongArray newKeys;
+		final LongArray newElems;
+		try {
+			newKeys = new LongArray(newLength);
+			try {
+				newElems = newElems(newLength);
+			} catch (OutOfMemoryError e) {
+				newKeys.free();
+				throw e;
+			}
+		} catch (OutOfMemoryError t) {
+			// As in NodePtrTable, do not grow capacity exponentially as a fallback.
+			if (newLength <= this.length + 1) {
+				MP.printError(EC.SYSTEM_OUT_OF_MEMORY, t);
+				System.exit(1);
+			}
+			grow(newLength - (newLength >> 2));
+			return;
+		}
+		this.count = 0;
+		for (int i = 0; i < this.length; i++) {
+			final long elem = this.elems.get(i);
+			if (elem != -1) {
+				final long key = this.keys.get(i);
+				int loc = ((int) key & 0x7FFFFFFF) % newLength;
+				while (newElems.get(loc) != -1) {
+					loc = (loc + 1) % newLength;
+				}
+				newKeys.set(loc, key);
+				newElems.set(loc, elem);
+				this.count++;
+			}
+		}
+		this.keys.free();
+		this.elems.free();
+		this.keys = newKeys;
+		this.elems = newElems;
+		this.length = newLength;
+		this.thresh = (int) (newLength * 0.75);
+	}
+
+	public final int size() {
+		return this.count;
+	}
+
+	public final int getSize() {
+		return this.length;
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.liveness.INodePtrTable#free()
+	 */
+	public final void free() {
+		if (this.keys != null) {
+			this.keys.free();
+			this.elems.free();
+			this.keys = null;
+			this.elems = null;
+		}
+	}
+}
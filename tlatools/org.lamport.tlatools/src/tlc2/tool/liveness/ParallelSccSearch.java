@@ -0,0 +1,594 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.liveness;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import tlc2.util.BufferedRandomAccessFile;
+import tlc2.util.LongVec;
+
+/**
+ * A parallel alternative to the sequential SCC search (Tarjan) of
+ * {@link LiveWorker}, which lets all cores work on a single
+ * {@link AbstractDiskGraph} (one {@link OrderOfSolution} and
+ * {@link PossibleErrorModel}).
+ * <p>
+ * The search decomposes the graph with the Forward-Backward algorithm (see
+ * Fleischer, Hendrickson, Pinar: "On Identifying Strongly Connected Components
+ * in Parallel") combined with trimming (McLendon et al.): The SCC of a pivot
+ * node is the intersection of the nodes forward- and backward-reachable from
+ * the pivot. The remaining three subgraphs (forward only, backward only, and
+ * neither) cannot share an SCC and are thus decomposed independently by the
+ * threads of a {@link ForkJoinPool}. Nodes without predecessors or successors
+ * in their subgraph are trivial SCCs and are removed upfront (trimming).
+ * <p>
+ * Contrary to Tarjan's algorithm, Forward-Backward needs the predecessors of a
+ * node, which are not stored by the {@link AbstractDiskGraph}. Therefore, the
+ * arcs of the graph are loaded into memory first. Loading reads the nodes
+ * concurrently, either from the graph's memory-mapped nodes file (see
+ * {@link AbstractDiskGraph#mapNodes()}) or with a handle on the nodes file per
+ * thread (see {@link AbstractDiskGraph#newNodeReader()}). Like
+ * {@link LiveWorker#checkSccs}, only arcs satisfying the PEM's EAAction are
+ * considered by the SCC decomposition and only the nodes reachable from the
+ * initial nodes are checked.
+ * <p>
+ * The node-pointer table of the {@link AbstractDiskGraph} is only read, i.e. no
+ * links are assigned to the nodes.
+ */
+final class ParallelSccSearch {
+
+	/**
+	 * The number of nodes read by a single task when the graph is loaded.
+	 */
+	private static final int LOAD_CHUNK = 4096;
+
+	/*
+	 * Colors of nodes that are not part of any subgraph to be decomposed.
+	 * Subgraphs are colored with positive numbers.
+	 */
+	private static final int UNREACHABLE = -1;
+	private static final int TRIMMED = -2;
+
+	private static final int[] NO_ARCS = new int[0];
+
+	private final AbstractDiskGraph dg;
+	private final OrderOfSolution oos;
+	private final PossibleErrorModel pem;
+	private final boolean isFinalCheck;
+	private final int parallelism;
+	/**
+	 * Stops the search early if true, e.g. because another {@link LiveWorker}
+	 * has found a violation.
+	 */
+	private final BooleanSupplier isCancelled;
+
+	/*
+	 * The nodes of the graph ordered by their location in the nodes file. A
+	 * node's index into these arrays is its id.
+	 */
+	private long[] fps;
+	private int[] tidxs;
+	private long[] locs;
+	private int size;
+
+	/* The successors of a node via arcs that satisfy the PEM's EAAction... */
+	private int[][] succs;
+	/* ...and via all other arcs (only needed to find the reachable nodes). */
+	private int[][] others;
+	/*
+	 * The predecessors of node v via arcs that satisfy the PEM's EAAction are
+	 * preds[predsStart[v]] to preds[predsStart[v + 1] - 1].
+	 */
+	private int[] predsStart;
+	private int[] preds;
+
+	/*
+	 * A node's color identifies the subgraph it is part of. A subgraph is
+	 * decomposed by a single task, i.e. only this task writes the colors (and
+	 * degrees) of the subgraph's nodes.
+	 */
+	private int[] colors;
+	private int[] inDegree;
+	private int[] outDegree;
+	private final AtomicInteger nextColor = new AtomicInteger(1);
+
+	/* The ids of the nodes of the first P-satisfiable SCC found. */
+	private final AtomicReference<int[]> counterExample = new AtomicReference<>();
+
+	private final Queue<BufferedRandomAccessFile> readers = new ConcurrentLinkedQueue<>();
+	private final ThreadLocal<BufferedRandomAccessFile> reader = ThreadLocal.withInitial(() -> {
+		try {
+			final BufferedRandomAccessFile raf = ParallelSccSearch.this.dg.newNodeReader();
+			readers.add(raf);
+			return raf;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	});
+
+	ParallelSccSearch(final AbstractDiskGraph dg, final OrderOfSolution oos, final PossibleErrorModel pem,
+			final boolean isFinalCheck, final int parallelism, final BooleanSupplier isCancelled) {
+		this.dg = dg;
+		this.oos = oos;
+		this.pem = pem;
+		this.isFinalCheck = isFinalCheck;
+		this.parallelism = parallelism;
+		this.isCancelled = isCancelled;
+	}
+
+	/**
+	 * @return The first SCC found that is P-satisfiable, i.e. violates the
+	 *         liveness properties, or null if there is none (or the search has
+	 *         been cancelled). The node-pointer table of the graph has to be
+	 *         made (see {@link AbstractDiskGraph#makeNodePtrTbl()}) before.
+	 */
+	Component search() throws IOException {
+		readNodes();
+		if (size == 0) {
+			return null;
+		}
+
+		final ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			succs = new int[size][];
+			others = new int[size][];
+			pool.invoke(new LoadTask(0, size));
+			makePreds();
+
+			final int color = nextColor.getAndIncrement();
+			final int[] nodes = colorReachable(color);
+			inDegree = new int[size];
+			outDegree = new int[size];
+			pool.invoke(new SccTask(nodes, color));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			pool.shutdown();
+			for (BufferedRandomAccessFile raf : readers) {
+				raf.close();
+			}
+		}
+
+		final int[] scc = counterExample.get();
+		if (scc == null) {
+			return null;
+		}
+		// See LiveWorker#checkComponent for why a TableauNodePtrTable.
+		final TableauNodePtrTable com = new TableauNodePtrTable(128);
+		for (int v : scc) {
+			com.put(fps[v], tidxs[v], locs[v]);
+		}
+		return new Component(fps[scc[0]], tidxs[scc[0]], com);
+	}
+
+	/*
+	 * Reads the <<fp, tidx, loc>> triples of all nodes from the ptrs file. A
+	 * node is in the file once for each time it has been added to the graph,
+	 * but only the last location is in the node-pointer table.
+	 */
+	private void readNodes() throws IOException {
+		final BufferedRandomAccessFile nodePtrRAF = this.dg.nodePtrRAF;
+		final long ptr = nodePtrRAF.getFilePointer();
+		final long len = nodePtrRAF.length();
+
+		int capacity = 1024;
+		fps = new long[capacity];
+		tidxs = new int[capacity];
+		locs = new long[capacity];
+		size = 0;
+
+		nodePtrRAF.seek(0);
+		while (nodePtrRAF.getFilePointer() < len) {
+			final long fp = nodePtrRAF.readLong();
+			final int tidx = nodePtrRAF.readInt();
+			final long loc = nodePtrRAF.readLongNat();
+			// Besides, the (sequential) lookup makes the node-pointer table grow
+			// if it is due to. Otherwise, the concurrent lookups below would do.
+			if (this.dg.getLink(fp, tidx) != loc) {
+				continue;
+			}
+			if (size == capacity) {
+				capacity = capacity * 2;
+				fps = Arrays.copyOf(fps, capacity);
+				tidxs = Arrays.copyOf(tidxs, capacity);
+				locs = Arrays.copyOf(locs, capacity);
+			}
+			// The nodes file is append-only, thus locs is sorted.
+			assert size == 0 || locs[size - 1] < loc;
+			fps[size] = fp;
+			tidxs[size] = tidx;
+			locs[size] = loc;
+			size++;
+		}
+		nodePtrRAF.seek(ptr);
+	}
+
+	/* Maps the location of a node in the nodes file to the node's id. */
+	private int getId(final long loc) {
+		final int id = Arrays.binarySearch(locs, 0, size, loc);
+		assert id >= 0;
+		return id;
+	}
+
+	private GraphNode readNode(final int v) throws IOException {
+		if (this.dg.isMapped()) {
+			// Lock-free when mapped.
+			return this.dg.getNode(fps[v], tidxs[v], locs[v]);
+		}
+		return AbstractDiskGraph.getNode(reader.get(), fps[v], tidxs[v], locs[v]);
+	}
+
+	private void load(final int from, final int to) throws IOException {
+		final int slen = this.oos.getCheckState().length;
+		final int alen = this.oos.getCheckAction().length;
+		final int[] eaaction = this.pem.EAAction;
+		for (int v = from; v < to; v++) {
+			final GraphNode gnode = readNode(v);
+			final int succCnt = gnode.succSize();
+			final int[] ea = new int[succCnt];
+			final int[] other = new int[succCnt];
+			int eaCnt = 0;
+			int otherCnt = 0;
+			for (int i = 0; i < succCnt; i++) {
+				final long nextLink = this.dg.getLink(gnode.getStateFP(i), gnode.getTidx(i));
+				if (nextLink < 0) {
+					// An undone node (see LiveWorker#checkSccs).
+					assert !isFinalCheck || nextLink != TableauNodePtrTable.UNDONE;
+					continue;
+				}
+				if (gnode.getCheckAction(slen, alen, i, eaaction)) {
+					ea[eaCnt++] = getId(nextLink);
+				} else {
+					other[otherCnt++] = getId(nextLink);
+				}
+			}
+			succs[v] = eaCnt == 0 ? NO_ARCS : Arrays.copyOf(ea, eaCnt);
+			others[v] = otherCnt == 0 ? NO_ARCS : Arrays.copyOf(other, otherCnt);
+		}
+	}
+
+	private void makePreds() {
+		predsStart = new int[size + 1];
+		for (int v = 0; v < size; v++) {
+			for (int w : succs[v]) {
+				predsStart[w + 1]++;
+			}
+		}
+		for (int v = 0; v < size; v++) {
+			predsStart[v + 1] += predsStart[v];
+		}
+		preds = new int[predsStart[size]];
+		final int[] next = Arrays.copyOf(predsStart, size);
+		for (int v = 0; v < size; v++) {
+			for (int w : succs[v]) {
+				preds[next[w]++] = v;
+			}
+		}
+	}
+
+	/*
+	 * Colors the nodes reachable from the (done) initial nodes with the given
+	 * color and returns them. This corresponds to the nodeQueue of
+	 * LiveWorker#checkSccs.
+	 */
+	private int[] colorReachable(final int color) {
+		colors = new int[size];
+		Arrays.fill(colors, UNREACHABLE);
+
+		final int[] queue = new int[size];
+		int head = 0;
+		int tail = 0;
+
+		final LongVec initNodes = this.dg.getInitNodes();
+		for (int j = 0; j < initNodes.size(); j += 2) {
+			final long ptr = this.dg.getLink(initNodes.elementAt(j), (int) initNodes.elementAt(j + 1));
+			if (ptr < 0) {
+				assert !isFinalCheck || ptr != TableauNodePtrTable.UNDONE;
+				continue;
+			}
+			final int v = getId(ptr);
+			if (colors[v] != color) {
+				colors[v] = color;
+				queue[tail++] = v;
+			}
+		}
+		while (head < tail) {
+			final int v = queue[head++];
+			for (int w : succs[v]) {
+				if (colors[w] != color) {
+					colors[w] = color;
+					queue[tail++] = w;
+				}
+			}
+			for (int w : others[v]) {
+				if (colors[w] != color) {
+					colors[w] = color;
+					queue[tail++] = w;
+				}
+			}
+		}
+		return Arrays.copyOf(queue, tail);
+	}
+
+	private boolean isDone() {
+		return counterExample.get() != null || isCancelled.getAsBoolean();
+	}
+
+	/*
+	 * Removes the nodes of the subgraph that have no predecessor or no successor
+	 * in the subgraph (transitively). Each of them is an SCC of its own that
+	 * cannot stutter (a self loop is a predecessor and a successor), i.e. is
+	 * trivial.
+	 */
+	private void trim(final int[] nodes, final int color) {
+		final int[] queue = new int[nodes.length * 2];
+		int head = 0;
+		int tail = 0;
+		for (int v : nodes) {
+			int in = 0;
+			for (int k = predsStart[v]; k < predsStart[v + 1]; k++) {
+				if (colors[preds[k]] == color) {
+					in++;
+				}
+			}
+			int out = 0;
+			for (int w : succs[v]) {
+				if (colors[w] == color) {
+					out++;
+				}
+			}
+			inDegree[v] = in;
+			outDegree[v] = out;
+			if (in == 0 || out == 0) {
+				queue[tail++] = v;
+			}
+		}
+		// A node is enqueued at most twice: once when its in-degree and once
+		// when its out-degree drops to zero.
+		while (head < tail) {
+			final int v = queue[head++];
+			if (colors[v] != color) {
+				continue;
+			}
+			colors[v] = TRIMMED;
+			for (int w : succs[v]) {
+				if (colors[w] == color && --inDegree[w] == 0) {
+					queue[tail++] = w;
+				}
+			}
+			for (int k = predsStart[v]; k < predsStart[v + 1]; k++) {
+				final int u = preds[k];
+				if (colors[u] == color && --outDegree[u] == 0) {
+					queue[tail++] = u;
+				}
+			}
+		}
+	}
+
+	private static int[] filter(final int[] nodes, final int[] colors, final int color) {
+		int cnt = 0;
+		for (int v : nodes) {
+			if (colors[v] == color) {
+				cnt++;
+			}
+		}
+		final int[] res = new int[cnt];
+		int i = 0;
+		for (int v : nodes) {
+			if (colors[v] == color) {
+				res[i++] = v;
+			}
+		}
+		return res;
+	}
+
+	private boolean hasSelfLoop(final int v) {
+		for (int w : succs[v]) {
+			if (w == v) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/* See LiveWorker#checkComponent. */
+	private void checkComponent(final int[] scc, final int color) throws IOException {
+		// Simply return if the component is trivial.
+		if (scc.length == 1 && !hasSelfLoop(scc[0])) {
+			return;
+		}
+		synchronized (LiveWorker.STATS) {
+			LiveWorker.STATS.addSample(scc.length);
+		}
+
+		final LiveWorker.ComponentCheck check = new LiveWorker.ComponentCheck(this.oos, this.pem);
+		for (int v : scc) {
+			final GraphNode curNode = readNode(v);
+			check.add(curNode, i -> {
+				final long loc = this.dg.getLink(curNode.getStateFP(i), curNode.getTidx(i));
+				return loc >= 0 && colors[getId(loc)] == color;
+			});
+		}
+		if (check.isPSatisfiable()) {
+			counterExample.compareAndSet(null, scc);
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private final class LoadTask extends RecursiveAction {
+
+		private final int from;
+		private final int to;
+
+		LoadTask(final int from, final int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > LOAD_CHUNK) {
+				final int mid = (from + to) >>> 1;
+				invokeAll(new LoadTask(from, mid), new LoadTask(mid, to));
+				return;
+			}
+			try {
+				load(from, to);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Decomposes the subgraph made of the given nodes of the given color into
+	 * its SCCs.
+	 */
+	@SuppressWarnings("serial")
+	private final class SccTask extends RecursiveAction {
+
+		private final int[] nodes;
+		private final int color;
+
+		SccTask(final int[] nodes, final int color) {
+			this.nodes = nodes;
+			this.color = color;
+		}
+
+		@Override
+		protected void compute() {
+			try {
+				compute0();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private void compute0() throws IOException {
+			trim(nodes, color);
+
+			final List<SccTask> forked = new ArrayList<>();
+			// The nodes found by the searches of different pivots are disjoint,
+			// thus the buffers can be reused.
+			final int[] fw = new int[nodes.length];
+			final int[] queue = new int[nodes.length];
+			// The nodes that are neither forward- nor backward-reachable from a
+			// pivot keep this task's color. Instead of forking a task for them,
+			// this task picks the next pivot among them.
+			for (int p = 0; p < nodes.length && !isDone(); p++) {
+				final int pivot = nodes[p];
+				if (colors[pivot] != color) {
+					continue;
+				}
+
+				// Forward:
+				final int fwColor = nextColor.getAndIncrement();
+				int fwSize = 0;
+				colors[pivot] = fwColor;
+				fw[fwSize++] = pivot;
+				for (int head = 0; head < fwSize; head++) {
+					for (int w : succs[fw[head]]) {
+						if (colors[w] == color) {
+							colors[w] = fwColor;
+							fw[fwSize++] = w;
+						}
+					}
+				}
+
+				// Backward (the SCC of pivot is the set of forward-reachable
+				// nodes that are also backward-reachable):
+				final int sccColor = nextColor.getAndIncrement();
+				final int bwColor = nextColor.getAndIncrement();
+				int tail = 0;
+				int sccSize = 0;
+				int bwSize = 0;
+				colors[pivot] = sccColor;
+				queue[tail++] = pivot;
+				sccSize++;
+				for (int head = 0; head < tail; head++) {
+					final int v = queue[head];
+					for (int k = predsStart[v]; k < predsStart[v + 1]; k++) {
+						final int u = preds[k];
+						if (colors[u] == fwColor) {
+							colors[u] = sccColor;
+							queue[tail++] = u;
+							sccSize++;
+						} else if (colors[u] == color) {
+							colors[u] = bwColor;
+							queue[tail++] = u;
+							bwSize++;
+						}
+					}
+				}
+				final int[] bwAndScc = Arrays.copyOf(queue, tail);
+
+				checkComponent(filter(bwAndScc, colors, sccColor), sccColor);
+
+				if (fwSize > sccSize) {
+					final SccTask task = new SccTask(filter(Arrays.copyOf(fw, fwSize), colors, fwColor), fwColor);
+					task.fork();
+					forked.add(task);
+				}
+				if (bwSize > 0) {
+					final SccTask task = new SccTask(filter(bwAndScc, colors, bwColor), bwColor);
+					task.fork();
+					forked.add(task);
+				}
+			}
+			for (SccTask task : forked) {
+				task.join();
+			}
+		}
+	}
+
+	/**
+	 * An SCC that violates the liveness properties.
+	 */
+	static final class Component {
+
+		/* The node at which the error trace enters the SCC. */
+		final long state;
+		final int tidx;
+		final TableauNodePtrTable nodes;
+
+		Component(final long state, final int tidx, final TableauNodePtrTable nodes) {
+			this.state = state;
+			this.tidx = tidx;
+			this.nodes = nodes;
+		}
+	}
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.liveness;
+
+import java.util.function.Supplier;
+
+/**
+ * A {@link ShardedNodePtrTable} partitions a {@link DiskGraph}'s index by
+ * fingerprint into independently locked segments. Workers that add nodes to
+ * the behavior graph concurrently thus only contend when they look up or
+ * insert fingerprints of the same segment. Each segment is a plain
+ * {@link INodePtrTable}.
+ * <p>
+ * The segment of a fingerprint is determined by the high bits of the
+ * fingerprint, whereas the segments' tables use the low bits to hash it. A
+ * location (see {@link #getLoc(long)}) identifies a slot across all segments.
+ * Contrary to {@link INodePtrTable#getLoc(long)}, it is a long because it
+ * combines the slot in the segment with the segment's index.
+ */
+public final class ShardedNodePtrTable {
+
+	private final INodePtrTable[] shards;
+	private final int bits;
+	private final int mask;
+
+	/**
+	 * @param shards
+	 *            The number of segments, a power of two.
+	 * @param factory
+	 *            Creates the (empty) table of each segment.
+	 */
+	public ShardedNodePtrTable(final int shards, final Supplier<INodePtrTable> factory) {
+		if (shards <= 0 || Integer.bitCount(shards) != 1) {
+			throw new IllegalArgumentException("Number of shards has to be a positive power of two: " + shards);
+		}
+		this.shards = new INodePtrTable[shards];
+		for (int i = 0; i < shards; i++) {
+			this.shards[i] = factory.get();
+		}
+		this.bits = Integer.numberOfTrailingZeros(shards);
+		this.mask = shards - 1;
+	}
+
+	private int shardOf(final long k) {
+		return (int) (k >>> 32) & this.mask;
+	}
+
+	public final int getShards() {
+		return this.shards.length;
+	}
+
+	/**
+	 * Add <k, elem> into the table. If the table has already contained k,
+	 * overwrite the old value.
+	 */
+	public final void put(final long k, final long elem) {
+		final INodePtrTable shard = this.shards[shardOf(k)];
+		synchronized (shard) {
+			shard.put(k, elem);
+		}
+	}
+
+	/* Return the value with key k. Otherwise, return -1. */
+	public final long get(final long k) {
+		final INodePtrTable shard = this.shards[shardOf(k)];
+		synchronized (shard) {
+			return shard.get(k);
+		}
+	}
+
+	/* Return k's location if the table contains k. Otherwise, return -1. */
+	public final long getLoc(final long k) {
+		final int idx = shardOf(k);
+		final INodePtrTable shard = this.shards[idx];
+		final int loc;
+		synchronized (shard) {
+			loc = shard.getLoc(k);
+		}
+		if (loc == -1) {
+			return -1;
+		}
+		return ((long) loc << this.bits) | idx;
+	}
+
+	public final long getByLoc(final long loc) {
+		final INodePtrTable shard = this.shards[(int) loc & this.mask];
+		synchronized (shard) {
+			return shard.getByLoc((int) (loc >>> this.bits));
+		}
+	}
+
+	public final long getKeyByLoc(final long loc) {
+		final INodePtrTable shard = this.shards[(int) loc & this.mask];
+		synchronized (shard) {
+			return shard.getKeyByLoc((int) (loc >>> this.bits));
+		}
+	}
+
+	public final void putByLoc(final long k, final long elem, final long loc) {
+		final INodePtrTable shard = this.shards[(int) loc & this.mask];
+		synchronized (shard) {
+			shard.putByLoc(k, elem, (int) (loc >>> this.bits));
+		}
+	}
+
+	public final long size() {
+		long size = 0L;
+		for (INodePtrTable shard : this.shards) {
+			synchronized (shard) {
+				size += shard.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Releases the resources held by the segments. The table must not be used
+	 * afterwards.
+	 */
+	public final void free() {
+		for (INodePtrTable shard : this.shards) {
+			synchronized (shard) {
+				shard.free();
+			}
+		}
+	}
+}
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.management;
+
+import tlc2.tool.distributed.management.TLCStatisticsMXBean;
+import tlc2.tool.impl.OpMemoizer;
+
+/**
+ * The statistics of a model checker that evaluates the spec in this VM, as
+ * opposed to the remote workers of distributed TLC.
+ */
+public interface ModelCheckerMXBean extends TLCStatisticsMXBean {
+
+	/**
+	 * @return The number of applications of memoized operators whose value has
+	 *         been looked up in a memo (see -Dtlc2.tool.impl.Tool.memoize)
+	 * @see OpMemoizer#getHits()
+	 */
+	long getMemoizedHits();
+
+	/**
+	 * @return The number of applications of memoized operators whose value has
+	 *         been evaluated
+	 * @see OpMemoizer#getMisses()
+	 */
+	long getMemoizedMisses();
+}
@@ -8,13 +8,13 @@ import tlc2.TLC;
 import tlc2.TLCGlobals;
 import tlc2.tool.ModelChecker;
 import tlc2.tool.TLCState;
-import tlc2.tool.distributed.management.TLCStatisticsMXBean;
 import tlc2.tool.fp.DiskFPSet;
+import tlc2.tool.impl.OpMemoizer;
 
 /**
  * @author Markus Alexander Kuppe
  */
-public class ModelCheckerMXWrapper extends TLCStandardMBean implements TLCStatisticsMXBean {
+public class ModelCheckerMXWrapper extends TLCStandardMBean implements ModelCheckerMXBean {
 
 	public static final String OBJ_NAME = "tlc2.tool:type=ModelChecker";
 
@@ -23,7 +23,7 @@ public class ModelCheckerMXWrapper extends TLCStandardMBean implements TLCStatis
 
 	public ModelCheckerMXWrapper(final ModelChecker aModelChecker, final TLC tlc)
 			throws NotCompliantMBeanException {
-		super(TLCStatisticsMXBean.class);
+		super(ModelCheckerMXBean.class);
 		this.modelChecker = aModelChecker;
 		this.tlc = tlc;
 		// register all TLCStatisticsMXBeans under the same name
@@ -101,6 +101,28 @@ public class ModelCheckerMXWrapper extends TLCStandardMBean implements TLCStatis
 		return 1;
 	}
 
+	/* (non-Javadoc)
+	 * @see tlc2.tool.distributed.management.TLCStatisticsMXBean#getWorkerCacheHitRatio()
+	 */
+	public double getWorkerCacheHitRatio() {
+		// Only distributed TLC workers cache fingerprints
+		return 0d;
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.management.ModelCheckerMXBean#getMemoizedHits()
+	 */
+	public long getMemoizedHits() {
+		return OpMemoizer.getHits();
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.management.ModelCheckerMXBean#getMemoizedMisses()
+	 */
+	public long getMemoizedMisses() {
+		return OpMemoizer.getMisses();
+	}
+
 	/* (non-Javadoc)
 	 * @see tlc2.tool.distributed.management.TLCStatisticsMXBean#getRuntimeRatio()
 	 */
@@ -214,7 +214,8 @@ public abstract class ByteArrayQueue implements IStateQueue {
 	public final TLCState[] sDequeue(int cnt) {
 		final byte[][] bytes = sDequeueRaw(cnt);
 		if (bytes != null) {
-			final TLCState[] array = new TLCState[cnt];
+			// sDequeueRaw caps cnt at the length of the queue.
+			final TLCState[] array = new TLCState[bytes.length];
 			for (int i = 0; i < array.length; i++) {
 				array[i] = toState(bytes[i]);
 			}
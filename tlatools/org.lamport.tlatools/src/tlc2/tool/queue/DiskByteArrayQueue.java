@@ -70,6 +70,16 @@ public class DiskByteArrayQueue extends ByteArrayQueue {
 	protected final StatePoolCleaner cleaner;
 	private int loPool, hiPool, lastLoPool, newLastLoPool;
 	private File loFile;
+	/*
+	 * The queue's bookkeeping and buffered states when the most recent checkpoint
+	 * suspended the workers. beginChkpt only copies them, and commitChkpt writes
+	 * them to disk after the workers have been resumed. The swap files they refer
+	 * to are not deleted before the next commitChkpt (the cleaner terminates with
+	 * the first checkpoint).
+	 */
+	private long chkptLen;
+	private int chkptLoPool, chkptHiPool, chkptDeqIndex;
+	private byte[][] chkptEnqBuf, chkptDeqBuf;
 	
 	// TESTING ONLY!
 	DiskByteArrayQueue() throws IOException {
@@ -184,26 +194,37 @@ public class DiskByteArrayQueue extends ByteArrayQueue {
 			this.cleaner.notifyAll();
 		}
 		
+		// The workers are suspended. Copy the buffers, whose arrays are recycled
+		// by the pool reader and writer once the workers resume.
+		this.chkptLen = this.len;
+		this.chkptLoPool = this.loPool;
+		this.chkptHiPool = this.hiPool;
+		this.chkptDeqIndex = this.deqIndex;
+		this.chkptEnqBuf = Arrays.copyOf(this.enqBuf, this.enqIndex);
+		this.chkptDeqBuf = Arrays.copyOfRange(this.deqBuf, this.deqIndex, this.deqBuf.length);
+		this.newLastLoPool = this.loPool - 1;
+	}
+
+	public final void commitChkpt() throws IOException {
 		String filename = this.filePrefix + "queue.tmp";
 	  	final BufferedDataOutputStream vos = new BufferedDataOutputStream(filename);
-		vos.writeLong(this.len);
-		vos.writeInt(this.loPool);
-		vos.writeInt(this.hiPool);
-		vos.writeInt(this.enqIndex);
-		vos.writeInt(this.deqIndex);
-		for (int i = 0; i < this.enqIndex; i++) {
-	  		vos.writeInt(this.enqBuf[i].length);
-	  		vos.write(this.enqBuf[i]);
-		}
-		for (int i = this.deqIndex; i < this.deqBuf.length; i++) {
-	  		vos.writeInt(this.deqBuf[i].length);
-	  		vos.write(this.deqBuf[i]);
+		vos.writeLong(this.chkptLen);
+		vos.writeInt(this.chkptLoPool);
+		vos.writeInt(this.chkptHiPool);
+		vos.writeInt(this.chkptEnqBuf.length);
+		vos.writeInt(this.chkptDeqIndex);
+		for (int i = 0; i < this.chkptEnqBuf.length; i++) {
+	  		vos.writeInt(this.chkptEnqBuf[i].length);
+	  		vos.write(this.chkptEnqBuf[i]);
+		}
+		for (int i = 0; i < this.chkptDeqBuf.length; i++) {
+	  		vos.writeInt(this.chkptDeqBuf[i].length);
+	  		vos.write(this.chkptDeqBuf[i]);
 		}
 		vos.close();
-		this.newLastLoPool = this.loPool - 1;
-	}
+		this.chkptEnqBuf = null;
+		this.chkptDeqBuf = null;
 
-	public final void commitChkpt() throws IOException {
 		for (int i = this.lastLoPool; i < this.newLastLoPool; i++) {
 			String pstr = Integer.toString(i);
 			File oldPool = new File(this.filePrefix + pstr);
@@ -8,6 +8,7 @@ package tlc2.tool.queue;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.Arrays;
 
 import tlc2.output.EC;
 import tlc2.output.MP;
@@ -51,6 +52,16 @@ public class DiskStateQueue extends StateQueue {
 	protected final StatePoolCleaner cleaner;
 	private int loPool, hiPool, lastLoPool, newLastLoPool;
 	private File loFile;
+	/*
+	 * The queue's bookkeeping and buffered states when the most recent checkpoint
+	 * suspended the workers. beginChkpt only copies them, and commitChkpt writes
+	 * them to disk after the workers have been resumed. The swap files they refer
+	 * to are not deleted before the next commitChkpt (the cleaner terminates with
+	 * the first checkpoint).
+	 */
+	private long chkptLen;
+	private int chkptLoPool, chkptHiPool, chkptDeqIndex;
+	private TLCState[] chkptEnqBuf, chkptDeqBuf;
 
 	// TESTING ONLY!
 	DiskStateQueue() throws IOException {
@@ -168,24 +179,35 @@ public class DiskStateQueue extends StateQueue {
 			this.cleaner.notifyAll();
 		}
 		
+		// The workers are suspended. Copy the buffers, whose arrays are recycled
+		// by the pool reader and writer once the workers resume.
+		this.chkptLen = this.len;
+		this.chkptLoPool = this.loPool;
+		this.chkptHiPool = this.hiPool;
+		this.chkptDeqIndex = this.deqIndex;
+		this.chkptEnqBuf = Arrays.copyOf(this.enqBuf, this.enqIndex);
+		this.chkptDeqBuf = Arrays.copyOfRange(this.deqBuf, this.deqIndex, this.deqBuf.length);
+		this.newLastLoPool = this.loPool - 1;
+	}
+
+	public final void commitChkpt() throws IOException {
 		String filename = this.filePrefix + "queue.tmp";
 		ValueOutputStream vos = new ValueOutputStream(filename);
-		vos.writeLongNat(this.len);
-		vos.writeInt(this.loPool);
-		vos.writeInt(this.hiPool);
-		vos.writeInt(this.enqIndex);
-		vos.writeInt(this.deqIndex);
-		for (int i = 0; i < this.enqIndex; i++) {
-			this.enqBuf[i].write(vos);
+		vos.writeLongNat(this.chkptLen);
+		vos.writeInt(this.chkptLoPool);
+		vos.writeInt(this.chkptHiPool);
+		vos.writeInt(this.chkptEnqBuf.length);
+		vos.writeInt(this.chkptDeqIndex);
+		for (int i = 0; i < this.chkptEnqBuf.length; i++) {
+			this.chkptEnqBuf[i].write(vos);
 		}
-		for (int i = this.deqIndex; i < this.deqBuf.length; i++) {
-			this.deqBuf[i].write(vos);
+		for (int i = 0; i < this.chkptDeqBuf.length; i++) {
+			this.chkptDeqBuf[i].write(vos);
 		}
 		vos.close();
-		this.newLastLoPool = this.loPool - 1;
-	}
+		this.chkptEnqBuf = null;
+		this.chkptDeqBuf = null;
 
-	public final void commitChkpt() throws IOException {
 		for (int i = this.lastLoPool; i < this.newLastLoPool; i++) {
 			String pstr = Integer.toString(i);
 			File oldPool = new File(this.filePrefix + pstr);
@@ -0,0 +1,448 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.queue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+import tlc2.output.EC;
+import tlc2.output.MP;
+import util.Assert;
+import util.BufferedDataInputStream;
+import util.BufferedDataOutputStream;
+import util.FileUtil;
+
+/**
+ * A {@link MappedByteArrayQueue} stores the states - serialized by
+ * {@link ByteArrayQueue} outside of the critical section - in a sequence of
+ * memory-mapped segment files. Contrary to {@link DiskByteArrayQueue}, there
+ * are no in-memory pools handed back and forth between workers and
+ * reader/writer threads: enqueue appends the encoded state to the tail segment
+ * and dequeue reads it from the head segment. Swapping to and from disk is left
+ * to the operating system's page cache.
+ * <p>
+ * A record in a segment is the length of the encoded state followed by the
+ * bytes written by DiskByteArrayQueue.ByteValueOutputStream. A segment
+ * ends with {@link #EOS} or when the remaining space is too small to hold
+ * another length.
+ * <p>
+ * Segments are identified by their slot, i.e. the name of their backing file.
+ * Consumed segments are not deleted but recycled as new tail segments unless a
+ * checkpoint still references them. A checkpoint writes a small manifest with
+ * the slots of the live segments and the read and write positions. The
+ * segments themselves are merely forced to disk, incrementally and while the
+ * workers continue (see {@link #beginChkpt()} and {@link #commitChkpt()}).
+ */
+public class MappedByteArrayQueue extends ByteArrayQueue {
+
+	private static final int SegmentSize = Integer.getInteger(MappedByteArrayQueue.class.getName() + ".segmentSize",
+			1 << 26);
+	/**
+	 * Marks the end of a segment (the length of a record is never negative).
+	 */
+	private static final int EOS = -1;
+	private static final String EXT = ".seg";
+
+	private final String filePrefix;
+	private final int segmentSize;
+
+	/**
+	 * The live segments in queue order. Dequeue reads from the first, enqueue
+	 * appends to the last segment.
+	 */
+	private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+	/**
+	 * The consumed segments that can be re-used as tail segments.
+	 */
+	private final ArrayDeque<Segment> free = new ArrayDeque<>();
+	/**
+	 * The consumed segments that the committed (or a pending) checkpoint still
+	 * references.
+	 */
+	private final ArrayDeque<Segment> retired = new ArrayDeque<>();
+	/**
+	 * The index of the first segment in {@link #segments}. The index of a segment
+	 * is its position in the sequence of all segments ever created. It grows
+	 * monotonically whereas the slot of a segment is re-used.
+	 */
+	private long loIndex = 0L;
+	/**
+	 * Segments with an index greater or equal to pinned are referenced by a
+	 * checkpoint and thus must not be recycled.
+	 */
+	private long pinned = Long.MAX_VALUE;
+	private long newPinned = Long.MAX_VALUE;
+	private int nextSlot = 0;
+
+	private final SegmentPrefetcher prefetcher;
+
+	// TESTING ONLY!
+	MappedByteArrayQueue() throws IOException {
+		this(Files.createTempDirectory("MappedByteArrayQueue").toFile().toString());
+	}
+
+	public MappedByteArrayQueue(final String diskdir) {
+		this(diskdir, SegmentSize);
+	}
+
+	MappedByteArrayQueue(final String diskdir, final int segmentSize) {
+		this.filePrefix = diskdir + FileUtil.separator;
+		this.segmentSize = segmentSize;
+		this.prefetcher = new SegmentPrefetcher();
+		this.prefetcher.setDaemon(true);
+		this.prefetcher.start();
+	}
+
+	final void enqueueInner(final byte[] state) {
+		Segment tail = this.segments.peekLast();
+		if (tail == null || tail.write.remaining() < Integer.BYTES + state.length) {
+			try {
+				if (tail != null) {
+					tail.seal();
+				}
+				tail = allocate(Integer.BYTES + state.length + Integer.BYTES);
+			} catch (IOException e) {
+				Assert.fail(EC.SYSTEM_ERROR_WRITING_STATES,
+						new String[] { "queue", (e.getMessage() == null) ? e.toString() : e.getMessage() });
+			}
+			this.segments.addLast(tail);
+		}
+		tail.write.putInt(state.length);
+		tail.write.put(state);
+	}
+
+	final byte[] dequeueInner() {
+		final ByteBuffer read = head();
+		final byte[] state = new byte[read.getInt()];
+		read.get(state);
+		return state;
+	}
+
+	final byte[] peekInner() {
+		// Read from a copy to leave the position of the head segment untouched.
+		final ByteBuffer read = head().duplicate();
+		final byte[] state = new byte[read.getInt()];
+		read.get(state);
+		return state;
+	}
+
+	/**
+	 * @return The read buffer of the head segment positioned at the next record.
+	 *         Retires all segments that have been consumed completely.
+	 */
+	private final ByteBuffer head() {
+		Segment head = this.segments.peekFirst();
+		// The tail segment is never sealed. Since the queue is not empty when head
+		// gets called, the next record has to be in the tail segment if we get there.
+		while (head != this.segments.peekLast() && head.isConsumed()) {
+			retire(this.segments.pollFirst());
+			this.loIndex++;
+			head = this.segments.peekFirst();
+			// Warm up the next segment while we read this one.
+			final Iterator<Segment> itr = this.segments.iterator();
+			itr.next();
+			if (itr.hasNext()) {
+				this.prefetcher.prefetch(itr.next());
+			}
+		}
+		return head.read;
+	}
+
+	private final Segment allocate(final int minCapacity) throws IOException {
+		final Segment recycled = this.free.pollFirst();
+		if (recycled != null) {
+			if (recycled.capacity() >= minCapacity) {
+				return recycled.reset();
+			}
+			// A segment larger than segmentSize that held a single huge state. Let GC
+			// unmap it.
+			recycled.file.delete();
+		}
+		return new Segment(this.nextSlot++, Math.max(this.segmentSize, minCapacity));
+	}
+
+	private final void retire(final Segment segment) {
+		if (this.loIndex < Math.min(this.pinned, this.newPinned)) {
+			this.free.addLast(segment.reset());
+		} else {
+			this.retired.addLast(segment);
+		}
+	}
+
+	/* Checkpoint. */
+
+	/**
+	 * The checkpoint taken by {@link #beginChkpt()} that
+	 * {@link #commitChkpt()} writes to disk.
+	 */
+	private Snapshot snapshot;
+
+	/**
+	 * Only records which segments make up the queue and where to continue. This
+	 * is the part of a checkpoint during which the workers are suspended. The
+	 * content of the segments up to the recorded write positions does not change
+	 * afterwards because the segments are pinned until the checkpoint is
+	 * replaced by the next one.
+	 */
+	public final synchronized void beginChkpt() throws IOException {
+		this.snapshot = new Snapshot(this.len, this.loIndex, this.segments);
+		this.newPinned = this.loIndex;
+	}
+
+	/**
+	 * Forces the segments - or rather the parts that have not been forced by a
+	 * previous checkpoint - to disk and (atomically) replaces the previous
+	 * checkpoint with the snapshot taken by {@link #beginChkpt()}. Workers keep
+	 * enqueueing and dequeueing while the segments are forced.
+	 */
+	public final void commitChkpt() throws IOException {
+		final Snapshot snapshot;
+		synchronized (this) {
+			snapshot = this.snapshot;
+			this.snapshot = null;
+		}
+		snapshot.force();
+		snapshot.write(this.filePrefix + "queue.tmp");
+
+		final File oldChkpt = new File(this.filePrefix + "queue.chkpt");
+		final File newChkpt = new File(this.filePrefix + "queue.tmp");
+		if ((oldChkpt.exists() && !oldChkpt.delete()) || !newChkpt.renameTo(oldChkpt)) {
+			throw new IOException("MappedByteArrayQueue.commitChkpt: cannot delete " + oldChkpt);
+		}
+
+		synchronized (this) {
+			// The previous checkpoint is gone. Segments consumed before the new
+			// checkpoint has been taken can be re-used.
+			this.pinned = this.newPinned;
+			this.newPinned = Long.MAX_VALUE;
+			long index = this.loIndex - this.retired.size();
+			while (!this.retired.isEmpty() && index++ < this.pinned) {
+				this.free.addLast(this.retired.pollFirst().reset());
+			}
+		}
+	}
+
+	public final synchronized void recover() throws IOException {
+		final BufferedDataInputStream vis = new BufferedDataInputStream(this.filePrefix + "queue.chkpt");
+		this.len = vis.readLong();
+		this.loIndex = vis.readLong();
+		final int size = vis.readInt();
+		for (int i = 0; i < size; i++) {
+			final int slot = vis.readInt();
+			final Segment segment = new Segment(slot, vis.readInt());
+			segment.read.position(vis.readInt());
+			segment.write.position(vis.readInt());
+			segment.forced = segment.write.position();
+			this.segments.addLast(segment);
+			this.nextSlot = Math.max(this.nextSlot, slot + 1);
+		}
+		vis.close();
+		this.pinned = this.loIndex;
+	}
+
+	public void finishAll() {
+		super.finishAll();
+		synchronized (this.prefetcher) {
+			this.prefetcher.finished = true;
+			this.prefetcher.notifyAll();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#delete()
+	 */
+	@Override
+	public void delete() {
+		finishAll();
+		for (Segment segment : this.segments) {
+			segment.file.delete();
+		}
+		for (Segment segment : this.free) {
+			segment.file.delete();
+		}
+		for (Segment segment : this.retired) {
+			segment.file.delete();
+		}
+		new File(this.filePrefix).delete();
+	}
+
+	private final class Segment {
+
+		private final int slot;
+		private final File file;
+		private final MappedByteBuffer buffer;
+		/**
+		 * Two views of buffer: read is positioned at the next record to be dequeued,
+		 * write at the position where the next record gets enqueued.
+		 */
+		private final ByteBuffer read, write;
+		/**
+		 * The position up to which the content of this segment is known to be on
+		 * disk. Written by the thread taking checkpoints (Snapshot#force) without
+		 * holding the queue's monitor, and by reset, which the workers call while
+		 * holding it. The two never overlap: a segment of a snapshot is pinned and
+		 * thus not reset (see retire) until commitChkpt, which forces it, has
+		 * unpinned it while holding the queue's monitor.
+		 */
+		private int forced;
+
+		private Segment(final int slot, final int capacity) throws IOException {
+			this.slot = slot;
+			this.file = new File(filePrefix + Integer.toString(slot) + EXT);
+			// The mapping remains valid after the channel has been closed.
+			try (RandomAccessFile raf = new RandomAccessFile(this.file, "rw")) {
+				this.buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+			}
+			this.read = this.buffer.duplicate();
+			this.write = this.buffer.duplicate();
+		}
+
+		private final int capacity() {
+			return this.buffer.capacity();
+		}
+
+		private final void seal() {
+			if (this.write.remaining() >= Integer.BYTES) {
+				this.write.putInt(EOS);
+			}
+		}
+
+		private final boolean isConsumed() {
+			return this.read.remaining() < Integer.BYTES || this.read.getInt(this.read.position()) == EOS;
+		}
+
+		private final Segment reset() {
+			this.read.clear();
+			this.write.clear();
+			this.forced = 0;
+			return this;
+		}
+	}
+
+	/**
+	 * An immutable copy of the queue's bookkeeping taken by {@link #beginChkpt()}.
+	 */
+	private static final class Snapshot {
+
+		private final long len;
+		private final long loIndex;
+		private final Segment[] segments;
+		private final int[] read, write;
+
+		private Snapshot(final long len, final long loIndex, final ArrayDeque<Segment> segments) {
+			this.len = len;
+			this.loIndex = loIndex;
+			this.segments = segments.toArray(new Segment[segments.size()]);
+			this.read = new int[this.segments.length];
+			this.write = new int[this.segments.length];
+			for (int i = 0; i < this.segments.length; i++) {
+				this.read[i] = this.segments[i].read.position();
+				this.write[i] = this.segments[i].write.position();
+			}
+		}
+
+		private final void force() {
+			for (int i = 0; i < this.segments.length; i++) {
+				final Segment segment = this.segments[i];
+				// Sealed segments have been forced by a previous checkpoint already
+				// unless they have been written to since.
+				if (segment.forced < this.write[i]) {
+					segment.buffer.force();
+					segment.forced = this.write[i];
+				}
+			}
+		}
+
+		private final void write(final String filename) throws IOException {
+			final FileOutputStream fos = new FileOutputStream(filename);
+			final BufferedDataOutputStream vos = new BufferedDataOutputStream(fos);
+			vos.writeLong(this.len);
+			vos.writeLong(this.loIndex);
+			vos.writeInt(this.segments.length);
+			for (int i = 0; i < this.segments.length; i++) {
+				vos.writeInt(this.segments[i].slot);
+				vos.writeInt(this.segments[i].capacity());
+				vos.writeInt(this.read[i]);
+				vos.writeInt(this.write[i]);
+			}
+			// The manifest is what makes the segments a checkpoint. Make sure it hits
+			// the disk before it replaces the previous one.
+			vos.flush();
+			fos.getFD().sync();
+			vos.close();
+		}
+	}
+
+	/**
+	 * Touches the pages of the segment that gets dequeued next, for the operating
+	 * system to read them from disk before a worker stalls on a page fault.
+	 */
+	private static final class SegmentPrefetcher extends Thread {
+
+		private volatile boolean finished = false;
+		private MappedByteBuffer next;
+
+		private SegmentPrefetcher() {
+			super("TLCStateQueuePrefetcher");
+		}
+
+		private final synchronized void prefetch(final Segment segment) {
+			this.next = segment.buffer;
+			this.notifyAll();
+		}
+
+		public void run() {
+			try {
+				while (true) {
+					final MappedByteBuffer buffer;
+					synchronized (this) {
+						while (this.next == null && !this.finished) {
+							this.wait();
+						}
+						if (this.finished) {
+							return;
+						}
+						buffer = this.next;
+						this.next = null;
+					}
+					buffer.load();
+				}
+			} catch (Exception e) {
+				// Prefetching is an optimization. A worker dequeueing from the segment
+				// will simply cause the page faults itself.
+				MP.printError(EC.SYSTEM_ERROR_READING_POOL, e.getMessage(), e);
+			}
+		}
+	}
+}
@@ -0,0 +1,477 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.queue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import tlc2.TLCGlobals;
+import tlc2.output.EC;
+import tlc2.output.MP;
+import tlc2.tool.StateVec;
+import tlc2.tool.TLCState;
+import tlc2.tool.Worker;
+import tlc2.util.IdThread;
+import tlc2.value.ValueInputStream;
+import tlc2.value.ValueOutputStream;
+import util.FileUtil;
+
+/**
+ * An {@link IStateQueue} made of one lock-free deque per {@link Worker}. A
+ * worker enqueues its successor states into and dequeues from its own deque
+ * and only steals from the deques of other workers once its own deque has run
+ * dry. Contrary to {@link StateQueue}, none of the operations on the happy
+ * path, i.e. when states are available, acquire a monitor. A worker only
+ * synchronizes on this queue when it has to wait for work, when the state
+ * space has been exhausted (termination detection), or when the queue has been
+ * suspended to create a checkpoint.
+ * <p>
+ * Exploration is <b>no longer breadth-first</b>: Each worker explores its own
+ * deque in FIFO order, but the deques of different workers progress
+ * independently and stolen states can be of any level. Consequently, TLC no
+ * longer guarantees that a reported counterexample (trace) to a safety
+ * property is of minimal length, nor that the reported depth equals the
+ * diameter of the state graph. This queue is thus opt-in only (see
+ * {@link tlc2.tool.ModelChecker#getStateQueueName()}) and TLC warns when it is
+ * selected.
+ * <p>
+ * Like {@link MemStateQueue}, all states are kept in memory, and checkpoints use
+ * the {@link MemStateQueue} format. A checkpoint can thus only be recovered with
+ * this queue.
+ */
+public final class WorkStealingStateQueue implements IStateQueue {
+
+	private final ConcurrentLinkedDeque<TLCState>[] deques;
+	private final String diskdir;
+
+	/**
+	 * The number of states in all deques. It is incremented after a state has
+	 * been added to a deque and decremented after a state has been removed. Thus,
+	 * a positive value indicates that either a state is in one of the deques, or
+	 * that a worker has (successfully) removed a state but has not decremented
+	 * len yet.
+	 */
+	private final AtomicLong len = new AtomicLong();
+	/**
+	 * The number of workers waiting for states (see {@link #await()}). Only
+	 * modified while holding this queue's monitor.
+	 */
+	private final AtomicInteger numWaiting = new AtomicInteger();
+	/**
+	 * Round-robin index used to distribute the states added by
+	 * {@link #enqueue(TLCState)} (initial states) and by threads other than
+	 * workers over all deques.
+	 */
+	private final AtomicInteger next = new AtomicInteger();
+
+	private volatile boolean finish = false;
+	/**
+	 * Signals {@link Worker} that checkpointing is going happen next.
+	 */
+	private volatile boolean stop = false;
+	/**
+	 * Notifies the checkpointing thread in {@link #suspendAll()} once the last
+	 * worker waits.
+	 */
+	private final Object mu = new Object();
+
+	/**
+	 * TESTING ONLY!
+	 */
+	WorkStealingStateQueue() throws IOException {
+		this(Files.createTempDirectory("WorkStealingStateQueue").toFile().toString());
+	}
+
+	public WorkStealingStateQueue(final String diskdir) {
+		this(diskdir, TLCGlobals.getNumWorkers());
+	}
+
+	WorkStealingStateQueue(final String diskdir, final int numWorkers) {
+		this.diskdir = diskdir;
+		this.deques = newDeques(Math.max(1, numWorkers));
+		for (int i = 0; i < deques.length; i++) {
+			this.deques[i] = new ConcurrentLinkedDeque<>();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ConcurrentLinkedDeque<TLCState>[] newDeques(final int length) {
+		return (ConcurrentLinkedDeque<TLCState>[]) new ConcurrentLinkedDeque<?>[length];
+	}
+
+	/**
+	 * @return The deque of the calling worker. Threads other than workers share
+	 *         the deque of the worker with the corresponding id.
+	 */
+	private final ConcurrentLinkedDeque<TLCState> home() {
+		return this.deques[IdThread.GetId(0) % this.deques.length];
+	}
+
+	/**
+	 * @return The deque of the calling worker, or the next deque in round-robin
+	 *         order if the caller is not a worker. The latter spreads the initial
+	 *         states, which are generated by multiple threads with
+	 *         -Dtlc2.tool.ModelChecker.parallelInit, over all deques.
+	 */
+	private final ConcurrentLinkedDeque<TLCState> target() {
+		final Thread th = Thread.currentThread();
+		if (th instanceof IdThread) {
+			return this.deques[((IdThread) th).myGetId() % this.deques.length];
+		}
+		return this.deques[Math.floorMod(this.next.getAndIncrement(), this.deques.length)];
+	}
+
+	/* Enqueue */
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#enqueue(tlc2.tool.TLCState)
+	 */
+	public final void enqueue(final TLCState state) {
+		// Spread the initial states over all deques to give every worker a head start.
+		this.deques[Math.floorMod(this.next.getAndIncrement(), this.deques.length)].addLast(state);
+		this.len.incrementAndGet();
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#sEnqueue(tlc2.tool.TLCState)
+	 */
+	public final void sEnqueue(final TLCState state) {
+		target().addLast(state);
+		this.len.incrementAndGet();
+		signal();
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#sEnqueue(tlc2.tool.TLCState[])
+	 */
+	public final void sEnqueue(final TLCState[] states) {
+		final ConcurrentLinkedDeque<TLCState> deque = target();
+		for (int i = 0; i < states.length; i++) {
+			deque.addLast(states[i]);
+		}
+		this.len.addAndGet(states.length);
+		signal();
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#sEnqueue(tlc2.tool.StateVec)
+	 */
+	public final void sEnqueue(final StateVec stateVec) {
+		final ConcurrentLinkedDeque<TLCState> deque = target();
+		int cnt = 0;
+		for (int j = 0; j < stateVec.size(); j++) {
+			final TLCState state = stateVec.elementAt(j);
+			if (state != null) {
+				deque.addLast(state);
+				cnt++;
+			}
+		}
+		this.len.addAndGet(cnt);
+		signal();
+	}
+
+	/**
+	 * Wakes up waiting workers. The caller has already incremented {@link #len}
+	 * and a waiting worker increments {@link #numWaiting} before it reads
+	 * {@link #len} while holding the monitor. Thus, either the waiting worker
+	 * sees the new states, or we see the waiting worker and notify it.
+	 */
+	private final void signal() {
+		if (this.numWaiting.get() > 0 && !this.stop) {
+			synchronized (this) {
+				this.notifyAll();
+			}
+		}
+	}
+
+	/* Dequeue */
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#dequeue()
+	 */
+	public final TLCState dequeue() {
+		final TLCState state = poll();
+		if (state != null) {
+			this.len.decrementAndGet();
+		}
+		return state;
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#sDequeue()
+	 */
+	public final TLCState sDequeue() {
+		while (!this.finish) {
+			if (!this.stop) {
+				final TLCState state = poll();
+				if (state != null) {
+					this.len.decrementAndGet();
+					return state;
+				}
+			}
+			if (!await()) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#sDequeue(int)
+	 */
+	public final TLCState[] sDequeue(int cnt) {
+		assert cnt > 0 : "Nonpositive number of states requested.";
+		final TLCState first = sDequeue();
+		if (first == null) {
+			return null;
+		}
+		final StateVec states = new StateVec((int) Math.min(cnt, this.len.get() + 1L));
+		states.addElement(first);
+		TLCState state;
+		while (states.size() < cnt && (state = poll()) != null) {
+			this.len.decrementAndGet();
+			states.addElement(state);
+		}
+		final TLCState[] res = new TLCState[states.size()];
+		for (int i = 0; i < res.length; i++) {
+			res[i] = states.elementAt(i);
+		}
+		return res;
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#sPeek()
+	 */
+	public final TLCState sPeek() {
+		final ConcurrentLinkedDeque<TLCState> home = home();
+		TLCState state = home.peekFirst();
+		for (int i = 0; state == null && i < this.deques.length; i++) {
+			state = this.deques[i].peekFirst();
+		}
+		return state;
+	}
+
+	/**
+	 * Takes the oldest state from the caller's own deque, or - if the own deque is
+	 * empty - steals the youngest state of another deque. Stealing from the
+	 * opposite end keeps owner and thief from contending for the same node.
+	 */
+	private final TLCState poll() {
+		final ConcurrentLinkedDeque<TLCState> home = home();
+		TLCState state = home.pollFirst();
+		if (state != null) {
+			return state;
+		}
+		// Start at a random victim to not have all thieves pile up on the same deque.
+		final int offset = ThreadLocalRandom.current().nextInt(this.deques.length);
+		for (int i = 0; i < this.deques.length; i++) {
+			final ConcurrentLinkedDeque<TLCState> victim = this.deques[(offset + i) % this.deques.length];
+			if (victim != home && (state = victim.pollLast()) != null) {
+				return state;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Puts the calling worker to sleep until states become available, the queue
+	 * gets resumed after a checkpoint, or all work is done. The last worker to
+	 * call await while all deques are empty detects termination: All other workers
+	 * wait too and thus no worker can generate new states.
+	 *
+	 * @return false iff all work is done.
+	 */
+	private final synchronized boolean await() {
+		this.numWaiting.incrementAndGet();
+		try {
+			while (true) {
+				if (this.finish) {
+					return false;
+				}
+				if (!this.stop && this.len.get() > 0) {
+					return true;
+				}
+				if (this.numWaiting.get() >= this.deques.length) {
+					if (this.len.get() < 1) {
+						// Termination: All workers wait and no states are left.
+						return false;
+					}
+					// All workers wait because of stop. Wake up the checkpointing thread
+					// waiting in suspendAll.
+					synchronized (this.mu) {
+						this.mu.notifyAll();
+					}
+				}
+				try {
+					this.wait();
+				} catch (Exception e) {
+					MP.printError(EC.GENERAL, "making a worker wait for a state from the queue", e);
+					System.exit(1);
+				}
+			}
+		} finally {
+			this.numWaiting.decrementAndGet();
+		}
+	}
+
+	/* Suspend, resume, and finish */
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#finishAll()
+	 */
+	public final void finishAll() {
+		synchronized (this) {
+			this.finish = true;
+			this.notifyAll();
+		}
+		synchronized (this.mu) {
+			this.mu.notifyAll();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#suspendAll()
+	 */
+	public final boolean suspendAll() {
+		synchronized (this) {
+			if (this.finish) {
+				return false;
+			}
+			this.stop = true;
+		}
+		// Wait for all worker threads to stop. Workers check stop before they take
+		// the next state and the last one to wait notifies mu while holding it (see
+		// await). Lock order is this before mu, which is why we must not acquire
+		// this while holding mu.
+		synchronized (this.mu) {
+			while (this.numWaiting.get() < this.deques.length) {
+				if (this.finish) {
+					return false;
+				}
+				try {
+					this.mu.wait();
+				} catch (Exception e) {
+					MP.printError(EC.GENERAL, "waiting for a worker to wake up", e);
+					System.exit(1);
+				}
+			}
+		}
+		return !this.finish;
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#resumeAll()
+	 */
+	public final synchronized void resumeAll() {
+		this.stop = false;
+		this.notifyAll();
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#resumeAllStuck()
+	 */
+	public final void resumeAllStuck() {
+		synchronized (this.mu) {
+			this.mu.notifyAll();
+		}
+		synchronized (this) {
+			this.notifyAll();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#size()
+	 */
+	public final long size() {
+		return this.len.get();
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#isEmpty()
+	 */
+	public final boolean isEmpty() {
+		return this.len.get() < 1;
+	}
+
+	/* Checkpoint. */
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#beginChkpt()
+	 */
+	public final void beginChkpt() throws IOException {
+		// All workers are suspended (see suspendAll), thus the deques do not change
+		// while we write them to disk.
+		final StateVec states = new StateVec((int) Math.min(Integer.MAX_VALUE, Math.max(1L, this.len.get())));
+		for (ConcurrentLinkedDeque<TLCState> deque : this.deques) {
+			for (TLCState state : deque) {
+				states.addElement(state);
+			}
+		}
+		final ValueOutputStream vos = new ValueOutputStream(this.diskdir + FileUtil.separator + "queue.tmp");
+		vos.writeInt(states.size());
+		for (int i = 0; i < states.size(); i++) {
+			states.elementAt(i).write(vos);
+		}
+		vos.close();
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#commitChkpt()
+	 */
+	public final void commitChkpt() throws IOException {
+		final File oldChkpt = new File(this.diskdir + FileUtil.separator + "queue.chkpt");
+		final File newChkpt = new File(this.diskdir + FileUtil.separator + "queue.tmp");
+		if ((oldChkpt.exists() && !oldChkpt.delete()) || !newChkpt.renameTo(oldChkpt)) {
+			throw new IOException("WorkStealingStateQueue.commitChkpt: cannot delete " + oldChkpt);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#recover()
+	 */
+	public final void recover() throws IOException {
+		final ValueInputStream vis = new ValueInputStream(this.diskdir + FileUtil.separator + "queue.chkpt");
+		final int size = vis.readInt();
+		for (int i = 0; i < size; i++) {
+			final TLCState state = TLCState.Empty.createEmpty();
+			state.read(vis);
+			enqueue(state);
+		}
+		vis.close();
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#delete()
+	 */
+	public final void delete() throws IOException {
+		// no-op
+	}
+}
@@ -216,6 +216,15 @@ public class BitVector implements Serializable {
       this.word[i] = raf.readLong();
     }
   }
+
+  /** Read a bit vector from a memory-mapped file */
+  public void read(MappedFile.Cursor cursor) {
+    int len = cursor.readNat();
+    this.word = new long[len];
+    for (int i = 0; i < len; i++) {
+      this.word[i] = cursor.readLong();
+    }
+  }
   
   /** Grow this bit vector to contain at least <code>wd+1</code>
       words. */
@@ -3,14 +3,22 @@ package tlc2.util;
 
 public interface Cache {
 	/**
-	 * Tests if the given fingerprint is in this cache, adding it as a side
-	 * effect if not.
+	 * Tests if the given fingerprint is in this cache. Depending on the
+	 * implementation, a miss adds the fingerprint as a side effect (see
+	 * {@link SimpleCache}).
 	 * 
 	 * @param fingerprint
 	 *            fingerprint to be tested
 	 * @return true iff given fingerprint is in cache
 	 */
 	boolean hit(long fingerprint);
+	/**
+	 * Adds the given fingerprint to this cache.
+	 * 
+	 * @param fingerprint
+	 *            fingerprint known to be in the (global) fingerprint set
+	 */
+	void put(long fingerprint);
 	/**
 	 * @return Ratio of cache hits and misses
 	 */
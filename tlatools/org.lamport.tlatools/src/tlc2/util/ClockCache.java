@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.util;
+
+import java.text.DecimalFormat;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent, fixed-size cache of fingerprints that are known to be in the
+ * (global) fingerprint set. Contrary to {@link SimpleCache}, a miss does not add
+ * the fingerprint; only {@link #put(long)} does. Thus, a hit is never based on a
+ * fingerprint whose state might still get lost (e.g. because a worker fails
+ * before its result reaches the server).
+ * <p>
+ * The table is split into buckets of eight slots (one cache line). A full
+ * bucket evicts with the CLOCK (second chance) algorithm: a hit sets the
+ * reference bit of a fingerprint and the bucket's hand clears reference bits
+ * until it finds an unreferenced fingerprint to evict. The reference bit is the
+ * MSB of the slot, which - like the disk-based fingerprint sets - ignores the
+ * MSB of fingerprints. A slot of zero is empty, i.e. the fingerprint 0 is never
+ * cached.
+ * <p>
+ * Optionally, a Bloom filter in front of the table answers most misses without
+ * probing the table. With one byte per slot it is an eighth of the table's size
+ * and thus more likely to be in the CPU cache. A Bloom filter cannot forget
+ * evicted fingerprints and is therefore cleared once it has seen as many
+ * fingerprints as the table has slots. The Bloom filter never causes a hit on
+ * its own, a false negative (after clearing) merely turns a hit into a miss.
+ */
+public final class ClockCache implements Cache {
+
+	private static final int WAYS = 8;
+	private static final long REFERENCED = 0x8000000000000000L;
+	private static final long MASK = ~REFERENCED;
+	// The Bloom filter sets this many bits of a single long per fingerprint.
+	private static final int PROBES = 3;
+
+	private final AtomicLongArray table;
+	private final int buckets;
+	private final byte[] hands;
+
+	private final AtomicLongArray bloom;
+	private final AtomicLong bloomCount = new AtomicLong();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * @param bytes
+	 *            The amount of memory to use. The table gets the largest power of
+	 *            two slots that fit.
+	 * @param useBloomFilter
+	 *            true to put a Bloom filter in front of the table
+	 */
+	public ClockCache(final long bytes, final boolean useBloomFilter) {
+		final long bytesPerSlot = useBloomFilter ? 9L : 8L;
+		final long slots = Math.min(1L << 30, Long.highestOneBit(Math.max(WAYS, bytes / bytesPerSlot)));
+		this.table = new AtomicLongArray((int) slots);
+		this.buckets = (int) slots / WAYS;
+		this.hands = new byte[this.buckets];
+		this.bloom = useBloomFilter ? new AtomicLongArray((int) slots / 8) : null;
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.util.Cache#hit(long)
+	 */
+	public boolean hit(final long fingerprint) {
+		final long fp = fingerprint & MASK;
+		if (fp != 0L && mightContain(fp)) {
+			final int base = bucket(fp) * WAYS;
+			for (int i = base; i < base + WAYS; i++) {
+				final long slot = this.table.get(i);
+				if ((slot & MASK) == fp) {
+					if (slot == fp) {
+						// Losing the race against the hand or another hit is fine.
+						this.table.compareAndSet(i, slot, fp | REFERENCED);
+					}
+					this.hits.increment();
+					return true;
+				} else if (slot == 0L) {
+					// Slots are filled front to back and never emptied.
+					break;
+				}
+			}
+		}
+		this.misses.increment();
+		return false;
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.util.Cache#put(long)
+	 */
+	public void put(final long fingerprint) {
+		final long fp = fingerprint & MASK;
+		if (fp == 0L) {
+			return;
+		}
+		// Add to the Bloom filter first, it has to cover the table.
+		addToBloomFilter(fp);
+
+		final int bucket = bucket(fp);
+		final int base = bucket * WAYS;
+		for (int i = base; i < base + WAYS; i++) {
+			final long slot = this.table.get(i);
+			if ((slot & MASK) == fp || (slot == 0L && this.table.compareAndSet(i, 0L, fp))) {
+				return;
+			}
+		}
+
+		// The bucket is full. Advance the hand, giving referenced fingerprints a
+		// second chance, until an unreferenced one can be replaced. Concurrent
+		// updates of the hand may skip or revisit slots, which does no harm.
+		int hand = this.hands[bucket];
+		for (int n = 0; n < 2 * WAYS; n++) {
+			final int i = base + hand;
+			hand = (hand + 1) & (WAYS - 1);
+			final long slot = this.table.get(i);
+			if ((slot & REFERENCED) != 0L) {
+				this.table.compareAndSet(i, slot, slot & MASK);
+			} else if (this.table.compareAndSet(i, slot, fp)) {
+				break;
+			}
+		}
+		this.hands[bucket] = (byte) hand;
+	}
+
+	private int bucket(final long fp) {
+		// Fingerprints are uniformly distributed, their low bits make a good
+		// hash.
+		return (int) (fp & (this.buckets - 1));
+	}
+
+	private boolean mightContain(final long fp) {
+		if (this.bloom == null) {
+			return true;
+		}
+		final long bits = bloomBits(fp);
+		return (this.bloom.get(bloomIndex(fp)) & bits) == bits;
+	}
+
+	private void addToBloomFilter(final long fp) {
+		if (this.bloom == null) {
+			return;
+		}
+		if (this.bloomCount.incrementAndGet() > this.table.length()) {
+			// Saturated: start over. Readers racing with the reset at worst miss.
+			this.bloomCount.set(0L);
+			for (int i = 0; i < this.bloom.length(); i++) {
+				this.bloom.set(i, 0L);
+			}
+		}
+		final int idx = bloomIndex(fp);
+		final long bits = bloomBits(fp);
+		long word;
+		do {
+			word = this.bloom.get(idx);
+		} while ((word & bits) != bits && !this.bloom.compareAndSet(idx, word, word | bits));
+	}
+
+	private int bloomIndex(final long fp) {
+		// Use the high bits, the low bits select the bucket of the table.
+		return (int) ((fp >>> 32) % this.bloom.length());
+	}
+
+	private static long bloomBits(final long fp) {
+		long bits = 0L;
+		for (int i = 0; i < PROBES; i++) {
+			bits |= 1L << ((fp >>> (8 + 6 * i)) & 63);
+		}
+		return bits;
+	}
+
+	/**
+	 * @return The number of fingerprints this cache can hold.
+	 */
+	public int capacity() {
+		return this.table.length();
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.util.Cache#getHitRatio()
+	 */
+	public double getHitRatio() {
+		// Same as SimpleCache, which starts counting at one.
+		return (this.hits.sum() + 1L) / (double) (this.misses.sum() + 1L);
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.util.Cache#getHitRatioAsString()
+	 */
+	public String getHitRatioAsString() {
+		DecimalFormat df = new DecimalFormat("###,###.###");
+		return df.format(getHitRatio());
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.util.Cache#getHitRate()
+	 */
+	public long getHitRate() {
+		return this.hits.sum();
+	}
+}
@@ -224,6 +224,44 @@ public class FP64 {
     /** Unlikely fingerprint? */
     public static final long Zero = 0L;
 
+    /* Fingerprints are linear: Extending fp by a string S of n bytes yields
+       fp * x^(8n) + Extend(Zero, S) (mod IrredPoly), where x^(8n) equals
+       Extend(One, S) - Extend(Zero, S). Thus, given the two fingerprints of
+       S, fp can be extended by S without reading S again. */
+
+    /** The polynomial 1, i.e. the neutral element of {@link #Mul(long, long[])}. */
+    public static final long One = 0x8000000000000000L;
+
+    /** Fill <code>tbl</code> (of length 256) with the products of the
+        polynomial <code>p</code> and all polynomials of degree < 8,
+        see {@link #Mul(long, long[])}. */
+    public static long[] MulTable(long p, final long[] tbl) {
+	// pk[k] = p * x^(7-k)
+	final long[] pk = new long[8];
+	for (int k = 7; k >= 0; k--) {
+	  pk[k] = p;
+	  p = (p >>> 1) ^ (((p & X63) != 0) ? IrredPoly : 0);
+	}
+	tbl[0] = Zero;
+	for (int c = 1; c <= 255; c++) {
+	  tbl[c] = tbl[c & (c - 1)] ^ pk[Integer.numberOfTrailingZeros(c)];
+	}
+	return tbl;
+    }
+
+    /** Return the product of the polynomial <code>fp</code> and the
+        polynomial <code>p</code> from which <code>tbl</code> has been
+        created by {@link #MulTable(long, long[])}. */
+    public static long Mul(long fp, final long[] tbl) {
+	final long[] mod = ByteModTable_7;
+	// Horner's method starting at the coefficients of the highest degree.
+	long res = Zero;
+	for (int shift = 0; shift < 64; shift += 8) {
+	  res = ((res >>> 8) ^ mod[((int) res) & 0xFF]) ^ tbl[((int) (fp >>> shift)) & 0xFF];
+	}
+	return res;
+    }
+
     /* Background Reading:
        - Galois Field (GF) or Finite Field
        https://en.wikipedia.org/wiki/Finite_field
@@ -259,7 +297,6 @@ public class FP64 {
        IrredPoly is its representation. */
 
     // implementation constants
-    private static final long One = 0x8000000000000000L;
     private static final long X63 = 0x1L;
 
     public static final long[] Polys = {
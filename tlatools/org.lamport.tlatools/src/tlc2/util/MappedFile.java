@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A read-only, memory-mapped view of (a prefix of) a file written with
+ * {@link BufferedRandomAccessFile}. A {@link MappedByteBuffer} is limited to
+ * Integer.MAX_VALUE bytes, thus the file is mapped in segments of
+ * {@link #SEGMENT_SIZE} bytes.
+ * <p>
+ * Contrary to {@link BufferedRandomAccessFile}, a {@link MappedFile} has no
+ * file pointer. Reads are absolute and done by {@link Cursor}s which are cheap
+ * to create, i.e. any number of threads can read from the same
+ * {@link MappedFile} concurrently without synchronization. The file must not be
+ * modified while it is mapped.
+ * <p>
+ * Java 8 has no API to unmap a buffer. {@link #close()} drops the references
+ * to the segments and leaves unmapping to the garbage collector.
+ */
+public final class MappedFile {
+
+	public static final long SEGMENT_SIZE = 1L << 30;
+
+	private final int segmentShift;
+
+	private final int segmentMask;
+
+	private MappedByteBuffer[] segments;
+
+	private final long length;
+
+	/**
+	 * Maps the first length bytes of the given file.
+	 */
+	public MappedFile(final File file, final long length) throws IOException {
+		this(file, length, Long.numberOfTrailingZeros(SEGMENT_SIZE));
+	}
+
+	/**
+	 * Maps the first length bytes of the given file in segments of
+	 * 2^segmentShift bytes (tests use small segments to cover values that
+	 * cross a segment boundary).
+	 */
+	MappedFile(final File file, final long length, final int segmentShift) throws IOException {
+		this.length = length;
+		this.segmentShift = segmentShift;
+		this.segmentMask = (int) ((1L << segmentShift) - 1L);
+		final long segmentSize = 1L << segmentShift;
+		final int numSegments = (int) ((length + segmentSize - 1L) >>> segmentShift);
+		this.segments = new MappedByteBuffer[numSegments];
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			// The mappings remain valid after the channel has been closed.
+			final FileChannel channel = raf.getChannel();
+			for (int i = 0; i < numSegments; i++) {
+				final long position = (long) i << segmentShift;
+				this.segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+						Math.min(segmentSize, length - position));
+			}
+		}
+	}
+
+	public final long length() {
+		return this.length;
+	}
+
+	public final Cursor newCursor(final long position) {
+		return new Cursor(position);
+	}
+
+	public final void close() {
+		this.segments = null;
+	}
+
+	private final byte get(final long position) {
+		return this.segments[(int) (position >>> segmentShift)].get((int) position & segmentMask);
+	}
+
+	/**
+	 * A {@link Cursor} reads consecutive values starting at a given position.
+	 * Each thread has to use a {@link Cursor} of its own. The encoding is the
+	 * one of {@link BufferedRandomAccessFile}, i.e. big-endian.
+	 */
+	public final class Cursor {
+
+		private long position;
+
+		private Cursor(final long position) {
+			if (position < 0 || position > length) {
+				throw new IllegalArgumentException("Invalid position: " + position);
+			}
+			this.position = position;
+		}
+
+		public final long getPosition() {
+			return this.position;
+		}
+
+		public final short readShort() {
+			final int offset = (int) position & segmentMask;
+			final MappedByteBuffer segment = segments[(int) (position >>> segmentShift)];
+			final short s;
+			if (offset + Short.BYTES <= segment.limit()) {
+				s = segment.getShort(offset);
+			} else {
+				// Crosses a segment boundary.
+				s = (short) (((get(position) & 0xFF) << 8) | (get(position + 1) & 0xFF));
+			}
+			position += Short.BYTES;
+			return s;
+		}
+
+		public final int readInt() {
+			final int offset = (int) position & segmentMask;
+			final MappedByteBuffer segment = segments[(int) (position >>> segmentShift)];
+			if (offset + Integer.BYTES <= segment.limit()) {
+				position += Integer.BYTES;
+				return segment.getInt(offset);
+			}
+			// Crosses a segment boundary.
+			final int hi = readShort() & 0xFFFF;
+			return (hi << 16) | (readShort() & 0xFFFF);
+		}
+
+		public final long readLong() {
+			final int offset = (int) position & segmentMask;
+			final MappedByteBuffer segment = segments[(int) (position >>> segmentShift)];
+			if (offset + Long.BYTES <= segment.limit()) {
+				position += Long.BYTES;
+				return segment.getLong(offset);
+			}
+			// Crosses a segment boundary.
+			final long hi = readInt() & 0xFFFFFFFFL;
+			return (hi << 32) | (readInt() & 0xFFFFFFFFL);
+		}
+
+		/**
+		 * @see BufferedRandomAccessFile#readNat()
+		 */
+		public final int readNat() {
+			int res = this.readShort();
+			if (res >= 0) return res;
+			res = (res << 16) | (this.readShort() & 0xffff);
+			return -res;
+		}
+
+		/**
+		 * @see BufferedRandomAccessFile#readLongNat()
+		 */
+		public final long readLongNat() {
+			long res = this.readInt();
+			if (res >= 0) return res;
+			res = (res << 32) | ((long) this.readInt() & 0xffffffffL);
+			return -res;
+		}
+	}
+}
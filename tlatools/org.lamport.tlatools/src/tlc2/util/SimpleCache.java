@@ -44,6 +44,13 @@ public class SimpleCache implements Cache {
 	    }
 	}
 	
+	/* (non-Javadoc)
+	 * @see tlc2.util.Cache#put(long)
+	 */
+	public void put(final long fp) {
+		this.cache[(int) (fp & this.mask)] = fp;
+	}
+
 	/* (non-Javadoc)
 	 * @see tlc2.tool.distributed.Cache#getHitRatio()
 	 */
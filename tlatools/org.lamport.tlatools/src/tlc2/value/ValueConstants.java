@@ -35,5 +35,7 @@ public interface ValueConstants {
   byte UNDEFVALUE       = INTERVALVALUE + 1;
   byte LAZYVALUE        = UNDEFVALUE + 1;
   byte DUMMYVALUE       = LAZYVALUE + 1;
+  /* Never serialized, see IntSetValue#write. */
+  byte INTSETVALUE      = DUMMYVALUE + 1;
 
 }
@@ -89,7 +89,7 @@ public class CounterExample extends RecordValue {
 		final Value[] v = new Value[set.elems.size()];
 		for (int i = 0; i < v.length; i++) {
 			final TupleValue tv = (TupleValue) set.elems.elementAt(i);
-			v[((IntValue) tv.getElem(0)).val - 1] = (Value) tv.getElem(1);
+			v[((IntValue) tv.getElem(0)).val - 1] = tv.getElem(1);
 		}
 		return new TupleValue(v);
 	}
@@ -198,7 +198,7 @@ public class FcnLambdaValue extends Value implements Applicable, IFcnLambdaValue
               "\nwhich does not match its formal parameter.\n", getSource());
             }
             if (argVal.size() != ids.length) return null;
-            Value [] elems = argVal.elems;
+            Value [] elems = argVal.getElems();
             for (int i = 0; i < ids.length; i++) {
               c1 = c1.cons(ids[i], elems[i]);
             }
@@ -214,7 +214,7 @@ public class FcnLambdaValue extends Value implements Applicable, IFcnLambdaValue
                   ",\nthe argument list is:\n" + Values.ppr(args.toString()) +
                   "\nwhich does not match its formal parameter.\n", getSource());
           }
-          Value[] elems = tv.elems;
+          Value[] elems = tv.getElems();
           int argn = 0;
           for (int i = 0; i < formals.length; i++) {
             FormalParamNode[] ids = formals[i];
@@ -233,7 +233,7 @@ public class FcnLambdaValue extends Value implements Applicable, IFcnLambdaValue
                 Values.ppr(elems[argn-1].toString()) +
                 "\nwhich does not match its formal parameter.\n", getSource());
               }
-              Value [] avals = tv1.elems;
+              Value [] avals = tv1.getElems();
               for (int j = 0; j < ids.length; j++) {
                 c1 = c1.cons(ids[j], avals[j]);
               }
@@ -328,7 +328,7 @@ public class FcnLambdaValue extends Value implements Applicable, IFcnLambdaValue
               "\nwhich does not match its formal parameter.\n", getSource());
             }
             if (argVal.size() != ids.length) return null;
-            Value [] elems = argVal.elems;
+            Value [] elems = argVal.getElems();
             for (int i = 0; i < ids.length; i++) {
               c1 = c1.cons(ids[i], elems[i]);
             }
@@ -344,7 +344,7 @@ public class FcnLambdaValue extends Value implements Applicable, IFcnLambdaValue
                   ",\nthe argument list is:\n" + Values.ppr(arg.toString()) +
                   "\nwhich does not match its formal parameter.\n", getSource());
           }
-          Value[] elems = tv.elems;
+          Value[] elems = tv.getElems();
           int argn = 0;
           for (int i = 0; i < formals.length; i++) {
             FormalParamNode[] ids = formals[i];
@@ -359,7 +359,7 @@ public class FcnLambdaValue extends Value implements Applicable, IFcnLambdaValue
                 "\nwhich does not match its formal parameter.\n", getSource());
               }
               if (tv1.size() != ids.length) return null;
-              Value [] avals = tv1.elems;
+              Value [] avals = tv1.getElems();
               for (int j = 0; j < ids.length; j++) {
                 c1 = c1.cons(ids[j], avals[j]);
               }
@@ -656,7 +656,7 @@ public class FcnLambdaValue extends Value implements Applicable, IFcnLambdaValue
         vars[i] = ((StringValue)fcn.domain[i]).getVal();
       }
       if (coverage) {cm.incSecondary(vars.length);}
-      return new RecordValue(vars, fcn.values, fcn.isNormalized(), cm);
+      return new RecordValue(vars, fcn.getValues(), fcn.isNormalized(), cm);
   }
 
   @Override
@@ -679,7 +679,7 @@ public class FcnLambdaValue extends Value implements Applicable, IFcnLambdaValue
             Context c1 = this.con;
             if (isTuples[0]) {
               FormalParamNode[] ids = formals[0];
-              Value [] avals = ((TupleValue)arg).elems;
+              Value [] avals = ((TupleValue)arg).getElems();
               for (int j = 0; j < ids.length; j++) {
                 c1 = c1.cons(ids[j], avals[j]);
               }
@@ -699,13 +699,13 @@ public class FcnLambdaValue extends Value implements Applicable, IFcnLambdaValue
         else {
           while ((arg = Enum.nextElement()) != null) {
             domain[idx] = arg;
-            Value [] argList = ((TupleValue)arg).elems;
+            Value [] argList = ((TupleValue)arg).getElems();
             int argn = 0;
             Context c1 = this.con;
             for (int i = 0; i < formals.length; i++) {
               FormalParamNode[] ids = formals[i];
               if (isTuples[i]) {
-                Value [] avals = ((TupleValue)argList[argn++]).elems;
+                Value [] avals = ((TupleValue)argList[argn++]).getElems();
                 for (int j = 0; j < ids.length; j++) {
                   c1 = c1.cons(ids[j], avals[j]);
                 }
@@ -7,6 +7,7 @@
 package tlc2.value.impl;
 
 import java.io.IOException;
+import java.io.ObjectStreamException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -42,9 +43,41 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
 	
   public final Value[] domain;
   public final IntervalValue intv;
+  /**
+   * The values of this function. Only null if {@link #TRIE} is on and this is a
+   * large function derived from another via EXCEPT.
+   * 
+   * @deprecated Use {@link #getValue(int)} or {@link #getValues()}, which also
+   *             work for functions whose values are kept in a trie.
+   */
+  @Deprecated
   public final Value[] values;
   private boolean isNorm;
-//  private int[] indexTbl;  // speed up function application
+  /*
+   * The values of this function as a trie iff values is null. Otherwise, lazily
+   * created by the first EXCEPT of a large function and then shared by all
+   * functions derived from this one. Not serialized (see writeReplace).
+   */
+  private transient ValueTrie trie;
+  /*
+   * Speeds up function application for large domains. Lazily created for
+   * normalized functions only: normalize sorts domain in place, which would
+   * invalidate the index. The index is immutable and thus shared by all
+   * functions that share the domain array (see takeExcept).
+   */
+  private transient DomainIndex indexTbl;
+  /*
+   * Let an EXCEPT of a normalized function (or of one whose domain is an
+   * interval) with at least TRIE_THRESHOLD values share all but O(log n) nodes
+   * of a trie with the original function instead of copying all n values.
+   * However, values is null for such a function, and getValues() then copies
+   * the trie into a new array on every call.
+   *
+   * Activate with: -Dtlc2.value.impl.FcnRcdValue.trie=true
+   */
+  static final boolean TRIE = Boolean.getBoolean(FcnRcdValue.class.getName() + ".trie");
+  // Functions with fewer values are copied as a whole by EXCEPT.
+  private static final int TRIE_THRESHOLD = 128;
   public static final Value EmptyFcn = new FcnRcdValue(new Value[0], new Value[0], true);
 
   /* Constructor */
@@ -53,7 +86,6 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
     this.values = values;
     this.intv = null;
     this.isNorm = isNorm;
-//    this.indexTbl = null;
   }
 
   public FcnRcdValue(IntervalValue intv, Value[] values) {
@@ -61,7 +93,6 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
     this.values = values;
     this.domain = null;
     this.isNorm = true;
-//    this.indexTbl = null;
   }
 
   public FcnRcdValue(IntervalValue intv, Value[] values, CostModel cm) {
@@ -74,7 +105,27 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
     this.intv = fcn.intv;
     this.values = values;
     this.isNorm = fcn.isNorm;
-//    this.indexTbl = fcn.indexTbl;
+    this.indexTbl = fcn.indexTbl;
+  }
+
+  private FcnRcdValue(FcnRcdValue fcn, ValueTrie trie) {
+    this.domain = fcn.domain;
+    this.intv = fcn.intv;
+    this.values = null;
+    this.trie = trie;
+    this.isNorm = fcn.isNorm;
+    this.indexTbl = fcn.indexTbl;
+  }
+
+  /*
+   * Java serialization (RMI in distributed TLC) writes a function whose values
+   * are kept in a trie as a flat copy.
+   */
+  private Object writeReplace() throws ObjectStreamException {
+    if (this.values != null) {
+      return this;
+    }
+    return new FcnRcdValue(this, this.trie.toArray());
   }
 
   public FcnRcdValue(ValueVec elems, Value[] values, boolean isNorm) {
@@ -106,44 +157,68 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
   @Override
   public final byte getKind() { return FCNRCDVALUE; }
 
-//  /* We create an index only when the domain is not very small. */
-//  private final void createIndex() {
-//    if (this.domain != null && this.domain.length > 10) {
-//      int len = this.domain.length * 2 + 1;
-//
-//      int[] tbl = new int[len];
-//      Arrays.fill(tbl, -1);
-//
-//      synchronized(this) {
-//        for (int i = 0; i < this.domain.length; i++) {
-//          int loc = (this.domain[i].hashCode() & 0x7FFFFFFF) % len;
-//          while (tbl[loc] != -1) {
-//            loc = (loc + 1) % len;
-//          }
-//          tbl[loc] = i;
-//        }
-//      }
-//
-//      synchronized(this) { this.indexTbl = tbl; }
-//    }
-//  }
-//
-//  private final int lookupIndex(Value arg) {
-//    int len = this.indexTbl.length;
-//    int loc = (arg.hashCode() & 0x7FFFFFFF) % len;
-//    while (true) {
-//      int idx = this.indexTbl[loc];
-//      if (idx == -1) {
-//        Assert.fail("Attempted to apply function:\n" + Values.ppr(this.toString()) +
-//              "\nto argument " + Values.ppr(arg.toString()) +
-//              ", which is not in the domain of the function.", getSource());
-//      }
-//      if (this.domain[idx].equals(arg)) {
-//        return idx;
-//      }
-//      loc = (loc + 1) % len;
-//    }
-//  }
+  /**
+   * An open-addressing hash table mapping the elements of a (normalized) domain
+   * to their positions. Its fields are final, which is why an index may be
+   * published via a data race: two threads racing to create the index for the
+   * same domain create equivalent indices.
+   */
+  private static final class DomainIndex {
+    private final int[] tbl; // position in domain + 1, 0 marks an empty slot
+    private final int[] hashes; // the hash of the domain element at tbl[i]
+    private final int mask;
+
+    DomainIndex(final Value[] domain) {
+      // Load factor of at most 1/2.
+      final int len = Integer.highestOneBit(domain.length) << 2;
+      this.tbl = new int[len];
+      this.hashes = new int[len];
+      this.mask = len - 1;
+      for (int i = 0; i < domain.length; i++) {
+        final int hash = hash(domain[i]);
+        int loc = hash & this.mask;
+        while (this.tbl[loc] != 0) {
+          loc = (loc + 1) & this.mask;
+        }
+        this.tbl[loc] = i + 1;
+        this.hashes[loc] = hash;
+      }
+    }
+
+    /**
+     * @return The position of arg in domain or -1 if arg is not in domain.
+     */
+    int lookup(final Value[] domain, final Value arg) {
+      final int hash = hash(arg);
+      int loc = hash & this.mask;
+      int idx;
+      while ((idx = this.tbl[loc]) != 0) {
+        // Compare hashes first to call equals (almost) only once.
+        if (this.hashes[loc] == hash && domain[idx - 1].equals(arg)) {
+          return idx - 1;
+        }
+        loc = (loc + 1) & this.mask;
+      }
+      return -1;
+    }
+
+    private static int hash(final Value v) {
+      // Value#hashCode fingerprints the value, which is expensive compared to
+      // the compareTo of the binary search. Integers, strings, and model values
+      // only ever equal values of the same kind, hence their hash may be cheap.
+      final int h;
+      if (v instanceof IntValue) {
+        h = ((IntValue) v).val;
+      } else if (v instanceof StringValue) {
+        h = ((StringValue) v).val.getTok();
+      } else if (v instanceof ModelValue) {
+        h = ((ModelValue) v).val.getTok();
+      } else {
+        h = v.hashCode();
+      }
+      return h ^ (h >>> 16);
+    }
+  }
 
   @Override
   public final int compareTo(Object obj) {
@@ -160,7 +235,7 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
 			this.normalize();
 			fcn.normalize();
 
-			final int result = this.values.length - fcn.values.length;
+			final int result = this.nonNormalizedSize() - fcn.nonNormalizedSize();
 			if (result != 0) {
 				return result;
 			}
@@ -193,7 +268,7 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
 			}
 		}
 		for (int i = 0; i < this.domain.length; i++) {
-			result = this.values[i].compareTo(fcn.values[i]);
+			result = this.getValue(i).compareTo(fcn.getValue(i));
 			if (result != 0) {
 				return result;
 			}
@@ -206,7 +281,7 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
 			}
 		}
 		for (int i = 0; i < this.domain.length; i++) {
-			result = this.values[i].compareTo(fcn.values[i]);
+			result = this.getValue(i).compareTo(fcn.getValue(i));
 			if (result != 0) {
 				return result;
 			}
@@ -222,8 +297,8 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
   		if (result != 0) {
   			return result;
   		}
-  		for (int i = 0; i < this.values.length; i++) {
-  			result = this.values[i].compareTo(fcn.values[i]);
+  		for (int i = 0; i < this.nonNormalizedSize(); i++) {
+  			result = this.getValue(i).compareTo(fcn.getValue(i));
   			if (result != 0) {
   				return result;
   			}
@@ -241,7 +316,7 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
   			}
   		}
   		for (int i = 0; i < fcn.domain.length; i++) {
-  			result = this.values[i].compareTo(fcn.values[i]);
+  			result = this.getValue(i).compareTo(fcn.getValue(i));
   			if (result != 0) {
   				return result;
   			}
@@ -266,8 +341,8 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
       if (this.intv != null) {
         if (fcn.intv != null) {
           if (!this.intv.equals(fcn.intv)) return false;
-          for (int i = 0; i < this.values.length; i++) {
-            if (!this.values[i].equals(fcn.values[i]))
+          for (int i = 0; i < this.nonNormalizedSize(); i++) {
+            if (!this.getValue(i).equals(fcn.getValue(i)))
               return false;
           }
         }
@@ -283,15 +358,15 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
               return false;
             }
           }
-          for (int i = 0; i < fcn.values.length; i++) {
-              if (!this.values[i].equals(fcn.values[i])) {
+          for (int i = 0; i < fcn.nonNormalizedSize(); i++) {
+              if (!this.getValue(i).equals(fcn.getValue(i))) {
                 return false;
               }
           }
         }
       }
       else {
-        if (this.values.length != fcn.values.length) return false;
+        if (this.nonNormalizedSize() != fcn.nonNormalizedSize()) return false;
         if (fcn.intv != null) {
           for (int i = 0; i < this.domain.length; i++) {
             Value dElem = this.domain[i];
@@ -303,8 +378,8 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
               return false;
             }
           }
-          for (int i = 0; i < this.values.length; i++) {
-              if (!this.values[i].equals(fcn.values[i])) {
+          for (int i = 0; i < this.nonNormalizedSize(); i++) {
+              if (!this.getValue(i).equals(fcn.getValue(i))) {
                 return false;
               }
           }
@@ -315,8 +390,8 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
               return false;
             }
           }
-          for (int i = 0; i < this.values.length; i++) {
-              if (!this.values[i].equals(fcn.values[i])) {
+          for (int i = 0; i < this.nonNormalizedSize(); i++) {
+              if (!this.getValue(i).equals(fcn.getValue(i))) {
                 return false;
               }
           }
@@ -388,12 +463,12 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
           }
           int idx = ((IntValue)arg).val;
           if ((idx >= this.intv.low) && (idx <= this.intv.high)) {
-            return this.values[idx - this.intv.low];
+            return this.getValue(idx - this.intv.low);
           }
           return null;
       }
       else {
-    	  return selectBinarySearch(arg);
+    	  return selectIndexTable(arg);
       }
     }
     catch (RuntimeException | OutOfMemoryError e) {
@@ -402,36 +477,47 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
     }
   }
   
-  // This implementation has a concurrency bug: https://github.com/tlaplus/tlaplus/issues/439
-//  final Value selectIndexTable(final Value arg) {
-//    // domain is represented as an array of values:
-//    if (this.indexTbl != null) {
-//      return this.values[this.lookupIndex(arg)];
-//    }
-//    if (this.isNorm) {
-//    	this.createIndex();
-//    }
-//    if (this.indexTbl != null) {
-//      return this.values[this.lookupIndex(arg)];
-//    }
-//    else {
-//	  return selectLinearSearch(arg);
-//    }
-//  }
+  final Value selectIndexTable(final Value arg) {
+	  if (this.isIndexed()) {
+		  final int idx = this.getIndex().lookup(this.domain, arg);
+		  if (idx >= 0) {
+			  return this.getValue(idx);
+		  }
+		  // A miss does not compare arg to the domain elements. Fall back to
+		  // binary search, which reports incomparable values (e.g. differently
+		  // typed model values) just like before.
+	  }
+	  return selectBinarySearch(arg);
+  }
+
+  private final boolean isIndexed() {
+	  // Unlike the old index (see https://github.com/tlaplus/tlaplus/issues/439),
+	  // the index is only created once the domain can no longer change.
+	  return this.isNorm && this.domain.length >= LINEAR_SEARCH_THRESHOLD;
+  }
+
+  private final DomainIndex getIndex() {
+	  DomainIndex index = this.indexTbl;
+	  if (index == null) {
+		  index = new DomainIndex(this.domain);
+		  this.indexTbl = index;
+	  }
+	  return index;
+  }
 
   final Value selectLinearSearch(final Value arg) {
       // domain is represented as an array of values:
       int len = this.domain.length;
       for (int i = 0; i < len; i++) {
         if (this.domain[i].equals(arg)) {
-          return this.values[i];
+          return this.getValue(i);
         }
       }
       return null;
   }
 
   final Value selectBinarySearch(final Value arg) {
-	  // The value 32 has been determined empirically (see FcnRcdBenachmark).
+	  // The value 32 has been determined empirically (see FcnRcdBenchmark).
 	  // In older versions of TLC this the threshold was 10.
       if (this.isNorm && this.domain.length >= LINEAR_SEARCH_THRESHOLD) {
         // domain is represented as an array of values:
@@ -441,7 +527,7 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
 			// Check equality and cmp here to not introduce subtle bugs should Value#compareTo
 			// behaving slightly differently for some types. Linear search and the old,
 			// hash-based lookup use/used Value#equals.
-			return this.values[idx];
+			return this.getValue(idx);
     	}
 		return null;
 	  } else {
@@ -501,11 +587,6 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
 
       if (ex.idx >= ex.path.length) return ex.value;
 
-      int flen = this.values.length;
-      Value[] newValues = new Value[flen];
-      for (int i = 0; i < flen; i++) {
-        newValues[i] = this.values[i];
-      }
       Value arg = ex.path[ex.idx];
 
       if (this.intv != null) {
@@ -515,25 +596,35 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
           if ((idx >= this.intv.low) && (idx <= this.intv.high)) {
             int vidx = idx - this.intv.low;
             ex.idx++;
-            newValues[vidx] = this.values[vidx].takeExcept(ex);
+            return this.update(vidx, this.getValue(vidx).takeExcept(ex));
           }
-          return new FcnRcdValue(this.intv, newValues);
+          return this;
         }
       }
       else {
         // domain is represented as an array of values:
+        if (this.isIndexed()) {
+          final int i = this.getIndex().lookup(this.domain, arg);
+          if (i >= 0) {
+            ex.idx++;
+            // The new function shares the (normalized) domain and its index.
+            return this.update(i, this.getValue(i).takeExcept(ex));
+          }
+          // Like selectIndexTable, let the linear search below report
+          // incomparable values.
+        }
+        int flen = this.nonNormalizedSize();
         for (int i = 0; i < flen; i++) {
           if (arg.equals(this.domain[i])) {
             ex.idx++;
-            newValues[i] = newValues[i].takeExcept(ex);
-            Value[] newDomain = this.domain;
-            if (!this.isNorm) {
-              newDomain = new Value[flen];
-              for (int j = 0; j < flen; j++) {
-                newDomain[j] = this.domain[j];
-              }
+            final Value v = this.getValue(i).takeExcept(ex);
+            if (this.isNorm) {
+              return this.update(i, v);
             }
-            return new FcnRcdValue(newDomain, newValues, this.isNorm);
+            // normalize sorts domain and values in place, thus copy both.
+            final Value[] newValues = Arrays.copyOf(this.values, flen);
+            newValues[i] = v;
+            return new FcnRcdValue(Arrays.copyOf(this.domain, flen), newValues, false);
           }
         }
       }
@@ -546,6 +637,51 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
     }
   }
 
+  /*
+   * Returns a function that equals this (normalized) function except that its
+   * i-th value is v. With TRIE, large functions share all but O(log n) nodes of
+   * the trie with this function instead of copying all n values.
+   */
+  private final FcnRcdValue update(final int i, final Value v) {
+    if (this.values != null && (!TRIE || this.values.length < TRIE_THRESHOLD)) {
+      // Not clone: The runtime type of values might be a subtype of Value[].
+      final Value[] newValues = new Value[this.values.length];
+      System.arraycopy(this.values, 0, newValues, 0, this.values.length);
+      newValues[i] = v;
+      return new FcnRcdValue(this, newValues);
+    }
+    ValueTrie t = this.trie;
+    if (t == null) {
+      // Benign race: concurrent EXCEPTs might each create an (equal) trie.
+      t = new ValueTrie(this.values);
+      this.trie = t;
+    }
+    return new FcnRcdValue(this, t.set(i, v));
+  }
+
+  /**
+   * @return The i-th value of this function, which is the value of the i-th
+   *         domain element or of intv.low + i.
+   */
+  public final Value getValue(final int i) {
+    if (this.values != null) {
+      return this.values[i];
+    }
+    return this.trie.get(i);
+  }
+
+  /**
+   * @return The values of this function. The array must not be modified, it
+   *         might be shared with other functions. O(n) if the values are kept
+   *         in a trie (see {@link #TRIE}).
+   */
+  public final Value[] getValues() {
+    if (this.values != null) {
+      return this.values;
+    }
+    return this.trie.toArray();
+  }
+
   @Override
   public final Value takeExcept(ValueExcept[] exs) {
     try {
@@ -592,7 +728,7 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
   public final int size() {
     try {
       this.normalize();
-      return this.values.length;
+      return this.nonNormalizedSize();
     }
     catch (RuntimeException | OutOfMemoryError e) {
       if (hasSource()) { throw FingerprintException.getNewHead(this, e); }
@@ -607,23 +743,26 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
    * @return
    */
   public int nonNormalizedSize() {
-	  return values.length;
+	  if (this.values != null) {
+		  return this.values.length;
+	  }
+	  return this.trie.size();
   }
 
   @Override
   public final Value toTuple() {
       if (this.intv != null) {
         if (this.intv.low != 1) return null;
-        return new TupleValue(this.values);
+        return new TupleValue(this.getValues());
       }
-      int len = this.values.length;
+      int len = this.nonNormalizedSize();
       Value[] elems = new Value[len];
       for (int i = 0; i < len; i++) {
         if (!(this.domain[i] instanceof IntValue)) return null;
         int idx = ((IntValue)this.domain[i]).val;
         if (0 < idx && idx <= len) {
           if (elems[idx-1] != null) return null;
-          elems[idx-1] = this.values[i];
+          elems[idx-1] = this.getValue(i);
         }
         else {
           return null;
@@ -644,8 +783,8 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
         }
         vars[i] = ((StringValue)this.domain[i]).getVal();
       }
-      if (coverage) {cm.incSecondary(this.values.length);}
-      return new RecordValue(vars, this.values, this.isNormalized(), cm);
+      if (coverage) {cm.incSecondary(this.nonNormalizedSize());}
+      return new RecordValue(vars, this.getValues(), this.isNormalized(), cm);
   }
   
   @Override
@@ -719,8 +858,8 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
   @Override
   public final void deepNormalize() {
 	  try {
-      for (int i = 0; i < values.length; i++) {
-           values[i].deepNormalize();
+      for (int i = 0; i < nonNormalizedSize(); i++) {
+           getValue(i).deepNormalize();
         }
         normalize();
 	    }
@@ -736,12 +875,12 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
 
       boolean defined = true;
       if (this.intv == null) {
-        for (int i = 0; i < this.values.length; i++) {
+        for (int i = 0; i < this.nonNormalizedSize(); i++) {
           defined = defined && this.domain[i].isDefined();
         }
       }
-      for (int i = 0; i < this.values.length; i++) {
-        defined = defined && this.values[i].isDefined();
+      for (int i = 0; i < this.nonNormalizedSize(); i++) {
+        defined = defined && this.getValue(i).isDefined();
       }
       return defined;
 
@@ -755,9 +894,9 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
   @Override
   public final IValue deepCopy() {
     try {
-    	Value[] vals = new Value[this.values.length];
+    	Value[] vals = new Value[this.nonNormalizedSize()];
       for (int i = 0; i < vals.length; i++) {
-        vals[i] = (Value) this.values[i].deepCopy();
+        vals[i] = (Value) this.getValue(i).deepCopy();
       }
       // WRT Arrays.copyOf, see comment in tlc2.value.impl.RecordValue.deepCopy() introduced
       // by git commit 09cfee2d47f98cf9d76b906e1a8cda7cfd06eccc.
@@ -776,13 +915,13 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
   public final boolean assignable(Value val) {
     try {
       boolean canAssign = ((val instanceof FcnRcdValue) &&
-        this.values.length == ((FcnRcdValue)val).values.length);
+        this.nonNormalizedSize() == ((FcnRcdValue)val).nonNormalizedSize());
       if (!canAssign) return false;
       FcnRcdValue fcn = (FcnRcdValue)val;
-      for (int i = 0; i < this.values.length; i++) {
+      for (int i = 0; i < this.nonNormalizedSize(); i++) {
         canAssign = (canAssign &&
          this.domain[i].equals(fcn.domain[i]) &&
-         this.values[i].assignable(fcn.values[i]));
+         this.getValue(i).assignable(fcn.getValue(i)));
       }
       return canAssign;
     }
@@ -797,20 +936,20 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
 		final int index = vos.put(this);
 		if (index == -1) {
 			vos.writeByte(FCNRCDVALUE);
-			int len = values.length;
+			int len = nonNormalizedSize();
 			vos.writeNat(len);
 			if (intv != null) {
 				vos.writeByte((byte) 0);
 				vos.writeInt(intv.low);
 				vos.writeInt(intv.high);
 				for (int i = 0; i < len; i++) {
-					values[i].write(vos);
+					getValue(i).write(vos);
 				}
 			} else {
 				vos.writeByte((isNormalized()) ? (byte) 1 : (byte) 2);
 				for (int i = 0; i < len; i++) {
 					domain[i].write(vos);
-					values[i].write(vos);
+					getValue(i).write(vos);
 				}
 			}
 		} else {
@@ -824,20 +963,20 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
   public final long fingerPrint(long fp) {
     try {
       this.normalize();
-      int flen = this.values.length;
+      int flen = this.nonNormalizedSize();
       fp = FP64.Extend(fp, FCNRCDVALUE);
       fp = FP64.Extend(fp, flen);
       if (this.intv == null) {
         for (int i = 0; i < flen; i++) {
           fp = this.domain[i].fingerPrint(fp);
-          fp = this.values[i].fingerPrint(fp);
+          fp = this.getValue(i).fingerPrint(fp);
         }
       }
       else {
         for (int i = 0; i < flen; i++) {
           fp = FP64.Extend(fp, INTVALUE);
           fp = FP64.Extend(fp, i + this.intv.low);
-          fp = this.values[i].fingerPrint(fp);
+          fp = this.getValue(i).fingerPrint(fp);
         }
       }
       return fp;
@@ -858,8 +997,8 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
 
       boolean vchanged = false;
       for (int i = 0; i < flen; i++) {
-        vals[i] = (Value) this.values[i].permute(perm);
-        vchanged = vchanged || (vals[i] != this.values[i]);
+        vals[i] = (Value) this.getValue(i).permute(perm);
+        vchanged = vchanged || (vals[i] != this.getValue(i));
       }
 
       if (this.intv == null) {
@@ -939,30 +1078,30 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
   public final StringBuffer toString(StringBuffer sb, int offset, boolean swallow) {
     try {
 
-      int len = this.values.length;
+      int len = this.nonNormalizedSize();
       if (len == 0) {
         sb.append("<< >>");
       }
       else if (this.isRcd()) {
         sb.append("[");
         sb.append(((StringValue)this.domain[0]).val + TLAConstants.RECORD_ARROW);
-        sb = this.values[0].toString(sb, offset, swallow);
+        sb = this.getValue(0).toString(sb, offset, swallow);
 
         for (int i = 1; i < len; i++) {
           sb.append(", ");
           sb.append(((StringValue)this.domain[i]).val + TLAConstants.RECORD_ARROW);
-          sb = this.values[i].toString(sb, offset, swallow);
+          sb = this.getValue(i).toString(sb, offset, swallow);
         }
         sb.append("]");
       }
       else if (this.isTuple()) {
         // It is actually a sequence:
         sb = sb.append("<<");
-        sb = this.values[0].toString(sb, offset, swallow);
+        sb = this.getValue(0).toString(sb, offset, swallow);
 
         for (int i = 1; i < len; i++) {
           sb.append(", ");
-          sb = this.values[i].toString(sb, offset, swallow);
+          sb = this.getValue(i).toString(sb, offset, swallow);
         }
         sb.append(">>");
       }
@@ -971,13 +1110,13 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
         sb = sb.append("(");
         sb = domainAsValues[0].toString(sb, offset, swallow);
         sb.append(" :> ");
-        sb = this.values[0].toString(sb, offset, swallow);
+        sb = this.getValue(0).toString(sb, offset, swallow);
 
         for (int i = 1; i < len; i++) {
           sb.append(" @@ ");
           sb = domainAsValues[i].toString(sb, offset, swallow);
           sb.append(" :> ");
-          sb = this.values[i].toString(sb, offset, swallow);
+          sb = this.getValue(i).toString(sb, offset, swallow);
         }
         sb.append(")");
       }
@@ -1044,11 +1183,11 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
 
 	@Override
 	public List<TLCVariable> getTLCVariables(final TLCVariable prototype, Random rnd) {
-		final List<TLCVariable> nestedVars = new ArrayList<>(values.length);
+		final List<TLCVariable> nestedVars = new ArrayList<>(nonNormalizedSize());
 		final Value[] domains = getDomainAsValues();
 		for (int i = 0; i < domains.length; i++) {
 			Value dom = domains[i];
-			Value value = values[i];
+			Value value = getValue(i);
 			final TLCVariable nested = prototype.newInstance(dom.toString(), value, rnd);
 			nested.setValue(value.toString());
 			nested.setType(value.getTypeString());
@@ -0,0 +1,647 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.value.impl;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import tlc2.tool.FingerprintException;
+import tlc2.tool.coverage.CostModel;
+import tlc2.util.FP64;
+import tlc2.value.IMVPerm;
+import tlc2.value.IValue;
+import tlc2.value.IValueOutputStream;
+import tlc2.value.RandomEnumerableValues;
+import tlc2.value.Values;
+import util.Assert;
+
+/**
+ * A finite set of integers backed by a sorted array of distinct ints. It is the
+ * primitive counterpart of a (normalized) {@link SetEnumValue} of
+ * {@link IntValue}s, which it fingerprints and serializes identically to. Thus,
+ * states do not change when a set of integers is represented by an
+ * {@link IntSetValue} instead of a {@link SetEnumValue}.
+ * <p>
+ * IntSetValues are created by the set algebra (\cup, \cap, \) of
+ * {@link IntervalValue}, {@link SetEnumValue}, and {@link IntSetValue} if both
+ * operands are sets of integers, which is then carried out on the ints, and
+ * when a normalized set of integers is deserialized (e.g. from the state
+ * queue).
+ */
+public class IntSetValue extends EnumerableValue implements Enumerable, Reducible {
+
+	private static final long serialVersionUID = 20261019L;
+
+	public static final IntSetValue EmptySet = new IntSetValue(new int[0]);
+
+	/**
+	 * Sorted in ascending order without duplicates. Never modified.
+	 */
+	final int[] elems;
+
+	IntSetValue(final int[] elems) {
+		this.elems = elems;
+	}
+
+	IntSetValue(final int[] elems, final CostModel cm) {
+		this(elems);
+		this.cm = cm;
+	}
+
+	/**
+	 * @return The elements of the given set as sorted ints without duplicates, or
+	 *         null if the set is not an {@link IntervalValue}, {@link IntSetValue},
+	 *         or a {@link SetEnumValue} of {@link IntValue}s. The returned array
+	 *         must not be modified.
+	 */
+	static int[] toInts(final Value val) {
+		if (val instanceof IntSetValue) {
+			return ((IntSetValue) val).elems;
+		} else if (val instanceof IntervalValue) {
+			final IntervalValue iv = (IntervalValue) val;
+			return interval(iv.low, iv.high);
+		} else if (val instanceof SetEnumValue) {
+			final SetEnumValue sev = (SetEnumValue) val;
+			final int len = sev.elems.size();
+			final int[] res = new int[len];
+			for (int i = 0; i < len; i++) {
+				final Value elem = sev.elems.elementAt(i);
+				if (!(elem instanceof IntValue)) {
+					return null;
+				}
+				res[i] = ((IntValue) elem).val;
+			}
+			if (sev.isNormalized()) {
+				return res;
+			}
+			Arrays.sort(res);
+			return dedup(res);
+		}
+		return null;
+	}
+
+	/**
+	 * @return The ints in [low, high].
+	 */
+	static int[] interval(final int low, final int high) {
+		if (low > high) {
+			return new int[0];
+		}
+		final int[] res = new int[Math.toIntExact((long) high - low + 1)];
+		for (int i = 0; i < res.length; i++) {
+			res[i] = low + i;
+		}
+		return res;
+	}
+
+	private static int[] dedup(final int[] sorted) {
+		if (sorted.length < 2) {
+			return sorted;
+		}
+		int n = 1;
+		for (int i = 1; i < sorted.length; i++) {
+			if (sorted[i] != sorted[n - 1]) {
+				sorted[n++] = sorted[i];
+			}
+		}
+		return n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+	}
+
+	/**
+	 * @return The elements of the given sorted set that are in [low, high].
+	 */
+	static int[] range(final int[] elems, final int low, final int high) {
+		if (low > high) {
+			return new int[0];
+		}
+		int from = Arrays.binarySearch(elems, low);
+		from = from < 0 ? -from - 1 : from;
+		int to = Arrays.binarySearch(elems, high);
+		to = to < 0 ? -to - 1 : to + 1;
+		return from < to ? Arrays.copyOfRange(elems, from, to) : new int[0];
+	}
+
+	/**
+	 * @return The elements of the given sorted set that are not in [low, high].
+	 */
+	static int[] without(final int[] elems, final int low, final int high) {
+		if (low > high) {
+			return elems;
+		}
+		int from = Arrays.binarySearch(elems, low);
+		from = from < 0 ? -from - 1 : from;
+		int to = Arrays.binarySearch(elems, high);
+		to = to < 0 ? -to - 1 : to + 1;
+		if (from == to) {
+			return elems;
+		}
+		final int[] res = new int[elems.length - (to - from)];
+		System.arraycopy(elems, 0, res, 0, from);
+		System.arraycopy(elems, to, res, from, elems.length - to);
+		return res;
+	}
+
+	static int[] union(final int[] a, final int[] b) {
+		final int[] res = new int[a.length + b.length];
+		int i = 0, j = 0, n = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				res[n++] = a[i++];
+			} else if (a[i] > b[j]) {
+				res[n++] = b[j++];
+			} else {
+				res[n++] = a[i++];
+				j++;
+			}
+		}
+		while (i < a.length) {
+			res[n++] = a[i++];
+		}
+		while (j < b.length) {
+			res[n++] = b[j++];
+		}
+		return n == res.length ? res : Arrays.copyOf(res, n);
+	}
+
+	static int[] intersection(final int[] a, final int[] b) {
+		final int[] res = new int[Math.min(a.length, b.length)];
+		int i = 0, j = 0, n = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (a[i] > b[j]) {
+				j++;
+			} else {
+				res[n++] = a[i++];
+				j++;
+			}
+		}
+		return n == res.length ? res : Arrays.copyOf(res, n);
+	}
+
+	static int[] difference(final int[] a, final int[] b) {
+		final int[] res = new int[a.length];
+		int i = 0, j = 0, n = 0;
+		while (i < a.length) {
+			if (j == b.length || a[i] < b[j]) {
+				res[n++] = a[i++];
+			} else if (a[i] > b[j]) {
+				j++;
+			} else {
+				i++;
+				j++;
+			}
+		}
+		return n == res.length ? res : Arrays.copyOf(res, n);
+	}
+
+	/**
+	 * @return The elements of the given sorted set that are (not) members of val.
+	 */
+	static int[] filter(final int[] elems, final Value val, final boolean member) {
+		final int[] res = new int[elems.length];
+		int n = 0;
+		for (int i = 0; i < elems.length; i++) {
+			if (val.member(IntValue.gen(elems[i])) == member) {
+				res[n++] = elems[i];
+			}
+		}
+		return n == res.length ? res : Arrays.copyOf(res, n);
+	}
+
+	@Override
+	public final byte getKind() {
+		return INTSETVALUE;
+	}
+
+	@Override
+	public final int compareTo(final Object obj) {
+		try {
+			if (obj instanceof IntSetValue || obj instanceof IntervalValue) {
+				// Same order as SetEnumValue#compareTo.
+				int cmp = this.elems.length - ((Enumerable) obj).size();
+				if (cmp != 0) {
+					return cmp;
+				}
+				final int[] other = toInts((Value) obj);
+				for (int i = 0; cmp == 0 && i < this.elems.length; i++) {
+					cmp = Integer.compare(this.elems[i], other[i]);
+				}
+				return cmp;
+			}
+			return this.toSetEnum().compareTo(obj);
+		} catch (RuntimeException | OutOfMemoryError e) {
+			if (hasSource()) {
+				throw FingerprintException.getNewHead(this, e);
+			} else {
+				throw e;
+			}
+		}
+	}
+
+	@Override
+	public final boolean equals(final Object obj) {
+		try {
+			if (obj instanceof IntSetValue) {
+				return Arrays.equals(this.elems, ((IntSetValue) obj).elems);
+			} else if (obj instanceof IntervalValue) {
+				final IntervalValue iv = (IntervalValue) obj;
+				return this.elems.length == iv.size()
+						&& (this.elems.length == 0 || (this.elems[0] == iv.low && this.elems[this.elems.length - 1] == iv.high));
+			}
+			return this.toSetEnum().equals(obj);
+		} catch (RuntimeException | OutOfMemoryError e) {
+			if (hasSource()) {
+				throw FingerprintException.getNewHead(this, e);
+			} else {
+				throw e;
+			}
+		}
+	}
+
+	@Override
+	public final boolean member(final Value elem) {
+		try {
+			if (elem instanceof IntValue) {
+				return Arrays.binarySearch(this.elems, ((IntValue) elem).val) >= 0;
+			}
+			// Compare non-integers exactly like ValueVec#search would for the
+			// equivalent SetEnumValue to report the same errors (or none for an untyped
+			// model value).
+			int low = 0, high = this.elems.length;
+			while (low < high) {
+				final int mid = (low + high) >>> 1;
+				final int cmp = elem.compareTo(IntValue.gen(this.elems[mid]));
+				if (cmp == 0) {
+					return true;
+				} else if (cmp < 0) {
+					high = mid;
+				} else {
+					low = mid + 1;
+				}
+			}
+			return false;
+		} catch (RuntimeException | OutOfMemoryError e) {
+			if (hasSource()) {
+				throw FingerprintException.getNewHead(this, e);
+			} else {
+				throw e;
+			}
+		}
+	}
+
+	@Override
+	public Value isSubsetEq(final Value other) {
+		try {
+			if (other instanceof IntervalValue) {
+				final IntervalValue iv = (IntervalValue) other;
+				return this.elems.length == 0 || (iv.low <= this.elems[0] && this.elems[this.elems.length - 1] <= iv.high)
+						? BoolValue.ValTrue
+						: BoolValue.ValFalse;
+			} else if (other instanceof IntSetValue) {
+				final int[] o = ((IntSetValue) other).elems;
+				return intersection(this.elems, o).length == this.elems.length ? BoolValue.ValTrue : BoolValue.ValFalse;
+			}
+			return super.isSubsetEq(other);
+		} catch (RuntimeException | OutOfMemoryError e) {
+			if (hasSource()) {
+				throw FingerprintException.getNewHead(this, e);
+			} else {
+				throw e;
+			}
+		}
+	}
+
+	@Override
+	public final boolean isFinite() {
+		return true;
+	}
+
+	/* Return this - val. */
+	@Override
+	public final Value diff(final Value val) {
+		try {
+			if (val instanceof IntervalValue) {
+				final IntervalValue iv = (IntervalValue) val;
+				return new IntSetValue(without(this.elems, iv.low, iv.high), cm);
+			}
+			final int[] other = toInts(val);
+			if (other != null) {
+				return new IntSetValue(difference(this.elems, other), cm);
+			}
+			return new IntSetValue(filter(this.elems, val, false), cm);
+		} catch (RuntimeException | OutOfMemoryError e) {
+			if (hasSource()) {
+				throw FingerprintException.getNewHead(this, e);
+			} else {
+				throw e;
+			}
+		}
+	}
+
+	/* Return this \cap val. */
+	@Override
+	public final Value cap(final Value val) {
+		try {
+			if (val instanceof IntervalValue) {
+				final IntervalValue iv = (IntervalValue) val;
+				return new IntSetValue(range(this.elems, iv.low, iv.high), cm);
+			}
+			final int[] other = toInts(val);
+			if (other != null) {
+				return new IntSetValue(intersection(this.elems, other), cm);
+			}
+			return new IntSetValue(filter(this.elems, val, true), cm);
+		} catch (RuntimeException | OutOfMemoryError e) {
+			if (hasSource()) {
+				throw FingerprintException.getNewHead(this, e);
+			} else {
+				throw e;
+			}
+		}
+	}
+
+	/* Return this \cup val. */
+	@Override
+	public final Value cup(final Value set) {
+		try {
+			if (this.elems.length == 0) {
+				return set;
+			}
+			final int[] other = toInts(set);
+			if (other != null) {
+				return new IntSetValue(union(this.elems, other), cm);
+			}
+			if (set instanceof Reducible) {
+				final ValueVec cupElems = new ValueVec(this.elems.length);
+				for (int i = 0; i < this.elems.length; i++) {
+					cupElems.addElement(IntValue.gen(this.elems[i]));
+				}
+				final ValueEnumeration Enum = ((Enumerable) set).elements();
+				Value elem;
+				while ((elem = Enum.nextElement()) != null) {
+					if (!this.member(elem)) {
+						cupElems.addElement(elem);
+					}
+				}
+				return new SetEnumValue(cupElems, false, cm);
+			}
+			return new SetCupValue(this, set, cm);
+		} catch (RuntimeException | OutOfMemoryError e) {
+			if (hasSource()) {
+				throw FingerprintException.getNewHead(this, e);
+			} else {
+				throw e;
+			}
+		}
+	}
+
+	@Override
+	public final Value takeExcept(final ValueExcept ex) {
+		try {
+			if (ex.idx < ex.path.length) {
+				Assert.fail("Attempted to apply EXCEPT to the set " + Values.ppr(this.toString()) + ".", getSource());
+			}
+			return ex.value;
+		} catch (RuntimeException | OutOfMemoryError e) {
+			if (hasSource()) {
+				throw FingerprintException.getNewHead(this, e);
+			} else {
+				throw e;
+			}
+		}
+	}
+
+	@Override
+	public final Value takeExcept(final ValueExcept[] exs) {
+		try {
+			if (exs.length != 0) {
+				Assert.fail("Attempted to apply EXCEPT to the set " + Values.ppr(this.toString()) + ".", getSource());
+			}
+			return this;
+		} catch (RuntimeException | OutOfMemoryError e) {
+			if (hasSource()) {
+				throw FingerprintException.getNewHead(this, e);
+			} else {
+				throw e;
+			}
+		}
+	}
+
+	@Override
+	public final int size() {
+		return this.elems.length;
+	}
+
+	@Override
+	public final boolean isNormalized() {
+		return true;
+	}
+
+	@Override
+	public final Value normalize() {
+		/* nop */
+		return this;
+	}
+
+	@Override
+	public final boolean isDefined() {
+		return true;
+	}
+
+	@Override
+	public final IValue deepCopy() {
+		return this;
+	}
+
+	@Override
+	public final boolean assignable(final Value val) {
+		try {
+			return this.equals(val);
+		} catch (RuntimeException | OutOfMemoryError e) {
+			if (hasSource()) {
+				throw FingerprintException.getNewHead(this, e);
+			} else {
+				throw e;
+			}
+		}
+	}
+
+	@Override
+	public boolean mutates() {
+		return false;
+	}
+
+	/* Same as SetEnumValue#write of the equivalent, normalized SetEnumValue. */
+	@Override
+	public final void write(final IValueOutputStream vos) throws IOException {
+		final int index = vos.put(this);
+		if (index == -1) {
+			vos.writeByte(SETENUMVALUE);
+			vos.writeInt(this.elems.length);
+			for (int i = 0; i < this.elems.length; i++) {
+				vos.writeByte(INTVALUE);
+				vos.writeInt(this.elems[i]);
+			}
+		} else {
+			vos.writeByte(DUMMYVALUE);
+			vos.writeNat(index);
+		}
+	}
+
+	/* Same as SetEnumValue#fingerPrint of the equivalent SetEnumValue. */
+	@Override
+	public final long fingerPrint(long fp) {
+		try {
+			fp = FP64.Extend(fp, SETENUMVALUE);
+			fp = FP64.Extend(fp, this.elems.length);
+			for (int i = 0; i < this.elems.length; i++) {
+				fp = FP64.Extend(fp, INTVALUE);
+				fp = FP64.Extend(fp, this.elems[i]);
+			}
+			return fp;
+		} catch (RuntimeException | OutOfMemoryError e) {
+			if (hasSource()) {
+				throw FingerprintException.getNewHead(this, e);
+			} else {
+				throw e;
+			}
+		}
+	}
+
+	@Override
+	public final IValue permute(final IMVPerm perm) {
+		return this;
+	}
+
+	@Override
+	public final Value toSetEnum() {
+		final Value[] vals = new Value[this.elems.length];
+		for (int i = 0; i < vals.length; i++) {
+			vals[i] = IntValue.gen(this.elems[i]);
+		}
+		if (coverage) {
+			cm.incSecondary(vals.length);
+		}
+		return new SetEnumValue(vals, true, cm);
+	}
+
+	/* The string representation */
+	@Override
+	public final StringBuffer toString(StringBuffer sb, final int offset, final boolean swallow) {
+		try {
+			sb = sb.append("{");
+			for (int i = 0; i < this.elems.length; i++) {
+				if (i > 0) {
+					sb.append(", ");
+				}
+				sb.append(this.elems[i]);
+			}
+			return sb.append("}");
+		} catch (RuntimeException | OutOfMemoryError e) {
+			if (hasSource()) {
+				throw FingerprintException.getNewHead(this, e);
+			} else {
+				throw e;
+			}
+		}
+	}
+
+	public final Value randomElement() {
+		final int index = (int) Math.floor(RandomEnumerableValues.get().nextDouble() * this.elems.length);
+		return IntValue.gen(this.elems[index]);
+	}
+
+	@Override
+	public EnumerableValue getRandomSubset(final int kOutOfN) {
+		final ValueVec vec = new ValueVec(kOutOfN);
+		final ValueEnumeration ve = elements(kOutOfN);
+		Value v = null;
+		while ((v = ve.nextElement()) != null) {
+			vec.addElement(v);
+		}
+		return new SetEnumValue(vec, false, cm);
+	}
+
+	@Override
+	public final ValueEnumeration elements() {
+		return new Enumerator();
+	}
+
+	final class Enumerator implements ValueEnumeration {
+		int index = 0;
+
+		@Override
+		public final void reset() {
+			this.index = 0;
+		}
+
+		@Override
+		public final Value nextElement() {
+			if (this.index < elems.length) {
+				if (coverage) {
+					cm.incSecondary();
+				}
+				return IntValue.gen(elems[this.index++]);
+			}
+			return null;
+		}
+	}
+
+	@Override
+	public ValueEnumeration elements(final Ordering ordering) {
+		if (ordering == Ordering.NORMALIZED) {
+			// The elements are sorted.
+			return elements();
+		}
+		return super.elements(ordering);
+	}
+
+	@Override
+	public ValueEnumeration elements(final int k) {
+		return new EnumerableValue.SubsetEnumerator(k) {
+			@Override
+			public Value nextElement() {
+				if (!hasNext()) {
+					return null;
+				}
+				return IntValue.gen(elems[nextIndex()]);
+			}
+		};
+	}
+
+	@Override
+	public TLCVariable toTLCVariable(final TLCVariable variable, Random rnd) {
+		return this.toSetEnum().toTLCVariable(variable, rnd);
+	}
+
+	@Override
+	public List<TLCVariable> getTLCVariables(final TLCVariable prototype, Random rnd) {
+		return this.toSetEnum().getTLCVariables(prototype, rnd);
+	}
+}
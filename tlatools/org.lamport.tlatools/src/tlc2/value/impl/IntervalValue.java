@@ -149,12 +149,16 @@ implements Enumerable, Reducible {
   @Override
   public final Value diff(Value val) {
     try {
-      ValueVec diffElems = new ValueVec();
-      for (int i = this.low; i <= this.high; i++) {
-    	  Value elem = IntValue.gen(i);
-        if (!val.member(elem)) diffElems.addElement(elem);
+      if (val instanceof IntervalValue) {
+        final IntervalValue iv = (IntervalValue) val;
+        return new IntSetValue(IntSetValue.without(IntSetValue.toInts(this), iv.low, iv.high), cm);
+      }
+      final int[] other = IntSetValue.toInts(val);
+      if (other != null) {
+        return new IntSetValue(IntSetValue.difference(
+        		IntSetValue.toInts(this), IntSetValue.range(other, this.low, this.high)), cm);
       }
-      return new SetEnumValue(diffElems, true, cm);
+      return new IntSetValue(IntSetValue.filter(IntSetValue.toInts(this), val, false), cm);
     }
     catch (RuntimeException | OutOfMemoryError e) {
       if (hasSource()) { throw FingerprintException.getNewHead(this, e); }
@@ -166,12 +170,17 @@ implements Enumerable, Reducible {
   @Override
   public final Value cap(Value val) {
     try {
-      ValueVec capElems = new ValueVec();
-      for (int i = this.low; i <= this.high; i++) {
-    	  Value elem = IntValue.gen(i);
-        if (val.member(elem)) capElems.addElement(elem);
+      if (val instanceof IntervalValue) {
+        final IntervalValue iv = (IntervalValue) val;
+        // An IntSetValue (instead of an IntervalValue) prints as {2, 3} like
+        // the SetEnumValue returned before.
+        return new IntSetValue(IntSetValue.interval(Math.max(this.low, iv.low), Math.min(this.high, iv.high)), cm);
       }
-      return new SetEnumValue(capElems, true, cm);
+      final int[] other = IntSetValue.toInts(val);
+      if (other != null) {
+        return new IntSetValue(IntSetValue.range(other, this.low, this.high), cm);
+      }
+      return new IntSetValue(IntSetValue.filter(IntSetValue.toInts(this), val, true), cm);
     }
     catch (RuntimeException | OutOfMemoryError e) {
       if (hasSource()) { throw FingerprintException.getNewHead(this, e); }
@@ -185,6 +194,10 @@ implements Enumerable, Reducible {
     try {
       if (this.size() == 0) return set;
 
+      final int[] other = IntSetValue.toInts(set);
+      if (other != null) {
+        return new IntSetValue(IntSetValue.union(IntSetValue.toInts(this), other), cm);
+      }
       if (set instanceof Reducible) {
         ValueVec cupElems = new ValueVec();
         for (int i = this.low; i <= this.high; i++) {
@@ -5,15 +5,46 @@
 
 package tlc2.value.impl;
 
+import java.lang.reflect.InvocationTargetException;
 import java.util.Enumeration;
 
+import tlc2.output.EC;
+import tlc2.output.MP;
 import tlc2.util.Vect;
+import tlc2.value.ICanonicalizer;
 import tlc2.value.IMVPerm;
 import tlc2.value.IValue;
 import util.Assert;
 import util.Set;
 
 public abstract class MVPerms {
+
+  /**
+   * The fully qualified name of the ICanonicalizer that reduces states under
+   * symmetry. The class has to have a public constructor that takes the
+   * permutations (IMVPerm[]). Defaults to PermutationCanonicalizer.
+   * <p>
+   * -Dtlc2.value.impl.MVPerms.canonicalizer=tlc2.value.impl.RefiningCanonicalizer
+   */
+  public static final String CANONICALIZER = MVPerms.class.getName() + ".canonicalizer";
+
+  public static final ICanonicalizer getCanonicalizer(final IMVPerm[] perms) {
+    if (perms == null) {
+      return null;
+    }
+    final String clazz = System.getProperty(CANONICALIZER, PermutationCanonicalizer.class.getName());
+    try {
+      final Object instance = Class.forName(clazz).getConstructor(IMVPerm[].class).newInstance((Object) perms);
+      if (instance instanceof ICanonicalizer) {
+        return (ICanonicalizer) instance;
+      }
+      MP.printWarning(EC.GENERAL, "unsuccessfully trying to load custom canonicalizer class: " + clazz);
+    } catch (ClassNotFoundException | InstantiationException | IllegalAccessException | NoSuchMethodException
+        | InvocationTargetException e) {
+      MP.printWarning(EC.GENERAL, "unsuccessfully trying to load custom canonicalizer class: " + clazz, e);
+    }
+    return new PermutationCanonicalizer(perms);
+  }
   
   public static final IMVPerm[] permutationSubgroup(final Enumerable enumerable) {
     final ValueEnumeration Enum = enumerable.elements();
@@ -30,7 +61,7 @@ public abstract class MVPerms {
       final IMVPerm perm = new MVPerm();
       for (int i = 0; i < fcn.domain.length; i++) {
 	final IValue dval = fcn.domain[i];
-	final IValue rval = fcn.values[i];
+	final IValue rval = fcn.getValue(i);
 	if ((dval instanceof ModelValue) && (rval instanceof ModelValue)) {
 	  perm.put((ModelValue)dval, (ModelValue)rval);
 	}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.value.impl;
+
+import tlc2.value.ICanonicalizer;
+import tlc2.value.IMVPerm;
+import tlc2.value.IValue;
+
+/**
+ * Finds the lexicographically smallest state ss = rep(s) by applying all
+ * permutations of the symmetry group. Its runtime is O(|perms| * |values|) with
+ * |perms| = |symmetry set 1|! * |symmetry set 2|! * ... * |symmetry set n|.
+ */
+public final class PermutationCanonicalizer implements ICanonicalizer {
+
+	private final IMVPerm[] perms;
+
+	public PermutationCanonicalizer(final IMVPerm[] perms) {
+		this.perms = perms;
+	}
+
+	@Override
+	public IValue[] canonicalize(final IValue[] values) {
+		final int sz = values.length;
+		IValue[] minVals = values;
+		IValue[] vals = new IValue[sz];
+		// The following for loop converges to the smallest state ss under symmetry by
+		// looping over all permutations applying each. If the outcome turns out to be
+		// lexicographically smaller than the currently smallest, it replaces the
+		// current smallest. Once all permutations (perms) have been processed, we know
+		// we have found the smallest state.
+		NEXT_PERM: for (int i = 0; i < perms.length; i++) {
+			int cmp = 0;
+			// For each value in values succinctly permute the current value
+			// and compare it to its corresponding minValue in minVals.
+			for (int j = 0; j < sz; j++) {
+				vals[j] = values[j].permute(perms[i]);
+				if (cmp == 0) {
+					// Only compare unless an earlier compare has found a
+					// difference already (if a difference has been found
+					// earlier, still permute the remaining values of the
+					// state to fully permute all state values).
+					cmp = vals[j].compareTo(minVals[j]);
+					if (cmp > 0) {
+						// When cmp evaluates to >0, all subsequent
+						// applications of perms[i] for the remaining values
+						// won't make the resulting vals[] smaller than
+						// minVals. Thus, exit preemptively from the loop
+						// over vals. This works because perms is the cross
+						// product of all symmetry sets.
+						continue NEXT_PERM;
+					}
+				}
+			}
+			// cmp < 0 means the current state is part of a symmetry
+			// permutation set/group and not the "smallest" one.
+			if (cmp < 0) {
+				if (minVals == values) {
+					minVals = vals;
+					vals = new IValue[sz];
+				} else {
+					IValue[] temp = minVals;
+					minVals = vals;
+					vals = temp;
+				}
+			}
+		}
+		return minVals;
+	}
+}
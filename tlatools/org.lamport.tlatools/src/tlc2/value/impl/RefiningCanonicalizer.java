@@ -0,0 +1,436 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.value.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import tlc2.value.ICanonicalizer;
+import tlc2.value.IMVPerm;
+import tlc2.value.IValue;
+
+/**
+ * Instead of applying all permutations of the symmetry group, this
+ * canonicalizer colors the elements of the symmetry sets with an invariant of
+ * how they occur in the state, and then refines the coloring (partition
+ * refinement): An element's color is derived from the values it occurs in,
+ * where other elements of the symmetry sets are represented by their colors
+ * of the previous round. Only the permutations that map the elements, ordered
+ * by color, onto the symmetry sets' canonical order are applied. With ties,
+ * the permutations of the tied elements are enumerated. Colors are invariant
+ * under the symmetry group; hence, all states of an orbit are reduced to the
+ * same representative. The representative, however, is not necessarily the
+ * lexicographically smallest state found by {@link PermutationCanonicalizer}.
+ * <p>
+ * A state is delegated to {@link PermutationCanonicalizer} if it contains a
+ * value for which no color can be computed (e.g. a lazy value such as
+ * SUBSET S), or if refinement cannot distinguish any elements. If the group
+ * is not the product of the full symmetric groups of its symmetry sets (i.e.
+ * a user-defined subgroup), all states are delegated.
+ */
+public final class RefiningCanonicalizer implements ICanonicalizer {
+
+	private static final long MARK = 0x9E3779B97F4A7C15L;
+	private static final long INT = 0x632BE59BD9B4E019L;
+	private static final long STRING = 0x8CB92BA72F3D8DD7L;
+	private static final long MODEL = 0xC13FA9A902A6328FL;
+	private static final long BOOL = 0xD6E8FEB86659FD93L;
+	private static final long INTERVAL = 0xA0761D6478BD642FL;
+	private static final long FCN = 0xE7037ED1A0B428DBL;
+	private static final long SET = 0x8EBC6AF09C88C6E3L;
+
+	private final ICanonicalizer fallback;
+
+	/**
+	 * The indices (see ModelValue#index) of the elements of each symmetry set in
+	 * canonical (ascending) order or null if all states are delegated to
+	 * fallback.
+	 */
+	private final int[][] sets;
+
+	/**
+	 * Maps a ModelValue#index to the symmetry set it is an element of or -1.
+	 */
+	private final int[] setOf;
+
+	/**
+	 * The number of elements of all symmetry sets.
+	 */
+	private final int elements;
+
+	public RefiningCanonicalizer(final IMVPerm[] perms) {
+		this.fallback = new PermutationCanonicalizer(perms);
+
+		// The symmetry sets are the orbits of the model values under perms.
+		final ModelValue[] mvs = ModelValue.mvs;
+		final int[] root = new int[mvs.length];
+		for (int i = 0; i < root.length; i++) {
+			root[i] = i;
+		}
+		for (final IMVPerm perm : perms) {
+			for (int i = 0; i < mvs.length; i++) {
+				final IValue img = perm.get(mvs[i]);
+				if (img != null) {
+					root[find(root, i)] = find(root, ((ModelValue) img).index);
+				}
+			}
+		}
+		final List<List<Integer>> orbits = new ArrayList<>();
+		final int[] orbitOf = new int[mvs.length];
+		Arrays.fill(orbitOf, -1);
+		for (int i = 0; i < mvs.length; i++) {
+			final int r = find(root, i);
+			if (r == i && isMoved(root, i)) {
+				orbitOf[i] = orbits.size();
+				orbits.add(new ArrayList<>());
+			}
+		}
+		long order = 1L;
+		for (int i = 0; i < mvs.length; i++) {
+			final int o = orbitOf[find(root, i)];
+			if (o >= 0) {
+				orbits.get(o).add(i);
+				// |Sym(S)| grows with each element of S.
+				order = order > perms.length ? order : order * orbits.get(o).size();
+			}
+		}
+
+		// perms does not include the identity.
+		if (order != perms.length + 1L) {
+			this.sets = null;
+			this.setOf = null;
+			this.elements = 0;
+			return;
+		}
+		this.elements = orbits.stream().mapToInt(List::size).sum();
+		this.sets = new int[orbits.size()][];
+		this.setOf = new int[mvs.length];
+		Arrays.fill(this.setOf, -1);
+		for (int s = 0; s < this.sets.length; s++) {
+			final List<Integer> orbit = orbits.get(s);
+			this.sets[s] = new int[orbit.size()];
+			for (int i = 0; i < orbit.size(); i++) {
+				this.sets[s][i] = orbit.get(i);
+				this.setOf[orbit.get(i)] = s;
+			}
+		}
+	}
+
+	private static int find(final int[] root, int i) {
+		while (root[i] != i) {
+			root[i] = root[root[i]];
+			i = root[i];
+		}
+		return i;
+	}
+
+	private static boolean isMoved(final int[] root, final int i) {
+		for (int j = 0; j < root.length; j++) {
+			if (find(root, j) == i && j != i) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public IValue[] canonicalize(final IValue[] values) {
+		if (this.sets == null) {
+			return this.fallback.canonicalize(values);
+		}
+		final Coloring coloring = new Coloring(values);
+		if (!coloring.refine()) {
+			return this.fallback.canonicalize(values);
+		}
+		return new Candidates(values, coloring.colors).min();
+	}
+
+	private final class Coloring {
+
+		private final IValue[] values;
+
+		private long[] colors;
+
+		private boolean unsupported;
+
+		Coloring(final IValue[] values) {
+			this.values = values;
+			this.colors = new long[setOf.length];
+			for (int i = 0; i < setOf.length; i++) {
+				if (setOf[i] >= 0) {
+					this.colors[i] = mix(MODEL + setOf[i]);
+				}
+			}
+		}
+
+		/**
+		 * @return false if the state has to be delegated to the fallback.
+		 */
+		boolean refine() {
+			int classes = sets.length;
+			while (classes < elements) {
+				final long[] next = new long[setOf.length];
+				for (int m = 0; m < setOf.length; m++) {
+					if (setOf[m] >= 0) {
+						long color = this.colors[m];
+						for (int j = 0; j < this.values.length; j++) {
+							color = mix(color + hash(this.values[j], m));
+						}
+						next[m] = color;
+					}
+				}
+				if (this.unsupported) {
+					return false;
+				}
+				this.colors = next;
+				final int n = classes();
+				if (n == classes) {
+					break;
+				}
+				classes = n;
+			}
+			// Nothing gained if no element could be told apart from the other
+			// elements of its symmetry set.
+			return classes > sets.length;
+		}
+
+		private int classes() {
+			int n = 0;
+			for (int s = 0; s < sets.length; s++) {
+				final long[] cs = new long[sets[s].length];
+				for (int i = 0; i < cs.length; i++) {
+					cs[i] = this.colors[sets[s][i]];
+				}
+				Arrays.sort(cs);
+				n++;
+				for (int i = 1; i < cs.length; i++) {
+					if (cs[i] != cs[i - 1]) {
+						n++;
+					}
+				}
+			}
+			return n;
+		}
+
+		/**
+		 * An invariant of the value v under the symmetry group, in which the element
+		 * m is marked and the other elements of the symmetry sets are represented by
+		 * their colors. Sets and functions are hashed irrespective of the order of
+		 * their elements because a permutation changes the order.
+		 */
+		private long hash(final IValue v, final int m) {
+			if (v instanceof ModelValue) {
+				final ModelValue mv = (ModelValue) v;
+				if (mv.index == m) {
+					return MARK;
+				} else if (mv.index < setOf.length && setOf[mv.index] >= 0) {
+					return this.colors[mv.index];
+				}
+				return mix(MODEL ^ mv.val.toString().hashCode());
+			} else if (v instanceof IntValue) {
+				return mix(INT + ((IntValue) v).val);
+			} else if (v instanceof StringValue) {
+				return mix(STRING + ((StringValue) v).val.toString().hashCode());
+			} else if (v instanceof BoolValue) {
+				return mix(BOOL + (((BoolValue) v).val ? 1 : 0));
+			} else if (v instanceof IntervalValue) {
+				final IntervalValue iv = (IntervalValue) v;
+				return mix(mix(INTERVAL + iv.low) + iv.high);
+			} else if (v instanceof IntSetValue) {
+				// Same as the equivalent SetEnumValue below.
+				final int[] elems = ((IntSetValue) v).elems;
+				long h = SET;
+				for (int i = 0; i < elems.length; i++) {
+					h += mix(mix(INT + elems[i]));
+				}
+				return mix(h);
+			} else if (v instanceof TupleValue) {
+				final Value[] elems = ((TupleValue) v).getElems();
+				long h = FCN;
+				for (int i = 0; i < elems.length; i++) {
+					h += pair(mix(INT + i + 1), hash(elems[i], m));
+				}
+				return mix(h);
+			} else if (v instanceof RecordValue) {
+				final RecordValue rcd = (RecordValue) v;
+				long h = FCN;
+				for (int i = 0; i < rcd.names.length; i++) {
+					h += pair(mix(STRING + rcd.names[i].toString().hashCode()), hash(rcd.values[i], m));
+				}
+				return mix(h);
+			} else if (v instanceof FcnRcdValue) {
+				final FcnRcdValue fcn = (FcnRcdValue) v;
+				long h = FCN;
+				for (int i = 0; i < fcn.nonNormalizedSize(); i++) {
+					final long key = fcn.intv != null ? mix(INT + fcn.intv.low + i) : hash(fcn.domain[i], m);
+					h += pair(key, hash(fcn.getValue(i), m));
+				}
+				return mix(h);
+			} else if (v instanceof SetEnumValue) {
+				// Remove duplicates.
+				final ValueVec elems = ((SetEnumValue) ((SetEnumValue) v).normalize()).elems;
+				long h = SET;
+				for (int i = 0; i < elems.size(); i++) {
+					h += mix(hash(elems.elementAt(i), m));
+				}
+				return mix(h);
+			}
+			this.unsupported = true;
+			return 0L;
+		}
+	}
+
+	private final class Candidates {
+
+		private final IValue[] values;
+
+		/**
+		 * The elements of all symmetry sets ordered by color. A candidate
+		 * permutation maps order[i] to target[i].
+		 */
+		private final int[] order;
+		private final int[] target;
+
+		/**
+		 * Elements with the same color (ties) form a cell [from, to) of order.
+		 */
+		private final List<int[]> cells = new ArrayList<>();
+
+		private IValue[] min;
+
+		Candidates(final IValue[] values, final long[] colors) {
+			this.values = values;
+
+			this.order = new int[elements];
+			this.target = new int[elements];
+
+			int p = 0;
+			for (final int[] set : sets) {
+				// Insertion sort of the set's elements by color.
+				for (int i = 0; i < set.length; i++) {
+					int j = p + i;
+					while (j > p && colors[this.order[j - 1]] > colors[set[i]]) {
+						this.order[j] = this.order[j - 1];
+						j--;
+					}
+					this.order[j] = set[i];
+					this.target[p + i] = set[i];
+				}
+				int from = p;
+				for (int i = p + 1; i <= p + set.length; i++) {
+					if (i == p + set.length || colors[this.order[i]] != colors[this.order[from]]) {
+						if (i - from > 1) {
+							this.cells.add(new int[] { from, i });
+						}
+						from = i;
+					}
+				}
+				p += set.length;
+			}
+		}
+
+		IValue[] min() {
+			enumerate(0);
+			return this.min;
+		}
+
+		private void enumerate(final int cell) {
+			if (cell == this.cells.size()) {
+				apply();
+				return;
+			}
+			final int[] range = this.cells.get(cell);
+			permute(range[0], range[1], cell);
+		}
+
+		private void permute(final int k, final int to, final int cell) {
+			if (k >= to - 1) {
+				enumerate(cell + 1);
+				return;
+			}
+			for (int i = k; i < to; i++) {
+				swap(k, i);
+				permute(k + 1, to, cell);
+				swap(k, i);
+			}
+		}
+
+		private void swap(final int i, final int j) {
+			final int tmp = this.order[i];
+			this.order[i] = this.order[j];
+			this.order[j] = tmp;
+		}
+
+		private void apply() {
+			final ModelValue[] mvs = ModelValue.mvs;
+			final MVPerm perm = new MVPerm();
+			for (int i = 0; i < this.order.length; i++) {
+				perm.put(mvs[this.order[i]], mvs[this.target[i]]);
+			}
+			if (perm.size() == 0) {
+				if (this.min == null || compare(this.values, this.min) < 0) {
+					this.min = this.values;
+				}
+				return;
+			}
+			final IValue[] vals = new IValue[this.values.length];
+			int cmp = this.min == null ? -1 : 0;
+			for (int j = 0; j < vals.length; j++) {
+				vals[j] = this.values[j].permute(perm);
+				if (cmp == 0) {
+					cmp = vals[j].compareTo(this.min[j]);
+					if (cmp > 0) {
+						return;
+					}
+				}
+			}
+			if (cmp < 0) {
+				this.min = vals;
+			}
+		}
+
+		private int compare(final IValue[] a, final IValue[] b) {
+			for (int j = 0; j < a.length; j++) {
+				final int cmp = a[j].compareTo(b[j]);
+				if (cmp != 0) {
+					return cmp;
+				}
+			}
+			return 0;
+		}
+	}
+
+	private static long pair(final long key, final long value) {
+		return mix(key * 0xFF51AFD7ED558CCDL + value);
+	}
+
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -157,9 +157,27 @@ public static final SetEnumValue DummyEnum = new SetEnumValue((ValueVec)null, tr
   @Override
   public final boolean isFinite() { return true; }
 
+  /**
+   * @return This set as an IntSetValue if it is a set of integers and val is a
+   *         set that might be one too, null otherwise.
+   */
+  private final IntSetValue toIntSet(final Value val) {
+    if (val instanceof IntSetValue || val instanceof IntervalValue || val instanceof SetEnumValue) {
+      final int[] ints = IntSetValue.toInts(this);
+      if (ints != null) {
+        return new IntSetValue(ints, cm);
+      }
+    }
+    return null;
+  }
+
   @Override
   public final Value diff(Value val) {
     try {
+      final IntSetValue ints = toIntSet(val);
+      if (ints != null) {
+        return ints.diff(val);
+      }
       int sz = this.elems.size();
       ValueVec diffElems = new ValueVec();
       for (int i = 0; i < sz; i++) {
@@ -179,6 +197,10 @@ public static final SetEnumValue DummyEnum = new SetEnumValue((ValueVec)null, tr
   @Override
   public final Value cap(Value val) {
     try {
+      final IntSetValue ints = toIntSet(val);
+      if (ints != null) {
+        return ints.cap(val);
+      }
       int sz = this.elems.size();
       ValueVec capElems = new ValueVec();
       for (int i = 0; i < sz; i++) {
@@ -201,6 +223,10 @@ public static final SetEnumValue DummyEnum = new SetEnumValue((ValueVec)null, tr
       int sz = this.elems.size();
       if (sz == 0) return set;
 
+      final IntSetValue ints = toIntSet(set);
+      if (ints != null) {
+        return ints.cup(set);
+      }
       if (set instanceof Reducible) {
         ValueVec cupElems = new ValueVec();
         for (int i = 0; i < sz; i++) {
@@ -508,6 +534,24 @@ public static final SetEnumValue DummyEnum = new SetEnumValue((ValueVec)null, tr
 		};
 	}
 
+	/**
+	 * IntSetValue#write writes the same as SetEnumValue#write. Reading a normalized
+	 * set of integers thus (re-)creates an IntSetValue.
+	 */
+	private static Value createFrom(final Value[] elems, final boolean isNorm) {
+		if (isNorm && elems.length > 0) {
+			final int[] ints = new int[elems.length];
+			for (int i = 0; i < elems.length; i++) {
+				if (!(elems[i] instanceof IntValue)) {
+					return new SetEnumValue(elems, isNorm);
+				}
+				ints[i] = ((IntValue) elems[i]).val;
+			}
+			return new IntSetValue(ints);
+		}
+		return new SetEnumValue(elems, isNorm);
+	}
+
 	public static IValue createFrom(final IValueInputStream vos) throws IOException {
 		final int index = vos.getIndex();
 		boolean isNorm = true;
@@ -520,7 +564,7 @@ public static final SetEnumValue DummyEnum = new SetEnumValue((ValueVec)null, tr
 		for (int i = 0; i < len; i++) {
 			elems[i] = (Value) vos.read();
 		}
-		final Value res = new SetEnumValue(elems, isNorm);
+		final Value res = createFrom(elems, isNorm);
 		vos.assign(res, index);
 		return res;
 	}
@@ -537,7 +581,7 @@ public static final SetEnumValue DummyEnum = new SetEnumValue((ValueVec)null, tr
 		for (int i = 0; i < len; i++) {
 			elems[i] = (Value) vos.read(tbl);
 		}
-		final Value res = new SetEnumValue(elems, isNorm);
+		final Value res = createFrom(elems, isNorm);
 		vos.assign(res, index);
 		return res;
 	}
@@ -82,8 +82,8 @@ public class SetOfFcnsValue extends SetOfFcnsOrRcdsValue implements Enumerable {
         fcn.normalize();
         Value fdom = new SetEnumValue(fcn.domain, true);
         if (this.domain.equals(fdom)) {
-          for (int i = 0; i < fcn.values.length; i++) {
-            if (!this.range.member(fcn.values[i])) {
+          for (int i = 0; i < fcn.nonNormalizedSize(); i++) {
+            if (!this.range.member(fcn.getValue(i))) {
               return false;
             }
           }
@@ -92,8 +92,8 @@ public class SetOfFcnsValue extends SetOfFcnsOrRcdsValue implements Enumerable {
       }
       else {
         if (fcn.intv.equals(this.domain)) {
-          for (int i = 0; i < fcn.values.length; i++) {
-            if (!this.range.member(fcn.values[i])) return false;
+          for (int i = 0; i < fcn.nonNormalizedSize(); i++) {
+            if (!this.range.member(fcn.getValue(i))) return false;
           }
           return true;
         }
@@ -107,9 +107,9 @@ public class SetOfTuplesValue extends EnumerableValue implements Enumerable {
         }
         return false;
       }
-      if (tv.elems.length == this.sets.length) {
+      if (tv.size() == this.sets.length) {
         for (int i = 0; i < this.sets.length; i++) {
-          if (!this.sets[i].member(tv.elems[i]))
+          if (!this.sets[i].member(tv.getElem(i)))
             return false;
         }
         return true;
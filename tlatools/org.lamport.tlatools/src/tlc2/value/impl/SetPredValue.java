@@ -123,8 +123,8 @@ public class SetPredValue extends EnumerableValue implements Enumerable {
           else {
             FormalParamNode[] ids = (FormalParamNode[])this.vars;
             TupleValue tv = (TupleValue) elem.toTuple();
-            if ((tv != null) && (tv.elems.length == ids.length)) {
-              Value [] vals = ((TupleValue)tv).elems;
+            if ((tv != null) && (tv.size() == ids.length)) {
+              Value [] vals = ((TupleValue)tv).getElems();
               for (int i = 0; i < ids.length; i++) {
                 con1 = con1.cons(ids[i], vals[i]);
               }
@@ -398,8 +398,8 @@ public class SetPredValue extends EnumerableValue implements Enumerable {
           FormalParamNode[] ids = (FormalParamNode[])vars;
           TupleValue tv = (TupleValue) elem.toTuple();
           if ((tv != null) &&
-              (((TupleValue)tv).elems.length == ids.length)) {
-            Value [] vals = ((TupleValue)tv).elems;
+              (((TupleValue)tv).size() == ids.length)) {
+            Value [] vals = ((TupleValue)tv).getElems();
             for (int i = 0; i < ids.length; i++) {
               con1 = con1.cons(ids[i], vals[i]);
             }
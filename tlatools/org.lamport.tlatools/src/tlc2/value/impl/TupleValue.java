@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import tlc2.output.EC;
 import tlc2.output.MP;
@@ -29,21 +30,66 @@ import util.Assert;
 import util.UniqueString;
 
 public class TupleValue extends Value implements Applicable, ITupleValue {
-  public final Value[] elems;          // the elements of this tuple.
+  /*
+   * Let the sequences of at least SHARE_THRESHOLD elements produced by
+   * append, concat and subSeq share their backing array with the tuple they
+   * were derived from. This makes Append, Tail and Head amortized O(1) for
+   * long sequences, e.g. FIFO queues. However, a backing array created by
+   * append or concat has as much spare capacity as elements, i.e. such a
+   * sequence takes up to twice the memory, and elems is null for a tuple that
+   * does not own its backing array.
+   *
+   * Activate with: -Dtlc2.value.impl.TupleValue.share=true
+   */
+  static final boolean SHARE = Boolean.getBoolean(TupleValue.class.getName() + ".share");
+
+  /**
+   * Sequences shorter than this are always backed by an array of exactly their
+   * length (see {@link #SHARE}).
+   */
+  private static final int SHARE_THRESHOLD = 32;
+
+  /**
+   * The elements of this tuple. Only null if {@link #SHARE} is on and this is
+   * a long tuple that shares its backing array with other tuples.
+   * 
+   * @deprecated Use {@link #getElem(int)} or {@link #getElems()}, which also work
+   *             for tuples that share their backing array.
+   */
+  @Deprecated
+  public final Value[] elems;
+  private final Value[] array;         // the backing array of this tuple.
+  private final int offset;            // the index of the first element in array.
+  private final int len;               // the number of elements of this tuple.
+  /*
+   * Non-null iff array has spare capacity past the end of some tuple that may be
+   * claimed to append in place. It counts the slots of array that have been
+   * written; tuples ending exactly at that count may extend it, all others copy.
+   */
+  private final AtomicInteger used;
+
   public static final TupleValue EmptyTuple = new TupleValue(new Value[0]);
 
   /* Constructor */
-  public TupleValue(Value[] elems) { this.elems = elems; }
+  public TupleValue(Value[] elems) { this(elems, 0, elems.length, null); }
+
+  private TupleValue(Value[] elems, int offset, int len, AtomicInteger used) {
+    this.elems = offset == 0 && len == elems.length ? elems : null;
+    this.array = elems;
+    this.offset = offset;
+    this.len = len;
+    this.used = used;
+  }
 
   public TupleValue(Value v) {
 	  this(new Value[1]);
-    this.elems[0] = v;
+    this.array[0] = v;
   }
 
   public TupleValue(Value v1, Value v2) {
 	  this(new Value[2]);
-    this.elems[0] = v1;
-    this.elems[1] = v2;
+    this.array[0] = v1;
+    this.array[1] = v2;
   }
 
   public TupleValue(Value[] elems, CostModel cm) {
@@ -52,15 +98,97 @@ public class TupleValue extends Value implements Applicable, ITupleValue {
   }
 
   @Override
-  public IValue getElem(int idx) {
-	  return elems[idx];
+  public final Value getElem(int idx) {
+	  return this.array[this.offset + idx];
   }
-  
+
+  /**
+   * @return The elements of this tuple. The array must not be modified, it might
+   *         be the backing array of this and other tuples.
+   */
   @Override
-  public IValue[] getElems() {
-	  return elems;
+  public final Value[] getElems() {
+    if (this.offset == 0 && this.len == this.array.length) {
+      return this.array;
+    }
+    final Value[] res = new Value[this.len];
+    System.arraycopy(this.array, this.offset, res, 0, this.len);
+    return res;
   }
-  
+
+  /**
+   * @return The tuple <<e_1, ..., e_n, v>>. With {@link #SHARE}, amortized O(1):
+   *         appending to a sequence of at least SHARE_THRESHOLD elements writes v
+   *         into spare capacity of the backing array unless another tuple
+   *         claimed it first.
+   */
+  public final TupleValue append(final Value v) {
+    final int end = this.offset + this.len;
+    if (this.used != null && end < this.array.length && this.used.compareAndSet(end, end + 1)) {
+      this.array[end] = v;
+      return new TupleValue(this.array, this.offset, this.len + 1, this.used);
+    }
+    final TupleValue res = copyOf(this.len + 1);
+    res.array[this.len] = v;
+    return res;
+  }
+
+  /**
+   * @return The tuple <<e_1, ..., e_n, f_1, ..., f_m>>. Amortized O(m), see
+   *         {@link #append(Value)}.
+   */
+  public final TupleValue concat(final TupleValue other) {
+    if (other.len == 0) {
+      return this;
+    }
+    if (this.len == 0) {
+      return other;
+    }
+    final int end = this.offset + this.len;
+    final int newLen = this.len + other.len;
+    if (this.used != null && end + other.len <= this.array.length
+        && this.used.compareAndSet(end, end + other.len)) {
+      System.arraycopy(other.array, other.offset, this.array, end, other.len);
+      return new TupleValue(this.array, this.offset, newLen, this.used);
+    }
+    final TupleValue res = copyOf(newLen);
+    System.arraycopy(other.array, other.offset, res.array, this.len, other.len);
+    return res;
+  }
+
+  /**
+   * @param from The (zero-based, inclusive) index of the first element.
+   * @param to   The (zero-based, exclusive) index of the last element.
+   * @return The tuple <<e_from+1, ..., e_to>>. With {@link #SHARE}, O(1)
+   *         unless the slice is small compared to the backing array, which it
+   *         then would keep reachable.
+   */
+  public final TupleValue subSeq(final int from, final int to) {
+    final int sublen = to - from;
+    if (sublen == this.len) {
+      return this;
+    }
+    if (SHARE && sublen >= SHARE_THRESHOLD && (sublen << 2) >= this.array.length) {
+      return new TupleValue(this.array, this.offset + from, sublen, this.used);
+    }
+    final Value[] vals = new Value[sublen];
+    System.arraycopy(this.array, this.offset + from, vals, 0, sublen);
+    return new TupleValue(vals);
+  }
+
+  /* Copies the elements of this tuple into a new tuple of length newLen. */
+  private final TupleValue copyOf(final int newLen) {
+    if (!SHARE || newLen < SHARE_THRESHOLD) {
+      final Value[] vals = new Value[newLen];
+      System.arraycopy(this.array, this.offset, vals, 0, this.len);
+      return new TupleValue(vals);
+    }
+    // Reserve as much capacity again for subsequent appends.
+    final Value[] vals = new Value[newLen << 1];
+    System.arraycopy(this.array, this.offset, vals, 0, this.len);
+    return new TupleValue(vals, 0, newLen, new AtomicInteger(newLen));
+  }
+
   @Override
   public final byte getKind() { return TUPLEVALUE; }
 
@@ -72,14 +200,14 @@ public class TupleValue extends Value implements Applicable, ITupleValue {
         // Well, we have to convert this to function and compare.
         return this.toFcnRcd().compareTo(obj);
       }
-      int len = this.elems.length;
-      int cmp = len - tv.elems.length;
+      int len = this.len;
+      int cmp = len - tv.len;
       if (cmp == 0) {
 		// At this point, we know that the domains are equal because the domain of a
 		// tuple is 1..N where N is Len(tuple). Thus, we can compare the values one by
 		// one.
         for (int i = 0; i < len; i++) {
-          cmp = this.elems[i].compareTo(tv.elems[i]);
+          cmp = this.array[this.offset + i].compareTo(tv.array[tv.offset + i]);
           if (cmp != 0) break;
         }
       }
@@ -98,14 +226,14 @@ public class TupleValue extends Value implements Applicable, ITupleValue {
         // Well, we have to convert this to function and compare.
         return this.toFcnRcd().equals(obj);
       }
-      int len = this.elems.length;
-      if (len != tv.elems.length)
+      int len = this.len;
+      if (len != tv.len)
         return false;
 	// At this point, we know that the domains are equal because the domain of a
 	// tuple is 1..N where N is Len(tuple). Thus, we can check equality of the
 	// values one by one.
       for (int i = 0; i < len; i++) {
-        if (!this.elems[i].equals(tv.elems[i]))
+        if (!this.array[this.offset + i].equals(tv.array[tv.offset + i]))
           return false;
       }
       return true;
@@ -138,11 +266,11 @@ public class TupleValue extends Value implements Applicable, ITupleValue {
         Assert.fail("Attempted to access tuple at a non integral index: " + Values.ppr(arg.toString()), getSource());
       }
       int idx = ((IntValue)arg).val;
-      if (idx <= 0 || idx > this.elems.length) {
+      if (idx <= 0 || idx > this.len) {
         Assert.fail("Attempted to access index " + idx + " of tuple\n"
             + Values.ppr(this.toString()) + "\nwhich is out of bounds.", getSource());
       }
-      return (Value) this.elems[idx-1];
+      return (Value) this.array[this.offset + idx-1];
     }
     catch (RuntimeException | OutOfMemoryError e) {
       if (hasSource()) { throw FingerprintException.getNewHead(this, e); }
@@ -171,8 +299,8 @@ public class TupleValue extends Value implements Applicable, ITupleValue {
         Assert.fail("Attempted to access tuple at a non integral index: " + Values.ppr(arg.toString()), getSource());
       }
       int idx = ((IntValue)arg).val;
-      if (idx > 0 && idx <= this.elems.length) {
-        return (Value) this.elems[idx-1];
+      if (idx > 0 && idx <= this.len) {
+        return (Value) this.array[this.offset + idx-1];
       }
       return null;
     }
@@ -186,17 +314,17 @@ public class TupleValue extends Value implements Applicable, ITupleValue {
   public final Value takeExcept(ValueExcept ex) {
     try {
       if (ex.idx < ex.path.length) {
-        int tlen = this.elems.length;
+        int tlen = this.len;
         Value[] newElems = new Value[tlen];
         Value arcVal = ex.path[ex.idx];
         if (arcVal instanceof IntValue) {
           int idx = ((IntValue)arcVal).val - 1;
           if (0 <= idx && idx < tlen) {
             for (int i = 0; i < tlen; i++) {
-              newElems[i] = this.elems[i];
+              newElems[i] = this.array[this.offset + i];
             }
             ex.idx++;
-            newElems[idx] = this.elems[idx].takeExcept(ex);
+            newElems[idx] = this.array[this.offset + idx].takeExcept(ex);
           }
           return new TupleValue(newElems);
         }
@@ -237,13 +365,13 @@ public class TupleValue extends Value implements Applicable, ITupleValue {
   }
 
   @Override
-  public final int size() { return this.elems.length; }
+  public final int size() { return this.len; }
 
   @Override
   public final void deepNormalize() {
 	  try {
-      for (int i = 0; i < elems.length; i++) {
-          elems[i].deepNormalize();
+      for (int i = 0; i < this.len; i++) {
+          this.array[this.offset + i].deepNormalize();
         }
 	    }
 	    catch (RuntimeException | OutOfMemoryError e) {
@@ -264,9 +392,9 @@ public class TupleValue extends Value implements Applicable, ITupleValue {
 
 	@Override
 	public final Value toFcnRcd() {
-        final IntervalValue intv = new IntervalValue(1, this.elems.length);
-        if (coverage) {cm.incSecondary(this.elems.length);}
-        return new FcnRcdValue(intv, this.elems, cm);
+        final IntervalValue intv = new IntervalValue(1, this.len);
+        if (coverage) {cm.incSecondary(this.len);}
+        return new FcnRcdValue(intv, this.getElems(), cm);
 	}
 
   /* The normalization of the value. */
@@ -280,8 +408,8 @@ public class TupleValue extends Value implements Applicable, ITupleValue {
   public final boolean isDefined() {
     try {
       boolean defined = true;
-      for (int i = 0; i < this.elems.length; i++) {
-        defined = defined && this.elems[i].isDefined();
+      for (int i = 0; i < this.len; i++) {
+        defined = defined && this.array[this.offset + i].isDefined();
       }
       return defined;
     }
@@ -294,9 +422,9 @@ public class TupleValue extends Value implements Applicable, ITupleValue {
   @Override
   public final IValue deepCopy() {
     try {
-    	Value[] vals = new Value[this.elems.length];
-      for (int i = 0; i < this.elems.length; i++) {
-        vals[i] = (Value) this.elems[i].deepCopy();
+    	Value[] vals = new Value[this.len];
+      for (int i = 0; i < this.len; i++) {
+        vals[i] = (Value) this.array[this.offset + i].deepCopy();
       }
       return new TupleValue(vals);
     }
@@ -310,10 +438,10 @@ public class TupleValue extends Value implements Applicable, ITupleValue {
   public final boolean assignable(Value val) {
     try {
       boolean canAssign = ((val instanceof TupleValue) &&
-         (this.elems.length == ((TupleValue)val).elems.length));
+         (this.len == ((TupleValue)val).len));
       if (!canAssign) return false;
-      for (int i = 0; i < this.elems.length; i++) {
-        canAssign = canAssign && this.elems[i].assignable(((TupleValue)val).elems[i]);
+      for (int i = 0; i < this.len; i++) {
+        canAssign = canAssign && this.array[this.offset + i].assignable(((TupleValue)val).getElem(i));
       }
       return canAssign;
     }
@@ -328,10 +456,10 @@ public class TupleValue extends Value implements Applicable, ITupleValue {
 		final int index = vos.put(this);
 		if (index == -1) {
 			vos.writeByte(TUPLEVALUE);
-			final int len = elems.length;
+			final int len = this.len;
 			vos.writeNat(len);
 			for (int i = 0; i < len; i++) {
-				elems[i].write(vos);
+				this.array[this.offset + i].write(vos);
 			}
 		} else {
 			vos.writeByte(DUMMYVALUE);
@@ -343,13 +471,13 @@ public class TupleValue extends Value implements Applicable, ITupleValue {
   @Override
   public final long fingerPrint(long fp) {
     try {
-      int len = this.elems.length;
+      int len = this.len;
       fp = FP64.Extend(fp, FCNRCDVALUE);
       fp = FP64.Extend(fp, len);
       for (int i = 0; i < len; i++) {
         fp = FP64.Extend(fp, INTVALUE);
         fp = FP64.Extend(fp, i+1);
-        fp = this.elems[i].fingerPrint(fp);
+        fp = this.array[this.offset + i].fingerPrint(fp);
       }
       return fp;
     }
@@ -362,11 +490,11 @@ public class TupleValue extends Value implements Applicable, ITupleValue {
   @Override
   public final IValue permute(IMVPerm perm) {
     try {
-    	Value[] vals = new Value[this.elems.length];
+    	Value[] vals = new Value[this.len];
       boolean changed = false;
       for (int i = 0; i < vals.length; i++) {
-        vals[i] = (Value) this.elems[i].permute(perm);
-        changed = changed || (vals[i] != this.elems[i]);
+        vals[i] = (Value) this.array[this.offset + i].permute(perm);
+        changed = changed || (vals[i] != this.array[this.offset + i]);
       }
       if (changed) {
         return new TupleValue(vals);
@@ -384,13 +512,13 @@ public class TupleValue extends Value implements Applicable, ITupleValue {
   public final StringBuffer toString(StringBuffer sb, int offset, boolean swallow) {
     try {
       sb.append("<<");
-      int len = this.elems.length;
+      int len = this.len;
       if (len > 0) {
-        sb = this.elems[0].toString(sb, offset, swallow);
+        sb = this.array[this.offset].toString(sb, offset, swallow);
       }
       for (int i = 1; i < len; i++) {
         sb = sb.append(", ");
-        sb = this.elems[i].toString(sb, offset, swallow);
+        sb = this.array[this.offset + i].toString(sb, offset, swallow);
       }
       sb.append(">>");
       return sb;
@@ -428,8 +556,8 @@ public class TupleValue extends Value implements Applicable, ITupleValue {
 	@Override
 	public List<TLCVariable> getTLCVariables(TLCVariable prototype, Random rnd) {
 		final List<TLCVariable> nestedVars = new ArrayList<>(this.size());
-		for (int i = 0; i < elems.length; i++) {
-			final Value value = elems[i];
+		for (int i = 0; i < this.len; i++) {
+			final Value value = this.array[this.offset + i];
 			final TLCVariable nested = prototype.newInstance(Integer.toString(i+1), value, rnd);
 			nested.setValue(value.toString());
 			nested.setType(value.getTypeString());
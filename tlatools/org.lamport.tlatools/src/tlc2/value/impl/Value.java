@@ -57,6 +57,7 @@ public abstract class Value implements ValueConstants, Serializable, IValue {
 	    "an undefined value",                         // "UndefValue",
 	    "a value represented in lazy form",           // "LazyValue",
 	    "a dummy for not-a-value",                    // "DummyValue",    
+	    "a set of the form {e1, ... ,eN}",            // "IntSetValue",
 	  };
 	  
 	/**
@@ -162,6 +163,11 @@ public abstract class Value implements ValueConstants, Serializable, IValue {
             IntervalValue intv = (IntervalValue)this;
             return intv.size() == 0;
           }
+        case INTSETVALUE:
+          {
+            IntSetValue ints = (IntSetValue)this;
+            return ints.size() == 0;
+          }
         case SETCAPVALUE:
           {
             SetCapValue cap = (SetCapValue)this;
@@ -31,7 +31,7 @@ public class ValueExcept {
     }
     else {
       TupleValue tval = (TupleValue)argv;
-      Value [] argList = tval.elems;
+      Value [] argList = tval.getElems();
       FormalParamNode[][] formals = fcn.getParams().formals;
       Value [] domains = fcn.getParams().domains;
       int argn = 0;
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.value.impl;
+
+/**
+ * An immutable array of values represented as a 32-way radix trie, which
+ * allows {@link #set(int, Value)} to copy only the path from the root to the
+ * leaf of the updated index. All other nodes are shared with the original,
+ * i.e. an update allocates O(log n) instead of O(n).
+ */
+final class ValueTrie {
+
+	private static final int BITS = 5;
+	private static final int WIDTH = 1 << BITS;
+	private static final int MASK = WIDTH - 1;
+
+	// Inner nodes are Object[]s of nodes, leaves are Object[]s of Values.
+	private final Object[] root;
+	// The shift of the root, i.e. BITS times the number of inner levels.
+	private final int shift;
+	private final int size;
+
+	ValueTrie(final Value[] values) {
+		this.size = values.length;
+
+		Object[][] nodes = chunk(values);
+		int shift = 0;
+		while (nodes.length > 1) {
+			nodes = chunk(nodes);
+			shift += BITS;
+		}
+		this.root = nodes.length == 0 ? new Object[0] : nodes[0];
+		this.shift = shift;
+	}
+
+	private ValueTrie(final Object[] root, final int shift, final int size) {
+		this.root = root;
+		this.shift = shift;
+		this.size = size;
+	}
+
+	private static Object[][] chunk(final Object[] elems) {
+		final Object[][] nodes = new Object[(elems.length + MASK) >>> BITS][];
+		for (int i = 0; i < nodes.length; i++) {
+			final int from = i << BITS;
+			nodes[i] = new Object[Math.min(WIDTH, elems.length - from)];
+			System.arraycopy(elems, from, nodes[i], 0, nodes[i].length);
+		}
+		return nodes;
+	}
+
+	final int size() {
+		return this.size;
+	}
+
+	final Value get(final int idx) {
+		Object[] node = this.root;
+		for (int s = this.shift; s > 0; s -= BITS) {
+			node = (Object[]) node[(idx >>> s) & MASK];
+		}
+		return (Value) node[idx & MASK];
+	}
+
+	/**
+	 * @return A trie that equals this one except that idx maps to v.
+	 */
+	final ValueTrie set(final int idx, final Value v) {
+		return new ValueTrie(set(this.root, this.shift, idx, v), this.shift, this.size);
+	}
+
+	private static Object[] set(final Object[] node, final int shift, final int idx, final Value v) {
+		final Object[] copy = node.clone();
+		if (shift == 0) {
+			copy[idx & MASK] = v;
+		} else {
+			final int i = (idx >>> shift) & MASK;
+			copy[i] = set((Object[]) node[i], shift - BITS, idx, v);
+		}
+		return copy;
+	}
+
+	/**
+	 * @return A new array with the values of this trie.
+	 */
+	final Value[] toArray() {
+		final Value[] values = new Value[this.size];
+		copy(this.root, this.shift, values, 0);
+		return values;
+	}
+
+	private static int copy(final Object[] node, final int shift, final Value[] dst, int pos) {
+		if (shift == 0) {
+			System.arraycopy(node, 0, dst, pos, node.length);
+			return pos + node.length;
+		}
+		for (int i = 0; i < node.length; i++) {
+			pos = copy((Object[]) node[i], shift - BITS, dst, pos);
+		}
+		return pos;
+	}
+}
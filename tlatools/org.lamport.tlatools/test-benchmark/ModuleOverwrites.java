@@ -13,7 +13,7 @@ public class ModuleOverwrites {
 	public static IValue noDupesOverwrite(final FcnRcdValue frv, final IntValue exclude) {
 		// LET sub == SelectSeq(t, LAMBDA e: e # emp)
 		// IN ...
-		final List<IValue> filtered = Arrays.asList(frv.values).stream().filter(e -> e != exclude).collect(Collectors.toList());
+		final List<IValue> filtered = Arrays.asList(frv.getValues()).stream().filter(e -> e != exclude).collect(Collectors.toList());
 		
 		// IF Len(sub) < 2 THEN TRUE ...
 		if (filtered.size() < 2) {
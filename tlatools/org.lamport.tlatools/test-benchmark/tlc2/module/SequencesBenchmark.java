@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.module;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import tlc2.value.impl.IntValue;
+import tlc2.value.impl.TupleValue;
+import tlc2.value.impl.Value;
+
+@State(Scope.Benchmark)
+public class SequencesBenchmark {
+
+	/*
+	 * Compare the copying default with shared backing arrays:
+	 * java -jar target/benchmarks.jar -jvmArgsAppend "-Dtlc2.value.impl.TupleValue.share=true" tlc2.module.SequencesBenchmark
+	 */
+
+	@Param({"16", "64", "256", "1024", "4096"})
+	public int size;
+
+	public Value seq;
+
+	@Setup(Level.Iteration)
+	public void setup() {
+		final Value[] elems = new Value[size];
+		for (int i = 0; i < elems.length; i++) {
+			elems[i] = IntValue.gen(i);
+		}
+		seq = new TupleValue(elems);
+	}
+
+	@Benchmark
+	public Value append() {
+		// Grow a sequence to twice its length, one element at a time.
+		Value s = seq;
+		for (int i = 0; i < size; i++) {
+			s = Sequences.Append(s, IntValue.ValZero);
+		}
+		return s;
+	}
+
+	@Benchmark
+	public Value queue() {
+		// A FIFO queue of constant length: Append at the back, Tail at the front.
+		Value s = seq;
+		for (int i = 0; i < size; i++) {
+			s = Sequences.Tail(Sequences.Append(s, Sequences.Head(s)));
+		}
+		return s;
+	}
+
+	@Benchmark
+	public Value concat() {
+		Value s = seq;
+		for (int i = 0; i < 16; i++) {
+			s = Sequences.Concat(s, seq);
+		}
+		return s;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		final Options opt = new OptionsBuilder()
+				.include(SequencesBenchmark.class.getSimpleName())
+				.build();
+		new Runner(opt).run();
+	}
+}
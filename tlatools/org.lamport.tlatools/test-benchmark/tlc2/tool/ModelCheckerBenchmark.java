@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import tlc2.TLC;
+import tlc2.output.EC;
+import tlc2.output.IMessagePrinterRecorder;
+import tlc2.output.MP;
+import tlc2.tool.fp.FPSetFactory;
+import util.SimpleFilenameToStream;
+import util.ToolIO;
+
+/**
+ * Measures the whole breadth-first search of {@link ModelChecker}, i.e.
+ * getNextStates -> fingerPrint -> FPSet.put -> trace write -> enqueue, for the
+ * specs in test-model/ModelCheckerBenchmark/ which have differently shaped
+ * state spaces. Besides the model-checking runs per second, the auxiliary
+ * counters "generated" and "distinct" report states per second.
+ * <p>
+ * The time spent in the individual stages of the pipeline is measured by
+ * {@link ModelCheckerStagesBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ModelCheckerBenchmark {
+
+	/*
+	 * Run with: java -jar target/benchmarks.jar -wi 1 -i 3 -f 1 -rf json -rff
+	 * ModelCheckerBenchmark-$(date +%s)-$(git rev-parse --short HEAD).json
+	 * -jvmArgsPrepend "-Xms4096m -Xmx4096m -XX:MaxDirectMemorySize=4096m"
+	 * -jvmArgsAppend "-Dtlc2.tool.ModelCheckerBenchmark.base=$(pwd)/test-model"
+	 * tlc2.tool.ModelCheckerBenchmark
+	 * 
+	 * Restrict the parameter space with e.g. "-p spec=Tree -p queue=DiskStateQueue".
+	 */
+
+	static final String BASE_PATH = System.getProperty(ModelCheckerBenchmark.class.getName() + ".base",
+			"test-model");
+
+	@Param({ "Counters", "Tree", "PowerSet" })
+	public String spec;
+
+	@Param({ "1", "4" })
+	public int workers;
+
+	@Param({ "tlc2.tool.fp.OffHeapDiskFPSet", "tlc2.tool.fp.MSBDiskFPSet", "tlc2.tool.fp.LSBDiskFPSet",
+			"tlc2.tool.fp.AdaptiveFPSet" })
+	public String fpset;
+
+	@Param({ "DiskStateQueue", "DiskByteArrayQueue", "MappedByteArrayQueue", "WorkStealingStateQueue" })
+	public String queue;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		// JMH forks a JVM per trial. Thus, the properties are set before
+		// ModelChecker and FPSetFactory read them.
+		System.setProperty(FPSetFactory.IMPL_PROPERTY, fpset);
+		System.setProperty(ModelChecker.class.getName() + ".BAQueue",
+				Boolean.toString(queue.equals("DiskByteArrayQueue")));
+		System.setProperty(ModelChecker.class.getName() + ".MappedQueue",
+				Boolean.toString(queue.equals("MappedByteArrayQueue")));
+		System.setProperty(ModelChecker.class.getName() + ".WSQueue",
+				Boolean.toString(queue.equals("WorkStealingStateQueue")));
+
+		ToolIO.setUserDir(BASE_PATH + File.separator + "ModelCheckerBenchmark");
+		// TLC's progress output would otherwise end up in the benchmark's log.
+		ToolIO.out = new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {
+				// Discard
+			}
+		});
+	}
+
+	/**
+	 * Sums up the states reported by TLC at the end of each run. JMH reports the
+	 * public fields as rates.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class StateCounters implements IMessagePrinterRecorder {
+
+		public long generated;
+
+		public long distinct;
+
+		@Setup(Level.Trial)
+		public void subscribe() {
+			MP.setRecorder(this);
+		}
+
+		@TearDown(Level.Trial)
+		public void unsubscribe() {
+			MP.unsubscribeRecorder(this);
+		}
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			generated = 0L;
+			distinct = 0L;
+		}
+
+		@Override
+		public void record(final int code, final Object... objects) {
+			if (code == EC.TLC_STATS) {
+				generated += Long.parseLong((String) objects[0]);
+				distinct += Long.parseLong((String) objects[1]);
+			}
+		}
+	}
+
+	@Benchmark
+	public int modelCheck(final StateCounters counters) {
+		final TLC tlc = new TLC();
+		tlc.setResolver(new SimpleFilenameToStream());
+		tlc.handleParameters(new String[] { "-workers", Integer.toString(workers), "-fp", "0", "-checkpoint", "0",
+				"-noGenerateSpecTE", "-cleanup", spec });
+		return tlc.process();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		final Options opt = new OptionsBuilder().include(ModelCheckerBenchmark.class.getSimpleName()).build();
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import tlc2.tool.fp.FPSet;
+import tlc2.tool.fp.FPSetConfiguration;
+import tlc2.tool.fp.FPSetFactory;
+import tlc2.tool.impl.FastTool;
+import tlc2.tool.queue.DiskByteArrayQueue;
+import tlc2.tool.queue.DiskStateQueue;
+import tlc2.tool.queue.IStateQueue;
+import tlc2.tool.queue.MappedByteArrayQueue;
+import tlc2.util.FP64;
+import tlc2.util.RandomGenerator;
+import util.FileUtil;
+import util.SimpleFilenameToStream;
+import util.ToolIO;
+
+/**
+ * Measures the stages of {@link ModelChecker}'s breadth-first search in
+ * isolation (see {@link ModelCheckerBenchmark} for the whole pipeline): The
+ * benchmarks run on a sample of the reachable states of the specs in
+ * test-model/ModelCheckerBenchmark/, taken in breadth-first order, and each
+ * invocation processes the next state of the sample.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ModelCheckerStagesBenchmark {
+
+	/*
+	 * Run with: java -jar target/benchmarks.jar -wi 2 -i 3 -f 1 -rf json -rff
+	 * ModelCheckerStagesBenchmark-$(date +%s)-$(git rev-parse --short HEAD).json
+	 * -jvmArgsPrepend "-Xms4096m -Xmx4096m -XX:MaxDirectMemorySize=4096m"
+	 * -jvmArgsAppend "-Dtlc2.tool.ModelCheckerBenchmark.base=$(pwd)/test-model"
+	 * tlc2.tool.ModelCheckerStagesBenchmark
+	 */
+
+	private static final int SAMPLE_SIZE = 1 << 14;
+
+	@Param({ "Counters", "Tree", "PowerSet" })
+	public String spec;
+
+	@Param({ "tlc2.tool.fp.OffHeapDiskFPSet", "tlc2.tool.fp.MSBDiskFPSet", "tlc2.tool.fp.LSBDiskFPSet" })
+	public String fpset;
+
+	@Param({ "DiskStateQueue", "DiskByteArrayQueue", "MappedByteArrayQueue" })
+	public String queue;
+
+	private ITool tool;
+	private TLCState[] states;
+	private long[] fps;
+	private FPSet fpSet;
+	private TLCTrace trace;
+	private IStateQueue stateQueue;
+	private File metadir;
+
+	private final RandomGenerator rng = new RandomGenerator(0);
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		FP64.Init(0);
+		ToolIO.setUserDir(ModelCheckerBenchmark.BASE_PATH + File.separator + "ModelCheckerBenchmark");
+		this.tool = new FastTool(spec, spec, new SimpleFilenameToStream());
+
+		this.metadir = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+		final String dir = this.metadir.getAbsolutePath();
+
+		System.setProperty(FPSetFactory.IMPL_PROPERTY, fpset);
+		this.fpSet = FPSetFactory.getFPSet(new FPSetConfiguration()).init(1, dir, spec);
+		this.trace = new TLCTrace(dir, spec, tool);
+		if (queue.equals("DiskByteArrayQueue")) {
+			this.stateQueue = new DiskByteArrayQueue(dir);
+		} else if (queue.equals("MappedByteArrayQueue")) {
+			this.stateQueue = new MappedByteArrayQueue(dir);
+		} else {
+			this.stateQueue = new DiskStateQueue(dir);
+		}
+
+		// Sample the state space breadth-first (with the same successor
+		// generation as tlc2.tool.Worker) and record each state in the trace so
+		// that it can serve as a predecessor.
+		final List<TLCState> sample = new ArrayList<>(SAMPLE_SIZE);
+		final Set<Long> seen = new HashSet<>();
+		final StateVec inits = tool.getInitStates();
+		for (int i = 0; i < inits.size() && sample.size() < SAMPLE_SIZE; i++) {
+			final TLCState init = inits.elementAt(i);
+			if (seen.add(init.fingerPrint())) {
+				init.uid = trace.writeState(init.fingerPrint());
+				sample.add(init);
+			}
+		}
+		for (int i = 0; i < sample.size() && sample.size() < SAMPLE_SIZE; i++) {
+			final TLCState pred = sample.get(i);
+			tool.getNextStates((INextStateFunctor) (s, a, t) -> {
+				if (sample.size() < SAMPLE_SIZE && seen.add(t.fingerPrint())) {
+					try {
+						t.uid = trace.writeState(s, t.fingerPrint());
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+					sample.add(t);
+				}
+				return null;
+			}, pred);
+		}
+		this.states = sample.toArray(new TLCState[sample.size()]);
+		this.fps = new long[this.states.length];
+		for (int i = 0; i < this.states.length; i++) {
+			this.fps[i] = this.states[i].fingerPrint();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		this.fpSet.close();
+		this.trace.close();
+		this.stateQueue.finishAll();
+		FileUtil.deleteDir(this.metadir, true);
+	}
+
+	private int next() {
+		final int i = next;
+		next = (i + 1) % states.length;
+		return i;
+	}
+
+	/**
+	 * Generates the successors of the next state of the sample.
+	 */
+	@Benchmark
+	public int aGetNextStates() {
+		final int[] cnt = new int[1];
+		tool.getNextStates((INextStateFunctor) (s, a, t) -> {
+			cnt[0]++;
+			return null;
+		}, states[next()]);
+		return cnt[0];
+	}
+
+	@Benchmark
+	public long bFingerPrint() {
+		return states[next()].fingerPrint();
+	}
+
+	/**
+	 * Looks up a fingerprint of a state of the sample. After the first pass
+	 * over the sample, the state has always been seen, which is the common case
+	 * on densely connected state spaces.
+	 */
+	@Benchmark
+	public boolean cFPSetPutSeen() throws IOException {
+		return fpSet.put(fps[next()]);
+	}
+
+	/**
+	 * Inserts a new (random) fingerprint, which is the common case on tree-like
+	 * state spaces. The FPSet grows (and eventually flushes to disk) over the
+	 * course of the benchmark.
+	 */
+	@Benchmark
+	public boolean cFPSetPutNew() throws IOException {
+		return fpSet.put(rng.nextLong());
+	}
+
+	@Benchmark
+	public long dTraceWrite() throws IOException {
+		final int i = next();
+		return trace.writeState(states[i], fps[(i + 1) % fps.length]);
+	}
+
+	/**
+	 * Enqueues a state and dequeues the oldest one to keep the queue's size
+	 * constant (a queue that only grows would measure disk I/O rather than the
+	 * queue).
+	 */
+	@Benchmark
+	public TLCState eEnqueueDequeue() {
+		stateQueue.sEnqueue(states[next()]);
+		return stateQueue.sDequeue();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		final Options opt = new OptionsBuilder().include(ModelCheckerStagesBenchmark.class.getSimpleName()).build();
+		new Runner(opt).run();
+	}
+}
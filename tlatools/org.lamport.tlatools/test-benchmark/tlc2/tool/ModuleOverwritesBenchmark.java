@@ -88,11 +88,9 @@ public class ModuleOverwritesBenchmark {
 	private static final void shuffleValues() {
 		final FcnRcdValue frv = (FcnRcdValue) state.getVals().get(UniqueString.uniqueStringOf("t"));
 
-		final List<Value> values = Arrays.asList(frv.values);
+		// t is not derived by EXCEPT, thus getValues returns its (flat) values, which
+		// the list writes through to.
+		final List<Value> values = Arrays.asList(frv.getValues());
 		Collections.shuffle(values);
-
-		for (int i = 0; i < values.size(); i++) {
-			frv.values[i] = values.get(i);
-		}
 	}
 }
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.distributed;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures how long a TLCServer and a single TLCWorker, connected via loopback
+ * in two separate VMs (see {@link NIOTransportTest}), take to model check
+ * test-model/NIOTransport.tla with RMI and with {@link NIOTransport}. The spec
+ * has cheap large states, thus the time is dominated by the transport.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NIOTransportBenchmark {
+
+	/*
+	 * Run with: java -jar target/benchmarks.jar -wi 1 -i 5 -f 1 -rf json -rff
+	 * NIOTransportBenchmark-$(date +%s)-$(git rev-parse --short HEAD).json
+	 * -jvmArgsAppend "-Dtlc2.tool.distributed.NIOTransportBenchmark.base=$(pwd)/test-model"
+	 * tlc2.tool.distributed.NIOTransportBenchmark
+	 */
+
+	static final String BASE_PATH = System.getProperty(NIOTransportBenchmark.class.getName() + ".base",
+			"test-model");
+
+	@Param({ "RMI", "NIOTransport" })
+	public String transport;
+
+	@Benchmark
+	public long modelCheck() throws IOException, InterruptedException {
+		return NIOTransportTest.run(new File(BASE_PATH), transport.equals("NIOTransport")).millis;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		final Options opt = new OptionsBuilder().include(NIOTransportBenchmark.class.getSimpleName()).build();
+		new Runner(opt).run();
+	}
+}
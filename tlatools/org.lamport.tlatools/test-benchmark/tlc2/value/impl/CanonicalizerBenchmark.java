@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.value.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import tlc2.util.FP64;
+import tlc2.value.ICanonicalizer;
+import tlc2.value.IMVPerm;
+import tlc2.value.IValue;
+
+/**
+ * Compares the canonicalizers that reduce a state under symmetry. A state has
+ * the variables pc \in [Procs -> 0..2] and msgs \subseteq Procs \X Procs.
+ */
+@State(Scope.Benchmark)
+public class CanonicalizerBenchmark {
+
+	static {
+		FP64.Init();
+	}
+
+	@Param({ "4", "5", "6", "7" })
+	public int symmetrySetSize;
+
+	@Param({ "tlc2.value.impl.PermutationCanonicalizer", "tlc2.value.impl.RefiningCanonicalizer" })
+	public String canonicalizer;
+
+	private ICanonicalizer impl;
+
+	private ModelValue[] procs;
+
+	private IValue[][] states;
+
+	@Setup(Level.Trial)
+	public void setup() throws ReflectiveOperationException {
+		ModelValue.init();
+		procs = new ModelValue[symmetrySetSize];
+		for (int i = 0; i < procs.length; i++) {
+			procs[i] = (ModelValue) ModelValue.make("p" + i);
+		}
+		ModelValue.setValues();
+
+		final List<Value> fcns = new ArrayList<>();
+		permutations(procs.clone(), 0, fcns);
+		final IMVPerm[] perms = MVPerms
+				.permutationSubgroup(new SetEnumValue(fcns.toArray(new Value[fcns.size()]), false));
+		impl = (ICanonicalizer) Class.forName(canonicalizer).getConstructor(IMVPerm[].class)
+				.newInstance((Object) perms);
+
+		final Random rnd = new Random(15041980L);
+		states = new IValue[1024][];
+		for (int i = 0; i < states.length; i++) {
+			final Value[] pcs = new Value[procs.length];
+			for (int j = 0; j < procs.length; j++) {
+				pcs[j] = IntValue.gen(rnd.nextInt(3));
+			}
+			final List<Value> msgs = new ArrayList<>();
+			for (int j = 0; j < procs.length; j++) {
+				for (int k = 0; k < procs.length; k++) {
+					if (rnd.nextInt(4) == 0) {
+						msgs.add(new TupleValue(procs[j], procs[k]));
+					}
+				}
+			}
+			states[i] = new IValue[] { new FcnRcdValue(procs, pcs, true),
+					new SetEnumValue(msgs.toArray(new Value[msgs.size()]), false).normalize() };
+		}
+	}
+
+	private void permutations(final ModelValue[] mvs, final int k, final List<Value> fcns) {
+		if (k == mvs.length) {
+			fcns.add(new FcnRcdValue(procs, mvs.clone(), true));
+			return;
+		}
+		for (int i = k; i < mvs.length; i++) {
+			ModelValue tmp = mvs[k];
+			mvs[k] = mvs[i];
+			mvs[i] = tmp;
+			permutations(mvs, k + 1, fcns);
+			mvs[i] = mvs[k];
+			mvs[k] = tmp;
+		}
+	}
+
+	@Benchmark
+	public long canonicalize() {
+		long fp = FP64.New();
+		for (int i = 0; i < states.length; i++) {
+			final IValue[] rep = impl.canonicalize(states[i]);
+			for (int j = 0; j < rep.length; j++) {
+				fp = rep[j].fingerPrint(fp);
+			}
+		}
+		return fp;
+	}
+}
@@ -45,6 +45,11 @@ import tlc2.value.RandomEnumerableValues;
 @State(Scope.Benchmark)
 public class FcnRcdBenchmark {
 
+	/*
+	 * Compare the copying EXCEPT with the trie (see fcnRcdValueTakeExcept):
+	 * java -jar target/benchmarks.jar -jvmArgsAppend "-Dtlc2.value.impl.FcnRcdValue.trie=true" tlc2.value.impl.FcnRcdBenchmark
+	 */
+
 	static {
 		RandomEnumerableValues.setSeed(15041980L);
 		RandomEnumerableValues.reset();
@@ -56,6 +61,10 @@ public class FcnRcdBenchmark {
 	public int size;
 
 	public FcnRcdValue fcnRcd;
+
+	// Created up front to measure function application and not the creation
+	// (interning) of strings.
+	public Value[] args;
 		
 	@Setup(Level.Iteration)
 	public void setup() {
@@ -69,24 +78,29 @@ public class FcnRcdBenchmark {
 		}
 		Collections.shuffle(Arrays.asList(domain));
 		fcnRcd = (FcnRcdValue) new FcnRcdValue(domain, range, false).normalize();
+
+		args = new Value[size];
+		for (int i = 0; i < args.length; i++) {
+			args[i] = new StringValue("asdfghjkoiuytrewqzxcvbn" + i);
+		}
 	}
 
-//	@Benchmark
-//	public Value[] fcnRcdValueSelectIndex() {
-//		Value[] values = new Value[size];
-//		for (int i = 0; i < values.length; i++) {
-//			Value domain = new StringValue("asdfghjkoiuytrewqzxcvbn" + i);
-//			values[i] = fcnRcd.selectIndexTable(domain);
-////			values[i] = fcnRcd.select(IntValue.gen(i));
-//		}
-//		return values;
-//	}
+	@Benchmark
+	public Value[] fcnRcdValueSelectIndex() {
+		Value[] values = new Value[size];
+		for (int i = 0; i < values.length; i++) {
+			Value domain = args[i];
+			values[i] = fcnRcd.selectIndexTable(domain);
+//			values[i] = fcnRcd.select(IntValue.gen(i));
+		}
+		return values;
+	}
 
 	@Benchmark
 	public Value[] fcnRcdValueSelectNoIndex() {
 		Value[] values = new Value[size];
 		for (int i = 0; i < values.length; i++) {
-			Value domain = new StringValue("asdfghjkoiuytrewqzxcvbn" + i);
+			Value domain = args[i];
 			values[i] = fcnRcd.selectLinearSearch(domain);
 //			values[i] = fcnRcd.selectNoIndex(IntValue.gen(i));
 		}
@@ -97,13 +111,23 @@ public class FcnRcdBenchmark {
 	public Value[] fcnRcdValueSelectBinarySearch() {
 		Value[] values = new Value[size];
 		for (int i = 0; i < values.length; i++) {
-			Value domain = new StringValue("asdfghjkoiuytrewqzxcvbn" + i);
+			Value domain = args[i];
 			values[i] = fcnRcd.selectBinarySearch(domain);
 //			values[i] = fcnRcd.selectNoIndex(IntValue.gen(i));
 		}
 		return values;
 	}
 	
+	@Benchmark
+	public Value fcnRcdValueTakeExcept() {
+		// EXCEPT of each domain element, with fcnRcd's index shared by all copies.
+		Value fcn = fcnRcd;
+		for (int i = 0; i < args.length; i++) {
+			fcn = fcn.takeExcept(new ValueExcept(new Value[] { args[i] }, IntValue.ValZero));
+		}
+		return fcn;
+	}
+	
     public static void main(String[] args) throws RunnerException {
         final Options opt = new OptionsBuilder()
                 .include(FcnRcdBenchmark.class.getSimpleName())
@@ -0,0 +1,20 @@
+--------------------------- MODULE DoInitFunctorParallel ---------------------------
+EXTENDS Integers
+
+VARIABLES x, y, z
+vars == <<x, y, z>>
+
+\* 81 * 2 = 162 initial states that are split across the threads at x's domain.
+\* The disjunct for z = 1 enumerates no domain, i.e., its state is generated by
+\* the first thread only.
+Init == \/ /\ x \in [1..4 -> 1..3]
+           /\ y \in {1, 2}
+           /\ z = 0
+        \/ /\ x = <<>>
+           /\ y = 0
+           /\ z = 1
+
+Next == UNCHANGED vars
+
+Spec == Init /\ [][Next]_vars
+=============================================================================
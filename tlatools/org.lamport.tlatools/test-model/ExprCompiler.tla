@@ -0,0 +1,48 @@
+---------------------------- MODULE ExprCompiler ----------------------------
+EXTENDS Naturals
+
+CONSTANT N
+
+VARIABLES x, y, s
+
+vars == <<x, y, s>>
+
+Init == /\ x = 0
+        /\ y = 0
+        /\ s = {}
+
+Next == \/ /\ x < N
+           /\ x' = x + 1
+           /\ s' = s \cup {x}
+           /\ UNCHANGED y
+        \/ /\ y < N
+           /\ y' = y + 1
+           /\ UNCHANGED <<x, s>>
+
+Spec == Init /\ [][Next]_vars
+
+Max(a, b) == IF a > b THEN a ELSE b
+
+Below(v, bound) == v <= bound
+
+TypeOK == /\ x \in 0..N
+          /\ y \in Nat
+          /\ s \subseteq 0..N
+          /\ Below(Max(x, y), N)
+          /\ ~(x > N)
+          /\ (x = N) => (N - 1 \in s)
+          /\ (x # 0) <=> (0 \in s)
+          /\ \A e \in s : e < x
+          /\ LET z == x + y IN z <= 2 * N
+          /\ x \notin s
+          /\ x >= 0 \/ y < 0
+
+Constraint == x + y <= N + 2
+
+\* Violated once x + y exceeds N + 1 (see ExprCompilerViolation.cfg).
+Bounded == /\ TypeOK
+           /\ Below(x + y, N + 1)
+
+\* Nothing to compile.
+Interpreted == \A e \in s : e < x
+=============================================================================
@@ -0,0 +1,26 @@
+------------------------------ MODULE Memoize ------------------------------
+EXTENDS Naturals, FiniteSets, TLC
+
+VARIABLE x
+
+RECURSIVE Fib(_)
+Fib(n) == IF n < 2 THEN n ELSE Fib(n - 1) + Fib(n - 2)
+
+MaximalSubsets(S) == {S \ {s} : s \in S}
+
+\* Not memoized because TLCGet("level") depends on the current behavior.
+Level(n) == n + TLCGet("level")
+
+Init == x = 0
+
+Next == x' = (x + 1) % 21
+
+Spec == Init /\ [][Next]_x
+
+Inv == /\ Fib(x + 2) = Fib(x + 1) + Fib(x)
+       /\ Fib(20) = 6765
+       /\ Cardinality(MaximalSubsets(1..(x % 4))) = x % 4
+       \* Not memoized because G refers to the bound identifier i.
+       /\ \A i \in 0..x : LET G(j) == i + j IN G(0) = i
+       /\ Level(0) = TLCGet("level")
+=============================================================================
@@ -0,0 +1,28 @@
+------------------------------ MODULE Counters ------------------------------
+EXTENDS Naturals
+
+\*
+\* A wide and shallow state space: Each of the N counters of the function
+\* c can be incremented independently up to K, which makes for (K+1)^N states
+\* with a branching factor of up to N. Many successors are found in several
+\* ways, thus FPSet lookups of already seen states are frequent.
+\*
+
+CONSTANTS N, K
+
+VARIABLE c
+
+Init == c = [p \in 1..N |-> 0]
+
+Inc == \E p \in 1..N : c[p] < K /\ c' = [c EXCEPT ![p] = @ + 1]
+
+\* The final state stutters (no deadlock).
+Done == \A p \in 1..N : c[p] = K /\ UNCHANGED c
+
+Next == Inc \/ Done
+
+Spec == Init /\ [][Next]_c
+
+Inv == \A p \in 1..N : c[p] <= K
+
+=============================================================================
@@ -0,0 +1,23 @@
+------------------------------ MODULE PowerSet ------------------------------
+EXTENDS Naturals
+
+\*
+\* A densely connected state space: Any element of 1..N can be added to or
+\* removed from the set S, i.e. there are 2^N states and each state has N
+\* successors, all but a few of which have been seen before. Successor
+\* generation and fingerprinting dominate.
+\*
+
+CONSTANT N
+
+VARIABLE S
+
+Init == S = {}
+
+Next == \E x \in 1..N : S' = IF x \in S THEN S \ {x} ELSE S \cup {x}
+
+Spec == Init /\ [][Next]_S
+
+Inv == S \subseteq 1..N
+
+=============================================================================
@@ -0,0 +1,28 @@
+------------------------------ MODULE Tree ------------------------------
+EXTENDS Naturals, Sequences
+
+\*
+\* A deep tree-shaped state space (see also simulation/BenchmarkSpec): Each
+\* state has B new successors up to depth D, thus no successor is found twice
+\* and every generated state is written to the trace and enqueued. States
+\* grow with their depth.
+\*
+
+CONSTANTS D, B
+
+VARIABLE hist
+
+Init == hist = <<>>
+
+Grow == Len(hist) < D /\ \E e \in 1..B : hist' = Append(hist, e)
+
+\* The leaves stutter (no deadlock).
+Done == Len(hist) = D /\ UNCHANGED hist
+
+Next == Grow \/ Done
+
+Spec == Init /\ [][Next]_hist
+
+Inv == Len(hist) <= D
+
+=============================================================================
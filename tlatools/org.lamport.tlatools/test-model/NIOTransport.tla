@@ -0,0 +1,12 @@
+---------------------------- MODULE NIOTransport ----------------------------
+\* 2000 chains of 30 large states each. Every successor is a new state, and
+\* the next-state relation is cheap, so distributed TLC spends most of its
+\* time transferring states between the server and its workers.
+EXTENDS Naturals
+
+VARIABLES n, c, f
+
+Init == n \in 1..2000 /\ c = 0 /\ f = [i \in 1..400 |-> 0]
+
+Next == c < 30 /\ c' = c + 1 /\ f' = [f EXCEPT ![c + 1] = n] /\ UNCHANGED n
+=============================================================================
@@ -0,0 +1,21 @@
+--------------------------- MODULE ParallelExists ---------------------------
+EXTENDS Naturals, FiniteSets
+
+VARIABLES x, y
+vars == <<x, y>>
+
+Init == x = {} /\ y = 0
+
+\* The initial state has 2 * 2^10 = 2048 successors that are generated by a
+\* single bounded existential quantifier.
+Next == \/ /\ y = 0
+           /\ \E S \in SUBSET (1..10), i \in 1..2 : x' = S /\ y' = i
+        \/ /\ y > 0
+           /\ UNCHANGED vars
+
+Spec == Init /\ [][Next]_vars
+
+TypeOK == x \subseteq 1..10 /\ y \in 0..2 /\ (y = 0 => x = {})
+
+NotThreeSeven == x # {3, 7}
+=============================================================================
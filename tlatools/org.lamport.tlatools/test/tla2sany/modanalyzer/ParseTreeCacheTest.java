@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tla2sany.modanalyzer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import tla2sany.drivers.SANY;
+import tla2sany.parser.CachedParseTree;
+import tla2sany.parser.SyntaxTreeNode;
+import tla2sany.parser.TLAplusParser;
+import tla2sany.st.ParseTree;
+import tla2sany.st.TreeNode;
+import tlc2.tool.CommonTestCase;
+import util.SimpleFilenameToStream;
+import util.ToolIO;
+
+public class ParseTreeCacheTest {
+
+	private File dir;
+	private File cache;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("ParseTreeCacheTest").toFile();
+		cache = new File(dir, "cache");
+		System.setProperty(ParseTreeCache.DIR_KEY, cache.getAbsolutePath());
+
+		write("Root", "EXTENDS Naturals, Dep\nVARIABLE x\n(* The initial state. *)\nInit == x = Zero\nNext == x' = x + One\n"
+				+ "THEOREM Next => x' > x\n<1>1. x + One > x OBVIOUS\n<*> QED BY <1>1");
+		write("Dep", "LOCAL Hidden == 42\nZero == 0\nOne == 1");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		System.clearProperty(ParseTreeCache.DIR_KEY);
+		try (Stream<Path> paths = Files.walk(dir.toPath())) {
+			paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	private void write(final String module, final String body) throws IOException {
+		final String content = "---- MODULE " + module + " ----\n" + body + "\n====\n";
+		Files.write(file(module).toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private File file(final String module) {
+		return new File(dir, module + ".tla");
+	}
+
+	private String frontEnd(final SpecObj spec) throws Exception {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final PrintStream old = ToolIO.out;
+		ToolIO.out = new PrintStream(out);
+		try {
+			assertEquals(0, SANY.frontEndMain(spec, spec.getFileName(), ToolIO.out));
+		} finally {
+			ToolIO.out = old;
+		}
+		assertEquals(out.toString(), 0, spec.getErrorLevel());
+		return out.toString();
+	}
+
+	private SpecObj spec() {
+		return new SpecObj(file("Root").getAbsolutePath(), new SimpleFilenameToStream(dir.getAbsolutePath()));
+	}
+
+	private static TreeNode parse(final InputStream in) {
+		final TLAplusParser parser = new TLAplusParser(in);
+		assertTrue(parser.parse());
+		return parser.rootNode();
+	}
+
+	private static TreeNode parse(final File file) throws IOException {
+		try (InputStream in = new FileInputStream(file)) {
+			return parse(in);
+		}
+	}
+
+	private static void assertTreeEquals(final TreeNode expected, final TreeNode actual) {
+		assertTreeEquals(expected, actual, new IdentityHashMap<>());
+	}
+
+	private static void assertTreeEquals(final TreeNode expected, final TreeNode actual,
+			final Map<TreeNode, TreeNode> seen) {
+		if (expected == null) {
+			assertNull(actual);
+			return;
+		}
+		// A node that occurs more than once in the parsed tree is the same node in
+		// the cached one.
+		final TreeNode other = seen.put(expected, actual);
+		if (other != null) {
+			assertSame(other, actual);
+			return;
+		}
+		assertEquals(expected.getKind(), actual.getKind());
+		assertSame(expected.getUS(), actual.getUS());
+		assertSame(((SyntaxTreeNode) expected).originalImage, ((SyntaxTreeNode) actual).originalImage);
+		assertSame(((SyntaxTreeNode) expected).getFN(), ((SyntaxTreeNode) actual).getFN());
+		assertArrayEquals(expected.getLocation().getCoordinates(), actual.getLocation().getCoordinates());
+		assertArrayEquals(expected.getPreComments(), actual.getPreComments());
+		assertHeirsEquals(expected.zero(), actual.zero(), seen);
+		assertHeirsEquals(expected.one(), actual.one(), seen);
+	}
+
+	private static void assertHeirsEquals(final TreeNode[] expected, final TreeNode[] actual,
+			final Map<TreeNode, TreeNode> seen) {
+		if (expected == null) {
+			assertNull(actual);
+			return;
+		}
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertTreeEquals(expected[i], actual[i], seen);
+		}
+	}
+
+	@Test
+	public void testHit() throws Exception {
+		final String parsed = frontEnd(spec());
+		assertNotNull(ParseTreeCache.of(file("Root")).load());
+		assertNotNull(ParseTreeCache.of(file("Dep")).load());
+
+		// The front end's output (the "Parsing file" lines of which the Toolbox
+		// relies on) is the same whether or not the trees come from the cache.
+		final SpecObj spec = spec();
+		assertEquals(parsed, frontEnd(spec));
+		assertEquals("Root", spec.getName());
+		assertNotNull(spec.getExternalModuleTable().getRootModule().getOpDef("Init"));
+
+		final ParseTree cached = ParseTreeCache.of(file("Root")).load();
+		assertEquals("Root", cached.moduleName());
+		assertArrayEquals(new String[] { "Naturals", "Dep" }, cached.dependencies());
+		assertTreeEquals(parse(file("Root")), cached.rootNode());
+		assertTreeEquals(parse(file("Dep")), ParseTreeCache.of(file("Dep")).load().rootNode());
+	}
+
+	@Test
+	public void testChanged() throws Exception {
+		frontEnd(spec());
+
+		write("Dep", "LOCAL Hidden == 42\nZero == 0\nOne == 1\nTwo == 2");
+		assertNull(ParseTreeCache.of(file("Dep")).load());
+
+		final SpecObj spec = spec();
+		frontEnd(spec);
+		assertNotNull(spec.getExternalModuleTable().getRootModule().getOpDef("Two"));
+		assertTreeEquals(parse(file("Dep")), ParseTreeCache.of(file("Dep")).load().rootNode());
+	}
+
+	@Test
+	public void testCorrupt() throws Exception {
+		frontEnd(spec());
+		final File[] entries = cache.listFiles();
+		assertTrue(entries.length >= 2);
+		for (File entry : entries) {
+			final byte[] bytes = Files.readAllBytes(entry.toPath());
+			Files.write(entry.toPath(), Arrays.copyOf(bytes, bytes.length / 2));
+		}
+		assertNull(ParseTreeCache.of(file("Root")).load());
+
+		// Falls back to parsing and replaces the entries.
+		final SpecObj spec = spec();
+		frontEnd(spec);
+		assertNotNull(spec.getExternalModuleTable().getRootModule().getOpDef("Init"));
+		assertTreeEquals(parse(file("Root")), ParseTreeCache.of(file("Root")).load().rootNode());
+	}
+
+	@Test
+	public void testInactive() throws Exception {
+		System.clearProperty(ParseTreeCache.DIR_KEY);
+		assertNull(ParseTreeCache.of(file("Root")));
+		frontEnd(spec());
+		assertFalse(cache.exists());
+	}
+
+	@Test
+	public void testRoundTripTestModels() throws Exception {
+		final List<Path> modules;
+		try (Stream<Path> paths = Files.walk(new File(CommonTestCase.BASE_PATH).toPath())) {
+			modules = paths.filter(p -> p.toString().endsWith(".tla")).collect(Collectors.toList());
+		}
+		// The parser needs the built-in operators.
+		SANY.frontEndInitialize(spec(), ToolIO.out);
+		int n = 0;
+		for (Path module : modules) {
+			final TLAplusParser parser;
+			final boolean parsed;
+			final PrintStream old = ToolIO.out;
+			ToolIO.out = new PrintStream(new ByteArrayOutputStream());
+			try (InputStream in = new FileInputStream(module.toFile())) {
+				parser = new TLAplusParser(in);
+				parsed = parser.parse();
+			} finally {
+				ToolIO.out = old;
+			}
+			if (!parsed) {
+				continue;
+			}
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			CachedParseTree.write(parser, new DataOutputStream(out));
+			final ParseTree cached = CachedParseTree
+					.read(new DataInputStream(new ByteArrayInputStream(out.toByteArray())));
+
+			assertEquals(parser.moduleName(), cached.moduleName());
+			assertArrayEquals(parser.dependencies(), cached.dependencies());
+			assertTreeEquals(parser.rootNode(), cached.rootNode());
+			n++;
+		}
+		assertTrue(n > 400);
+	}
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved. 
+ *
+ * The MIT License (MIT)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software. 
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import tlc2.output.EC;
+import tlc2.tool.impl.Tool;
+import tlc2.tool.liveness.ModelCheckerTestCase;
+
+public class MemoizeTest extends ModelCheckerTestCase {
+
+	public MemoizeTest() {
+		super("Memoize");
+	}
+
+	@Override
+	protected void beforeSetUp() {
+		System.setProperty(Tool.MEMOIZE_KEY, "true");
+	}
+
+	@Override
+	protected boolean runWithDebugger() {
+		// The debugger evaluates every application.
+		return false;
+	}
+
+	@Test
+	public void testSpec() {
+		assertTrue(recorder.recorded(EC.TLC_FINISHED));
+		assertFalse(recorder.recorded(EC.GENERAL));
+		assertFalse(recorder.recorded(EC.TLC_INVARIANT_VIOLATED_BEHAVIOR));
+
+		assertTrue(recorder.recordedWithStringValues(EC.TLC_STATS, "22", "21", "0"));
+
+		// Only the pure operators are memoized.
+		final List<String[]> memoized = recorder.getRecordAsStringArray(EC.TLC_COVERAGE_MEMOIZED);
+		assertEquals(2, memoized.size());
+		assertTrue(memoized.get(0)[0].startsWith("<Fib "));
+		assertTrue(memoized.get(1)[0].startsWith("<MaximalSubsets "));
+
+		// Fib(20) is evaluated once, Fib(x + 2) reuses Fib(x + 1) and Fib(x) of the
+		// previous states, ...
+		assertTrue(Long.parseLong(memoized.get(0)[1]) > Long.parseLong(memoized.get(0)[2]));
+		// ...and MaximalSubsets(1..(x % 4)) has four distinct arguments.
+		assertEquals("17", memoized.get(1)[1]);
+		assertEquals("4", memoized.get(1)[2]);
+	}
+}
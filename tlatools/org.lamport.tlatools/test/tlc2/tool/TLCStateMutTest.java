@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import tlc2.util.FP64;
+import tlc2.value.IValue;
+import tlc2.value.impl.FcnRcdValue;
+import tlc2.value.impl.IntValue;
+import tlc2.value.impl.IntervalValue;
+import tlc2.value.impl.RecordValue;
+import tlc2.value.impl.StringValue;
+import tlc2.value.impl.TupleValue;
+import tlc2.value.impl.Value;
+import util.UniqueString;
+
+public class TLCStateMutTest {
+
+	private static final int NUM_VARS = 4;
+
+	@BeforeClass
+	public static void setup() {
+		FP64.Init();
+		TLCStates.createDummyState(NUM_VARS);
+	}
+
+	private static long fingerPrint(final IValue[] vals) {
+		long fp = FP64.New();
+		for (int i = 0; i < vals.length; i++) {
+			fp = vals[i].fingerPrint(fp);
+		}
+		return fp;
+	}
+
+	private static Value[] values(final int n, final Random rnd) {
+		final Value[] vals = new Value[n];
+		for (int i = 0; i < n; i++) {
+			vals[i] = IntValue.gen(rnd.nextInt(100));
+		}
+		return vals;
+	}
+
+	@Test
+	public void testIncrementalFingerPrint() {
+		final Random rnd = new Random(15041980L);
+
+		// A pool of values that successive states (re-)use for their variables.
+		final Value[] pool = new Value[] {
+				IntValue.gen(42),
+				new StringValue("abc"),
+				new TupleValue(values(100, rnd)),
+				new TupleValue(values(3, rnd)),
+				new FcnRcdValue(new IntervalValue(1, 1000), values(1000, rnd)),
+				new RecordValue(UniqueString.of("a"), new TupleValue(values(50, rnd))),
+				TupleValue.EmptyTuple };
+
+		final TLCState s0 = TLCState.Empty.createEmpty();
+		final IValue[] vals = new IValue[NUM_VARS];
+		for (int i = 0; i < 10000; i++) {
+			final TLCState s = s0.createEmpty();
+			for (int j = 0; j < NUM_VARS; j++) {
+				// Mostly keep the value of the previous state.
+				if (vals[j] == null || rnd.nextInt(4) == 0) {
+					vals[j] = pool[rnd.nextInt(pool.length)];
+				}
+				s.bind(UniqueString.of("v" + j), vals[j]);
+			}
+			assertEquals(fingerPrint(vals), s.fingerPrint());
+		}
+
+		// Different irreducible polynomial.
+		FP64.Init(1);
+		try {
+			final TLCState s = s0.createEmpty();
+			for (int j = 0; j < NUM_VARS; j++) {
+				s.bind(UniqueString.of("v" + j), vals[j]);
+			}
+			assertEquals(fingerPrint(vals), s.fingerPrint());
+			assertEquals(fingerPrint(vals), s.fingerPrint());
+		} finally {
+			FP64.Init();
+		}
+	}
+}
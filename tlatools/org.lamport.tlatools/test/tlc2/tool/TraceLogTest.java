@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import tlc2.util.BufferedRandomAccessFile;
+
+public class TraceLogTest {
+
+	// Tiny chunks to exercise records that straddle chunks and a ring that wraps.
+	private static final int CHUNK_BITS = 6;
+
+	private static long predecessor(final int i) {
+		// Alternate between the 4 and 8 byte encoding of writeLongNat.
+		return i % 3 == 0 ? 0x7fffffffL + i : i;
+	}
+
+	private static int worker(final int i) {
+		// Alternate between the 1 and 2 byte encoding of writeShortNat.
+		return i % 5 == 0 ? 200 + (i % 50) : i % 100;
+	}
+
+	private static long fp(final int i) {
+		return new Random(i).nextLong();
+	}
+
+	private static TraceLog newDisk(final String name) throws IOException {
+		final File tmpFile = File.createTempFile("TraceLogTest_" + name, TLCTrace.EXT);
+		tmpFile.deleteOnExit();
+		return new TraceLog.Disk(tmpFile.getAbsolutePath(), CHUNK_BITS, 2);
+	}
+
+	private static TraceLog newMemory(final String name) throws IOException {
+		final File tmpFile = File.createTempFile("TraceLogTest_" + name, TLCTrace.EXT);
+		tmpFile.deleteOnExit();
+		return new TraceLog.Memory(tmpFile.getAbsolutePath(), CHUNK_BITS);
+	}
+
+	private static void assertRecord(final int i, final ConcurrentTLCTrace.Record record) {
+		assertEquals(fp(i), record.getFP());
+		assertEquals(worker(i), record.getWorkerId());
+		assertEquals(predecessor(i), record.getPtr());
+	}
+
+	@Test
+	public void testDiskFormat() throws IOException {
+		testFormat(newDisk("testDiskFormat"));
+	}
+
+	@Test
+	public void testMemoryFormat() throws IOException {
+		testFormat(newMemory("testMemoryFormat"));
+	}
+
+	private static void testFormat(final TraceLog log) throws IOException {
+		final File tmpFile = File.createTempFile("TraceLogTest_testFormat", ".bin");
+		tmpFile.deleteOnExit();
+		final BufferedRandomAccessFile raf = new BufferedRandomAccessFile(tmpFile, "rw");
+
+		final long[] ptrs = new long[1000];
+		for (int i = 0; i < ptrs.length; i++) {
+			ptrs[i] = log.append(predecessor(i), worker(i), fp(i));
+
+			assertEquals(raf.getFilePointer(), ptrs[i]);
+			raf.writeLongNat(predecessor(i));
+			raf.writeShortNat(worker(i));
+			raf.writeLong(fp(i));
+		}
+		raf.close();
+
+		assertEquals(tmpFile.length(), log.getPosition());
+		for (int i = ptrs.length - 1; i >= 0; i--) {
+			assertRecord(i, log.read(ptrs[i]));
+		}
+
+		// Byte-for-byte identical to what Worker wrote into its trace file before.
+		assertEquals(tmpFile.length(), log.sync());
+		assertArrayEquals(Files.readAllBytes(tmpFile.toPath()), Files.readAllBytes(new File(log.filename).toPath()));
+
+		final Worker.Enumerator elements = log.elements();
+		for (int i = 0; i < ptrs.length; i++) {
+			assertTrue(elements.hasMoreFP());
+			assertEquals(fp(i), elements.nextFP());
+		}
+		assertFalse(elements.hasMoreFP());
+		elements.close();
+		log.close();
+	}
+
+	@Test
+	public void testDiskRecover() throws IOException {
+		final TraceLog log = newDisk("testDiskRecover");
+		testRecover(log, new TraceLog.Disk(log.filename, CHUNK_BITS, 2));
+	}
+
+	@Test
+	public void testMemoryRecover() throws IOException {
+		final TraceLog log = newMemory("testMemoryRecover");
+		testRecover(log, new TraceLog.Memory(log.filename, CHUNK_BITS));
+	}
+
+	private static void testRecover(final TraceLog log, final TraceLog recovered) throws IOException {
+		final long[] ptrs = new long[1000];
+		for (int i = 0; i < 500; i++) {
+			ptrs[i] = log.append(predecessor(i), worker(i), fp(i));
+		}
+		final long chkpt = log.sync();
+		// Appended after the checkpoint and thus lost.
+		for (int i = 500; i < 600; i++) {
+			log.append(42L, 42, 42L);
+		}
+		log.close();
+
+		recovered.recover(chkpt);
+		for (int i = 500; i < ptrs.length; i++) {
+			ptrs[i] = recovered.append(predecessor(i), worker(i), fp(i));
+		}
+		for (int i = 0; i < ptrs.length; i++) {
+			assertRecord(i, recovered.read(ptrs[i]));
+		}
+		recovered.close();
+	}
+
+	@Test
+	public void testDiskConcurrentRead() throws Exception {
+		testConcurrentRead(newDisk("testDiskConcurrentRead"));
+	}
+
+	@Test
+	public void testMemoryConcurrentRead() throws Exception {
+		testConcurrentRead(newMemory("testMemoryConcurrentRead"));
+	}
+
+	private static void testConcurrentRead(final TraceLog log) throws Exception {
+		final int n = 100_000;
+		final long[] ptrs = new long[n];
+		// Publishes ptrs to the reader, like the state queue publishes states.
+		final AtomicInteger appended = new AtomicInteger();
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		final Thread reader = new Thread(() -> {
+			final Random rnd = new Random(4711);
+			try {
+				int a;
+				while ((a = appended.get()) < n) {
+					if (a > 0) {
+						// Mostly recent records, which have likely not been flushed yet.
+						final int i = rnd.nextBoolean() ? a - 1 : rnd.nextInt(a);
+						assertRecord(i, log.read(ptrs[i]));
+					}
+				}
+			} catch (Throwable e) {
+				failure.set(e);
+			}
+		});
+		reader.start();
+
+		for (int i = 0; i < n; i++) {
+			ptrs[i] = log.append(predecessor(i), worker(i), fp(i));
+			appended.set(i + 1);
+		}
+		reader.join();
+		if (failure.get() != null) {
+			throw new AssertionError(failure.get());
+		}
+		log.close();
+	}
+}
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.coverage;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class CostModelCountersTest {
+
+	private final CostModelCounters counters = new CostModelCounters();
+
+	// Sampling counts the evaluations of each node separately. A single countdown
+	// for all nodes would add every N-th evaluation to whichever node happens to
+	// be evaluated at that moment, e.g. always to b below.
+	@Test
+	public void testSamplingPerNode() {
+		final int a = counters.allocate(1);
+		final int b = counters.allocate(1);
+
+		for (int i = 0; i < 8; i++) {
+			counters.sample(a, 2);
+			counters.sample(b, 2);
+		}
+		assertEquals(8L, counters.get(a));
+		assertEquals(8L, counters.get(b));
+	}
+
+	// The count of a node grows by N on every N-th evaluation.
+	@Test
+	public void testSamplingEstimate() {
+		final int slot = counters.allocate(1);
+
+		for (int i = 0; i < 3; i++) {
+			counters.sample(slot, 4);
+		}
+		assertEquals(0L, counters.get(slot));
+
+		counters.sample(slot, 4);
+		assertEquals(4L, counters.get(slot));
+
+		for (int i = 0; i < 5; i++) {
+			counters.sample(slot, 4);
+		}
+		assertEquals(8L, counters.get(slot));
+	}
+
+	// Without sampling, every evaluation counts.
+	@Test
+	public void testNoSampling() {
+		final int slot = counters.allocate(1);
+
+		for (int i = 0; i < 3; i++) {
+			counters.sample(slot, 1);
+		}
+		assertEquals(3L, counters.get(slot));
+	}
+
+	// Clearing at the end of a run releases the counts of all threads.
+	@Test
+	public void testClear() throws InterruptedException {
+		final int slot = counters.allocate(1);
+		counters.add(slot, 2L);
+		final Thread t = new Thread(() -> counters.add(slot, 3L));
+		t.start();
+		t.join();
+		assertEquals(5L, counters.get(slot));
+
+		counters.clear();
+		assertEquals(0L, counters.get(slot));
+	}
+}
@@ -25,6 +25,13 @@
  ******************************************************************************/
 package tlc2.tool.coverage;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.w3c.dom.Document;
@@ -137,6 +144,49 @@ public class OpApplNodeWrapperTest {
 						"  |In module --TLA+ BUILTINS--: 1");
 	}
 	
+	@Test
+	public void testGetChild() {
+		final OpApplNodeWrapper root = new OpApplNodeWrapper(new DummyOpApplNode(new DummySymbolNode("root")), null,
+				new CostModelCounters());
+		final List<OpApplNodeWrapper> children = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			final OpApplNodeWrapper child = getNode(i);
+			root.addChild(child);
+			children.add(child);
+		}
+		for (final OpApplNodeWrapper child : children) {
+			assertSame(child, root.get(child.getNode()));
+		}
+		// Neither a child nor root itself.
+		final OpApplNode unknown = new DummyOpApplNode(new DummySymbolNode("unknown"));
+		assertNull(root.lookup(unknown));
+	}
+
+	@Test
+	public void testCountsOfThreads() throws InterruptedException {
+		final OpApplNodeWrapper root = new OpApplNodeWrapper();
+		final OpApplNodeWrapper child = getNode(0);
+		root.addChild(child);
+
+		final Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(() -> {
+				for (int j = 0; j < 1000; j++) {
+					root.getAndIncrement(child.getNode());
+					child.incSecondary(2);
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		// The counts of the terminated threads are retained.
+		assertEquals(4000L, child.getEvalCount());
+		assertEquals(8000L, child.getSecondary());
+		assertEquals(0L, root.getEvalCount());
+	}
+	
 	// It is dummies all the way down...
 	
 	private OpApplNodeWrapper getNode(long count) {
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.distributed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import tlc2.tool.CommonTestCase;
+import util.FileUtil;
+
+/**
+ * Runs a TLCServer and a TLCWorker in two separate VMs connected via loopback,
+ * once with RMI and once with {@link NIOTransport}, and compares the states
+ * found. NIOTransportBenchmark compares the throughput.
+ */
+public class NIOTransportTest {
+
+	private static final String SPEC = "NIOTransport";
+	private static final long TIMEOUT = 5 * 60;
+	private static final int DISTINCT_STATES = 62000;
+
+	// The number of generated states varies with the order in which the worker
+	// sends its successor states to the server.
+	private static final Pattern DISTINCT = Pattern.compile("\\S+ distinct states found");
+
+	@Test
+	public void testSameStates() throws Exception {
+		final Run rmi = run(new File(CommonTestCase.BASE_PATH), false);
+		final Run nio = run(new File(CommonTestCase.BASE_PATH), true);
+
+		assertFalse(rmi.server, rmi.server.contains("via NIOTransport"));
+		assertTrue(nio.server, nio.server.contains("via NIOTransport"));
+
+		assertEquals(distinct(rmi.server), distinct(nio.server));
+	}
+
+	private static String distinct(final String out) {
+		final Matcher matcher = DISTINCT.matcher(out);
+		assertTrue(out, matcher.find());
+		return matcher.group();
+	}
+
+	/**
+	 * @param dir The directory of the spec {@link #SPEC}.
+	 */
+	static Run run(final File dir, final boolean nio) throws IOException, InterruptedException {
+		final File metadir = Files.createTempDirectory(SPEC).toFile();
+		final File serverLog = File.createTempFile(SPEC, "-server.log");
+		final File workerLog = File.createTempFile(SPEC, "-worker.log");
+		serverLog.deleteOnExit();
+		workerLog.deleteOnExit();
+
+		final Process server = new ProcessBuilder(
+				java(TLCServer.class, "-deadlock", "-metadir", metadir.getAbsolutePath(), SPEC)).directory(dir)
+						.redirectErrorStream(true).redirectOutput(serverLog).start();
+		try {
+			final long start = System.currentTimeMillis();
+			final Process worker = new ProcessBuilder(java(TLCWorker.class,
+					"-D" + NIOTransport.ENABLED_KEY + "=" + nio,
+					"-D" + TLCWorker.class.getName() + ".threadCount=1", "localhost")).directory(dir)
+							.redirectErrorStream(true).redirectOutput(workerLog).start();
+			try {
+				assertTrue("Server did not terminate", server.waitFor(TIMEOUT, TimeUnit.SECONDS));
+				final long millis = System.currentTimeMillis() - start;
+
+				final String out = new String(Files.readAllBytes(serverLog.toPath()), StandardCharsets.UTF_8);
+				assertEquals(out, 0, server.exitValue());
+				assertTrue(out, out.contains("Model checking completed. No error has been found."));
+				// 2000 chains of 31 states each.
+				assertTrue(out, out.contains(DISTINCT_STATES + " distinct states found"));
+
+				assertTrue("Worker did not terminate", worker.waitFor(TIMEOUT, TimeUnit.SECONDS));
+				return new Run(out, millis);
+			} finally {
+				worker.destroyForcibly();
+			}
+		} finally {
+			server.destroyForcibly();
+			FileUtil.deleteDir(metadir, true);
+		}
+	}
+
+	/*
+	 * The VM arguments following mainClass start with -D, the rest are program
+	 * arguments.
+	 */
+	private static List<String> java(final Class<?> mainClass, final String... args) {
+		final List<String> cmd = new ArrayList<String>();
+		cmd.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		cmd.add("-cp");
+		// The VMs run in the spec's directory.
+		final StringBuilder cp = new StringBuilder();
+		for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+			cp.append(new File(entry).getAbsolutePath()).append(File.pathSeparator);
+		}
+		cmd.add(cp.toString());
+		for (String arg : args) {
+			if (arg.startsWith("-D")) {
+				cmd.add(arg);
+			}
+		}
+		cmd.add(mainClass.getName());
+		for (String arg : args) {
+			if (!arg.startsWith("-D")) {
+				cmd.add(arg);
+			}
+		}
+		return cmd;
+	}
+
+	static final class Run {
+		final String server;
+		final long millis;
+
+		Run(final String server, final long millis) {
+			this.server = server;
+			this.millis = millis;
+		}
+	}
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved. 
+ *
+ * The MIT License (MIT)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software. 
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+
+package tlc2.tool.doinitfunctor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import tlc2.output.EC;
+import tlc2.tool.ModelChecker;
+import tlc2.tool.liveness.ModelCheckerTestCase;
+
+public class DoInitFunctorParallelTest extends ModelCheckerTestCase {
+
+	public DoInitFunctorParallelTest() {
+		super("DoInitFunctorParallel", "DoInitFunctor");
+	}
+
+	@Override
+	protected void beforeSetUp() {
+		System.setProperty(ModelChecker.class.getName() + ".parallelInit", "true");
+	}
+
+	@Test
+	public void testSpec() {
+		assertTrue(recorder.recorded(EC.TLC_FINISHED));
+		assertFalse(recorder.recorded(EC.GENERAL));
+
+		// Every initial state is generated exactly once across all threads.
+		assertTrue(recorder.recordedWithStringValues(EC.TLC_INIT_GENERATED1, "163", "s"));
+		assertTrue(recorder.recordedWithStringValues(EC.TLC_STATS, "326", "163", "0"));
+
+		// Progress is reported at 2, 4, ..., 128 initial states as with a single thread.
+		assertEquals(7, recorder.getRecords(EC.TLC_COMPUTING_INIT_PROGRESS).size());
+
+		assertZeroUncovered();
+	}
+
+	@Override
+	protected int getNumberOfThreads() {
+		return 4;
+	}
+}
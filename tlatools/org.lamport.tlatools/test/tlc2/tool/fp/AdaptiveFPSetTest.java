@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.fp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import util.TLCRuntime;
+
+public class AdaptiveFPSetTest {
+
+	private static final String filename = "AdaptiveFPSetTest";
+
+	@Before
+	public void setup() {
+		Assume.assumeTrue(TLCRuntime.getInstance().getArchitecture() == TLCRuntime.ARCH.x86_64);
+	}
+
+	@Test
+	public void testGrowInHeap() throws IOException {
+		final AdaptiveFPSet fpSet = newFPSet(1 << 16, 16, 1 << 20);
+
+		final Set<Long> fps = insert(fpSet, 4711L, 10000);
+		assertEquals(fps.size(), fpSet.size());
+		assertEquals(1, fpSet.getTier());
+		assertTrue(fpSet.getResizeCnt() >= 10);
+		assertTrue(fpSet.getLoadFactor() <= .75d);
+
+		for (Long fp : fps) {
+			assertTrue(fpSet.contains(fp));
+			assertTrue(fpSet.put(fp));
+		}
+		assertEquals(fps.size(), fpSet.size());
+		assertTrue(fpSet.checkFPs() > 0);
+		fpSet.close();
+	}
+
+	@Test
+	public void testMigrateOffHeapAndToDisk() throws IOException {
+		// 2^12 off-heap slots cap the in-heap table at 2^11 slots.
+		final AdaptiveFPSet fpSet = newFPSet(1 << 12, 16, 1 << 20);
+
+		final Set<Long> fps = insert(fpSet, 815L, 1600);
+		assertEquals(2, fpSet.getTier());
+		assertEquals(fps.size(), fpSet.size());
+		assertEquals(0, fpSet.getGrowDiskMark());
+
+		// More fingerprints than fit into the off-heap table.
+		fps.addAll(insert(fpSet, 4242L, 10000));
+		assertEquals(3, fpSet.getTier());
+		assertTrue(fpSet.getGrowDiskMark() > 0);
+		assertEquals(fps.size(), fpSet.size());
+
+		for (Long fp : fps) {
+			assertTrue(fpSet.contains(fp));
+			assertTrue(fpSet.put(fp));
+		}
+		assertEquals(fps.size(), fpSet.size());
+		// Do not close fpSet: OffHeapDiskFPSet's (static) synchronizer keeps
+		// evicting all instances ever created.
+	}
+
+	@Test
+	public void testCheckpointRecoverInHeap() throws IOException {
+		final String metadir = createTmpFile();
+		final AdaptiveFPSet fpSet = newFPSet(1 << 16, 16, 1 << 20, metadir);
+		final Set<Long> fps = insert(fpSet, 4711L, 10000);
+		assertEquals(1, fpSet.getTier());
+
+		fpSet.beginChkpt(filename);
+		fpSet.commitChkpt(filename);
+		// Fingerprints inserted after the checkpoint are not recovered.
+		insert(fpSet, 815L, 100);
+		fpSet.close();
+
+		assertRecovered(fps, metadir);
+	}
+
+	@Test
+	public void testCheckpointOffHeapRecoverInHeap() throws IOException {
+		final String metadir = createTmpFile();
+		// 2^12 off-heap slots cap the in-heap table at 2^11 slots.
+		final AdaptiveFPSet fpSet = newFPSet(1 << 12, 16, 1 << 20, metadir);
+		final Set<Long> fps = insert(fpSet, 815L, 1600);
+		assertEquals(2, fpSet.getTier());
+
+		fpSet.beginChkpt(filename);
+		fpSet.commitChkpt(filename);
+		// The checkpoint has flushed the off-heap table to disk.
+		assertEquals(3, fpSet.getTier());
+		assertEquals(fps.size(), fpSet.size());
+		for (Long fp : fps) {
+			assertTrue(fpSet.contains(fp));
+		}
+		// Do not close fpSet (see testMigrateOffHeapAndToDisk).
+
+		// A fresh instance starts in the in-heap table again.
+		assertRecovered(fps, metadir);
+	}
+
+	private static void assertRecovered(final Set<Long> fps, final String metadir) throws IOException {
+		final AdaptiveFPSet recovered = newFPSet(1 << 16, 16, 1 << 20, metadir);
+		recovered.recover(filename);
+		assertEquals(1, recovered.getTier());
+		assertEquals(fps.size(), recovered.size());
+		for (Long fp : fps) {
+			assertTrue(recovered.contains(fp));
+		}
+		recovered.close();
+	}
+
+	@Test
+	public void testConcurrentGrowInHeap() throws Exception {
+		doTestConcurrent(newFPSet(1 << 22, 16, 1 << 20), 1);
+	}
+
+	@Test
+	public void testConcurrentMigrateOffHeap() throws Exception {
+		// The off-heap table is large enough to never evict to disk.
+		doTestConcurrent(newFPSet(1 << 22, 16, 1 << 12), 2);
+	}
+
+	private void doTestConcurrent(final AdaptiveFPSet fpSet, final int expectedTier) throws Exception {
+		final int numThreads = 4;
+		final int n = 50000;
+
+		final Set<Long> unique = ConcurrentHashMap.newKeySet();
+		final AtomicLong misses = new AtomicLong();
+		final CountDownLatch latch = new CountDownLatch(1);
+
+		final ExecutorService es = Executors.newFixedThreadPool(numThreads);
+		try {
+			final Future<?>[] futures = new Future<?>[numThreads];
+			for (int i = 0; i < numThreads; i++) {
+				// Each pair of threads inserts the same fingerprints to
+				// provoke concurrent inserts of identical values.
+				final long seed = i / 2;
+				futures[i] = es.submit(() -> {
+					latch.await();
+					final Random random = new Random(seed);
+					for (int j = 0; j < n; j++) {
+						final long fp = getFingerprint(random);
+						unique.add(fp);
+						if (!fpSet.put(fp)) {
+							misses.incrementAndGet();
+						}
+					}
+					return null;
+				});
+			}
+			latch.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			es.shutdown();
+			es.awaitTermination(1, TimeUnit.MINUTES);
+		}
+
+		assertEquals(expectedTier, fpSet.getTier());
+		// Each fingerprint has been reported new exactly once.
+		assertEquals(unique.size(), misses.get());
+		assertEquals(unique.size(), fpSet.size());
+		for (Long fp : unique) {
+			assertTrue(fpSet.contains(fp));
+		}
+		if (expectedTier == 1) {
+			fpSet.close();
+		}
+	}
+
+	private static AdaptiveFPSet newFPSet(final long offHeapCnt, final int initialCapacity, final long heapCapacity)
+			throws IOException {
+		return newFPSet(offHeapCnt, initialCapacity, heapCapacity, createTmpFile());
+	}
+
+	private static AdaptiveFPSet newFPSet(final long offHeapCnt, final int initialCapacity, final long heapCapacity,
+			final String metadir) throws IOException {
+		final DummyFPSetConfiguration fpSetConfig = new DummyFPSetConfiguration();
+		fpSetConfig.setMemoryInFingerprintCnt(offHeapCnt);
+		fpSetConfig.setFpBits(1);
+
+		final AdaptiveFPSet fpSet = new AdaptiveFPSet(fpSetConfig, initialCapacity, heapCapacity);
+		fpSet.init(1, metadir, filename);
+		return fpSet;
+	}
+
+	private static Set<Long> insert(final FPSet fpSet, final long seed, final int n) throws IOException {
+		final Set<Long> fps = new HashSet<>();
+		final Random random = new Random(seed);
+		for (int i = 0; i < n; i++) {
+			final long fp = getFingerprint(random);
+			assertFalse(fpSet.put(fp));
+			fps.add(fp);
+		}
+		return fps;
+	}
+
+	private static String createTmpFile() {
+		final String tmpdir = System.getProperty("java.io.tmpdir") + File.separator + "AdaptiveFPSetTest"
+				+ System.nanoTime();
+		new File(tmpdir).mkdirs();
+		return tmpdir;
+	}
+
+	// A positive long whose upper half is never zero (see OffHeapDiskFPSetTest).
+	private static long getFingerprint(final Random random) {
+		return (((long) random.nextInt(Integer.MAX_VALUE - 1) + 1) << 32) | (random.nextInt() & 0xffffffffL);
+	}
+}
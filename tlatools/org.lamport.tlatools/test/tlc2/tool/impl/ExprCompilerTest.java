@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import tlc2.TLCGlobals;
+import tlc2.output.EC;
+import tlc2.tool.liveness.ModelCheckerTestCase;
+
+public class ExprCompilerTest extends ModelCheckerTestCase {
+
+	public ExprCompilerTest() {
+		super("ExprCompiler");
+	}
+
+	@Override
+	protected void beforeSetUp() {
+		System.setProperty(Tool.COMPILE_KEY, Boolean.TRUE.toString());
+	}
+
+	@Override
+	protected boolean doCoverage() {
+		// Coverage turns compilation off.
+		return false;
+	}
+
+	@Override
+	protected boolean runWithDebugger() {
+		// So does the debugger.
+		return false;
+	}
+
+	@Test
+	public void testSpec() {
+		assertTrue(recorder.recorded(EC.TLC_FINISHED));
+		assertFalse(recorder.recorded(EC.GENERAL));
+		assertFalse(recorder.recorded(EC.TLC_INVARIANT_VIOLATED_BEHAVIOR));
+
+		// Same numbers as with the interpreter.
+		assertTrue(recorder.recordedWithStringValues(EC.TLC_STATS, "25", "15", "0"));
+
+		// TypeOK and Constraint get compiled, invariant Interpreted is left to the
+		// interpreter. So are the guards x < N and y < N of Next and the right-hand
+		// sides x + 1 and y + 1, but not s \cup {x}.
+		assertEquals(6, ((Tool) TLCGlobals.mainChecker.tool).getCompiled().size());
+	}
+}
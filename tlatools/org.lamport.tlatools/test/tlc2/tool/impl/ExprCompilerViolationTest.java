@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import tlc2.TLCGlobals;
+import tlc2.output.EC;
+import tlc2.output.EC.ExitStatus;
+import tlc2.tool.liveness.ModelCheckerTestCase;
+
+public class ExprCompilerViolationTest extends ModelCheckerTestCase {
+
+	public ExprCompilerViolationTest() {
+		super("ExprCompiler", new String[] { "-config", "ExprCompilerViolation.cfg" }, ExitStatus.VIOLATION_SAFETY);
+	}
+
+	@Override
+	protected void beforeSetUp() {
+		System.setProperty(Tool.COMPILE_KEY, Boolean.toString(compile()));
+	}
+
+	protected boolean compile() {
+		return true;
+	}
+
+	@Override
+	protected boolean doCoverage() {
+		// Coverage turns compilation off.
+		return false;
+	}
+
+	@Override
+	protected boolean runWithDebugger() {
+		// So does the debugger.
+		return false;
+	}
+
+	@Test
+	public void testSpec() {
+		// ExprCompilerViolationInterpretedTest expects the same with the interpreter.
+		assertEquals(compile(), ((Tool) TLCGlobals.mainChecker.tool).getCompiled() != null);
+
+		assertTrue(recorder.recorded(EC.TLC_FINISHED));
+		assertFalse(recorder.recorded(EC.GENERAL));
+		assertTrue(recorder.recordedWithStringValue(EC.TLC_INVARIANT_VIOLATED_BEHAVIOR, "Bounded"));
+
+		final List<String> expectedTrace = new ArrayList<String>(6);
+		expectedTrace.add("/\\ s = {}\n/\\ x = 0\n/\\ y = 0");
+		expectedTrace.add("/\\ s = {0}\n/\\ x = 1\n/\\ y = 0");
+		expectedTrace.add("/\\ s = {0, 1}\n/\\ x = 2\n/\\ y = 0");
+		expectedTrace.add("/\\ s = {0, 1, 2}\n/\\ x = 3\n/\\ y = 0");
+		expectedTrace.add("/\\ s = {0, 1, 2}\n/\\ x = 3\n/\\ y = 1");
+		expectedTrace.add("/\\ s = {0, 1, 2}\n/\\ x = 3\n/\\ y = 2");
+		assertTraceWith(recorder.getRecords(EC.TLC_STATE_PRINT2), expectedTrace);
+
+		assertTrue(recorder.recordedWithStringValues(EC.TLC_STATS, "20", "14", "2"));
+	}
+}
@@ -34,6 +34,8 @@ import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.Test;
 
@@ -310,4 +312,82 @@ public class DiskGraphTest {
 			assertEquals("Couldn't re-create liveness trace (path) starting at: 5 and tidx: -1", e.getMessage());
 		}
 	}
+
+	/*
+	 * Test that workers can add nodes to the graph concurrently (see
+	 * LiveCheck.LiveChecker#addNextState).
+	 */
+	@Test
+	public void testConcurrentAddNode() throws Exception {
+		final AbstractDiskGraph dg = getDiskGraph();
+
+		final int threads = 4;
+		final int nodes = 1000;
+		final List<Thread> workers = new ArrayList<Thread>(threads);
+		final List<Throwable> errors = new ArrayList<Throwable>();
+		for (int t = 0; t < threads; t++) {
+			final long id = t;
+			final Thread worker = new Thread(() -> {
+				try {
+					for (long i = 0; i < nodes; i++) {
+						// Vary the high bits to spread the nodes across the shards.
+						final GraphNode node = new GraphNode((i << 32) | id, NO_TABLEAU);
+						node.addTransition(((i + 1) << 32) | id, NO_TABLEAU, NUMBER_OF_SOLUTIONS, NUMBER_OF_ACTIONS,
+								NO_ACTIONS, NUMBER_OF_ACTIONS, 0);
+						dg.addNode(node);
+					}
+				} catch (Throwable e) {
+					synchronized (errors) {
+						errors.add(e);
+					}
+				}
+			});
+			workers.add(worker);
+			worker.start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		assertTrue(errors.toString(), errors.isEmpty());
+		assertEquals(threads * nodes, dg.size());
+
+		dg.makeNodePtrTbl();
+		for (long t = 0; t < threads; t++) {
+			for (long i = 0; i < nodes; i++) {
+				final GraphNode node = dg.getNode((i << 32) | t, NO_TABLEAU);
+				assertEquals(1, node.succSize());
+				assertTrue(node.transExists(((i + 1) << 32) | t, NO_TABLEAU));
+			}
+		}
+	}
+
+	/*
+	 * Test that getPath reconstructs a path whose nodes are in different
+	 * segments of the node-pointer table (see ShardedNodePtrTable).
+	 */
+	@Test
+	public void testGetPathAcrossShards() throws IOException {
+		final DiskGraph dg = new DiskGraph(createTempDirectory().getAbsolutePath(), NUMBER_OF_SOLUTIONS,
+				GRAPH_STATS, 8);
+
+		final long[] fps = new long[] { (1L << 32) | 1L, (2L << 32) | 2L, (3L << 32) | 3L, (4L << 32) | 4L };
+		dg.addInitNode(fps[0], NO_TABLEAU);
+		for (int i = 0; i < fps.length; i++) {
+			final GraphNode node = new GraphNode(fps[i], NO_TABLEAU);
+			if (i + 1 < fps.length) {
+				node.addTransition(fps[i + 1], NO_TABLEAU, NUMBER_OF_SOLUTIONS, NUMBER_OF_ACTIONS, NO_ACTIONS,
+						NUMBER_OF_ACTIONS, 0);
+			}
+			dg.addNode(node);
+		}
+
+		dg.createCache();
+		final LongVec path = dg.getPath(fps[3], NO_TABLEAU);
+		dg.destroyCache();
+
+		assertEquals(fps.length, path.size());
+		for (int i = 0; i < fps.length; i++) {
+			assertEquals(fps[fps.length - 1 - i], path.elementAt(i));
+		}
+	}
 }
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import tlc2.tool.TLCState;
+
+public class DiskStateQueueTest extends StateQueueTest {
+
+	private File dir;
+
+	@Before
+	public void setUp() throws Exception {
+		dir = Files.createTempDirectory("DiskStateQueueTest").toFile();
+		sQueue = new DiskStateQueue(dir.getAbsolutePath());
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		sQueue.delete();
+		// delete all remaining files such as the checkpoint.
+		final File[] listFiles = dir.listFiles();
+		if (listFiles != null) {
+			for (int i = 0; i < listFiles.length; i++) {
+				listFiles[i].delete();
+			}
+			dir.delete();
+		}
+	}
+
+	@SuppressWarnings("serial")
+	@Test
+	public void testCheckpointRecover() throws IOException {
+		for (int i = 0; i < 100; i++) {
+			sQueue.sEnqueue(state(i));
+		}
+		for (int i = 0; i < 10; i++) {
+			assertEquals(i, sQueue.sDequeue().uid);
+		}
+
+		sQueue.beginChkpt();
+
+		// The buffered states are written by commitChkpt. States consumed and
+		// appended in between must not show up in the checkpoint.
+		for (int i = 10; i < 50; i++) {
+			assertEquals(i, sQueue.sDequeue().uid);
+		}
+		for (int i = 100; i < 500; i++) {
+			sQueue.sEnqueue(state(i));
+		}
+
+		sQueue.commitChkpt();
+		sQueue.finishAll();
+
+		// Recovery reads each state into the instance created by TLCState.Empty.
+		TLCState.Empty = new DummyTLCState(0L) {
+			@Override
+			public TLCState createEmpty() {
+				return new DummyTLCState(0L);
+			}
+		};
+		final IStateQueue recovered = new DiskStateQueue(dir.getAbsolutePath());
+		recovered.recover();
+		assertEquals(90, recovered.size());
+		for (int i = 10; i < 100; i++) {
+			assertEquals(i, recovered.sDequeue().uid);
+		}
+		assertTrue(recovered.isEmpty());
+		recovered.finishAll();
+	}
+
+	private static DummyTLCState state(final long uid) {
+		// DiskStateQueue keeps references to the (buffered) states.
+		final DummyTLCState state = new DummyTLCState();
+		state.uid = uid;
+		return state;
+	}
+}
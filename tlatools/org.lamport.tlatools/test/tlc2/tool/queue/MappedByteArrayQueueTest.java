@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import tlc2.tool.TLCState;
+
+public class MappedByteArrayQueueTest extends StateQueueTest {
+
+	// Small enough for a handful of states to span multiple segments.
+	private static final int SEGMENT_SIZE = 64;
+
+	private File dir;
+
+	@Before
+	public void setUp() throws Exception {
+		dir = Files.createTempDirectory("MappedByteArrayQueueTest").toFile();
+		sQueue = new MappedByteArrayQueue(dir.getAbsolutePath(), SEGMENT_SIZE);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		sQueue.delete();
+		// delete all remaining files such as the checkpoint.
+		final File[] listFiles = dir.listFiles();
+		if (listFiles != null) {
+			for (int i = 0; i < listFiles.length; i++) {
+				listFiles[i].delete();
+			}
+			dir.delete();
+		}
+	}
+
+	@Test
+	public void testFIFOAcrossSegments() {
+		final DummyTLCState state = new DummyTLCState();
+		for (int i = 0; i < 1000; i++) {
+			state.uid = i;
+			sQueue.sEnqueue(state);
+		}
+		assertEquals(1000, sQueue.size());
+		assertTrue(segments() > 1);
+
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(i, sQueue.sPeek().uid);
+			assertEquals(i, sQueue.sDequeue().uid);
+		}
+		assertTrue(sQueue.isEmpty());
+	}
+
+	@Test
+	public void testRecycleSegments() {
+		final DummyTLCState state = new DummyTLCState();
+		// Interleave enqueue and dequeue for the queue to move through many segments
+		// while it never holds more than a few states.
+		for (int i = 0; i < 10000; i++) {
+			state.uid = i;
+			sQueue.sEnqueue(state);
+			sQueue.sEnqueue(state);
+			assertEquals(i, sQueue.sDequeue().uid);
+			assertEquals(i, sQueue.sDequeue().uid);
+		}
+		assertTrue(segments() < 10);
+	}
+
+	@Test
+	public void testCheckpointRecover() throws IOException {
+		final DummyTLCState state = new DummyTLCState();
+		for (int i = 0; i < 100; i++) {
+			state.uid = i;
+			sQueue.sEnqueue(state);
+		}
+		for (int i = 0; i < 10; i++) {
+			assertEquals(i, sQueue.sDequeue().uid);
+		}
+
+		sQueue.beginChkpt();
+
+		// Neither consuming nor appending states after the checkpoint has been
+		// started must corrupt it, i.e. segments referenced by the checkpoint must
+		// not be recycled.
+		for (int i = 10; i < 50; i++) {
+			assertEquals(i, sQueue.sDequeue().uid);
+		}
+		for (int i = 100; i < 500; i++) {
+			state.uid = i;
+			sQueue.sEnqueue(state);
+		}
+
+		sQueue.commitChkpt();
+
+		for (int i = 50; i < 100; i++) {
+			assertEquals(i, sQueue.sDequeue().uid);
+		}
+		for (int i = 500; i < 1000; i++) {
+			state.uid = i;
+			sQueue.sEnqueue(state);
+		}
+		sQueue.finishAll();
+
+		final IStateQueue recovered = new MappedByteArrayQueue(dir.getAbsolutePath(), SEGMENT_SIZE);
+		recovered.recover();
+		assertEquals(90, recovered.size());
+		for (int i = 10; i < 100; i++) {
+			final TLCState s = recovered.sDequeue();
+			assertEquals(i, s.uid);
+		}
+		assertTrue(recovered.isEmpty());
+
+		// The recovered queue continues to grow into new segments.
+		state.uid = 4711;
+		recovered.sEnqueue(state);
+		assertEquals(4711, recovered.sDequeue().uid);
+		recovered.finishAll();
+	}
+
+	@Test
+	public void testSubsequentCheckpoints() throws IOException {
+		final DummyTLCState state = new DummyTLCState();
+		int enqueued = 0, dequeued = 0;
+		for (int c = 0; c < 10; c++) {
+			for (int i = 0; i < 100; i++) {
+				state.uid = enqueued++;
+				sQueue.sEnqueue(state);
+			}
+			for (int i = 0; i < 50; i++) {
+				assertEquals(dequeued++, sQueue.sDequeue().uid);
+			}
+			sQueue.beginChkpt();
+			sQueue.commitChkpt();
+		}
+		sQueue.finishAll();
+		// Segments consumed prior to the previous checkpoint are re-used.
+		assertTrue(segments() < enqueued / (SEGMENT_SIZE / 8));
+
+		final IStateQueue recovered = new MappedByteArrayQueue(dir.getAbsolutePath(), SEGMENT_SIZE);
+		recovered.recover();
+		assertEquals(enqueued - dequeued, recovered.size());
+		while (!recovered.isEmpty()) {
+			assertEquals(dequeued++, recovered.sDequeue().uid);
+		}
+		recovered.finishAll();
+	}
+
+	private int segments() {
+		return dir.list((d, name) -> name.endsWith(".seg")).length;
+	}
+}
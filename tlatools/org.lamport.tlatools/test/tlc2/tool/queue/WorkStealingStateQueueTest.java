@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved. 
+ *
+ * The MIT License (MIT)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software. 
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.tool.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import tlc2.tool.TLCState;
+import tlc2.util.IdThread;
+
+public class WorkStealingStateQueueTest extends StateQueueTest {
+
+	@Before
+	public void setUp() throws Exception {
+		sQueue = new WorkStealingStateQueue();
+	}
+
+	// A worker steals the states of another worker whose deque is not empty.
+	@Test
+	public void testSteal() throws InterruptedException {
+		final WorkStealingStateQueue queue = new WorkStealingStateQueue("", 2);
+
+		final DummyTLCState expected = new DummyTLCState();
+		final IdThread producer = new IdThread(() -> queue.sEnqueue(expected), "producer", 0);
+		producer.start();
+		producer.join();
+
+		final TLCState[] actual = new TLCState[1];
+		final IdThread thief = new IdThread(() -> actual[0] = queue.sDequeue(), "thief", 1);
+		thief.start();
+		thief.join();
+
+		assertEquals(expected, actual[0]);
+		assertTrue(queue.isEmpty());
+	}
+
+	// States enqueued by a thread other than a worker (e.g. the threads that
+	// generate the initial states in parallel) are spread over all deques.
+	@Test
+	public void testSpreadNonWorker() throws InterruptedException {
+		final WorkStealingStateQueue queue = new WorkStealingStateQueue("", 2);
+
+		final DummyTLCState[] states = { new DummyTLCState(), new DummyTLCState(), new DummyTLCState() };
+		for (DummyTLCState state : states) {
+			queue.sEnqueue(state);
+		}
+
+		// The second state is the only one in the deque of worker 1. Had all states
+		// gone into the deque of worker 0, worker 1 would steal the third.
+		final TLCState[] actual = new TLCState[1];
+		final IdThread worker = new IdThread(() -> actual[0] = queue.sDequeue(), "worker", 1);
+		worker.start();
+		worker.join();
+
+		assertEquals(states[1], actual[0]);
+	}
+
+	// Workers enqueue successors while others steal. Once no states are left and
+	// all workers wait, all of them terminate and each state has been dequeued
+	// exactly once.
+	@Test
+	public void testTermination() throws InterruptedException {
+		final int numWorkers = 4;
+		final WorkStealingStateQueue queue = new WorkStealingStateQueue("", numWorkers);
+		// Simulates a binary tree of states with depth 12 explored by the workers.
+		final int depth = 12;
+		queue.enqueue(new DepthTLCState(0));
+
+		final AtomicInteger dequeued = new AtomicInteger();
+		final Set<TLCState> seen = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+		final IdThread[] workers = new IdThread[numWorkers];
+		for (int i = 0; i < numWorkers; i++) {
+			workers[i] = new IdThread(() -> {
+				TLCState state;
+				while ((state = queue.sDequeue()) != null) {
+					dequeued.incrementAndGet();
+					assertTrue(seen.add(state));
+					final int level = ((DepthTLCState) state).depth;
+					if (level < depth) {
+						queue.sEnqueue(new TLCState[] { new DepthTLCState(level + 1), new DepthTLCState(level + 1) });
+					}
+				}
+				queue.finishAll();
+			}, "worker" + i, i);
+		}
+		for (IdThread worker : workers) {
+			worker.start();
+		}
+		for (IdThread worker : workers) {
+			worker.join();
+		}
+		assertEquals((1 << (depth + 1)) - 1, dequeued.get());
+		assertTrue(queue.isEmpty());
+		assertNull(queue.sDequeue());
+	}
+
+	// suspendAll returns once all workers wait. The queue does not change until
+	// resumeAll is called.
+	@Test
+	public void testSuspendResume() throws InterruptedException {
+		final int numWorkers = 2;
+		final int numStates = 1000;
+		final WorkStealingStateQueue queue = new WorkStealingStateQueue("", numWorkers);
+		for (int i = 0; i < numStates; i++) {
+			queue.enqueue(new DummyTLCState());
+		}
+
+		final AtomicInteger dequeued = new AtomicInteger();
+		final IdThread[] workers = new IdThread[numWorkers];
+		for (int i = 0; i < numWorkers; i++) {
+			workers[i] = new IdThread(() -> {
+				try {
+					while (queue.sDequeue() != null) {
+						dequeued.incrementAndGet();
+						Thread.sleep(1);
+					}
+				} catch (InterruptedException e) {
+					return;
+				}
+				queue.finishAll();
+			}, "worker" + i, i);
+		}
+		for (IdThread worker : workers) {
+			worker.start();
+		}
+
+		assertTrue(queue.suspendAll());
+		final long size = queue.size();
+		final int cnt = dequeued.get();
+		// Nothing dequeued while suspended.
+		Thread.sleep(100);
+		assertEquals(size, queue.size());
+		assertEquals(cnt, dequeued.get());
+		assertEquals(numStates, size + cnt);
+
+		queue.resumeAll();
+		for (IdThread worker : workers) {
+			worker.join();
+		}
+		assertEquals(numStates, dequeued.get());
+		assertFalse(queue.suspendAll());
+	}
+
+	private static class DepthTLCState extends DummyTLCState {
+		private final int depth;
+
+		DepthTLCState(final int depth) {
+			this.depth = depth;
+		}
+	}
+}
@@ -431,4 +431,62 @@ public class SimulationWorkerTest extends CommonTestCase {
 		// With traces all length 5, mean is 5 and m2 is 0, hence m2AndMean = 5
 		assertEquals(5, m2AndMean.get());
 	}
+
+	@Test
+	public void testSampleStateAndTraceGenerationCount() throws Exception {
+		System.setProperty(SimulationWorker.SAMPLE_KEY, "true");
+		try {
+			// Sampling still generates (and counts) all successor states.
+			testStateAndTraceGenerationCount();
+		} finally {
+			System.clearProperty(SimulationWorker.SAMPLE_KEY);
+		}
+	}
+	
+	@Test
+	public void testSampleInvariantViolation() throws Exception {
+		System.setProperty(SimulationWorker.SAMPLE_KEY, "true");
+		try {
+			Tool tool = new FastTool("", "BasicMultiTrace", "MCInv", new SimpleFilenameToStream(), Mode.Simulation);
+			
+			ILiveCheck liveCheck =  new NoOpLiveCheck(tool, "BasicMultiTrace");
+			StateVec initStates = tool.getInitStates();
+			BlockingQueue<SimulationWorkerResult> resultQueue = new LinkedBlockingQueue<>();
+			int maxTraceNum = 1000;
+			SimulationWorker worker = new SimulationWorker(0, tool, resultQueue, 0, 100, maxTraceNum, false,
+					null, liveCheck);
+			worker.start(initStates);
+			
+			// Every behavior violates the invariant in its fourth state. The branch it
+			// took is sampled uniformly from 1..10.
+			final int[] branches = new int[11];
+			for (int i = 0; i < maxTraceNum; i++) {
+				SimulationWorkerResult res = resultQueue.take();
+				assertTrue(res.isError());
+				SimulationWorkerError err = res.error();
+				assertEquals(EC.TLC_INVARIANT_VIOLATED_BEHAVIOR, err.errorCode);
+				assertEquals(3, err.stateTrace.size());
+				
+				assertEquals("0", getStateVal(err.stateTrace.elementAt(0), "branch"));
+				final String branch = getStateVal(err.state, "branch");
+				assertEquals(branch, getStateVal(err.stateTrace.elementAt(1), "branch"));
+				assertEquals(branch, getStateVal(err.stateTrace.elementAt(2), "branch"));
+				assertEquals("2", getStateVal(err.state, "depth"));
+				branches[Integer.parseInt(branch)]++;
+			}
+			assertEquals(0, branches[0]);
+			for (int b = 1; b < branches.length; b++) {
+				assertTrue(Integer.toString(branches[b]), 60 < branches[b] && branches[b] < 140);
+			}
+			
+			// The worker should push one final OK result onto the queue upon termination.
+			SimulationWorkerResult res = resultQueue.take();
+			assertFalse(res.isError());
+			
+			worker.join();
+			assertFalse(worker.isAlive());
+		} finally {
+			System.clearProperty(SimulationWorker.SAMPLE_KEY);
+		}
+	}
 }
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ClockCacheTest {
+
+	// 64 slots in 8 buckets
+	private static final long BYTES = 64 * 8;
+
+	@Test
+	public void testMissDoesNotAdd() {
+		final ClockCache cache = new ClockCache(BYTES, false);
+		assertEquals(64, cache.capacity());
+
+		assertFalse(cache.hit(42L));
+		assertFalse(cache.hit(42L));
+
+		cache.put(42L);
+		assertTrue(cache.hit(42L));
+		assertEquals(1L, cache.getHitRate());
+	}
+
+	@Test
+	public void testIgnoresMSB() {
+		final ClockCache cache = new ClockCache(BYTES, false);
+		cache.put(42L | 0x8000000000000000L);
+		assertTrue(cache.hit(42L));
+	}
+
+	@Test
+	public void testZeroNotCached() {
+		final ClockCache cache = new ClockCache(BYTES, false);
+		cache.put(0L);
+		assertFalse(cache.hit(0L));
+	}
+
+	@Test
+	public void testClockEviction() {
+		final ClockCache cache = new ClockCache(BYTES, false);
+		// Fill bucket 0.
+		for (long i = 1; i <= 8; i++) {
+			cache.put(i << 3);
+		}
+		// Reference the first half.
+		for (long i = 1; i <= 4; i++) {
+			assertTrue(cache.hit(i << 3));
+		}
+		// The hand skips (and clears) the referenced ones and evicts the fifth.
+		cache.put(9L << 3);
+		assertTrue(cache.hit(9L << 3));
+		assertFalse(cache.hit(5L << 3));
+		for (long i = 1; i <= 4; i++) {
+			assertTrue(cache.hit(i << 3));
+		}
+		for (long i = 6; i <= 8; i++) {
+			assertTrue(cache.hit(i << 3));
+		}
+		// Other buckets are unaffected.
+		cache.put(1L);
+		assertTrue(cache.hit(1L));
+		assertTrue(cache.hit(9L << 3));
+	}
+
+	@Test
+	public void testBloomFilter() {
+		final ClockCache cache = new ClockCache(1 << 20, true);
+		final Random rnd = new Random(4711);
+		// Few enough fingerprints for no bucket to overflow.
+		final long[] fps = new long[cache.capacity() / 8];
+		for (int i = 0; i < fps.length; i++) {
+			fps[i] = rnd.nextLong();
+			cache.put(fps[i]);
+		}
+		for (int i = 0; i < fps.length; i++) {
+			assertTrue(cache.hit(fps[i]));
+		}
+		for (int i = 0; i < fps.length; i++) {
+			assertFalse(cache.hit(rnd.nextLong() | 1L << 62));
+		}
+
+		// Saturate the filter, which clears it.
+		for (int i = 0; i < cache.capacity(); i++) {
+			cache.put(rnd.nextLong());
+		}
+		final long fp = rnd.nextLong();
+		cache.put(fp);
+		assertTrue(cache.hit(fp));
+	}
+
+	@Test
+	public void testConcurrent() throws InterruptedException {
+		final ClockCache cache = new ClockCache(1 << 16, false);
+		final long[] hot = new long[64];
+		final Random r = new Random(1);
+		for (int i = 0; i < hot.length; i++) {
+			hot[i] = r.nextLong() & 0x7FFFFFFFFFFFFFFFL | 1L;
+		}
+
+		final Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			final Random rnd = new Random(t);
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 100000; i++) {
+					final long fp = rnd.nextBoolean() ? hot[rnd.nextInt(hot.length)] : rnd.nextLong();
+					if (!cache.hit(fp)) {
+						cache.put(fp);
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		// Half of the lookups are for the hot fingerprints.
+		assertTrue(cache.getHitRate() > 100000L);
+
+		for (long fp : hot) {
+			cache.put(fp);
+		}
+		for (long fp : hot) {
+			assertTrue(cache.hit(fp));
+		}
+	}
+}
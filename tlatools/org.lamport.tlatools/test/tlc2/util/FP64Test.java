@@ -48,4 +48,36 @@ public class FP64Test {
 			assertEquals(FP64.Extend(fp, x), FP64.ExtendLoop(fp, x));
 		}
 	}
+
+	@Test
+	public void testMul() {
+		final Random random = new Random();
+		final long[] tbl = new long[256];
+		for (int i = 0; i < 1000; i++) {
+			final long fp = random.nextLong();
+			final long p = random.nextLong();
+			FP64.MulTable(p, tbl);
+			assertEquals(fp, FP64.Mul(fp, FP64.MulTable(FP64.One, new long[256])));
+			assertEquals(p, FP64.Mul(FP64.One, tbl));
+			assertEquals(FP64.Zero, FP64.Mul(FP64.Zero, tbl));
+			// Commutative
+			assertEquals(FP64.Mul(fp, tbl), FP64.Mul(p, FP64.MulTable(fp, new long[256])));
+		}
+	}
+
+	@Test
+	public void testExtendLinear() {
+		final Random random = new Random();
+		final long[] tbl = new long[256];
+		for (int i = 0; i < 1000; i++) {
+			final byte[] bytes = new byte[random.nextInt(100)];
+			random.nextBytes(bytes);
+
+			final long raw = FP64.Extend(FP64.Zero, bytes, 0, bytes.length);
+			FP64.MulTable(FP64.Extend(FP64.One, bytes, 0, bytes.length) ^ raw, tbl);
+
+			final long fp = random.nextLong();
+			assertEquals(FP64.Extend(fp, bytes, 0, bytes.length), FP64.Mul(fp, tbl) ^ raw);
+		}
+	}
 }
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class MappedFileTest {
+
+	@Test
+	public void testRead() throws IOException {
+		doTest(Long.numberOfTrailingZeros(MappedFile.SEGMENT_SIZE));
+	}
+
+	@Test
+	public void testReadAcrossSegments() throws IOException {
+		// 16 byte segments: Most values cross a segment boundary.
+		doTest(4);
+	}
+
+	private static void doTest(final int segmentShift) throws IOException {
+		final File tmpFile = File.createTempFile("MappedFileTest", ".bin");
+		tmpFile.deleteOnExit();
+
+		final BufferedRandomAccessFile raf = new BufferedRandomAccessFile(tmpFile, "rw");
+		final long[] positions = new long[1000];
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = raf.getFilePointer();
+			raf.writeByte(i);
+			raf.writeShort(-i);
+			raf.writeInt(i * 31);
+			raf.writeLong(-1L * i * Integer.MAX_VALUE);
+			// Small and large nats take two and four bytes respectively.
+			raf.writeNat(i);
+			raf.writeNat(i + Short.MAX_VALUE);
+			raf.writeLongNat(i);
+			raf.writeLongNat(i + (long) Integer.MAX_VALUE);
+		}
+		final long length = raf.getFilePointer();
+		raf.close();
+
+		final MappedFile mapped = new MappedFile(tmpFile, length, segmentShift);
+		assertEquals(length, mapped.length());
+		// Read backwards to not depend on sequential access.
+		for (int i = positions.length - 1; i >= 0; i--) {
+			// Skip the byte that shifts the values' alignment.
+			final MappedFile.Cursor cursor = mapped.newCursor(positions[i] + 1);
+			assertEquals((short) -i, cursor.readShort());
+			assertEquals(i * 31, cursor.readInt());
+			assertEquals(-1L * i * Integer.MAX_VALUE, cursor.readLong());
+			assertEquals(i, cursor.readNat());
+			assertEquals(i + Short.MAX_VALUE, cursor.readNat());
+			assertEquals(i, cursor.readLongNat());
+			assertEquals(i + (long) Integer.MAX_VALUE, cursor.readLongNat());
+			assertEquals(i + 1 < positions.length ? positions[i + 1] : length, cursor.getPosition());
+		}
+		mapped.close();
+	}
+}
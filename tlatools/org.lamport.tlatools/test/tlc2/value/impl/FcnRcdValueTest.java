@@ -28,9 +28,19 @@ package tlc2.value.impl;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.BeforeClass;
@@ -39,6 +49,8 @@ import org.junit.Test;
 import tlc2.module.TLCExt;
 import tlc2.util.FP64;
 import tlc2.value.RandomEnumerableValues;
+import tlc2.value.ValueInputStream;
+import tlc2.value.ValueOutputStream;
 import util.Assert.TLCRuntimeException;
 
 public class FcnRcdValueTest {
@@ -193,4 +205,181 @@ public class FcnRcdValueTest {
 			assertEquals(IntValue.gen(i), val);
 		}
 	}
+
+	@Test
+	public void testSelectIndexTable() {
+		final int size = 4096;
+		final List<Integer> perm = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			perm.add(i);
+		}
+		Collections.shuffle(perm);
+
+		final Value[] dom = new Value[size];
+		final Value[] rng = new Value[size];
+		for (int i = 0; i < size; i++) {
+			dom[i] = new StringValue("s" + perm.get(i));
+			rng[i] = IntValue.gen(perm.get(i));
+		}
+
+		// Not normalized, thus no index.
+		final FcnRcdValue rcdValue = new FcnRcdValue(dom, rng, false);
+		assertEquals(rng[0], rcdValue.select(dom[0]));
+
+		rcdValue.normalize();
+		for (int i = 0; i < size; i++) {
+			assertEquals(IntValue.gen(i), rcdValue.select(new StringValue("s" + i)));
+		}
+		assertNull(rcdValue.select(new StringValue("s" + size)));
+	}
+
+	@Test
+	public void testSelectIndexTableTupleDomain() {
+		// Tuples and functions with an interval domain are equal (and have equal
+		// fingerprints) despite their different representation.
+		final int size = 64;
+		final Value[] dom = new Value[size];
+		final Value[] rng = getInts(0, size, 0);
+		for (int i = 0; i < size; i++) {
+			dom[i] = new TupleValue(IntValue.gen(i), IntValue.gen(-i));
+		}
+		final FcnRcdValue rcdValue = (FcnRcdValue) new FcnRcdValue(dom, rng, false).normalize();
+
+		for (int i = 0; i < size; i++) {
+			final FcnRcdValue arg = new FcnRcdValue(new IntervalValue(1, 2),
+					new Value[] { IntValue.gen(i), IntValue.gen(-i) });
+			assertEquals(IntValue.gen(i), rcdValue.select(arg));
+		}
+	}
+
+	@Test
+	public void testTakeExceptSharesIndex() throws Exception {
+		final int size = 128;
+		final Value[] dom = getInts(0, size, 0);
+		final Value[] rng = getInts(0, size, 1024);
+		final FcnRcdValue rcdValue = (FcnRcdValue) new FcnRcdValue(dom, rng, false).normalize();
+
+		Value fcn = rcdValue;
+		for (int i = 0; i < size; i++) {
+			fcn = fcn.takeExcept(new ValueExcept(new Value[] { IntValue.gen(i) }, IntValue.gen(-i)));
+		}
+		for (int i = 0; i < size; i++) {
+			assertEquals(IntValue.gen(-i), ((FcnRcdValue) fcn).select(IntValue.gen(i)));
+			assertEquals(IntValue.gen(i + 1024), rcdValue.select(IntValue.gen(i)));
+		}
+		// An argument outside of the domain leaves the function unchanged.
+		assertSame(fcn, fcn.takeExcept(new ValueExcept(new Value[] { IntValue.gen(size) }, IntValue.ValZero)));
+
+		final Field field = FcnRcdValue.class.getDeclaredField("indexTbl");
+		field.setAccessible(true);
+		assertNotNull(field.get(rcdValue));
+		assertSame(field.get(rcdValue), field.get(fcn));
+	}
+
+	/* Asserts that the (possibly trie-backed) function is indistinguishable from the flat one. */
+	private static void assertSameFcn(final FcnRcdValue expected, final Value actual) throws IOException {
+		final FcnRcdValue fcn = (FcnRcdValue) actual;
+		assertEquals(expected.size(), fcn.size());
+		assertEquals(0, expected.compareTo(fcn));
+		assertEquals(0, fcn.compareTo(expected));
+		assertTrue(fcn.equals(expected));
+		assertEquals(expected.fingerPrint(FP64.New()), fcn.fingerPrint(FP64.New()));
+		assertEquals(expected.toString(), fcn.toString());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.getValue(i), fcn.getValue(i));
+		}
+		assertEquals(expected.toTuple(), fcn.toTuple());
+
+		final File tempFile = File.createTempFile("FcnRcdValueTest", ".vos");
+		tempFile.deleteOnExit();
+		final ValueOutputStream out = new ValueOutputStream(tempFile);
+		fcn.write(out);
+		out.close();
+		final ValueInputStream in = new ValueInputStream(tempFile);
+		assertEquals(0, expected.compareTo(in.read()));
+		in.close();
+
+		// Java serialization (RMI in distributed TLC).
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final ObjectOutputStream oos = new ObjectOutputStream(bytes);
+		oos.writeObject(fcn);
+		oos.close();
+		final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		try {
+			assertEquals(0, expected.compareTo(ois.readObject()));
+		} catch (ClassNotFoundException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test
+	public void testValues() {
+		final int size = 256;
+		final FcnRcdValue rcdValue = new FcnRcdValue(new IntervalValue(1, size), getInts(0, size, 0));
+		final FcnRcdValue fcn = (FcnRcdValue) rcdValue
+				.takeExcept(new ValueExcept(new Value[] { IntValue.gen(1) }, IntValue.gen(-1)));
+		if (FcnRcdValue.TRIE) {
+			// The values are kept in a trie.
+			assertNull(fcn.values);
+		} else {
+			assertEquals(size, fcn.values.length);
+			assertEquals(IntValue.gen(-1), fcn.values[0]);
+		}
+		assertEquals(IntValue.gen(-1), fcn.getValues()[0]);
+	}
+
+	@Test
+	public void testTakeExceptTrieInterval() throws IOException {
+		final int size = 1000;
+		final FcnRcdValue rcdValue = new FcnRcdValue(new IntervalValue(1, size), getInts(0, size, 0));
+
+		// A chain of EXCEPTs, each derived from its predecessor.
+		final Value[] expected = getInts(0, size, 0);
+		Value fcn = rcdValue;
+		for (int i = 0; i < size; i += 7) {
+			fcn = fcn.takeExcept(new ValueExcept(new Value[] { IntValue.gen(i + 1) }, IntValue.gen(-i)));
+			expected[i] = IntValue.gen(-i);
+			assertEquals(IntValue.gen(-i), ((FcnRcdValue) fcn).select(IntValue.gen(i + 1)));
+		}
+		assertSameFcn(new FcnRcdValue(new IntervalValue(1, size), expected), fcn);
+
+		// Siblings derived from the same function do not affect each other.
+		for (int i = 0; i < size; i += 13) {
+			final Value sibling = fcn.takeExcept(new ValueExcept(new Value[] { IntValue.gen(i + 1) }, IntValue.ValZero));
+			final Value[] vals = expected.clone();
+			vals[i] = IntValue.ValZero;
+			assertSameFcn(new FcnRcdValue(new IntervalValue(1, size), vals), sibling);
+		}
+		assertSameFcn(new FcnRcdValue(new IntervalValue(1, size), expected), fcn);
+		assertSameFcn(new FcnRcdValue(new IntervalValue(1, size), getInts(0, size, 0)), rcdValue);
+	}
+
+	@Test
+	public void testTakeExceptTrieDomain() throws IOException {
+		final int size = 2000;
+		final Value[] dom = new Value[size];
+		for (int i = 0; i < size; i++) {
+			dom[i] = new StringValue("s" + i);
+		}
+		final FcnRcdValue rcdValue = (FcnRcdValue) new FcnRcdValue(dom, getInts(0, size, 0), false).normalize();
+
+		final Value[] expected = new Value[size];
+		System.arraycopy(rcdValue.getValues(), 0, expected, 0, size);
+		final Value[] original = expected.clone();
+		Value fcn = rcdValue;
+		for (int i = 0; i < size; i += 3) {
+			// Nested EXCEPT of the function's value, which itself is a function.
+			final Value arg = rcdValue.domain[i];
+			fcn = fcn.takeExcept(new ValueExcept(new Value[] { arg }, new TupleValue(IntValue.gen(i))));
+			fcn = fcn.takeExcept(new ValueExcept(new Value[] { arg, IntValue.gen(1) }, IntValue.gen(-i)));
+			expected[i] = new TupleValue(IntValue.gen(-i));
+		}
+		assertSameFcn(new FcnRcdValue(rcdValue.domain, expected, true), fcn);
+		assertSameFcn(new FcnRcdValue(rcdValue.domain, original, true), rcdValue);
+
+		final TupleValue tv = new TupleValue(IntValue.gen(-3));
+		assertEquals(tv, ((FcnRcdValue) fcn).select(rcdValue.domain[3]));
+		assertEquals(tv, ((FcnRcdValue) fcn).apply(rcdValue.domain[3], 0));
+	}
 }
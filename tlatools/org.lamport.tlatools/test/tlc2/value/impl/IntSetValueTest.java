@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.value.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+
+import tlc2.util.FP64;
+import tlc2.value.ValueInputStream;
+import tlc2.value.ValueOutputStream;
+
+public class IntSetValueTest {
+
+	static {
+		FP64.Init();
+	}
+
+	private static SetEnumValue setEnum(final int... ints) {
+		final Value[] vals = new Value[ints.length];
+		for (int i = 0; i < ints.length; i++) {
+			vals[i] = IntValue.gen(ints[i]);
+		}
+		return new SetEnumValue(vals, false);
+	}
+
+	private static void assertSameSet(final Value expected, final Value actual) {
+		assertEquals(expected.fingerPrint(FP64.New()), actual.fingerPrint(FP64.New()));
+		assertEquals(expected.toSetEnum().toString(), actual.toSetEnum().toString());
+		assertTrue(expected.equals(actual));
+		assertTrue(actual.equals(expected));
+		assertEquals(0, actual.compareTo(expected));
+		assertEquals(0, expected.compareTo(actual));
+	}
+
+	@Test
+	public void testAlgebra() {
+		final Random rnd = new Random(4711);
+		for (int n = 0; n < 200; n++) {
+			final int[] a = new int[rnd.nextInt(12)];
+			final int[] b = new int[rnd.nextInt(12)];
+			for (int i = 0; i < a.length; i++) {
+				a[i] = rnd.nextInt(20) - 5;
+			}
+			for (int i = 0; i < b.length; i++) {
+				b[i] = rnd.nextInt(20) - 5;
+			}
+			final int low = rnd.nextInt(20) - 5;
+			final int high = low + rnd.nextInt(10) - 2;
+
+			final Value[] lhs = { setEnum(a), setEnum(a).cap(setEnum(a)), new IntervalValue(low, high) };
+			final Value[] rhs = { setEnum(b), setEnum(b).cup(setEnum(b)), new IntervalValue(high - 3, high + 3) };
+			for (Value x : lhs) {
+				for (Value y : rhs) {
+					// The reference: the (boxed) SetEnumValue semantics.
+					final SetEnumValue sx = (SetEnumValue) x.toSetEnum();
+					final SetEnumValue sy = (SetEnumValue) y.toSetEnum();
+
+					assertSameSet(reference(sx, sy, 0), ((Reducible) x).cup(y));
+					assertSameSet(reference(sx, sy, 1), ((Reducible) x).cap(y));
+					assertSameSet(reference(sx, sy, 2), ((Reducible) x).diff(y));
+				}
+			}
+		}
+	}
+
+	private static Value reference(final SetEnumValue x, final SetEnumValue y, final int op) {
+		final ValueVec res = new ValueVec();
+		final ValueEnumeration xe = x.elements();
+		Value v;
+		while ((v = xe.nextElement()) != null) {
+			if (op == 0 || (op == 1) == y.member(v)) {
+				res.addElement(v);
+			}
+		}
+		if (op == 0) {
+			final ValueEnumeration ye = y.elements();
+			while ((v = ye.nextElement()) != null) {
+				res.addElement(v);
+			}
+		}
+		return new SetEnumValue(res, false).normalize();
+	}
+
+	@Test
+	public void testIntSetResult() {
+		assertTrue(setEnum(3, 1, 2).cup(new IntervalValue(5, 6)) instanceof IntSetValue);
+		assertTrue(new IntervalValue(1, 10).diff(setEnum(3)) instanceof IntSetValue);
+		assertTrue(new IntervalValue(1, 10).cap(new IntervalValue(3, 20)) instanceof IntSetValue);
+		assertEquals("{2, 3}", new IntervalValue(1, 3).cap(new IntervalValue(2, 9)).toString());
+
+		// Does not enumerate the interval.
+		final Value cap = new IntervalValue(1, Integer.MAX_VALUE).cap(setEnum(2, -1, 1));
+		assertArrayEquals(new int[] { 1, 2 }, ((IntSetValue) cap).elems);
+
+		// Not a set of integers.
+		final Value mv = ModelValue.make("IntSetValueTestMV");
+		assertTrue(setEnum(1, 2).cup(new SetEnumValue(mv)) instanceof SetEnumValue);
+		final SetEnumValue mixed = new SetEnumValue(new Value[] { IntValue.gen(1), mv }, false);
+		assertTrue(mixed.cup(new IntervalValue(1, 2)) instanceof SetEnumValue);
+	}
+
+	@Test
+	public void testMember() {
+		final IntSetValue set = (IntSetValue) setEnum(1, 3).cup(setEnum(5));
+		assertTrue(set.member(IntValue.gen(3)));
+		assertFalse(set.member(IntValue.gen(4)));
+		// An untyped model value is not a member of a set of integers.
+		assertFalse(set.member(ModelValue.make("IntSetValueTestMV")));
+		assertTrue(set.isSubsetEq(new IntervalValue(1, 5)) == BoolValue.ValTrue);
+		assertTrue(set.isSubsetEq(new IntervalValue(2, 5)) == BoolValue.ValFalse);
+		assertFalse(set.isEmpty());
+		assertTrue(IntSetValue.EmptySet.isEmpty());
+	}
+
+	@Test
+	public void testWrite() throws IOException {
+		final IntSetValue set = (IntSetValue) setEnum(-7, 3, 300000).cup(setEnum(3, 42));
+
+		final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		ValueOutputStream vos = new ValueOutputStream(expected, false);
+		set.toSetEnum().write(vos);
+		vos.close();
+
+		final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+		vos = new ValueOutputStream(actual, false);
+		set.write(vos);
+		vos.close();
+
+		assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+
+		final ValueInputStream vis = new ValueInputStream(new ByteArrayInputStream(actual.toByteArray()));
+		final Value read = (Value) vis.read();
+		assertTrue(read instanceof IntSetValue);
+		assertSameSet(set, read);
+	}
+}
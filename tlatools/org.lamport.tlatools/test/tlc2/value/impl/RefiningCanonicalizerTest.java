@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Research. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * Contributors:
+ *   agent - initial API and implementation
+ ******************************************************************************/
+package tlc2.value.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import tlc2.util.FP64;
+import tlc2.value.ICanonicalizer;
+import tlc2.value.IMVPerm;
+import tlc2.value.IValue;
+
+public class RefiningCanonicalizerTest {
+
+	private static final int N = 5;
+
+	private static ModelValue[] procs;
+
+	@BeforeClass
+	public static void setup() {
+		FP64.Init();
+		ModelValue.init();
+		procs = new ModelValue[N];
+		for (int i = 0; i < N; i++) {
+			procs[i] = (ModelValue) ModelValue.make("p" + i);
+		}
+		ModelValue.setValues();
+	}
+
+	@Test
+	public void testOrbitInvariance() {
+		final IMVPerm[] perms = permutations(procs);
+		final ICanonicalizer canonicalizer = new RefiningCanonicalizer(perms);
+
+		final Random rnd = new Random(15041980L);
+		for (int i = 0; i < 100; i++) {
+			final IValue[] state = state(rnd);
+			final long rep = fingerprint(canonicalizer.canonicalize(state));
+			for (final IMVPerm perm : perms) {
+				assertEquals(rep, fingerprint(canonicalizer.canonicalize(permute(state, perm))));
+			}
+		}
+	}
+
+	@Test
+	public void testSameOrbitsAsPermutationCanonicalizer() {
+		final IMVPerm[] perms = permutations(procs);
+		final ICanonicalizer refining = new RefiningCanonicalizer(perms);
+		final ICanonicalizer permutation = new PermutationCanonicalizer(perms);
+
+		final Set<Long> expected = new HashSet<>();
+		final Set<Long> actual = new HashSet<>();
+		final Random rnd = new Random(4711L);
+		for (int i = 0; i < 1000; i++) {
+			final IValue[] state = state(rnd);
+			expected.add(fingerprint(permutation.canonicalize(state)));
+			actual.add(fingerprint(refining.canonicalize(state)));
+		}
+		assertEquals(expected.size(), actual.size());
+	}
+
+	@Test
+	public void testSubgroup() {
+		// The cyclic group generated by (p0 p1 p2) is a proper subgroup of Sym({p0, p1, p2}).
+		final IMVPerm cycle = new MVPerm();
+		cycle.put(procs[0], procs[1]);
+		cycle.put(procs[1], procs[2]);
+		cycle.put(procs[2], procs[0]);
+		final IMVPerm[] perms = new IMVPerm[] { cycle, cycle.compose(cycle) };
+
+		final ICanonicalizer refining = new RefiningCanonicalizer(perms);
+		final ICanonicalizer permutation = new PermutationCanonicalizer(perms);
+
+		final Random rnd = new Random(0L);
+		for (int i = 0; i < 100; i++) {
+			final IValue[] state = state(rnd);
+			assertEquals(fingerprint(permutation.canonicalize(state)), fingerprint(refining.canonicalize(state)));
+		}
+	}
+
+	@Test
+	public void testUnsupportedValue() {
+		final IMVPerm[] perms = permutations(procs);
+		final ICanonicalizer refining = new RefiningCanonicalizer(perms);
+		final ICanonicalizer permutation = new PermutationCanonicalizer(perms);
+
+		final IValue[] state = state(new Random(42L));
+		state[1] = new SubsetValue(new SetEnumValue(new Value[] { procs[0], procs[1] }, false));
+		assertArrayEquals(permutation.canonicalize(state), refining.canonicalize(state));
+	}
+
+	@Test
+	public void testRepresentative() {
+		final ICanonicalizer canonicalizer = new RefiningCanonicalizer(permutations(procs));
+
+		// pc = [p0 |-> 0, p1 |-> 1, ...] tells all elements apart, i.e. there is a
+		// single candidate permutation. A representative is its own representative.
+		final Value[] pcs = new Value[N];
+		for (int i = 0; i < N; i++) {
+			pcs[i] = IntValue.gen(i);
+		}
+		final IValue[] rep = canonicalizer.canonicalize(new IValue[] { new FcnRcdValue(procs, pcs, true) });
+		assertSame(rep, canonicalizer.canonicalize(rep));
+	}
+
+	/*
+	 * A state with variables pc \in [Procs -> 0..2] and edges \subseteq Procs \X Procs.
+	 */
+	private static IValue[] state(final Random rnd) {
+		final Value[] pcs = new Value[N];
+		for (int i = 0; i < N; i++) {
+			pcs[i] = IntValue.gen(rnd.nextInt(3));
+		}
+		final List<Value> edges = new ArrayList<>();
+		for (int i = 0; i < N; i++) {
+			for (int j = 0; j < N; j++) {
+				if (rnd.nextInt(4) == 0) {
+					edges.add(new TupleValue(procs[i], procs[j]));
+				}
+			}
+		}
+		return new IValue[] { new FcnRcdValue(procs, pcs, true),
+				new SetEnumValue(edges.toArray(new Value[edges.size()]), false).normalize() };
+	}
+
+	private static IValue[] permute(final IValue[] state, final IMVPerm perm) {
+		final IValue[] vals = new IValue[state.length];
+		for (int i = 0; i < state.length; i++) {
+			vals[i] = state[i].permute(perm);
+		}
+		return vals;
+	}
+
+	private static long fingerprint(final IValue[] state) {
+		long fp = FP64.New();
+		for (int i = 0; i < state.length; i++) {
+			fp = state[i].fingerPrint(fp);
+		}
+		return fp;
+	}
+
+	private static IMVPerm[] permutations(final ModelValue[] mvs) {
+		final List<Value> fcns = new ArrayList<>();
+		permutations(mvs.clone(), 0, fcns);
+		return MVPerms.permutationSubgroup(new SetEnumValue(fcns.toArray(new Value[fcns.size()]), false));
+	}
+
+	private static void permutations(final ModelValue[] mvs, final int k, final List<Value> fcns) {
+		if (k == mvs.length) {
+			fcns.add(new FcnRcdValue(procs, mvs.clone(), true));
+			return;
+		}
+		for (int i = k; i < mvs.length; i++) {
+			ModelValue tmp = mvs[k];
+			mvs[k] = mvs[i];
+			mvs[i] = tmp;
+			permutations(mvs, k + 1, fcns);
+			mvs[i] = mvs[k];
+			mvs[k] = tmp;
+		}
+	}
+}
@@ -23,12 +23,26 @@
  ******************************************************************************/
 package tlc2.value.impl;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.Test;
 
 import tlc2.TLCGlobals;
+import tlc2.util.FP64;
+import tlc2.value.ValueInputStream;
+import tlc2.value.ValueOutputStream;
 import tlc2.value.impl.IntervalValue;
 import tlc2.value.impl.SetOfTuplesValue;
 import tlc2.value.impl.TupleValue;
@@ -70,4 +84,132 @@ public class TupleValueTest {
             assertTrue(ex.getMessage().contains("Attempted to access tuple with 2 arguments when it expects 1."));
         }
     }
+
+    private static Value[] ints(final int from, final int to) {
+        final Value[] vals = new Value[to - from];
+        for (int i = from; i < to; i++) {
+            vals[i - from] = IntValue.gen(i);
+        }
+        return vals;
+    }
+
+    /* Asserts that the (possibly shared) tuple is indistinguishable from the flat one. */
+    private static void assertSameTuple(final TupleValue expected, final TupleValue actual) throws IOException {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(0, expected.compareTo(actual));
+        assertEquals(0, actual.compareTo(expected));
+        assertTrue(actual.equals(expected));
+        assertEquals(expected.fingerPrint(FP64.New()), actual.fingerPrint(FP64.New()));
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.toFcnRcd(), actual.toFcnRcd());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getElem(i), actual.getElem(i));
+            assertEquals(expected.apply(IntValue.gen(i + 1), 0), actual.apply(IntValue.gen(i + 1), 0));
+        }
+
+        final File tempFile = File.createTempFile("TupleValueTest", ".vos");
+        tempFile.deleteOnExit();
+        final ValueOutputStream out = new ValueOutputStream(tempFile);
+        actual.write(out);
+        out.close();
+        final ValueInputStream in = new ValueInputStream(tempFile);
+        assertEquals(0, expected.compareTo(in.read()));
+        in.close();
+    }
+
+    @Test
+    public void testAppend() throws IOException {
+        TupleValue seq = TupleValue.EmptyTuple;
+        for (int i = 0; i < 1000; i++) {
+            seq = seq.append(IntValue.gen(i));
+            assertSameTuple(new TupleValue(ints(0, i + 1)), seq);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    @Test
+    public void testElems() {
+        final Value[] vals = ints(0, 100);
+        final TupleValue seq = new TupleValue(vals);
+        assertSame(vals, seq.elems);
+
+        // Short sequences are always backed by an array of exactly their length.
+        TupleValue small = TupleValue.EmptyTuple;
+        for (int i = 0; i < 20; i++) {
+            small = small.append(IntValue.gen(i));
+            assertArrayEquals(ints(0, i + 1), small.elems);
+        }
+
+        final TupleValue appended = seq.append(IntValue.gen(100));
+        if (TupleValue.SHARE) {
+            // A long sequence shares its backing array.
+            assertNull(appended.elems);
+        } else {
+            assertArrayEquals(ints(0, 101), appended.elems);
+            assertArrayEquals(ints(50, 101), appended.subSeq(50, 101).elems);
+        }
+    }
+
+    @Test
+    public void testAppendToSameTuple() throws IOException {
+        TupleValue seq = new TupleValue(ints(0, 100));
+        seq = seq.append(IntValue.gen(100));
+
+        // Both appends extend seq, only the first one may do so in place.
+        final TupleValue a = seq.append(IntValue.gen(-1));
+        final TupleValue b = seq.append(IntValue.gen(-2));
+
+        final Value[] expected = ints(0, 102);
+        expected[101] = IntValue.gen(-1);
+        assertSameTuple(new TupleValue(expected), a);
+        expected[101] = IntValue.gen(-2);
+        assertSameTuple(new TupleValue(expected), b);
+        assertSameTuple(new TupleValue(ints(0, 101)), seq);
+    }
+
+    @Test
+    public void testAppendConcurrently() throws Exception {
+        final TupleValue seq = new TupleValue(ints(0, 64)).append(IntValue.gen(64));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<Future<TupleValue>> futures = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            final int n = i;
+            futures.add(executor.submit(() -> seq.append(IntValue.gen(-n)).append(IntValue.gen(n))));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            final Value[] expected = ints(0, 67);
+            expected[65] = IntValue.gen(-i);
+            expected[66] = IntValue.gen(i);
+            assertSameTuple(new TupleValue(expected), futures.get(i).get());
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void testSubSeqAndConcat() throws IOException {
+        // A FIFO queue: Append at the end and Tail at the front.
+        TupleValue queue = new TupleValue(ints(0, 50));
+        for (int i = 50; i < 1000; i++) {
+            queue = queue.append(IntValue.gen(i)).subSeq(1, 51);
+            assertSameTuple(new TupleValue(ints(i - 49, i + 1)), queue);
+        }
+
+        final TupleValue prefix = queue.subSeq(0, 40);
+        assertSameTuple(new TupleValue(ints(950, 990)), prefix);
+        assertSameTuple(new TupleValue(ints(950, 960)), queue.subSeq(0, 10));
+        assertSameTuple(new TupleValue(ints(990, 1000)), queue.subSeq(40, 50));
+
+        // prefix ends before the end of queue's backing array, thus concat copies.
+        final TupleValue concat = prefix.concat(new TupleValue(ints(0, 100)));
+        final Value[] expected = new Value[140];
+        System.arraycopy(ints(950, 990), 0, expected, 0, 40);
+        System.arraycopy(ints(0, 100), 0, expected, 40, 100);
+        assertSameTuple(new TupleValue(expected), concat);
+        assertSameTuple(new TupleValue(ints(950, 990)), prefix);
+        assertSameTuple(new TupleValue(ints(950, 1000)), queue);
+
+        assertSameTuple(new TupleValue(ints(0, 280)), new TupleValue(ints(0, 140)).append(IntValue.gen(140))
+                .subSeq(0, 140).concat(new TupleValue(ints(140, 280))));
+    }
 }